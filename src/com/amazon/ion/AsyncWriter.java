@@ -0,0 +1,56 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+
+/**
+ * An {@link IonWriter} facet providing the ability to close a writer that
+ * writes its output in the background without waiting for the output to be
+ * written.
+ * <p>
+ * <b>WARNING:</b> This interface should not be implemented or extended by
+ * code outside of this library.
+ * <p>
+ * This functionality may be accessed as a facet of the binary
+ * {@link IonWriter}s built by an
+ * {@link com.amazon.ion.system.IonBinaryWriterBuilder} with an
+ * {@linkplain com.amazon.ion.system.IonBinaryWriterBuilder#setAsyncExecutor
+ * asynchronous executor}. Such writers hand their data to the executor each
+ * time it is {@linkplain IonWriter#finish() finished}, and their
+ * {@link IonWriter#close()} waits until the data has been written and the
+ * stream closed.
+ */
+public interface AsyncWriter
+{
+    /**
+     * Finishes and closes this writer, queueing the close of its stream
+     * after the data written so far. Closing the writer again has no
+     * effect; this may be called after the writer is closed to get the
+     * outcome of its stream.
+     *
+     * @return a future that completes once all of the data has been written
+     * and the stream has been closed, or fails with the first error writing
+     * to the stream.
+     *
+     * @throws IOException if finishing the writer fails, including because
+     * an earlier write to the stream failed. The stream is closed all the
+     * same.
+     */
+    public Future<Void> closeAsync()
+        throws IOException;
+}
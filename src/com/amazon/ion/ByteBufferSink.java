@@ -0,0 +1,56 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A destination for Ion binary data that receives the writer's buffers
+ * themselves, rather than copies of them.
+ * <p>
+ * Binary {@link IonWriter}s built over a sink by
+ * {@link com.amazon.ion.system.IonBinaryWriterBuilder#build(ByteBufferSink)}
+ * buffer their data in blocks, and when the data is
+ * {@linkplain IonWriter#finish() finished}, hand the sink a list of buffers
+ * over those blocks, in order, with no intermediate copy. This suits
+ * destinations that accept such lists directly, such as a
+ * {@link java.nio.channels.GatheringByteChannel} or a network framework's
+ * composite buffers.
+ */
+public interface ByteBufferSink
+    extends Closeable, Flushable
+{
+    /**
+     * Consumes the bytes between the position and the limit of each of
+     * {@code length} buffers, starting at {@code buffers[offset]}.
+     * <p>
+     * The buffers are backed by the writer's blocks, which it reuses for
+     * the data written after this call, so they are only valid until it
+     * returns. Implementations must consume or copy the data before
+     * returning, and must not modify it.
+     *
+     * @param buffers the data to consume.
+     * @param offset the index of the first buffer to consume.
+     * @param length the number of buffers to consume.
+     *
+     * @throws IOException if the data can't be consumed.
+     */
+    public void write(ByteBuffer[] buffers, int offset, int length)
+        throws IOException;
+}
@@ -299,6 +299,30 @@ public class Decimal
         return ibd;
     }
 
+    /**
+     * Translates a character array representation of a decimal into a
+     * {@link Decimal}, accepting the same sequence of characters as the
+     * {@link #valueOf(String)} method. This avoids creating a {@link String}
+     * when the characters are already in a buffer.
+     *
+     * @param in the characters that are the source of the decimal.
+     * @param offset the first character to parse.
+     * @param len the number of characters to parse.
+     *
+     * @throws NumberFormatException if the characters aren't a valid
+     * representation of a decimal.
+     */
+    public static Decimal valueOf(char[] in, int offset, int len)
+    {
+        boolean negative = len > 0 && in[offset] == '-';
+        Decimal ibd = new Decimal(in, offset, len);
+        if (negative && ibd.signum() == 0)
+        {
+            ibd = new NegativeZero(ibd.scale());
+        }
+        return ibd;
+    }
+
     public static Decimal valueOf(String val, MathContext mc)
     {
         boolean negative = val.startsWith("-");
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion;
+
+/**
+ * Restricts the fields that an {@link IonReader} surfaces from structs, so
+ * that only the fields of interest are returned by {@link IonReader#next()}.
+ * <p>
+ * <b>WARNING:</b> This interface should not be implemented or extended by
+ * code outside of this library.
+ * <p>
+ * This functionality may be accessed as a facet of binary {@link IonReader}s.
+ * A projection applies to every struct at a given depth, where the depth is
+ * the one reported by {@link IonReader#getDepth()} while reading the struct's
+ * fields; the fields of top-level structs are at depth 1. Other fields are
+ * skipped using their encoded length, without looking at their contents or
+ * resolving their names, so their annotations and values are never read.
+ * Fields are matched by symbol ID, and a projection by name is resolved
+ * against the current symbol table only when the reader steps into a struct
+ * after the table has changed.
+ * <p>
+ * A projection takes effect the next time the reader steps into a struct at
+ * its depth, or immediately if the reader is already in one. Lists, sexps,
+ * and the structs at other depths are unaffected.
+ */
+public interface FieldProjection
+{
+    /**
+     * Surfaces only the fields with the given names from structs at the
+     * given depth, replacing any projection already set for that depth.
+     * A field name that is declared more than once by the symbol table only
+     * matches the symbol ID returned by {@link SymbolTable#findSymbol(String)}.
+     *
+     * @param depth the depth of the fields to project; must be at least 1.
+     * @param fieldNames the names of the fields to surface; must not be
+     * null, nor contain null.
+     */
+    public void projectFields(int depth, String... fieldNames);
+
+    /**
+     * Surfaces only the fields with the given symbol IDs from structs at the
+     * given depth, replacing any projection already set for that depth.
+     * Unlike {@link #projectFields(int, String...)} this never consults the
+     * symbol table, so the IDs must match those used by the data.
+     *
+     * @param depth the depth of the fields to project; must be at least 1.
+     * @param fieldIds the symbol IDs of the fields to surface; must not be
+     * null.
+     */
+    public void projectFieldIds(int depth, int... fieldIds);
+
+    /**
+     * Surfaces all the fields of structs at the given depth.
+     *
+     * @param depth the depth of the fields to stop projecting.
+     */
+    public void clearProjection(int depth);
+}
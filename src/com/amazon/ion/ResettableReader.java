@@ -0,0 +1,54 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion;
+
+/**
+ * An {@link IonReader} facet providing the ability to re-point the reader at
+ * new input, so that one reader can decode many small messages without
+ * being rebuilt for each of them.
+ * <p>
+ * <b>WARNING:</b> This interface should not be implemented or extended by
+ * code outside of this library.
+ * <p>
+ * This functionality may be accessed as a facet of binary {@link IonReader}s
+ * built over a byte array.  Resetting keeps the reader's internal buffers,
+ * container stack and UTF-8 decoder; everything else is as if the reader had
+ * just been built over the new input.
+ */
+public interface ResettableReader
+{
+    /**
+     * Re-points this reader at the given Ion binary data.
+     * <p>
+     * After calling this method the reader is positioned before the first
+     * value of the new data, at depth zero, with the system symbol table
+     * in effect; the caller must call {@link IonReader#next() next()} to
+     * begin reading values.
+     * {@link Span}s taken from the previous data can't be used with the
+     * new data.
+     * <p>
+     * The reader retains a reference to the array; it must not be modified
+     * while the reader is using it.
+     *
+     * @param ionBinary must not be null, and must begin with the Ion binary
+     * version marker.
+     * @param offset the position of the first byte of data.
+     * @param length the number of bytes of data.
+     *
+     * @throws IllegalArgumentException if the data isn't Ion binary.
+     */
+    public void reset(byte[] ionBinary, int offset, int length);
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An {@link IonWriter} facet providing the ability to re-point the writer at
+ * a new output stream, so that one writer can encode many small messages
+ * without being rebuilt for each of them.
+ * <p>
+ * <b>WARNING:</b> This interface should not be implemented or extended by
+ * code outside of this library.
+ * <p>
+ * This functionality may be accessed as a facet of the binary
+ * {@link IonWriter}s built by
+ * {@link com.amazon.ion.system.IonBinaryWriterBuilder}.  Resetting keeps the
+ * writer's buffers, container stacks and imported symbol resolver;
+ * everything else is as if the writer had just been built over the new
+ * stream.
+ */
+public interface ResettableWriter
+{
+    /**
+     * Finishes the data written so far to the current stream, then
+     * re-points this writer at the given stream.
+     * <p>
+     * The current stream is flushed but not closed; it remains the
+     * caller's to close. The data written to the new stream begins with
+     * its own Ion version marker, so it can be read on its own.
+     * <p>
+     * If the writer's local symbol table has been made read-only (see
+     * {@link SymbolTable#makeReadOnly()}) and {@code keepSymbolTable} is
+     * true, the table survives the reset: its symbols need not be interned
+     * again, and it is written to the new stream before the first value
+     * that needs it. Otherwise the writer starts over with the symbol
+     * table it was built with.
+     *
+     * @param out the stream that will receive Ion data. Must not be null.
+     * @param keepSymbolTable whether a read-only local symbol table should
+     * be kept for the new stream.
+     *
+     * @throws IllegalStateException if the writer is closed, isn't at
+     * top-level, or has annotations set for a value it hasn't yet written.
+     * @throws IOException if finishing the current stream fails.
+     */
+    public void reset(OutputStream out, boolean keepSymbolTable)
+        throws IOException;
+}
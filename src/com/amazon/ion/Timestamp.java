@@ -961,6 +961,11 @@ public final class Timestamp
             throw fail(in);
         }
 
+        Timestamp fixed = read_fixed_layout(in, length);
+        if (fixed != null) {
+            return fixed;
+        }
+
         int year  = 1;
         int month = 1;
         int day   = 1;
@@ -1115,6 +1120,115 @@ public final class Timestamp
         return ts;
     }
 
+    /**
+     * Parses the most common layout, {@code yyyy-mm-ddThh:mm:ss[.fff...]}
+     * followed by {@code Z} or a {@code +hh:mm}/{@code -hh:mm} offset,
+     * reading the ASCII digits at their fixed positions.  Fractional seconds
+     * of up to 9 digits are made from a long rather than by parsing a
+     * {@link BigDecimal}.
+     * <p>
+     * The fields are validated by the same constructor as for the general
+     * parser.  Any input that the general parser would reject, or would need
+     * to look at more closely, gives null here so that the general parser
+     * reports it.
+     *
+     * @return the timestamp, or null if the input has some other layout.
+     */
+    private static Timestamp read_fixed_layout(CharSequence in, int length)
+    {
+        if (length <= END_OF_SECONDS
+            || in.charAt(END_OF_YEAR) != '-'
+            || in.charAt(END_OF_MONTH) != '-'
+            || in.charAt(END_OF_DAY) != 'T'
+            || in.charAt(13) != ':'
+            || in.charAt(END_OF_MINUTES) != ':')
+        {
+            return null;
+        }
+        int year    = read_fixed_digits(in, 0, 4);
+        int month   = read_fixed_digits(in, END_OF_YEAR + 1, 2);
+        int day     = read_fixed_digits(in, END_OF_MONTH + 1, 2);
+        int hour    = read_fixed_digits(in, END_OF_DAY + 1, 2);
+        int minute  = read_fixed_digits(in, 14, 2);
+        int seconds = read_fixed_digits(in, 17, 2);
+        if ((year | month | day | hour | minute | seconds) < 0) {
+            return null;
+        }
+
+        int pos = END_OF_SECONDS;
+        BigDecimal fraction = null;
+        if (in.charAt(pos) == '.') {
+            int start = ++pos;
+            long digits = 0;
+            while (pos < length) {
+                char c = in.charAt(pos);
+                if (c < '0' || c > '9') break;
+                digits = digits * 10 + (c - '0');
+                pos++;
+                if (pos - start > 9) break;
+            }
+            int count = pos - start;
+            if (count == 0 || count > 9) {
+                return null;
+            }
+            fraction = BigDecimal.valueOf(digits, count);
+        }
+
+        if (pos >= length) {
+            return null;
+        }
+        Integer offset;
+        char timezone_start = in.charAt(pos);
+        if (timezone_start == 'Z') {
+            offset = 0;
+            pos++;
+        }
+        else if ((timezone_start == '+' || timezone_start == '-')
+                 && length >= pos + 6
+                 && in.charAt(pos + 3) == ':')
+        {
+            int tzdHours   = read_fixed_digits(in, pos + 1, 2);
+            int tzdMinutes = read_fixed_digits(in, pos + 4, 2);
+            if (tzdHours < 0 || tzdHours > 23 || tzdMinutes < 0 || tzdMinutes > 59) {
+                return null;
+            }
+            int temp = tzdHours * 60 + tzdMinutes;
+            if (timezone_start == '-') {
+                // -00:00 is an unknown offset
+                offset = (temp == 0) ? null : Integer.valueOf(-temp);
+            }
+            else {
+                offset = temp;
+            }
+            pos += 6;
+        }
+        else {
+            return null;
+        }
+        if (pos != length) {
+            return null;
+        }
+
+        return new Timestamp(Precision.SECOND, year, month, day,
+                             hour, minute, seconds, fraction, offset, APPLY_OFFSET_YES);
+    }
+
+    /**
+     * @return the value of the ASCII digits, or -1 if there's anything else.
+     */
+    private static int read_fixed_digits(CharSequence in, int start, int length)
+    {
+        int value = 0;
+        for (int ii = start; ii < start + length; ii++) {
+            int digit = in.charAt(ii) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
     private static int read_digits(CharSequence in, int start, int length,
                                    int terminator, String field)
     {
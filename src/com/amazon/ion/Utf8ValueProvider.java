@@ -0,0 +1,83 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion;
+
+/**
+ * Provides access to the UTF-8 encoded text of the current value of a
+ * binary {@link IonReader} without decoding it into a {@link String}.
+ * <p>
+ * <b>WARNING:</b> This interface should not be implemented or extended by
+ * code outside of this library.
+ * <p>
+ * This functionality may be accessed as a facet of binary {@link IonReader}s
+ * built over a byte array.  The bytes of a string are exposed in place, as
+ * an offset and length into the reader's buffer; they must not be modified.
+ * The text of a symbol isn't stored in the input, so symbols only support
+ * {@link #utf8Equals} and {@link #utf8HashCode}, which encode the symbol's
+ * text as they go rather than allocating.
+ */
+public interface Utf8ValueProvider
+{
+    /**
+     * @return the byte[] that holds the current string's UTF-8 bytes,
+     * starting at {@link #utf8Offset()}. NOTE: does NOT perform a copy.
+     *
+     * @throws IllegalStateException if the reader isn't positioned on a
+     * non-null string.
+     */
+    public byte[] utf8Buffer();
+
+    /**
+     * @return the position in {@link #utf8Buffer()} of the first byte of the
+     * current string.
+     *
+     * @throws IllegalStateException if the reader isn't positioned on a
+     * non-null string.
+     */
+    public int utf8Offset();
+
+    /**
+     * @return the number of UTF-8 bytes in the current string.
+     *
+     * @throws IllegalStateException if the reader isn't positioned on a
+     * non-null string.
+     */
+    public int utf8Length();
+
+    /**
+     * Compares the text of the current string or symbol with the given
+     * UTF-8 bytes.
+     *
+     * @return true if the text is encoded by exactly the given bytes;
+     * false if it isn't, or if the current symbol has unknown text.
+     *
+     * @throws IllegalStateException if the reader isn't positioned on a
+     * non-null string or symbol.
+     */
+    public boolean utf8Equals(byte[] utf8, int offset, int length);
+
+    /**
+     * Computes a hash of the UTF-8 encoding of the current string or
+     * symbol.  The result is the same as
+     * {@link java.util.Arrays#hashCode(byte[])} of an array holding exactly
+     * those bytes, so callers can hash their keys the same way.
+     *
+     * @throws IllegalStateException if the reader isn't positioned on a
+     * non-null string or symbol.
+     * @throws UnknownSymbolException if the current symbol has unknown text.
+     */
+    public int utf8HashCode();
+}
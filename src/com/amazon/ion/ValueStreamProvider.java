@@ -0,0 +1,61 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Provides streaming access to the content of the current string, blob or
+ * clob of an {@link IonReader}, decoding it from the reader's input as it's
+ * read rather than loading all of it first.
+ * <p>
+ * <b>WARNING:</b> This interface should not be implemented or extended by
+ * code outside of this library.
+ * <p>
+ * This functionality may be accessed as a facet of both text and binary
+ * {@link IonReader}s. A stream only avoids loading the value when it's
+ * created before any other method (such as {@link IonReader#stringValue()}
+ * or {@link IonReader#newBytes()}) has read the value, and from then on the
+ * value may only be read through the stream. Otherwise, a string's stream is
+ * over its loaded text, and a lob's stream has the bytes that
+ * {@link IonReader#newBytes()} would still return. A stream is only usable
+ * until the reader moves on from its value, at which point any content that
+ * hasn't been read is skipped.
+ */
+public interface ValueStreamProvider
+{
+    /**
+     * Creates a reader over the text of the current string.
+     *
+     * @return a new reader; not null.
+     *
+     * @throws IllegalStateException if the reader isn't positioned on a
+     * non-null string, or a stream over the value has already been created.
+     */
+    public Reader newStringReader();
+
+    /**
+     * Creates an input stream over the bytes of the current blob or clob.
+     *
+     * @return a new input stream; not null.
+     *
+     * @throws IllegalStateException if the reader isn't positioned on a
+     * non-null blob or clob, or a stream over the value has already been
+     * created.
+     */
+    public InputStream newLobInputStream();
+}
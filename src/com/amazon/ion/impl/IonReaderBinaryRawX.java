@@ -59,6 +59,8 @@ abstract class IonReaderBinaryRawX
     static final int DEFAULT_ANNOTATION_SIZE = 10;
     static final int NO_LIMIT = Integer.MIN_VALUE;
     static final int UTF8_BUFFER_SIZE_IN_BYTES = 4 * 1024;
+    // coefficients of this many bytes or less, less the sign bit, fit in a long
+    static final int MAX_COMPACT_COEFFICIENT_LENGTH = 8;
 
     protected enum State {
         S_INVALID,
@@ -70,6 +72,7 @@ abstract class IonReaderBinaryRawX
     }
     State               _state;
     UnifiedInputStreamX _input;
+    UnifiedInputStreamX.FromIncrementalByteStream _incremental_input; // null unless reading incrementally
     int                 _local_remaining;
     boolean             _eof;
     boolean             _has_next_needed;
@@ -88,6 +91,8 @@ abstract class IonReaderBinaryRawX
     long                _value_start;
     int                 _value_lob_remaining;
     boolean             _value_lob_is_ready;
+    /** Whether the current string or lob is being read as a stream. */
+    boolean             _value_is_streamed;
 
     long                _position_start;
     long                _position_len;
@@ -104,6 +109,12 @@ abstract class IonReaderBinaryRawX
     int                 _container_top;
     long[]              _container_stack; // triples of: position, type, local_end
 
+    /**
+     * The SIDs of the only fields to surface from the current struct, or
+     * null to surface them all.
+     */
+    int[]               _projected_field_ids;
+
 
     // `StandardCharsets.UTF_8` wasn't introduced until Java 7, so we have to use Charset#forName(String) instead.
     private static final Charset UTF8 = Charset.forName("UTF-8");
@@ -130,6 +141,9 @@ abstract class IonReaderBinaryRawX
 
     protected final void init_raw(UnifiedInputStreamX uis) {
         _input = uis;
+        if (uis instanceof UnifiedInputStreamX.FromIncrementalByteStream) {
+            _incremental_input = (UnifiedInputStreamX.FromIncrementalByteStream) uis;
+        }
         _container_stack = new long[DEFAULT_CONTAINER_STACK_SIZE];
         _annotations = uis.savePointAllocate();
         _v = new ValueVariant();
@@ -156,6 +170,7 @@ abstract class IonReaderBinaryRawX
         _value_start = 0;
         _value_lob_remaining = 0;
         _value_lob_is_ready = false;
+        _value_is_streamed = false;
 
         _annotation_count = 0;
 
@@ -163,12 +178,17 @@ abstract class IonReaderBinaryRawX
         _struct_is_ordered = false;
         _parent_tid = 0;
         _container_top = 0;
+        _projected_field_ids = null;
     }
 
     public void close()
         throws IOException
     {
+        boolean truncated = (_incremental_input != null && _incremental_input.hasPartialValue());
         _input.close();
+        if (truncated) {
+            throw new IonException("Unexpected EOF: the input ended in the middle of a top-level value");
+        }
     }
 
     static private final int  POS_OFFSET        = 0;
@@ -217,8 +237,21 @@ abstract class IonReaderBinaryRawX
         assert(_container_top > 0);
         _container_top -= POS_STACK_STEP;
     }
+    /**
+     * When reading incrementally an EOF at the top-level only means that
+     * the next value hasn't (completely) arrived yet, so the next call to
+     * {@link #hasNext()} or {@link #next()} has to look again.
+     */
+    final void resume_incremental()
+    {
+        if (_eof && _incremental_input != null && getDepth() == 0) {
+            _eof = false;
+            _has_next_needed = true;
+        }
+    }
     public boolean hasNext()
     {
+        resume_incremental();
         if (!_eof && _has_next_needed) {
             try {
                 has_next_helper_raw();
@@ -231,6 +264,7 @@ abstract class IonReaderBinaryRawX
     }
     public IonType next()
     {
+        resume_incremental();
         if (_eof) {
             return null;
         }
@@ -269,8 +303,19 @@ abstract class IonReaderBinaryRawX
                     _eof = true;
                     break;
                 }
+                if (_projected_field_ids != null
+                    && !is_projected_field(_value_field_id)) {
+                    skip_field_value();
+                    break;
+                }
                 // fall through to try to read the type id right now
             case S_BEFORE_TID:
+                if (_incremental_input != null && getDepth() == 0
+                    && !_incremental_input.fillTopLevelValue()) {
+                    // not EOF, just not there yet - we stay before the tid
+                    _eof = true;
+                    break;
+                }
                 _state = State.S_BEFORE_VALUE; // read_type_id may change this for null and bool values
                 _value_tid = read_type_id();
                 if (_value_tid == UnifiedInputStreamX.EOF) {
@@ -340,6 +385,40 @@ abstract class IonReaderBinaryRawX
         _has_next_needed = false;
         return;
     }
+    private final boolean is_projected_field(int field_id)
+    {
+        int[] ids = _projected_field_ids;
+        for (int ii=0; ii<ids.length; ii++) {
+            if (ids[ii] == field_id) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Skips the value of a field that isn't projected using only its type
+     * descriptor and length, so annotations are never read.  Leaves the
+     * reader before the next field.
+     */
+    private final void skip_field_value() throws IOException
+    {
+        int tid = read_type_id();
+        if (tid == UnifiedInputStreamX.EOF) {
+            throwErrorAt("unexpected EOF encountered where a type descriptor byte was expected");
+        }
+        skip(_value_len);
+        clear_value();
+        _state = State.S_BEFORE_FIELD;
+    }
+    /**
+     * @return the SIDs of the only fields to surface from structs at the
+     * given depth, or null to surface every field.  This implementation
+     * always returns null.
+     */
+    int[] projected_field_ids(int depth)
+    {
+        return null;
+    }
     private final void load_version_marker() throws IOException
     {
         for (int ii=1; ii<_Private_IonConstants.BINARY_VERSION_MARKER_1_0.length; ii++) {
@@ -358,6 +437,7 @@ abstract class IonReaderBinaryRawX
         // _value_type = IonType.SYMBOL;  we do this in the caller so it's easier to see
         _value_is_null = false;
         _value_lob_is_ready = false;
+        _value_is_streamed = false;
         _annotations.clear();
         _value_field_id = SymbolTable.UNKNOWN_SYMBOL_ID;
         _state = State.S_AFTER_VALUE;
@@ -449,6 +529,7 @@ abstract class IonReaderBinaryRawX
         _value_tid  = -1;
         _value_is_null = false;
         _value_lob_is_ready = false;
+        _value_is_streamed = false;
         _annotations.clear();
         _v.clear();
         _annotation_count = 0;
@@ -628,6 +709,7 @@ abstract class IonReaderBinaryRawX
         }
         push(_parent_tid, next_position, next_remaining);
         _is_in_struct = (_value_tid == _Private_IonConstants.tidStruct);
+        _projected_field_ids = _is_in_struct ? projected_field_ids(getDepth()) : null;
         _local_remaining = _value_len;
         _state = _is_in_struct ? State.S_BEFORE_FIELD : State.S_BEFORE_TID;
         _parent_tid = _value_tid;
@@ -651,10 +733,12 @@ abstract class IonReaderBinaryRawX
         if (_parent_tid == _Private_IonConstants.tidStruct) {
             _is_in_struct = true;
             _state = State.S_BEFORE_FIELD;
+            _projected_field_ids = projected_field_ids(getDepth());
         }
         else {
             _is_in_struct = false;
             _state = State.S_BEFORE_TID;
+            _projected_field_ids = null;
         }
         _has_next_needed = true;
 
@@ -698,6 +782,9 @@ abstract class IonReaderBinaryRawX
         default:
             throw new IllegalStateException("only valid for LOB values");
         }
+        if (_value_is_streamed) {
+            throw new IllegalStateException("the " + _value_type + " is being read as a stream");
+        }
         if (!_value_lob_is_ready) {
             if (_value_is_null) {
                 len = 0;
@@ -757,6 +844,52 @@ abstract class IonReaderBinaryRawX
         }
         return read_len;
     }
+    /**
+     * Marks the current string or lob as being read as a stream.  From
+     * then on it can't be loaded, and it can't be streamed a second time.
+     */
+    final void startValueContent()
+    {
+        if (!_value_lob_is_ready) {
+            _value_lob_remaining = _value_is_null ? 0 : _value_len;
+            _value_lob_is_ready = true;
+        }
+        _value_is_streamed = true;
+    }
+    /**
+     * Reads the bytes of the current string or lob directly from the input,
+     * for streaming; {@link #startValueContent()} must have been called.
+     *
+     * @return the number of bytes read, or -1 at the end of the value.
+     */
+    final int readValueContent(byte[] buffer, int offset, int len)
+    {
+        assert _value_is_streamed;
+        if (_value_lob_remaining == 0) {
+            return -1;
+        }
+        if (len > _value_lob_remaining) {
+            len = _value_lob_remaining;
+        }
+        int read_len = -1;
+        try {
+            read_len = read(buffer, offset, len);
+            if (read_len <= 0) {
+                throwUnexpectedEOFException();
+            }
+        }
+        catch (IOException e) {
+            error(e);
+        }
+        _value_lob_remaining -= read_len;
+        if (_value_lob_remaining == 0) {
+            _state = State.S_AFTER_VALUE;
+        }
+        else {
+            _value_len = _value_lob_remaining;
+        }
+        return read_len;
+    }
     public int getDepth()
     {
         return (_container_top / POS_STACK_STEP);
@@ -1087,39 +1220,88 @@ abstract class IonReaderBinaryRawX
             }
             _local_remaining = len;
             int  exponent = readVarInt();
-            BigInteger value;
-            int signum;
-            if (_local_remaining > 0)
+            // Ion stores exponent, BigDecimal uses the negation "scale"
+            bd = read_decimal_coefficient(-exponent, mathContext);
+            _local_remaining = save_limit;
+        }
+        return bd;
+    }
+
+    /**
+     * Reads the rest of the current decimal, its coefficient, which
+     * occupies the remaining local length.
+     */
+    private final Decimal read_decimal_coefficient(int scale, MathContext mathContext) throws IOException
+    {
+        BigInteger value;
+        int signum;
+        if (_local_remaining > 0)
+        {
+            byte[] bits = new byte[_local_remaining];
+            readAll(bits, 0, _local_remaining);
+            signum = 1;
+            if (bits[0] < 0)
             {
-                byte[] bits = new byte[_local_remaining];
-                readAll(bits, 0, _local_remaining);
-                signum = 1;
-                if (bits[0] < 0)
-                {
-                    // value is negative, clear the sign
-                    bits[0] &= 0x7F;
-                    signum = -1;
-                }
-                value = new BigInteger(signum, bits);
+                // value is negative, clear the sign
+                bits[0] &= 0x7F;
+                signum = -1;
             }
-            else {
-                signum = 0;
-                value = BigInteger.ZERO;
+            value = new BigInteger(signum, bits);
+        }
+        else {
+            signum = 0;
+            value = BigInteger.ZERO;
+        }
+        if (value.signum() == 0 && signum == -1)
+        {
+            assert value.equals(BigInteger.ZERO);
+            return Decimal.negativeZero(scale, mathContext);
+        }
+        return Decimal.valueOf(value, scale, mathContext);
+    }
+
+    /**
+     * Reads a decimal into the value variant.  When the coefficient is 8
+     * bytes or less, so that its magnitude fits in a long, this holds the
+     * unscaled value and scale and doesn't allocate; the {@link Decimal}
+     * is only built when the caller asks for one.
+     */
+    protected final void readDecimalValue(int len) throws IOException
+    {
+        if (len == 0) {
+            _v.setCompactDecimalValue(0, 0);
+            return;
+        }
+        int save_limit = NO_LIMIT;
+        if (_local_remaining != NO_LIMIT) {
+            save_limit = _local_remaining - len;
+        }
+        _local_remaining = len;
+        int  exponent = readVarInt();
+        int  scale = -exponent;
+        if (_local_remaining > MAX_COMPACT_COEFFICIENT_LENGTH) {
+            _v.setValue(read_decimal_coefficient(scale, MathContext.UNLIMITED));
+        }
+        else if (_local_remaining == 0) {
+            _v.setCompactDecimalValue(0, scale);
+        }
+        else {
+            int b = read();
+            if (b < 0) throwUnexpectedEOFException();
+            boolean is_negative = ((b & 0x80) != 0);
+            long magnitude = b & 0x7F;
+            while (_local_remaining > 0) {
+                if ((b = read()) < 0) throwUnexpectedEOFException();
+                magnitude = (magnitude << 8) | b;
             }
-            // Ion stores exponent, BigDecimal uses the negation "scale"
-            int scale = -exponent;
-            if (value.signum() == 0 && signum == -1)
-            {
-                assert value.equals(BigInteger.ZERO);
-                bd = Decimal.negativeZero(scale, mathContext);
+            if (magnitude == 0 && is_negative) {
+                _v.setValue(Decimal.negativeZero(scale, MathContext.UNLIMITED));
             }
-            else
-            {
-                bd = Decimal.valueOf(value, scale, mathContext);
+            else {
+                _v.setCompactDecimalValue(is_negative ? -magnitude : magnitude, scale);
             }
-            _local_remaining = save_limit;
         }
-        return bd;
+        _local_remaining = save_limit;
     }
 
     /**
@@ -191,7 +191,12 @@ class IonReaderBinarySystemX
             else if (_value_len <= MAX_BINARY_LENGTH_LONG) {
                 long v = readULong(_value_len);
 
-                if (v < 0) {
+                if (v == Long.MIN_VALUE && is_negative) {
+                    // a magnitude of exactly 2^63 is Long.MIN_VALUE when negated
+                    _v.setValue(v);
+                    _v.setAuthoritativeType(AS_TYPE.long_value);
+                }
+                else if (v < 0) {
                     // we probably can't fit this magnitude properly into a Java long
                     int signum = !is_negative ? 1 : -1;
                     BigInteger big = IonBinary.unsignedLongToBigInteger(signum, v);
@@ -239,8 +244,7 @@ class IonReaderBinarySystemX
             _v.setAuthoritativeType(AS_TYPE.double_value);
             break;
         case DECIMAL:
-            Decimal dec = readDecimal(_value_len);
-            _v.setValue(dec);
+            readDecimalValue(_value_len);
             _v.setAuthoritativeType(AS_TYPE.decimal_value);
             break;
         case TIMESTAMP:
@@ -265,6 +269,9 @@ class IonReaderBinarySystemX
             _v.setAuthoritativeType(AS_TYPE.int_value);
             break;
         case STRING:
+            if (_value_is_streamed) {
+                throw new IllegalStateException("the string is being read as a stream");
+            }
             String s = readString(_value_len);
             _v.setValue(s);
             _v.setAuthoritativeType(AS_TYPE.string_value);
@@ -273,6 +280,23 @@ class IonReaderBinarySystemX
         _state = State.S_AFTER_VALUE;
     }
 
+    /**
+     * Copies the UTF-8 bytes of the current string into the given symbol
+     * text instead of decoding them.  This consumes the value, so it can't
+     * be read again; it's only used for the symbols of a local symbol table.
+     */
+    final void copyStringUtf8(LazySymbolText symbols)
+    {
+        try {
+            int offset = symbols.reserve(_value_len);
+            readAll(symbols.bytes(), offset, _value_len);
+        }
+        catch (IOException e) {
+            error(e);
+        }
+        _state = State.S_AFTER_VALUE;
+    }
+
     //
     // public value routines
     //
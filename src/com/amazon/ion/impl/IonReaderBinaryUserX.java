@@ -20,20 +20,30 @@ import static com.amazon.ion.SymbolTable.UNKNOWN_SYMBOL_ID;
 import static com.amazon.ion.SystemSymbols.ION_1_0_SID;
 import static com.amazon.ion.SystemSymbols.ION_SYMBOL_TABLE_SID;
 
+import com.amazon.ion.FieldProjection;
 import com.amazon.ion.IonCatalog;
 import com.amazon.ion.IonType;
 import com.amazon.ion.OffsetSpan;
 import com.amazon.ion.RawValueSpanProvider;
+import com.amazon.ion.ResettableReader;
 import com.amazon.ion.SeekableReader;
 import com.amazon.ion.Span;
 import com.amazon.ion.SpanProvider;
 import com.amazon.ion.SymbolTable;
 import com.amazon.ion.SymbolToken;
 import com.amazon.ion.UnknownSymbolException;
+import com.amazon.ion.Utf8ValueProvider;
+import com.amazon.ion.ValueStreamProvider;
 import com.amazon.ion.impl.UnifiedInputStreamX.FromByteArray;
 import com.amazon.ion.impl.UnifiedSavePointManagerX.SavePoint;
 import com.amazon.ion.impl._Private_ScalarConversions.AS_TYPE;
+import com.amazon.ion.util.IonStreamUtils;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
 import java.util.Iterator;
 
 final class IonReaderBinaryUserX
@@ -45,11 +55,53 @@ final class IonReaderBinaryUserX
      * It must be subtracted from the logical offsets exposed by
      * {@link OffsetSpan}s.
      */
-    private final int _physical_start_offset;
+    private int _physical_start_offset;
     private final _Private_LocalSymbolTableFactory _lstFactory;
 
     IonCatalog  _catalog;
 
+    /**
+     * The field projections set through {@link FieldProjection}, indexed by
+     * depth; null until one is set.
+     */
+    private Projection[] _projections;
+
+    /**
+     * The fields to surface from structs at one depth.  A projection by name
+     * caches the SIDs of its names along with the symbol table, and its
+     * size, that they were resolved against.
+     */
+    private static final class Projection
+    {
+        final String[] _names;
+        int[]          _ids;
+        SymbolTable    _resolved_symbols;
+        int            _resolved_max_id;
+
+        Projection(String[] names, int[] ids)
+        {
+            _names = names;
+            _ids = ids;
+        }
+
+        int[] ids(SymbolTable symbols)
+        {
+            if (_names != null
+                && (_resolved_symbols != symbols
+                    || _resolved_max_id != symbols.getMaxId()))
+            {
+                int[] ids = new int[_names.length];
+                for (int ii = 0; ii < _names.length; ii++) {
+                    ids[ii] = symbols.findSymbol(_names[ii]);
+                }
+                _ids = ids;
+                _resolved_symbols = symbols;
+                _resolved_max_id = symbols.getMaxId();
+            }
+            return _ids;
+        }
+    }
+
     private static class IonReaderBinarySpan
         extends DowncastingFaceted
         implements Span, OffsetSpan
@@ -94,6 +146,15 @@ final class IonReaderBinaryUserX
         _lstFactory = lstFactory;
     }
 
+    /**
+     * Reads the values that follow in the context of the given symbol table,
+     * as if the data had declared it.
+     */
+    final void init_symbol_table(SymbolTable symbols)
+    {
+        _symbols = symbols;
+    }
+
     //FIXME: PERF_TEST was :private
     final void init_user(IonCatalog catalog)
     {
@@ -200,6 +261,28 @@ final class IonReaderBinaryUserX
 //        _is_in_struct = false;
     }
 
+    /**
+     * Re-points this reader at a new array of Ion binary data, keeping the
+     * input stream, its page and save points, the container stack, the
+     * annotation buffers and the UTF-8 decoder of the previous use.
+     */
+    final void reset(byte[] bytes, int offset, int length)
+    {
+        if (!IonStreamUtils.isIonBinary(bytes, offset, length))
+        {
+            throw new IllegalArgumentException("Reset data isn't Ion binary");
+        }
+
+        FromByteArray input = (FromByteArray)_input;
+        input.reset(bytes, offset, length);
+        _annotations.clear();
+        _physical_start_offset = offset;
+
+        re_init_raw();
+        clear_system_value_stack();
+        init_user(this._catalog);
+    }
+
 
     @Override
     public IonType next()
@@ -215,6 +298,7 @@ final class IonReaderBinaryUserX
     @Override
     public boolean hasNext()
     {
+        resume_incremental();
         if (!_eof && _has_next_needed) {
             clear_system_value_stack();
             try {
@@ -249,7 +333,15 @@ final class IonReaderBinaryUserX
             else if (_value_tid == _Private_IonConstants.tidStruct) {
                 int count = load_annotations();
                 if (count > 0 && _annotation_ids[0] == ION_SYMBOL_TABLE_SID) {
-                    _symbols = _lstFactory.newLocalSymtab(_catalog, this, false);
+                    // projections apply to user values, not to the symbol table's fields
+                    Projection[] projections = _projections;
+                    _projections = null;
+                    try {
+                        _symbols = _lstFactory.newLocalSymtab(_catalog, this, false);
+                    }
+                    finally {
+                        _projections = projections;
+                    }
                     push_symbol_table(_symbols);
                     _has_next_needed = true;
                 }
@@ -260,6 +352,37 @@ final class IonReaderBinaryUserX
         }
     }
 
+    @Override
+    int[] projected_field_ids(int depth)
+    {
+        if (_projections == null || depth >= _projections.length) {
+            return null;
+        }
+        Projection projection = _projections[depth];
+        return (projection == null) ? null : projection.ids(_symbols);
+    }
+
+    private void set_projection(int depth, Projection projection)
+    {
+        if (depth < 1) {
+            throw new IllegalArgumentException("projected fields must be at depth 1 or more");
+        }
+        if (_projections == null || depth >= _projections.length) {
+            if (projection == null) {
+                return;
+            }
+            Projection[] temp = new Projection[Math.max(depth + 1, 4)];
+            if (_projections != null) {
+                System.arraycopy(_projections, 0, temp, 0, _projections.length);
+            }
+            _projections = temp;
+        }
+        _projections[depth] = projection;
+        if (isInStruct() && getDepth() == depth) {
+            _projected_field_ids = projected_field_ids(depth);
+        }
+    }
+
     private void validateSymbolToken(SymbolToken symbol) {
         if (symbol != null) {
             if (symbol.getText() == null && symbol.getSid() > getSymbolTable().getMaxId()) {
@@ -343,6 +466,16 @@ final class IonReaderBinaryUserX
             return facetType.cast(new SpanProviderFacet());
         }
 
+        if (facetType == FieldProjection.class)
+        {
+            return facetType.cast(new FieldProjectionFacet());
+        }
+
+        if (facetType == ValueStreamProvider.class)
+        {
+            return facetType.cast(new ValueStreamProviderFacet());
+        }
+
         // TODO amzn/ion-java/issues/17 support seeking over InputStream
         if (_input instanceof FromByteArray)
         {
@@ -354,6 +487,14 @@ final class IonReaderBinaryUserX
             {
                 return facetType.cast(new RawValueSpanProviderFacet());
             }
+            if (facetType == ResettableReader.class)
+            {
+                return facetType.cast(new ResettableReaderFacet());
+            }
+            if (facetType == Utf8ValueProvider.class)
+            {
+                return facetType.cast(new Utf8ValueProviderFacet());
+            }
         }
 
         if (facetType == _Private_ByteTransferReader.class)
@@ -419,6 +560,245 @@ final class IonReaderBinaryUserX
     }
 
 
+    private class FieldProjectionFacet implements FieldProjection
+    {
+        public void projectFields(int depth, String... fieldNames)
+        {
+            String[] names = fieldNames.clone();
+            for (String name : names) {
+                name.getClass(); // fast null check
+            }
+            set_projection(depth, new Projection(names, null));
+        }
+
+        public void projectFieldIds(int depth, int... fieldIds)
+        {
+            set_projection(depth, new Projection(null, fieldIds.clone()));
+        }
+
+        public void clearProjection(int depth)
+        {
+            set_projection(depth, null);
+        }
+    }
+
+
+    private class ResettableReaderFacet implements ResettableReader
+    {
+        public void reset(byte[] ionBinary, int offset, int length)
+        {
+            IonReaderBinaryUserX.this.reset(ionBinary, offset, length);
+        }
+    }
+
+
+    private class ValueStreamProviderFacet implements ValueStreamProvider
+    {
+        public Reader newStringReader()
+        {
+            if (_value_type != IonType.STRING || _value_is_null)
+            {
+                throw new IllegalStateException("IonReader isn't positioned on a non-null string");
+            }
+            if (_value_is_streamed)
+            {
+                throw new IllegalStateException("the string is already being read as a stream");
+            }
+            if (_state != State.S_BEFORE_VALUE)
+            {
+                return new StringReader(stringValue());
+            }
+            startValueContent();
+            return new ValueContentReader(new ValueContentInputStream());
+        }
+
+        public InputStream newLobInputStream()
+        {
+            if (!IonType.isLob(_value_type) || _value_is_null)
+            {
+                throw new IllegalStateException("IonReader isn't positioned on a non-null lob");
+            }
+            if (_value_is_streamed)
+            {
+                throw new IllegalStateException("the " + _value_type + " is already being read as a stream");
+            }
+            startValueContent();
+            return new ValueContentInputStream();
+        }
+    }
+
+    /**
+     * Reads the content of the current value directly from the input.  The
+     * raw reader keeps track of how much is left, so that whatever isn't
+     * read is skipped when the reader moves on.
+     */
+    private class ValueContentInputStream extends InputStream
+    {
+        private final int _value_depth = getDepth();
+        private final long _value_position = _position_start;
+        private final byte[] _single_byte = new byte[1];
+
+        void checkCurrent()
+        {
+            if (getDepth() != _value_depth
+                || _position_start != _value_position
+                || _value_type == null)
+            {
+                throw new IllegalStateException("the reader has moved on from the streamed value");
+            }
+        }
+
+        @Override
+        public int read()
+        {
+            return (read(_single_byte, 0, 1) < 0) ? -1 : (_single_byte[0] & 0xff);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (off < 0 || len < 0 || off + len > b.length)
+            {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0)
+            {
+                return 0;
+            }
+            checkCurrent();
+            return readValueContent(b, off, len);
+        }
+
+        @Override
+        public int available()
+        {
+            checkCurrent();
+            return _value_lob_remaining;
+        }
+    }
+
+    /**
+     * Decodes the UTF-8 content of the current string, reporting malformed
+     * input rather than replacing it.
+     */
+    private static final class ValueContentReader extends Reader
+    {
+        private final ValueContentInputStream _in;
+        private final Reader _decoder;
+
+        ValueContentReader(ValueContentInputStream in)
+        {
+            _in = in;
+            _decoder = new InputStreamReader(in, Charset.forName("UTF-8").newDecoder());
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException
+        {
+            // the decoder reads ahead, so it may not need the stream
+            _in.checkCurrent();
+            return _decoder.read(cbuf, off, len);
+        }
+
+        @Override
+        public void close()
+        {
+            // the rest of the string is skipped when the reader moves on
+        }
+    }
+
+
+    private class Utf8ValueProviderFacet implements Utf8ValueProvider
+    {
+        private void checkString()
+        {
+            if (_value_type != IonType.STRING || _value_is_null)
+            {
+                throw new IllegalStateException("IonReader isn't positioned on a non-null string");
+            }
+        }
+
+        /**
+         * @return the text of the current symbol, or null if it's unknown.
+         */
+        private String symbolText()
+        {
+            prepare_value(AS_TYPE.int_value);
+            return getSymbolTable().findKnownSymbol(_v.getInt());
+        }
+
+        private boolean isSymbol()
+        {
+            if (_value_type == IonType.SYMBOL && !_value_is_null)
+            {
+                return true;
+            }
+            checkString();
+            return false;
+        }
+
+        public byte[] utf8Buffer()
+        {
+            checkString();
+            return _input._bytes;
+        }
+
+        public int utf8Offset()
+        {
+            checkString();
+            return (int) _value_start;
+        }
+
+        public int utf8Length()
+        {
+            checkString();
+            return _value_len;
+        }
+
+        public boolean utf8Equals(byte[] utf8, int offset, int length)
+        {
+            if (isSymbol())
+            {
+                String text = symbolText();
+                return text != null && IonUTF8.utf8Equals(text, utf8, offset, length);
+            }
+            if (length != _value_len)
+            {
+                return false;
+            }
+            byte[] bytes = _input._bytes;
+            int start = (int) _value_start;
+            for (int ii = 0; ii < length; ii++)
+            {
+                if (bytes[start + ii] != utf8[offset + ii]) return false;
+            }
+            return true;
+        }
+
+        public int utf8HashCode()
+        {
+            if (isSymbol())
+            {
+                String text = symbolText();
+                if (text == null)
+                {
+                    throw new UnknownSymbolException(_v.getInt());
+                }
+                return IonUTF8.utf8HashCode(text);
+            }
+            byte[] bytes = _input._bytes;
+            int start = (int) _value_start;
+            int end = start + _value_len;
+            int hash = 1;
+            for (int ii = start; ii < end; ii++)
+            {
+                hash = 31 * hash + bytes[ii];
+            }
+            return hash;
+        }
+    }
+
+
     private class ByteTransferReaderFacet implements _Private_ByteTransferReader
     {
         public void transferCurrentValue(_Private_ByteTransferSink sink)
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import com.amazon.ion.Decimal;
+import com.amazon.ion.IntegerSize;
+import com.amazon.ion.IonCatalog;
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.SymbolTable;
+import com.amazon.ion.SymbolToken;
+import com.amazon.ion.Timestamp;
+import com.amazon.ion.impl.UnifiedInputStreamX.FromIncrementalByteStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.Iterator;
+
+/**
+ * An incremental reader over a stream that hadn't yet delivered enough
+ * bytes to tell binary from text when the reader was built.  Until it can
+ * tell, {@link #next()} returns null at top-level, just as the binary
+ * reader does while a value is incomplete.  The first call that finds the
+ * whole binary version marker, or bytes that can't begin one, picks the
+ * binary or text reader, and everything is passed on to it from then on.
+ * <p>
+ * Facets aren't available until the reader has been picked.
+ *
+ * @see _Private_IonReaderFactory#makeIncrementalReader
+ */
+final class IonReaderIncrementalX
+    implements IonReader, _Private_ReaderWriter
+{
+    private final IonCatalog                       _catalog;
+    private final InputStream                      _stream;
+    private final FromIncrementalByteStream        _input;
+    private final _Private_LocalSymbolTableFactory _lst_factory;
+    private final _Private_TextReaderOptions       _text_options;
+
+    private IonReader _reader;
+
+    IonReaderIncrementalX(IonCatalog catalog,
+                          InputStream stream,
+                          FromIncrementalByteStream input,
+                          _Private_LocalSymbolTableFactory lstFactory,
+                          _Private_TextReaderOptions textOptions)
+    {
+        _catalog = catalog;
+        _stream = stream;
+        _input = input;
+        _lst_factory = lstFactory;
+        _text_options = textOptions;
+    }
+
+    /**
+     * @return true if the binary or text reader has been picked, pulling
+     *  what the stream has ready to try to pick it if it hasn't.
+     */
+    private boolean select_reader()
+    {
+        if (_reader == null) {
+            try {
+                _reader = _Private_IonReaderFactory.selectIncrementalReader(
+                    _catalog, _stream, _input, _lst_factory, _text_options);
+            }
+            catch (IOException e) {
+                throw new IonException(e);
+            }
+        }
+        return _reader != null;
+    }
+
+    private IonReader reader()
+    {
+        if (_reader == null) {
+            throw new IllegalStateException("the reader isn't positioned on a value");
+        }
+        return _reader;
+    }
+
+    public <T> T asFacet(Class<T> facetType)
+    {
+        return (_reader == null) ? null : _reader.asFacet(facetType);
+    }
+
+    @Deprecated
+    public boolean hasNext()
+    {
+        return select_reader() && _reader.hasNext();
+    }
+
+    public IonType next()
+    {
+        return select_reader() ? _reader.next() : null;
+    }
+
+    public void stepIn()
+    {
+        reader().stepIn();
+    }
+
+    public void stepOut()
+    {
+        reader().stepOut();
+    }
+
+    public int getDepth()
+    {
+        return (_reader == null) ? 0 : _reader.getDepth();
+    }
+
+    public SymbolTable getSymbolTable()
+    {
+        return reader().getSymbolTable();
+    }
+
+    public IonType getType()
+    {
+        return (_reader == null) ? null : _reader.getType();
+    }
+
+    public IntegerSize getIntegerSize()
+    {
+        return (_reader == null) ? null : _reader.getIntegerSize();
+    }
+
+    public String[] getTypeAnnotations()
+    {
+        return reader().getTypeAnnotations();
+    }
+
+    public SymbolToken[] getTypeAnnotationSymbols()
+    {
+        return reader().getTypeAnnotationSymbols();
+    }
+
+    public Iterator<String> iterateTypeAnnotations()
+    {
+        return reader().iterateTypeAnnotations();
+    }
+
+    @Deprecated
+    public int getFieldId()
+    {
+        return reader().getFieldId();
+    }
+
+    public String getFieldName()
+    {
+        return reader().getFieldName();
+    }
+
+    public SymbolToken getFieldNameSymbol()
+    {
+        return reader().getFieldNameSymbol();
+    }
+
+    public boolean isNullValue()
+    {
+        return reader().isNullValue();
+    }
+
+    public boolean isInStruct()
+    {
+        return (_reader != null) && _reader.isInStruct();
+    }
+
+    public boolean booleanValue()
+    {
+        return reader().booleanValue();
+    }
+
+    public int intValue()
+    {
+        return reader().intValue();
+    }
+
+    public long longValue()
+    {
+        return reader().longValue();
+    }
+
+    public BigInteger bigIntegerValue()
+    {
+        return reader().bigIntegerValue();
+    }
+
+    public double doubleValue()
+    {
+        return reader().doubleValue();
+    }
+
+    public BigDecimal bigDecimalValue()
+    {
+        return reader().bigDecimalValue();
+    }
+
+    public Decimal decimalValue()
+    {
+        return reader().decimalValue();
+    }
+
+    public Date dateValue()
+    {
+        return reader().dateValue();
+    }
+
+    public Timestamp timestampValue()
+    {
+        return reader().timestampValue();
+    }
+
+    public String stringValue()
+    {
+        return reader().stringValue();
+    }
+
+    public SymbolToken symbolValue()
+    {
+        return reader().symbolValue();
+    }
+
+    public int byteSize()
+    {
+        return reader().byteSize();
+    }
+
+    public byte[] newBytes()
+    {
+        return reader().newBytes();
+    }
+
+    public int getBytes(byte[] buffer, int offset, int len)
+    {
+        return reader().getBytes(buffer, offset, len);
+    }
+
+    public SymbolTable pop_passed_symbol_table()
+    {
+        if (_reader instanceof _Private_ReaderWriter) {
+            return ((_Private_ReaderWriter) _reader).pop_passed_symbol_table();
+        }
+        return null;
+    }
+
+    public void close() throws IOException
+    {
+        if (_reader != null) {
+            _reader.close();
+        }
+        else {
+            _input.close();
+        }
+    }
+}
@@ -91,6 +91,10 @@ final class IonReaderTextRawTokensX
 
     private UnifiedInputStreamX  _stream = null;
     private int                 _token = -1;
+    /** only JSON is accepted, see {@link #nextJsonToken()} */
+    private final boolean       _json;
+    /** lines and columns are counted, see {@link #line_count(int)} */
+    private final boolean       _track_lines;
     /** are we at the beginning of this token (false == done with it) */
     private boolean             _unfinished_token;
     private long                _line_count;
@@ -121,6 +125,15 @@ final class IonReaderTextRawTokensX
     public IonReaderTextRawTokensX(UnifiedInputStreamX iis, long starting_line,
                                    long starting_column)
     {
+        this(iis, starting_line, starting_column, false, true);
+    }
+
+    public IonReaderTextRawTokensX(UnifiedInputStreamX iis, long starting_line,
+                                   long starting_column, boolean is_json,
+                                   boolean track_lines)
+    {
+        _json = is_json;
+        _track_lines = track_lines;
         _stream = iis;
         _line_count = starting_line;
         _line_starting_position = _stream.getPosition() - starting_column;
@@ -148,7 +161,13 @@ final class IonReaderTextRawTokensX
         return is_buffered;
     }
 
+    public final boolean isTrackingLines() { return _track_lines; }
+
     protected String input_position() {
+        if (!_track_lines) {
+            // without line counting the stream position is all we know
+            return " at offset " + _stream.getPosition();
+        }
         String s = " at line "
                 + getLineNumber()
                 + " offset "
@@ -162,6 +181,93 @@ final class IonReaderTextRawTokensX
         _base64_prefetch_count = 0;
     }
 
+    //
+    //  byte classes for scanning runs of ASCII bytes directly out of
+    //  the current page of UTF-8 input.  None of the classes include
+    //  line endings (which need line counting), backslashes (which
+    //  start escapes) or non-ASCII bytes (which need decoding), so a
+    //  run always stops where the per-character routines must take over.
+    //
+    private static final int    BYTE_WHITESPACE     = 0x01;
+    private static final int    BYTE_SYMBOL         = 0x02;
+    private static final int    BYTE_DIGIT          = 0x04;
+    private static final int    BYTE_STRING_CONTENT = 0x08;
+    private static final int    BYTE_JSON_STRING_CONTENT = 0x10;
+    private static final byte[] BYTE_CLASSES        = makeByteClasses();
+
+    private static byte[] makeByteClasses()
+    {
+        byte[] classes = new byte[256];
+
+        classes[' ']  |= BYTE_WHITESPACE;
+        classes['\t'] |= BYTE_WHITESPACE;
+        for (int ii = 0; ii < 0x80; ii++) {
+            if (IonTokenConstsX.isValidSymbolCharacter(ii)) {
+                classes[ii] |= BYTE_SYMBOL;
+            }
+            if (IonTokenConstsX.isDigit(ii)) {
+                classes[ii] |= BYTE_DIGIT;
+            }
+            // the characters permitted in a short string, less the
+            // terminating quote and the escape character
+            if ((ii >= 0x20 || ii == 0x09 || ii == 0x0B || ii == 0x0C)
+                && ii != '"' && ii != '\\')
+            {
+                classes[ii] |= BYTE_STRING_CONTENT;
+                // JSON doesn't permit any control characters
+                if (ii >= 0x20) {
+                    classes[ii] |= BYTE_JSON_STRING_CONTENT;
+                }
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Advances past the run of bytes of the given class that's available
+     * in the current page of byte input, without going through
+     * {@link #read_char()} for each of them.  Stops at the end of the page
+     * and at the first byte outside the class, leaving both to the
+     * per-character routines.  Does nothing for character input.
+     * @return the number of bytes skipped
+     */
+    private final int skip_byte_run(int byte_class)
+    {
+        UnifiedInputStreamX stream = _stream;
+        if (!stream._is_byte_data) {
+            return 0;
+        }
+        byte[] bytes = stream._bytes;
+        int    start = stream._pos;
+        int    limit = stream._limit;
+        int    pos   = start;
+        while (pos < limit && (BYTE_CLASSES[bytes[pos] & 0xff] & byte_class) != 0) {
+            pos++;
+        }
+        stream._pos = pos;
+        return pos - start;
+    }
+
+    /**
+     * Appends the run of bytes of the given class that's available in the
+     * current page of byte input to the buffer; as the bytes are all ASCII
+     * each is appended as the char with the same value.
+     * @see #skip_byte_run(int)
+     */
+    private final void load_byte_run(StringBuilder sb, int byte_class)
+    {
+        int start = _stream._pos;
+        int len = skip_byte_run(byte_class);
+        if (len > 0) {
+            byte[] bytes = _stream._bytes;
+            int end = start + len;
+            sb.ensureCapacity(sb.length() + len);
+            for (int ii = start; ii < end; ii++) {
+                sb.append((char)bytes[ii]);
+            }
+        }
+    }
+
     //
     //  character routines to fetch characters and
     //  handle look ahead and line counting and such
@@ -303,6 +409,11 @@ final class IonReaderTextRawTokensX
             throw new IllegalStateException();
         }
 
+        if (!_track_lines) {
+            // the pseudo character is all the caller needs
+            return c;
+        }
+
         // before we adjust the line count we save it so that
         // we can recover from a unread of a line terminator
         // note that we can only recover from a single line
@@ -723,6 +834,89 @@ final class IonReaderTextRawTokensX
         return _token;
     }
 
+    /**
+     * The JSON counterpart of {@link #nextToken()}, which only recognizes
+     * the start of JSON tokens.  Numbers are returned as
+     * {@link IonTokenConstsX#TOKEN_UNKNOWN_NUMERIC} without looking ahead,
+     * since {@link #load_number(StringBuilder)} types them as it loads
+     * them, and the literals {@code true}, {@code false} and {@code null}
+     * as {@link IonTokenConstsX#TOKEN_SYMBOL_IDENTIFIER}.
+     */
+    public final int nextJsonToken() throws IOException
+    {
+        int c;
+
+        if (_unfinished_token) {
+            c = skip_to_end(null);
+        }
+        else {
+            c = skip_over_whitespace();
+        }
+        _unfinished_token = true;
+
+        switch (c) {
+        case -1:
+            return next_token_finish(IonTokenConstsX.TOKEN_EOF, true);
+        case '"':
+            return next_token_finish(IonTokenConstsX.TOKEN_STRING_DOUBLE_QUOTE, true);
+        case ':':
+            return next_token_finish(IonTokenConstsX.TOKEN_COLON, true);
+        case ',':
+            return next_token_finish(IonTokenConstsX.TOKEN_COMMA, false);
+        case '{':
+            return next_token_finish(IonTokenConstsX.TOKEN_OPEN_BRACE, true);
+        case '}':
+            return next_token_finish(IonTokenConstsX.TOKEN_CLOSE_BRACE, false);
+        case '[':
+            return next_token_finish(IonTokenConstsX.TOKEN_OPEN_SQUARE, true);
+        case ']':
+            return next_token_finish(IonTokenConstsX.TOKEN_CLOSE_SQUARE, false);
+        case '-':
+        case '0': case '1': case '2': case '3': case '4':
+        case '5': case '6': case '7': case '8': case '9':
+            unread_char(c);
+            return next_token_finish(IonTokenConstsX.TOKEN_UNKNOWN_NUMERIC, true);
+        case 't': case 'f': case 'n':
+            unread_char(c);
+            return next_token_finish(IonTokenConstsX.TOKEN_SYMBOL_IDENTIFIER, true);
+        default:
+            bad_token_start(c); // throws
+        }
+        throw new IonException("invalid state: next token switch shouldn't exit");
+    }
+
+    /**
+     * Checks that the JSON number or literal that was just loaded is
+     * followed by a character that may end it.
+     */
+    protected final void check_json_value_end() throws IOException
+    {
+        int c = read_char();
+        unread_char(c);
+        if (!is_json_value_terminating_character(c)) {
+            bad_token(c);
+        }
+    }
+
+    private static boolean is_json_value_terminating_character(int c)
+    {
+        switch (c) {
+        case -1:
+        case ' ':
+        case '\t':
+        case ',':
+        case ']':
+        case '}':
+        // new line normalization and counting is handled in read_char
+        case CharacterSequence.CHAR_SEQ_NEWLINE_SEQUENCE_1:
+        case CharacterSequence.CHAR_SEQ_NEWLINE_SEQUENCE_2:
+        case CharacterSequence.CHAR_SEQ_NEWLINE_SEQUENCE_3:
+            return true;
+        default:
+            return false;
+        }
+    }
+
     /**
      * Defines strategies to apply when comments are encountered.
      */
@@ -879,6 +1073,9 @@ final class IonReaderTextRawTokensX
         int c;
 
         loop: for (;;) {
+            if (skip_byte_run(BYTE_WHITESPACE) > 0) {
+                any_whitespace = true;
+            }
             c = read_char();
             switch (c) {
             case -1:
@@ -895,7 +1092,7 @@ final class IonReaderTextRawTokensX
                 any_whitespace = true;
                 break;
             case '/':
-                if (!commentStrategy.onComment(this))
+                if (_json || !commentStrategy.onComment(this))
                 {
                     break loop;
                 }
@@ -1196,10 +1393,18 @@ final class IonReaderTextRawTokensX
 
     protected void skip_over_struct() throws IOException
     {
+        if (_json) {
+            skip_over_json_container('}');
+            return;
+        }
         skip_over_container('}');
     }
     protected void skip_over_list() throws IOException
     {
+        if (_json) {
+            skip_over_json_container(']');
+            return;
+        }
         skip_over_container(']');
     }
     protected void skip_over_sexp() throws IOException
@@ -1285,6 +1490,44 @@ final class IonReaderTextRawTokensX
         }
     }
 
+    /**
+     * The JSON counterpart of {@link #skip_over_container(int)}: only
+     * strings and the brackets of nested containers need to be recognized
+     * to find the end of a JSON container.
+     */
+    private void skip_over_json_container(int terminator) throws IOException
+    {
+        assert( terminator == '}' || terminator == ']' );
+        int c;
+
+        for (;;) {
+            skip_byte_run(BYTE_WHITESPACE | BYTE_SYMBOL);
+            c = read_char();
+            switch (c) {
+            case -1:
+                unexpected_eof();
+                return;
+            case '}':
+            case ']':
+                if (c != terminator) {
+                    bad_token(c);
+                }
+                return;
+            case '"':
+                skip_double_quoted_string_helper();
+                break;
+            case '{':
+                skip_over_json_container('}');
+                break;
+            case '[':
+                skip_over_json_container(']');
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
     private int skip_over_number(SavePoint sp) throws IOException
     {
         int c = read_char();
@@ -1336,6 +1579,7 @@ final class IonReaderTextRawTokensX
     private int skip_over_digits(int c) throws IOException
     {
         while (IonTokenConstsX.isDigit(c)) {
+            skip_byte_run(BYTE_DIGIT);
             c = read_char();
         }
         return c;
@@ -1528,6 +1772,10 @@ final class IonReaderTextRawTokensX
     }
     protected IonType load_number(StringBuilder sb) throws IOException
     {
+        if (_json) {
+            return load_json_number(sb);
+        }
+
         boolean has_sign = false;
         int     t, c;
 
@@ -1636,6 +1884,70 @@ final class IonReaderTextRawTokensX
         return load_finish_number(sb, c, t);
     }
 
+    /**
+     * Loads a number in JSON's stricter syntax: no leading plus sign, no
+     * leading zeros, no underscores, digits on both sides of a decimal
+     * point, and no Ion radix, decimal exponent or timestamp forms.  A
+     * number with neither a fraction nor an exponent is an int, one with
+     * only a fraction is a decimal, and one with an exponent is a float.
+     */
+    private final IonType load_json_number(StringBuilder sb) throws IOException
+    {
+        IonType type = IonType.INT;
+        int c = read_char();
+        if (c == '-') {
+            sb.append((char)c);
+            c = read_char();
+        }
+        if (c == '0') {
+            sb.append((char)c);
+            c = read_char();
+        }
+        else {
+            c = load_json_digits(sb, c);
+        }
+        if (c == '.') {
+            type = IonType.DECIMAL;
+            sb.append((char)c);
+            c = load_json_digits(sb, read_char());
+        }
+        if (c == 'e' || c == 'E') {
+            type = IonType.FLOAT;
+            sb.append((char)c);
+            c = read_char();
+            if (c == '-' || c == '+') {
+                sb.append((char)c);
+                c = read_char();
+            }
+            c = load_json_digits(sb, c);
+        }
+        unread_char(c);
+        if (!is_json_value_terminating_character(c)) {
+            error("Numeric value followed by invalid character: "
+                  + sb + printCodePointAsString(c));
+        }
+        return type;
+    }
+
+    /**
+     * Accumulates one or more digits into the buffer, starting with the
+     * given character.
+     *
+     * @return the first non-digit character on the input.
+     */
+    private final int load_json_digits(StringBuilder sb, int c) throws IOException
+    {
+        if (!IonTokenConstsX.isDigit(c)) {
+            bad_token(c);
+        }
+        do {
+            sb.append((char)c);
+            load_byte_run(sb, BYTE_DIGIT);
+            c = read_char();
+        } while (IonTokenConstsX.isDigit(c));
+        return c;
+    }
+
     private final IonType load_finish_number(CharSequence numericText, int c,
                                              int token)
     throws IOException
@@ -1686,6 +1998,7 @@ final class IonReaderTextRawTokensX
             return c;
         }
         sb.append((char) c);
+        load_byte_run(sb, BYTE_DIGIT);
 
         return readNumeric(sb, Radix.DECIMAL, NumericState.DIGIT);
     }
@@ -1839,9 +2152,11 @@ final class IonReaderTextRawTokensX
 
     private final int skip_over_symbol_identifier(SavePoint sp) throws IOException
     {
+        skip_byte_run(BYTE_SYMBOL);
         int c = read_char();
 
         while(IonTokenConstsX.isValidSymbolCharacter(c)) {
+            skip_byte_run(BYTE_SYMBOL);
             c = read_char();
         }
 
@@ -1853,9 +2168,11 @@ final class IonReaderTextRawTokensX
 
     protected void load_symbol_identifier(StringBuilder sb) throws IOException
     {
+        load_byte_run(sb, BYTE_SYMBOL);
         int c = read_char();
         while(IonTokenConstsX.isValidSymbolCharacter(c)) {
             sb.append((char)c);
+            load_byte_run(sb, BYTE_SYMBOL);
             c = read_char();
         }
         unread_char(c);
@@ -1998,6 +2315,7 @@ final class IonReaderTextRawTokensX
     {
         int c;
         for (;;) {
+            skip_byte_run(BYTE_STRING_CONTENT);
             c = read_string_char(ProhibitedCharacters.NONE);
             switch (c) {
             case -1:
@@ -2022,12 +2340,24 @@ final class IonReaderTextRawTokensX
         int c;
         boolean expectLowSurrogate = false;
 
+        int content_class = _json ? BYTE_JSON_STRING_CONTENT : BYTE_STRING_CONTENT;
+        ProhibitedCharacters prohibited =
+            _json ? ProhibitedCharacters.JSON_CHAR : ProhibitedCharacters.SHORT_CHAR;
+
         for (;;) {
-            c = read_string_char(ProhibitedCharacters.SHORT_CHAR);
+            // plain ASCII can't follow a high surrogate, leave that error
+            // to the per-character path
+            if (!expectLowSurrogate) {
+                load_byte_run(sb, content_class);
+            }
+            c = read_string_char(prohibited);
             switch (c) {
             case CharacterSequence.CHAR_SEQ_ESCAPED_NEWLINE_SEQUENCE_1:
             case CharacterSequence.CHAR_SEQ_ESCAPED_NEWLINE_SEQUENCE_2:
             case CharacterSequence.CHAR_SEQ_ESCAPED_NEWLINE_SEQUENCE_3:
+                if (_json) {
+                    bad_escape_sequence();
+                }
                 continue;
             case -1:
             case '"':
@@ -2065,7 +2395,7 @@ final class IonReaderTextRawTokensX
         }
     }
 
-    private boolean check_for_low_surrogate(int c, boolean expectLowSurrogate) throws IonException
+    final boolean check_for_low_surrogate(int c, boolean expectLowSurrogate) throws IonException
     {
         if (IonUTF8.isLowSurrogate(c)) {
             if (expectLowSurrogate) {
@@ -2079,6 +2409,74 @@ final class IonReaderTextRawTokensX
         return false;
     }
 
+    /**
+     * Reads the next character of a string, or of the string of a clob, for
+     * a caller that streams the content rather than loading it. Like the
+     * load methods this starts after the opening quotes, but it doesn't
+     * combine surrogates, which is left to the caller.
+     *
+     * @return the next character, which may be a supplementary code point;
+     * or {@link CharacterSequence#CHAR_SEQ_STRING_TERMINATOR} once the
+     * closing quotes (of the last segment of a long string) have been read.
+     */
+    protected final int read_streamed_string_char(boolean is_long_string, boolean is_clob)
+        throws IOException
+    {
+        for (;;) {
+            int c;
+            if (is_long_string) {
+                c = read_triple_quoted_char(is_clob);
+                switch (c) {
+                case CharacterSequence.CHAR_SEQ_EOF:
+                    unexpected_eof();
+                    return c;
+                case CharacterSequence.CHAR_SEQ_NEWLINE_SEQUENCE_1:
+                case CharacterSequence.CHAR_SEQ_NEWLINE_SEQUENCE_2:
+                case CharacterSequence.CHAR_SEQ_NEWLINE_SEQUENCE_3:
+                    return '\n';
+                case CharacterSequence.CHAR_SEQ_ESCAPED_NEWLINE_SEQUENCE_1:
+                case CharacterSequence.CHAR_SEQ_ESCAPED_NEWLINE_SEQUENCE_2:
+                case CharacterSequence.CHAR_SEQ_ESCAPED_NEWLINE_SEQUENCE_3:
+                case CharacterSequence.CHAR_SEQ_STRING_NON_TERMINATOR:
+                    continue;
+                default:
+                    return c;
+                }
+            }
+            c = read_string_char(_json ? ProhibitedCharacters.JSON_CHAR
+                                       : ProhibitedCharacters.SHORT_CHAR);
+            switch (c) {
+            case CharacterSequence.CHAR_SEQ_ESCAPED_NEWLINE_SEQUENCE_1:
+            case CharacterSequence.CHAR_SEQ_ESCAPED_NEWLINE_SEQUENCE_2:
+            case CharacterSequence.CHAR_SEQ_ESCAPED_NEWLINE_SEQUENCE_3:
+                if (_json) {
+                    bad_escape_sequence();
+                }
+                continue;
+            case -1:
+                unexpected_eof();
+                return c;
+            case '"':
+                return CharacterSequence.CHAR_SEQ_STRING_TERMINATOR;
+            case CharacterSequence.CHAR_SEQ_NEWLINE_SEQUENCE_1:
+            case CharacterSequence.CHAR_SEQ_NEWLINE_SEQUENCE_2:
+            case CharacterSequence.CHAR_SEQ_NEWLINE_SEQUENCE_3:
+                bad_token(c);
+                return c;
+            case '\\':
+                return read_char_escaped(c, is_clob);
+            default:
+                if (is_clob && c > 127) {
+                    throw new IonReaderTextTokenException("non ASCII character in clob: " + c);
+                }
+                if (!is_clob && !IonTokenConstsX.is7bitValue(c)) {
+                    c = read_large_char_sequence(c);
+                }
+                return c;
+            }
+        }
+    }
+
     protected int read_double_quoted_char(boolean is_clob) throws IOException
     {
         int c = read_char();
@@ -2426,6 +2824,24 @@ final class IonReaderTextRawTokensX
         }
         return;
     }
+    /**
+     * Finishes a blob whose content was streamed with
+     * {@link #read_base64_byte()}, which consumed the first closing brace.
+     */
+    protected final void finish_streamed_blob() throws IOException
+    {
+        int c = read_char();
+        if (c < 0) {
+            unexpected_eof();
+        }
+        if (c != '}') {
+            String message = "improperly closed BLOB, "
+                           + IonTextUtils.printCodePointAsString(c)
+                           + " encountered when '}' was expected";
+            error(message);
+        }
+    }
+
     protected void load_blob(StringBuilder sb) throws IOException {
         int c;
 
@@ -2468,7 +2884,8 @@ final class IonReaderTextRawTokensX
                 bad_escape_sequence(c1);
             }
         }
-        if (!IonTokenConstsX.isValidEscapeStart(c1)) {
+        if (!IonTokenConstsX.isValidEscapeStart(c1)
+            || (_json && !IonTokenConstsX.isValidJsonEscapeStart(c1))) {
             bad_escape_sequence(c1);
         }
         int c2 = IonTokenConstsX.escapeReplacementCharacter(c1);
@@ -2737,6 +3154,14 @@ final class IonReaderTextRawTokensX
             }
         },
 
+        JSON_CHAR
+        {
+            boolean includes(int c)
+            {
+                return isControlCharacter(c);
+            }
+        },
+
         LONG_CHAR
         {
             boolean includes(int c)
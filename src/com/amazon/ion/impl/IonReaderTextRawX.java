@@ -258,6 +258,13 @@ abstract class IonReaderTextRawX
 
     IonReaderTextRawTokensX  _scanner;
 
+    /** true if only JSON is accepted, see {@link #parse_to_next_json_value()} */
+    final boolean       _is_json;
+    /** true if value spans carry their line and column */
+    final boolean       _track_lines;
+    /** shared cache of symbol text, may be null, see {@link #symbol_text} */
+    final _Private_SymbolTextCache _symbol_cache;
+
     boolean             _eof;
     int                 _state;
 
@@ -295,10 +302,32 @@ abstract class IonReaderTextRawX
     byte[]              _lob_bytes;
     int                 _lob_actual_len;
 
+    /**
+     * The stream over the content of the current value, if one has been
+     * created through {@link com.amazon.ion.ValueStreamProvider}.
+     */
+    ValueContentStream  _value_stream;
+
+    /**
+     * A stream that reads the content of the current value directly from
+     * the scanner.
+     */
+    interface ValueContentStream
+    {
+        /**
+         * Reads past any content that's left, since the reader is moving
+         * on, and detaches the stream from the reader.
+         */
+        void finish() throws IOException;
+    }
+
 
-    protected IonReaderTextRawX() {
+    protected IonReaderTextRawX(_Private_TextReaderOptions options) {
         super();
         _nesting_parent = null;
+        _is_json = options._is_json;
+        _track_lines = options._track_lines;
+        _symbol_cache = options._symbol_cache;
     }
 
 
@@ -329,7 +358,8 @@ abstract class IonReaderTextRawX
     ) {
 
         assert(parent != null);
-        _scanner = new IonReaderTextRawTokensX(iis, start_line, start_column);
+        _scanner = new IonReaderTextRawTokensX(iis, start_line, start_column,
+                                              _is_json, _track_lines);
         _value_start_line = start_line;
         _value_start_column = start_column;
         _current_value_save_point = iis.savePointAllocate();
@@ -364,6 +394,7 @@ abstract class IonReaderTextRawX
         _lob_value_position = 0;
         _lob_bytes = null;
         _lob_actual_len = 0;
+        _value_stream = null;
 
         init(iis, parent, start_line, start_column);
 
@@ -461,7 +492,12 @@ abstract class IonReaderTextRawX
             try {
                 finish_value(null);
                 clear_value();
-                parse_to_next_value();
+                if (_is_json) {
+                    parse_to_next_json_value();
+                }
+                else {
+                    parse_to_next_value();
+                }
             }
             catch (IOException e) {
                 throw new IonException(e);
@@ -507,6 +543,11 @@ abstract class IonReaderTextRawX
     }
     private final void finish_value(SavePoint sp) throws IOException
     {
+        if (_value_stream != null) {
+            ValueContentStream stream = _value_stream;
+            _value_stream = null;
+            stream.finish();
+        }
         if (_scanner.isUnfinishedToken()) {
             if (sp != null && _value_type != null) {
                 switch (_value_type) {
@@ -758,19 +799,31 @@ abstract class IonReaderTextRawX
                     sid = IonTokenConstsX.decodeSid(sb);
                     break;
                 default:
-                    text = sb.toString();
+                    text = symbol_text(sb);
                     sid = UNKNOWN_SYMBOL_ID;
                     break;
             }
         }
         else {
-            text = sb.toString();
+            text = symbol_text(sb);
             sid = UNKNOWN_SYMBOL_ID;
         }
 
         return new SymbolTokenImpl(text, sid);
     }
 
+    /**
+     * @return the text of a field name, annotation or symbol value, from
+     * the symbol cache if there is one.
+     */
+    protected final String symbol_text(StringBuilder sb)
+    {
+        if (_symbol_cache == null) {
+            return sb.toString();
+        }
+        return _symbol_cache.intern(sb);
+    }
+
 
     protected final void parse_to_next_value() throws IOException
     {
@@ -791,8 +844,10 @@ abstract class IonReaderTextRawX
         // reset this offset since for the span the comma isn't part
         // of the span when it's hoisted
         _value_start_offset = _scanner.getStartingOffset();
-        _value_start_line   = _scanner.getLineNumber();
-        _value_start_column = _scanner.getLineOffset();
+        if (_track_lines) {
+            _value_start_line   = _scanner.getLineNumber();
+            _value_start_column = _scanner.getLineOffset();
+        }
 
         t = _scanner.nextToken();
 
@@ -1065,6 +1120,148 @@ abstract class IonReaderTextRawX
         }
     }
 
+    /**
+     * The JSON counterpart of {@link #parse_to_next_value()}.  JSON has no
+     * annotations, s-expressions, lobs, symbols or typed nulls, so rather
+     * than going through the transition table each token is checked
+     * directly against the few that may come next.  Field names must be
+     * strings, values may not be followed by a comma that isn't followed
+     * by another value, and numbers are typed once they're loaded by
+     * {@link #next()}.
+     */
+    private final void parse_to_next_json_value() throws IOException
+    {
+        if (_state == STATE_EOF) {
+            _eof = true;
+            return;
+        }
+
+        _value_start_offset = _scanner.getStartingOffset();
+        if (_track_lines) {
+            _value_start_line   = _scanner.getLineNumber();
+            _value_start_column = _scanner.getLineOffset();
+        }
+
+        int t = _scanner.nextJsonToken();
+
+        if (_state == STATE_AFTER_VALUE_CONTENTS) {
+            if (t != IonTokenConstsX.TOKEN_COMMA) {
+                finish_json_container(t);
+                return;
+            }
+            _scanner.tokenIsFinished();
+            // the comma isn't part of the span of the value that follows
+            _value_start_offset = _scanner.getStartingOffset();
+            t = _scanner.nextJsonToken();
+            if (_container_is_struct) {
+                set_state(STATE_BEFORE_FIELD_NAME);
+            }
+            else {
+                set_state(STATE_BEFORE_ANNOTATION_CONTAINED);
+            }
+        }
+        else if (t == IonTokenConstsX.TOKEN_CLOSE_BRACE
+              || t == IonTokenConstsX.TOKEN_CLOSE_SQUARE) {
+            // an empty container, or the end of a span within one
+            finish_json_container(t);
+            return;
+        }
+
+        if (_state == STATE_BEFORE_FIELD_NAME) {
+            if (t != IonTokenConstsX.TOKEN_STRING_DOUBLE_QUOTE) {
+                parse_error("expected a field name but found "
+                            + IonTokenConstsX.getTokenName(t));
+            }
+            StringBuilder sb = token_contents_load(t);
+            set_fieldname(new SymbolTokenImpl(symbol_text(sb), UNKNOWN_SYMBOL_ID));
+            clear_current_value_buffer();
+
+            t = _scanner.nextJsonToken();
+            if (t != IonTokenConstsX.TOKEN_COLON) {
+                parse_error("field name must be followed by a colon, not a "
+                            + IonTokenConstsX.getTokenName(t));
+            }
+            _scanner.tokenIsFinished();
+            t = _scanner.nextJsonToken();
+        }
+
+        switch (t) {
+        case IonTokenConstsX.TOKEN_OPEN_BRACE:
+            _value_type = IonType.STRUCT;
+            set_state(STATE_BEFORE_FIELD_NAME);
+            return;
+        case IonTokenConstsX.TOKEN_OPEN_SQUARE:
+            _value_type = IonType.LIST;
+            set_state(STATE_BEFORE_ANNOTATION_CONTAINED);
+            return;
+        case IonTokenConstsX.TOKEN_STRING_DOUBLE_QUOTE:
+            _value_type = IonType.STRING;
+            break;
+        case IonTokenConstsX.TOKEN_UNKNOWN_NUMERIC:
+            // typed by next(), which loads the number
+            _value_type = null;
+            break;
+        case IonTokenConstsX.TOKEN_SYMBOL_IDENTIFIER:
+        {
+            StringBuilder sb = token_contents_load(t);
+            _scanner.check_json_value_end();
+            switch (IonTokenConstsX.keyword(sb, 0, sb.length())) {
+            case IonTokenConstsX.KEYWORD_NULL:
+                _null_type = IonType.NULL;
+                current_value_is_null(_null_type);
+                break;
+            case IonTokenConstsX.KEYWORD_TRUE:
+                current_value_is_bool(true);
+                break;
+            case IonTokenConstsX.KEYWORD_FALSE:
+                current_value_is_bool(false);
+                break;
+            default:
+                parse_error("invalid JSON literal " + sb);
+            }
+            break;
+        }
+        case IonTokenConstsX.TOKEN_EOF:
+            if (_state != STATE_BEFORE_ANNOTATION_DATAGRAM) {
+                parse_error("unexpected end of input in a "
+                            + getContainerType().toString());
+            }
+            if (getDepth() != 0) {
+                parse_error("state failure end of datagram encounterd with a non-container stack");
+            }
+            set_state(STATE_EOF);
+            _eof = true;
+            return;
+        default:
+            parse_error("expected a value but found "
+                        + IonTokenConstsX.getTokenName(t));
+        }
+        set_state(get_state_after_value());
+    }
+
+    /**
+     * Handles the token that follows the last value of a JSON container,
+     * which must close it.
+     */
+    private final void finish_json_container(int t)
+    {
+        switch (t) {
+        case IonTokenConstsX.TOKEN_CLOSE_BRACE:
+        case IonTokenConstsX.TOKEN_CLOSE_SQUARE:
+            if (getDepth() == 0 && _nesting_parent == null) {
+                parse_error("unexpected " + IonTokenConstsX.getTokenName(t)
+                            + " at the top level");
+            }
+            set_state(get_state_after_container(t));
+            _eof = true;
+            return;
+        default:
+            parse_error("expected a comma or the end of the "
+                        + getContainerType().toString() + " but found "
+                        + IonTokenConstsX.getTokenName(t));
+        }
+    }
+
     protected final StringBuilder token_contents_load(int token_type) throws IOException
     {
         StringBuilder sb = _current_value_buffer;
@@ -1074,6 +1271,9 @@ abstract class IonReaderTextRawX
         if (_current_value_buffer_loaded) {
             return sb;
         }
+        else if (_value_stream != null) {
+            throw new IllegalStateException("the value is being read as a stream");
+        }
         else if (_current_value_save_point_loaded) {
             assert(!_scanner.isUnfinishedToken() && !_current_value_save_point.isClear());
             // _scanner.load_save_point_contents( _current_value_save_point, sb);
@@ -38,7 +38,11 @@ import com.amazon.ion.impl.IonReaderTextRawTokensX.IonReaderTextTokenException;
 import com.amazon.ion.impl.IonTokenConstsX.CharacterSequence;
 import com.amazon.ion.impl._Private_ScalarConversions.AS_TYPE;
 import com.amazon.ion.impl._Private_ScalarConversions.CantConvertException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Date;
@@ -62,8 +66,18 @@ class IonReaderTextSystemX
 
     SymbolTable _system_symtab;
 
+    // scratch space for parsing decimals without making a String
+    private char[] _decimal_chars;
+
     protected IonReaderTextSystemX(UnifiedInputStreamX iis)
     {
+        this(iis, _Private_TextReaderOptions.DEFAULT);
+    }
+
+    protected IonReaderTextSystemX(UnifiedInputStreamX iis,
+                                   _Private_TextReaderOptions options)
+    {
+        super(options);
         _system_symtab = _Private_Utils.systemSymtab(1); // TODO check IVM to determine version: amzn/ion-java/issues/19
         init_once();
         init(iis, IonType.DATAGRAM);
@@ -119,13 +133,13 @@ class IonReaderTextSystemX
         {
 
             @Override
-            boolean isInt(String image, int len)
+            boolean isInt(CharSequence image, int len)
             {
                 return valueWithinBounds(image, len, MIN_INT_IMAGE, MAX_INT_IMAGE);
             }
 
             @Override
-            boolean isLong(String image, int len)
+            boolean isLong(CharSequence image, int len)
             {
                 return valueWithinBounds(image, len, MIN_LONG_IMAGE, MAX_LONG_IMAGE);
             }
@@ -135,13 +149,13 @@ class IonReaderTextSystemX
         {
 
             @Override
-            boolean isInt(String image, int len)
+            boolean isInt(CharSequence image, int len)
             {
                 return valueWithinBounds(image, len, MIN_HEX_INT_IMAGE, MAX_HEX_INT_IMAGE);
             }
 
             @Override
-            boolean isLong(String image, int len)
+            boolean isLong(CharSequence image, int len)
             {
                 return valueWithinBounds(image, len, MIN_HEX_LONG_IMAGE, MAX_HEX_LONG_IMAGE);
             }
@@ -151,13 +165,13 @@ class IonReaderTextSystemX
         {
 
             @Override
-            boolean isInt(String image, int len)
+            boolean isInt(CharSequence image, int len)
             {
                 return valueWithinBounds(image, len, MIN_BINARY_INT_IMAGE, MAX_BINARY_INT_IMAGE);
             }
 
             @Override
-            boolean isLong(String image, int len)
+            boolean isLong(CharSequence image, int len)
             {
                 return valueWithinBounds(image, len, MIN_BINARY_LONG_IMAGE, MAX_BINARY_LONG_IMAGE);
             }
@@ -177,10 +191,10 @@ class IonReaderTextSystemX
         private static final char[] MAX_HEX_LONG_IMAGE = Long.toHexString(Long.MAX_VALUE).toCharArray();
         private static final char[] MIN_HEX_LONG_IMAGE = ("-" + Long.toHexString(Long.MIN_VALUE)).toCharArray();
 
-        abstract boolean isInt(String image, int len);
-        abstract boolean isLong(String image, int len);
+        abstract boolean isInt(CharSequence image, int len);
+        abstract boolean isLong(CharSequence image, int len);
 
-        private static boolean valueWithinBounds(String value, int len, char[] minImage, char[] maxImage)
+        private static boolean valueWithinBounds(CharSequence value, int len, char[] minImage, char[] maxImage)
         {
             boolean negative = value.charAt(0) == '-';
             char[] boundaryImage = negative ? minImage : maxImage;
@@ -188,7 +202,7 @@ class IonReaderTextSystemX
             return len < maxImageLength || (len == maxImageLength && magnitudeLessThanOrEqualTo(value, len, boundaryImage));
         }
 
-        private static boolean magnitudeLessThanOrEqualTo(String lhs, int lhsLen, char[] rhs)
+        private static boolean magnitudeLessThanOrEqualTo(CharSequence lhs, int lhsLen, char[] rhs)
         {
             assert lhsLen == rhs.length;
             for (int i = lhsLen - 1; i >= 0; i--)
@@ -202,6 +216,80 @@ class IonReaderTextSystemX
         }
     }
 
+    /**
+     * Loads decimal ints, decimals, floats and timestamps directly from the
+     * value buffer once the tokenizer has filled it, without turning it into
+     * a String. Ints and the significands of floats are accumulated into a
+     * long by {@link TextNumberParser}; ints too large for a long, and
+     * floats too precise for its fast paths, still go through a String.
+     * Decimals are copied into a reused char[] and left to BigDecimal's
+     * parser, which accumulates coefficients of up to 18 digits into a long
+     * itself.
+     *
+     * @return false if the value isn't one of those types
+     */
+    private final boolean load_numeric_value(int token_type, StringBuilder cs, int len)
+    {
+        boolean is_unknown = (token_type == IonTokenConstsX.TOKEN_UNKNOWN_NUMERIC);
+        if (token_type == IonTokenConstsX.TOKEN_INT
+            || (is_unknown && _value_type == IonType.INT))
+        {
+            if (Radix.DECIMAL.isInt(cs, len)) {
+                _v.setValue(TextNumberParser.parseInt(cs, len));
+            }
+            else if (Radix.DECIMAL.isLong(cs, len)) {
+                _v.setValue(TextNumberParser.parseLong(cs, len));
+            }
+            else {
+                _v.setValue(new BigInteger(cs.toString()));
+            }
+            return true;
+        }
+        if (token_type == IonTokenConstsX.TOKEN_DECIMAL
+            || (is_unknown && _value_type == IonType.DECIMAL))
+        {
+            // note that any 'd' was changed to an 'e' by our caller
+            if (_decimal_chars == null || _decimal_chars.length < len) {
+                _decimal_chars = new char[Math.max(len, 32)];
+            }
+            cs.getChars(0, len, _decimal_chars, 0);
+            try {
+                _v.setValue(Decimal.valueOf(_decimal_chars, 0, len));
+            }
+            catch (NumberFormatException e) {
+                parse_error(e);
+            }
+            return true;
+        }
+        if (token_type == IonTokenConstsX.TOKEN_FLOAT
+            || (is_unknown && _value_type == IonType.FLOAT))
+        {
+            try {
+                _v.setValue(TextNumberParser.parseDouble(cs, len));
+            }
+            catch (NumberFormatException e) {
+                parse_error(e);
+            }
+            return true;
+        }
+        if (token_type == IonTokenConstsX.TOKEN_TIMESTAMP) {
+            Timestamp t = null;
+            try {
+                t = Timestamp.valueOf(cs);
+            }
+            catch (IllegalArgumentException e) {
+                parse_error(e);
+            }
+            _v.setValue(t);
+            return true;
+        }
+        if (is_unknown && _value_type == IonType.TIMESTAMP) {
+            _v.setValue(Timestamp.valueOf(cs));
+            return true;
+        }
+        return false;
+    }
+
     private final void load_scalar_value() throws IOException {
         // make sure we're trying to load a scalar value here
         switch(_value_type) {
@@ -250,61 +338,25 @@ class IonReaderTextSystemX
 
 
         int          len = cs.length();
-        String       s  = cs.toString();
+
+        if (load_numeric_value(token_type, cs, len)) {
+            clear_current_value_buffer();
+            return;
+        }
+
+        String       s  = (_value_type == IonType.SYMBOL)
+                          ? symbol_text(cs)
+                          : cs.toString();
 
         clear_current_value_buffer();
 
         switch (token_type) {
+        // decimal ints, decimals, floats and timestamps were loaded by
+        // load_numeric_value() above
         case IonTokenConstsX.TOKEN_UNKNOWN_NUMERIC:
-            switch (_value_type) {
-            case INT:
-                if (Radix.DECIMAL.isInt(s, len)) {
-                    _v.setValue(Integer.parseInt(s));
-                }
-                else if (Radix.DECIMAL.isLong(s, len)) {
-                    _v.setValue(Long.parseLong(s));
-                }
-                else {
-                    _v.setValue(new BigInteger(s));
-                }
-                break;
-            case DECIMAL:
-                // note that the string was modified above when it was a charsequence
-                try {
-                _v.setValue(Decimal.valueOf(s));
-                }
-                catch (NumberFormatException e) {
-                    parse_error(e);
-                }
-                break;
-            case FLOAT:
-                try {
-                    _v.setValue(Double.parseDouble(s));
-                }
-                catch (NumberFormatException e) {
-                    parse_error(e);
-                }
-                break;
-            case TIMESTAMP:
-                _v.setValue(Timestamp.valueOf(s));
-                break;
-            default:
-                String message = "unexpected prefectched value type "
-                               + getType().toString()
-                               + " encountered handling an unquoted symbol";
-                parse_error(message);
-            }
-            break;
-        case IonTokenConstsX.TOKEN_INT:
-            if (Radix.DECIMAL.isInt(s, len)) {
-                _v.setValue(Integer.parseInt(s));
-            }
-            else if (Radix.DECIMAL.isLong(s, len)) {
-                _v.setValue(Long.parseLong(s));
-            }
-            else {
-                _v.setValue(new BigInteger(s));
-            }
+            parse_error("unexpected prefectched value type "
+                        + getType().toString()
+                        + " encountered handling an unquoted symbol");
             break;
         case IonTokenConstsX.TOKEN_BINARY:
             if (Radix.BINARY.isInt(s, len)) {
@@ -331,33 +383,6 @@ class IonReaderTextSystemX
                 _v.setValue(v_big_int);
             }
             break;
-        case IonTokenConstsX.TOKEN_DECIMAL:
-            try {
-            _v.setValue(Decimal.valueOf(s));
-            }
-            catch (NumberFormatException e) {
-                parse_error(e);
-            }
-            break;
-        case IonTokenConstsX.TOKEN_FLOAT:
-            try {
-                _v.setValue(Double.parseDouble(s));
-            }
-            catch (NumberFormatException e) {
-                parse_error(e);
-            }
-
-            break;
-        case IonTokenConstsX.TOKEN_TIMESTAMP:
-            Timestamp t = null;
-            try {
-                t = Timestamp.valueOf(s);
-            }
-            catch (IllegalArgumentException e) {
-                parse_error(e);
-            }
-            _v.setValue(t);
-            break;
         case IonTokenConstsX.TOKEN_SYMBOL_IDENTIFIER:
             // this includes the various value keywords like true
             // and nan, in addition to "normal" unquoted symbols
@@ -775,6 +800,9 @@ class IonReaderTextSystemX
                 throw new IllegalStateException(msg);
             }
         }
+        if (_value_stream != null) {
+            throw new IllegalStateException("the " + _value_type + " is being read as a stream");
+        }
     }
 
     public byte[] newBytes()
@@ -919,6 +947,206 @@ class IonReaderTextSystemX
         return read;
     }
 
+    //
+    // streaming support, see ValueStreamProvider
+    //
+
+    /**
+     * @return a reader over the current string, which decodes it directly
+     * from the input unless it has already been loaded.
+     */
+    final Reader newStringReader()
+    {
+        if (_value_type != IonType.STRING || isNullValue()) {
+            throw new IllegalStateException("IonReader isn't positioned on a non-null string");
+        }
+        if (_value_stream != null) {
+            throw new IllegalStateException("the string is already being read as a stream");
+        }
+        if (_current_value_buffer_loaded || !_scanner.isUnfinishedToken()) {
+            return new StringReader(stringValue());
+        }
+        boolean is_long_string =
+            (_scanner.getToken() == IonTokenConstsX.TOKEN_STRING_TRIPLE_QUOTE);
+        StringContentReader reader = new StringContentReader(is_long_string);
+        _value_stream = reader;
+        return reader;
+    }
+
+    /**
+     * @return an input stream over the current lob, which decodes it
+     * directly from the input unless it has already been loaded.
+     */
+    final InputStream newLobInputStream()
+    {
+        if (!IonType.isLob(_value_type) || isNullValue()) {
+            throw new IllegalStateException("IonReader isn't positioned on a non-null lob");
+        }
+        if (_value_stream != null) {
+            throw new IllegalStateException("the " + _value_type + " is already being read as a stream");
+        }
+        if (_lob_loaded != LOB_STATE.EMPTY || !_scanner.isUnfinishedToken()) {
+            return new ByteArrayInputStream(newBytes());
+        }
+        LobContentInputStream stream = new LobContentInputStream(_lob_token);
+        _value_stream = stream;
+        return stream;
+    }
+
+    private static void check_read_bounds(int array_length, int off, int len)
+    {
+        if (off < 0 || len < 0 || off + len > array_length) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private static void check_attached(boolean detached)
+    {
+        if (detached) {
+            throw new IllegalStateException("the reader has moved on from the streamed value");
+        }
+    }
+
+    private final class StringContentReader
+        extends Reader
+        implements ValueContentStream
+    {
+        private final boolean _is_long_string;
+        private boolean       _done;
+        private boolean       _detached;
+        private boolean       _expect_low_surrogate;
+        private int           _pending_low_surrogate = -1;
+
+        StringContentReader(boolean is_long_string)
+        {
+            _is_long_string = is_long_string;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException
+        {
+            check_read_bounds(cbuf.length, off, len);
+            check_attached(_detached);
+            int count = 0;
+            while (count < len) {
+                if (_pending_low_surrogate >= 0) {
+                    cbuf[off + count++] = (char) _pending_low_surrogate;
+                    _pending_low_surrogate = -1;
+                    continue;
+                }
+                if (_done) {
+                    break;
+                }
+                int c = _scanner.read_streamed_string_char(_is_long_string, false);
+                if (c == CharacterSequence.CHAR_SEQ_STRING_TERMINATOR) {
+                    _scanner.check_for_low_surrogate(c, _expect_low_surrogate);
+                    _done = true;
+                    tokenValueIsFinished();
+                    break;
+                }
+                _expect_low_surrogate =
+                    _scanner.check_for_low_surrogate(c, _expect_low_surrogate);
+                if (IonUTF8.needsSurrogateEncoding(c)) {
+                    cbuf[off + count++] = IonUTF8.highSurrogate(c);
+                    _pending_low_surrogate = IonUTF8.lowSurrogate(c);
+                }
+                else {
+                    _expect_low_surrogate = IonUTF8.isHighSurrogate(c);
+                    cbuf[off + count++] = (char) c;
+                }
+            }
+            return (count == 0 && len > 0) ? -1 : count;
+        }
+
+        @Override
+        public void close()
+        {
+            // the rest of the string is skipped when the reader moves on
+        }
+
+        public void finish()
+        {
+            // the scanner skips over the rest of an unfinished string
+            _detached = true;
+        }
+    }
+
+    private final class LobContentInputStream
+        extends InputStream
+        implements ValueContentStream
+    {
+        private final int _token;
+        private boolean   _done;
+        private boolean   _detached;
+
+        LobContentInputStream(int lob_token)
+        {
+            _token = lob_token;
+        }
+
+        /**
+         * @return the next byte of the lob, or -1 after the closing braces
+         * have been read.
+         */
+        private int read_lob_byte() throws IOException
+        {
+            if (_done) {
+                return -1;
+            }
+            int c;
+            if (_token == IonTokenConstsX.TOKEN_OPEN_DOUBLE_BRACE) {
+                c = _scanner.read_base64_byte();
+                if (c >= 0) {
+                    return c;
+                }
+                _scanner.finish_streamed_blob();
+            }
+            else {
+                boolean is_long_string =
+                    (_token == IonTokenConstsX.TOKEN_STRING_TRIPLE_QUOTE);
+                c = _scanner.read_streamed_string_char(is_long_string, true);
+                if (c != CharacterSequence.CHAR_SEQ_STRING_TERMINATOR) {
+                    return c;
+                }
+                _scanner.skip_clob_close_punctuation();
+            }
+            _done = true;
+            tokenValueIsFinished();
+            return -1;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            check_attached(_detached);
+            return read_lob_byte();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            check_read_bounds(b.length, off, len);
+            check_attached(_detached);
+            int count = 0;
+            while (count < len) {
+                int c = read_lob_byte();
+                if (c < 0) {
+                    break;
+                }
+                b[off + count++] = (byte) c;
+            }
+            return (count == 0 && len > 0) ? -1 : count;
+        }
+
+        public void finish() throws IOException
+        {
+            _detached = true;
+            while (read_lob_byte() >= 0) {
+                // skipped
+            }
+        }
+    }
+
     public IonValue getIonValue(IonSystem sys)
     {
         if (isNullValue()) {
@@ -29,6 +29,9 @@ import com.amazon.ion.SymbolToken;
 import com.amazon.ion.TextSpan;
 import com.amazon.ion.UnknownSymbolException;
 import com.amazon.ion.UnsupportedIonVersionException;
+import com.amazon.ion.ValueStreamProvider;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.regex.Pattern;
 
 /**
@@ -76,7 +79,17 @@ class IonReaderTextUserX
                                  UnifiedInputStreamX uis,
                                  int physicalStartOffset)
     {
-        super(uis);
+        this(catalog, lstFactory, _Private_TextReaderOptions.DEFAULT, uis,
+             physicalStartOffset);
+    }
+
+    protected IonReaderTextUserX(IonCatalog catalog,
+                                 _Private_LocalSymbolTableFactory lstFactory,
+                                 _Private_TextReaderOptions options,
+                                 UnifiedInputStreamX uis,
+                                 int physicalStartOffset)
+    {
+        super(uis, options);
         _symbols = _system_symtab;
         _physical_start_offset = physicalStartOffset;
         _catalog = catalog;
@@ -262,16 +275,20 @@ class IonReaderTextUserX
     }
 
 
-    private static final class IonReaderTextSpan
+    /**
+     * The span of a reader that doesn't count lines, which therefore isn't
+     * a {@link TextSpan}; see {@link IonReaderTextLineSpan}.
+     */
+    private static class IonReaderTextSpan
         extends DowncastingFaceted
-        implements Span, TextSpan, OffsetSpan
+        implements Span, OffsetSpan
     {
         private final UnifiedDataPageX _data_page;
         private final IonType          _container_type;
 
         private final long             _start_offset;
-        private final long             _start_line;
-        private final long             _start_column;
+        final long                     _start_line;
+        final long                     _start_column;
 
         IonReaderTextSpan(IonReaderTextUserX reader)
         {
@@ -291,6 +308,35 @@ class IonReaderTextUserX
             _start_column = reader._value_start_column;
         }
 
+        public long getStartOffset()
+        {
+            return _start_offset;
+        }
+
+        public long getFinishOffset()
+        {
+            return -1;
+        }
+
+        IonType getContainerType() {
+            return _container_type;
+        }
+
+        UnifiedDataPageX getDataPage() {
+            return _data_page;
+        }
+    }
+
+
+    private static final class IonReaderTextLineSpan
+        extends IonReaderTextSpan
+        implements TextSpan
+    {
+        IonReaderTextLineSpan(IonReaderTextUserX reader)
+        {
+            super(reader);
+        }
+
         public long getStartLine()
         {
             if (_start_line < 1) {
@@ -316,24 +362,6 @@ class IonReaderTextUserX
         {
             return -1;
         }
-
-        public long getStartOffset()
-        {
-            return _start_offset;
-        }
-
-        public long getFinishOffset()
-        {
-            return -1;
-        }
-
-        IonType getContainerType() {
-            return _container_type;
-        }
-
-        UnifiedDataPageX getDataPage() {
-            return _data_page;
-        }
     }
 
 
@@ -342,7 +370,9 @@ class IonReaderTextUserX
         if (getType() == null) {
             throw new IllegalStateException("must be on a value");
         }
-        IonReaderTextSpan pos = new IonReaderTextSpan(this);
+        IonReaderTextSpan pos = _track_lines
+                              ? new IonReaderTextLineSpan(this)
+                              : new IonReaderTextSpan(this);
         return pos;
     }
 
@@ -410,10 +440,30 @@ class IonReaderTextUserX
             return facetType.cast(new SeekableReaderFacet());
         }
 
+        if (facetType == ValueStreamProvider.class)
+        {
+            return facetType.cast(new ValueStreamProviderFacet());
+        }
+
         return super.asFacet(facetType);
     }
 
 
+    private class ValueStreamProviderFacet
+        implements ValueStreamProvider
+    {
+        public Reader newStringReader()
+        {
+            return IonReaderTextUserX.this.newStringReader();
+        }
+
+        public InputStream newLobInputStream()
+        {
+            return IonReaderTextUserX.this.newLobInputStream();
+        }
+    }
+
+
     private class SpanProviderFacet
         implements SpanProvider
     {
@@ -352,6 +352,19 @@ final class IonTokenConstsX
         return (escapeCharactersValues[c & 0xff] != ESCAPE_NOT_DEFINED)
          && is8bitValue(c);
     }
+    /**
+     * @return true if the character may follow a backslash in a JSON string,
+     * whose escapes are a subset of Ion's.
+     */
+    public final static boolean isValidJsonEscapeStart(int c) {
+        switch (c) {
+        case '"': case '\\': case '/':
+        case 'b': case 'f': case 'n': case 'r': case 't': case 'u':
+            return true;
+        default:
+            return false;
+        }
+    }
     public final static int escapeReplacementCharacter(int c) {
         if (!isValidEscapeStart(c)) {
             throw new IllegalArgumentException("not a valid escape sequence character: "+c);
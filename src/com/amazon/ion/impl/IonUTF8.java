@@ -377,6 +377,67 @@ class IonUTF8 {
         return c;
     }
 
+    /**
+     * Returns one byte of the UTF-8 encoding of a scalar.
+     * @param utf8Len the encoded length, from {@link #getUTF8ByteCount(int)}.
+     * @param index which byte, starting at 0.
+     */
+    private final static byte getByteOf(int unicodeScalar, int utf8Len, int index) {
+        switch (utf8Len) {
+        case 1: return (byte)unicodeScalar;
+        case 2: return (index == 0) ? getByte1Of2(unicodeScalar) : getByte2Of2(unicodeScalar);
+        case 3:
+            switch (index) {
+            case 0:  return getByte1Of3(unicodeScalar);
+            case 1:  return getByte2Of3(unicodeScalar);
+            default: return getByte3Of3(unicodeScalar);
+            }
+        default:
+            switch (index) {
+            case 0:  return getByte1Of4(unicodeScalar);
+            case 1:  return getByte2Of4(unicodeScalar);
+            case 2:  return getByte3Of4(unicodeScalar);
+            default: return getByte4Of4(unicodeScalar);
+            }
+        }
+    }
+
+    /**
+     * Compares the UTF-8 encoding of a string with the given bytes without
+     * encoding the string into an array.
+     */
+    public final static boolean utf8Equals(String text, byte[] utf8, int offset, int length) {
+        int pos = offset;
+        int end = offset + length;
+        for (int ii = 0; ii < text.length(); ) {
+            int scalar = text.codePointAt(ii);
+            ii += Character.charCount(scalar);
+            int len = getUTF8ByteCount(scalar);
+            if (pos + len > end) return false;
+            for (int jj = 0; jj < len; jj++) {
+                if (utf8[pos++] != getByteOf(scalar, len, jj)) return false;
+            }
+        }
+        return (pos == end);
+    }
+
+    /**
+     * Computes {@link java.util.Arrays#hashCode(byte[])} of the UTF-8
+     * encoding of a string without encoding the string into an array.
+     */
+    public final static int utf8HashCode(String text) {
+        int hash = 1;
+        for (int ii = 0; ii < text.length(); ) {
+            int scalar = text.codePointAt(ii);
+            ii += Character.charCount(scalar);
+            int len = getUTF8ByteCount(scalar);
+            for (int jj = 0; jj < len; jj++) {
+                hash = 31 * hash + getByteOf(scalar, len, jj);
+            }
+        }
+        return hash;
+    }
+
     public final static boolean needsSurrogateEncoding(int unicodeScalar) {
         return (unicodeScalar > MAXIMUM_UTF16_1_CHAR_CODE_POINT);
     }
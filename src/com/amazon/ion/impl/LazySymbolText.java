@@ -0,0 +1,105 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+/**
+ * The symbols declared by a local symbol table, held as the UTF-8 bytes they
+ * were read from and decoded one at a time when first asked for.  This lets
+ * a binary reader get to the values that follow a large symbol table without
+ * first building a String, and a map entry, for every symbol.
+ * <p>
+ * Instances are filled by a single reader and then handed to a
+ * {@link LocalSymbolTable}, which synchronizes access to them.
+ */
+final class LazySymbolText
+{
+    private byte[] myBytes  = new byte[1024];
+    private int    myLimit;
+
+    /** The start of each symbol in {@link #myBytes}, or -1 if it has no text. */
+    private int[]  myStarts = new int[64];
+    private int[]  myEnds   = new int[64];
+    private int    myCount;
+
+    int size()
+    {
+        return myCount;
+    }
+
+    /**
+     * Records a symbol that has no text.
+     */
+    void addNull()
+    {
+        add(-1, -1);
+    }
+
+    /**
+     * Makes room for a symbol of the given UTF-8 length, which the caller
+     * then copies into {@link #bytes()} at the returned offset.
+     */
+    int reserve(int utf8Length)
+    {
+        int start = myLimit;
+        if (start + utf8Length > myBytes.length)
+        {
+            int newlen = Math.max(myBytes.length * 2, start + utf8Length);
+            byte[] temp = new byte[newlen];
+            System.arraycopy(myBytes, 0, temp, 0, myLimit);
+            myBytes = temp;
+        }
+        myLimit += utf8Length;
+        add(start, myLimit);
+        return start;
+    }
+
+    byte[] bytes()
+    {
+        return myBytes;
+    }
+
+    private void add(int start, int end)
+    {
+        if (myCount == myStarts.length)
+        {
+            int newlen = myCount * 2;
+            int[] temp = new int[newlen];
+            System.arraycopy(myStarts, 0, temp, 0, myCount);
+            myStarts = temp;
+            temp = new int[newlen];
+            System.arraycopy(myEnds, 0, temp, 0, myCount);
+            myEnds = temp;
+        }
+        myStarts[myCount] = start;
+        myEnds[myCount] = end;
+        myCount++;
+    }
+
+    /**
+     * @return the text of the symbol at the given index, or null if it
+     * has none.
+     */
+    String text(int index)
+    {
+        int start = myStarts[index];
+        if (start < 0)
+        {
+            return null;
+        }
+        return new String(myBytes, start, myEnds[index] - start,
+                          _Private_Utils.UTF8_CHARSET);
+    }
+}
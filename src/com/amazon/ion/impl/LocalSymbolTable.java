@@ -57,23 +57,37 @@ class LocalSymbolTable
     static class Factory implements _Private_LocalSymbolTableFactory
     {
 
-        private Factory(){} // Should be accessed through the singleton
+        private final boolean myLazySymbolText;
+
+        private Factory(boolean lazySymbolText) // Should be accessed through the singletons
+        {
+            myLazySymbolText = lazySymbolText;
+        }
 
         public SymbolTable newLocalSymtab(IonCatalog catalog,
                                           IonReader reader,
                                           boolean alreadyInStruct)
         {
             List<String> symbolsList = new ArrayList<String>();
+            LazySymbolText lazySymbols = null;
+            if (myLazySymbolText && reader instanceof IonReaderBinarySystemX)
+            {
+                lazySymbols = new LazySymbolText();
+            }
             SymbolTable currentSymbolTable = reader.getSymbolTable();
             LocalSymbolTableImports imports = readLocalSymbolTable(reader,
                                                                    catalog,
                                                                    alreadyInStruct,
                                                                    symbolsList,
+                                                                   lazySymbols,
                                                                    currentSymbolTable);
             if (imports == null) {
                 // This was an LST append, so the existing symbol table was updated.
                 return currentSymbolTable;
             }
+            if (lazySymbols != null) {
+                return new LocalSymbolTable(imports, lazySymbols);
+            }
             return new LocalSymbolTable(imports, symbolsList);
         }
 
@@ -84,12 +98,18 @@ class LocalSymbolTable
                 new LocalSymbolTableImports(defaultSystemSymtab, imports);
 
             return new LocalSymbolTable(unifiedSymtabImports,
-                                        null /* local symbols */);
+                                        (List<String>) null /* local symbols */);
         }
 
     }
 
-    static final Factory DEFAULT_LST_FACTORY = new Factory();
+    static final Factory DEFAULT_LST_FACTORY = new Factory(false);
+
+    /**
+     * Builds the tables read by binary readers with their declared symbols
+     * left undecoded until each is first resolved.
+     */
+    static final Factory LAZY_SYMBOL_TEXT_LST_FACTORY = new Factory(true);
 
     /**
      * The initial length of {@link #mySymbolNames}.
@@ -108,7 +128,7 @@ class LocalSymbolTable
      * Map of symbol names to symbol ids of local symbols that are not in
      * imports.
      */
-    private final Map<String, Integer> mySymbolsMap;
+    private Map<String, Integer> mySymbolsMap;
 
     /**
      * Whether this symbol table is read only, and thus, immutable.
@@ -134,6 +154,14 @@ class LocalSymbolTable
      */
     final int myFirstLocalSid;
 
+    /**
+     * The undecoded text of the declared symbols, or null once they have all
+     * been decoded into {@link #mySymbolNames} and {@link #mySymbolsMap}.
+     * While this is non-null the elements of {@link #mySymbolNames} are
+     * only valid when non-null, and {@link #mySymbolsMap} is null.
+     */
+    private LazySymbolText myLazySymbols;
+
     //==========================================================================
     // Private constructor(s) and static factory methods
     //==========================================================================
@@ -180,12 +208,49 @@ class LocalSymbolTable
         buildSymbolsMap();
     }
 
+    /**
+     * @param imports           never null
+     * @param lazySymbols       the declared symbols, decoded on demand
+     */
+    protected LocalSymbolTable(LocalSymbolTableImports imports, LazySymbolText lazySymbols)
+    {
+        mySymbolsCount = lazySymbols.size();
+        mySymbolNames  = (mySymbolsCount == 0)
+                       ? _Private_Utils.EMPTY_STRING_ARRAY
+                       : new String[mySymbolsCount];
+        myImportsList = imports;
+        myFirstLocalSid = myImportsList.getMaxId() + 1;
+        myLazySymbols = lazySymbols;
+    }
+
+    /**
+     * Decodes any symbols not yet decoded and builds the map of their
+     * text to sids.  Must be called before either is used in full.
+     */
+    private synchronized void decodeLazySymbols()
+    {
+        if (myLazySymbols != null)
+        {
+            for (int i = 0; i < mySymbolsCount; i++)
+            {
+                if (mySymbolNames[i] == null)
+                {
+                    mySymbolNames[i] = myLazySymbols.text(i);
+                }
+            }
+            myLazySymbols = null;
+            mySymbolsMap = new HashMap<String, Integer>((int) Math.ceil(mySymbolsCount / 0.75));
+            buildSymbolsMap();
+        }
+    }
+
     /**
      * Copy-constructor, performs defensive copying of member fields where
      * necessary. The returned instance is mutable.
      */
     protected LocalSymbolTable(LocalSymbolTable other, int maxId)
     {
+        other.decodeLazySymbols();
         isReadOnly      = false;
         myFirstLocalSid = other.myFirstLocalSid;
         myImportsList   = other.myImportsList;
@@ -212,6 +277,8 @@ class LocalSymbolTable
      * @param catalog the catalog from which to resolve shared symbol table imports.
      * @param isOnStruct true if the reader is already positioned on the symbol table struct; otherwise, false.
      * @param symbolsListOut list into which local symbols declared by the parsed symbol table will be deposited.
+     * @param lazySymbolsOut if not null, a binary reader's local symbols are deposited here as UTF-8 instead
+     *   of into {@code symbolsListOut}, unless this was an LST append.
      * @param currentSymbolTable the symbol table currently active in the stream.
      * @return a new LocalSymbolTableImports instance, or null if this was an LST append. If null, `currentSymbolTable`
      *   continues to be the active symbol table.
@@ -220,6 +287,7 @@ class LocalSymbolTable
                                                                   IonCatalog catalog,
                                                                   boolean isOnStruct,
                                                                   List<String> symbolsListOut,
+                                                                  LazySymbolText lazySymbolsOut,
                                                                   SymbolTable currentSymbolTable)
     {
         if (! isOnStruct)
@@ -277,6 +345,18 @@ class LocalSymbolTable
                         IonType type;
                         while ((type = reader.next()) != null)
                         {
+                            if (lazySymbolsOut != null)
+                            {
+                                if (type == IonType.STRING && !reader.isNullValue())
+                                {
+                                    ((IonReaderBinarySystemX) reader).copyStringUtf8(lazySymbolsOut);
+                                }
+                                else
+                                {
+                                    lazySymbolsOut.addNull();
+                                }
+                                continue;
+                            }
                             final String text;
                             if (type == IonType.STRING)
                             {
@@ -317,6 +397,12 @@ class LocalSymbolTable
             }
         }
         reader.stepOut();
+        if (lazySymbolsOut != null && isAppend && currentSymbolTable.isLocalTable()) {
+            // Appended symbols go straight into the current table.
+            for (int i = 0; i < lazySymbolsOut.size(); i++) {
+                symbolsListOut.add(lazySymbolsOut.text(i));
+            }
+        }
         if (isAppend && currentSymbolTable.isLocalTable()) {
             // Because the current symbol table is a local symbol table (i.e. not the system symbol table), it can
             // be appended in-place.
@@ -398,6 +484,7 @@ class LocalSymbolTable
 
     public synchronized Iterator<String> iterateDeclaredSymbolNames()
     {
+        decodeLazySymbols();
         return new SymbolIterator(mySymbolNames, mySymbolsCount);
     }
 
@@ -422,6 +509,13 @@ class LocalSymbolTable
             synchronized (this)
             {
                 names = mySymbolNames;
+                if (myLazySymbols != null
+                    && offset < mySymbolsCount
+                    && names[offset] == null)
+                {
+                    // decoded the first time it's resolved
+                    names[offset] = myLazySymbols.text(offset);
+                }
             }
 
             if (offset < names.length)
@@ -452,6 +546,7 @@ class LocalSymbolTable
         Integer isid;
         synchronized (this)
         {
+            decodeLazySymbols();
             isid = mySymbolsMap.get(name);
         }
 
@@ -490,6 +585,7 @@ class LocalSymbolTable
             String[] names;
             synchronized (this)
             {
+                decodeLazySymbols();
                 sid = mySymbolsMap.get(text);
                 names = mySymbolNames;
             }
@@ -551,6 +647,7 @@ class LocalSymbolTable
         {
             throw new ReadOnlyValueException(SymbolTable.class);
         }
+        decodeLazySymbols();
 
         if (mySymbolsCount == mySymbolNames.length)
         {
@@ -833,6 +930,8 @@ class LocalSymbolTable
     {
         // Throws ClassCastException if other isn't a local symtab
         LocalSymbolTable subset = (LocalSymbolTable) other;
+        decodeLazySymbols();
+        subset.decodeLazySymbols();
 
         // Gather snapshots of each LST's data, so we don't
 
@@ -67,6 +67,7 @@ class LocalSymbolTableAsStruct
                                                                    catalog,
                                                                    alreadyInStruct,
                                                                    symbolsList,
+                                                                   null,
                                                                    currentSymbolTable);
             if (imports == null) {
                 // This was an LST append, so the existing symbol table was updated.
@@ -107,6 +108,7 @@ class LocalSymbolTableAsStruct
                                                                    catalog,
                                                                    false,
                                                                    symbolsList,
+                                                                   null,
                                                                    ionRep.getSymbolTable());
 
             LocalSymbolTableAsStruct table = new LocalSymbolTableAsStruct(imageFactory,
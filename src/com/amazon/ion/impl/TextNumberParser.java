@@ -0,0 +1,351 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import java.math.BigInteger;
+
+/**
+ * Parses the int and float images collected by the text tokenizer directly
+ * from its buffer, without first copying them into a {@link String}.
+ * <p>
+ * Decimals aren't handled here: accumulating their coefficients into a
+ * long wouldn't save anything, since {@link java.math.BigDecimal} can only
+ * be given a long coefficient and a scale through a {@link BigInteger},
+ * while its {@code char[]} constructor already accumulates short
+ * coefficients into a long without one.
+ * <p>
+ * The results are exactly those of {@link Integer#parseInt(String)},
+ * {@link Long#parseLong(String)} and {@link Double#parseDouble(String)};
+ * images these methods can't handle quickly (too many digits, exponents
+ * out of range, or anything unexpected) are handed to the {@link String}
+ * versions.
+ * <p>
+ * Doubles are parsed with Clinger's fast path when both the significand
+ * and the power of ten are exact doubles, and otherwise with the
+ * Eisel-Lemire algorithm (see Daniel Lemire, "Number Parsing at a Gigabyte
+ * per Second", Software: Practice and Experience 51(8), 2021), which
+ * multiplies the significand by a 128-bit truncated power of five and
+ * gives up in the rare cases where the truncation makes the rounding
+ * ambiguous.
+ */
+final class TextNumberParser
+{
+    private TextNumberParser() { }
+
+    /**
+     * @param image an optionally signed run of decimal digits whose value
+     * is known to fit in an int.
+     */
+    static int parseInt(CharSequence image, int len)
+    {
+        long value = parseLongOrFail(image, len);
+        if (value == FAILED) {
+            return Integer.parseInt(image.toString());
+        }
+        return (int) value;
+    }
+
+    /**
+     * @param image an optionally signed run of decimal digits whose value
+     * is known to fit in a long.
+     */
+    static long parseLong(CharSequence image, int len)
+    {
+        long value = parseLongOrFail(image, len);
+        if (value == FAILED) {
+            return Long.parseLong(image.toString());
+        }
+        return value;
+    }
+
+    // Long.MIN_VALUE can't be distinguished from failure, so leave it to
+    // Long.parseLong along with everything else that isn't plain digits
+    private static final long FAILED = Long.MIN_VALUE;
+
+    private static long parseLongOrFail(CharSequence image, int len)
+    {
+        int     pos      = 0;
+        boolean negative = false;
+        if (len > 0) {
+            char c = image.charAt(0);
+            if (c == '-' || c == '+') {
+                negative = (c == '-');
+                pos++;
+            }
+        }
+        if (pos == len) {
+            return FAILED;
+        }
+        // accumulate negatively, as Long.parseLong does, so that the
+        // largest magnitude negative value doesn't overflow
+        long value = 0;
+        for (; pos < len; pos++) {
+            int digit = image.charAt(pos) - '0';
+            if (digit < 0 || digit > 9 || value < Long.MIN_VALUE / 10) {
+                return FAILED;
+            }
+            value *= 10;
+            if (value < Long.MIN_VALUE + digit) {
+                return FAILED;
+            }
+            value -= digit;
+        }
+        return negative ? value : -value;
+    }
+
+
+    //========================================================================
+    // doubles
+
+    // the most significant digits that are certain to fit in an unsigned long
+    private static final int    MAX_SIGNIFICANT_DIGITS = 19;
+
+    // the largest powers of ten that are exact doubles, for Clinger's path
+    private static final int    MAX_EXACT_POWER = 22;
+    private static final long   MAX_EXACT_SIGNIFICAND = 1L << 53;
+    private static final double[] EXACT_POWERS_OF_TEN = {
+        1e0,  1e1,  1e2,  1e3,  1e4,  1e5,  1e6,  1e7,  1e8,  1e9,  1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * @param image the image of a float as loaded by the tokenizer: an
+     * optional sign, digits, optionally a fraction, and optionally an
+     * exponent.
+     *
+     * @throws NumberFormatException if the image isn't a valid double.
+     */
+    static double parseDouble(CharSequence image, int len)
+    {
+        int     pos      = 0;
+        boolean negative = false;
+        if (len > 0) {
+            char c = image.charAt(0);
+            if (c == '-' || c == '+') {
+                negative = (c == '-');
+                pos++;
+            }
+        }
+
+        // the significand, as an unsigned long, ignoring leading zeros
+        long significand = 0;
+        int  digits = 0;
+        int  fraction_digits = 0;
+        boolean any_digits = false;
+        boolean in_fraction = false;
+        for (; pos < len; pos++) {
+            char c = image.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                any_digits = true;
+                if (significand != 0 || c != '0') {
+                    if (++digits > MAX_SIGNIFICANT_DIGITS) {
+                        return Double.parseDouble(image.toString());
+                    }
+                    significand = significand * 10 + (c - '0');
+                }
+                if (in_fraction) {
+                    fraction_digits++;
+                }
+            }
+            else if (c == '.' && !in_fraction) {
+                in_fraction = true;
+            }
+            else {
+                break;
+            }
+        }
+        if (!any_digits) {
+            return Double.parseDouble(image.toString());
+        }
+
+        int exponent = 0;
+        if (pos < len) {
+            char c = image.charAt(pos);
+            if (c != 'e' && c != 'E' || ++pos == len) {
+                return Double.parseDouble(image.toString());
+            }
+            boolean negative_exponent = false;
+            c = image.charAt(pos);
+            if (c == '-' || c == '+') {
+                negative_exponent = (c == '-');
+                if (++pos == len) {
+                    return Double.parseDouble(image.toString());
+                }
+            }
+            for (; pos < len; pos++) {
+                int digit = image.charAt(pos) - '0';
+                if (digit < 0 || digit > 9 || exponent > 100000) {
+                    // not a double, or an exponent we leave to parseDouble
+                    return Double.parseDouble(image.toString());
+                }
+                exponent = exponent * 10 + digit;
+            }
+            if (negative_exponent) {
+                exponent = -exponent;
+            }
+        }
+        exponent -= fraction_digits;
+
+        if (significand == 0) {
+            return negative ? -0d : 0d;
+        }
+
+        double value;
+        if (significand <= MAX_EXACT_SIGNIFICAND && significand > 0
+            && exponent >= -MAX_EXACT_POWER && exponent <= MAX_EXACT_POWER)
+        {
+            // both are exact doubles, so there is a single rounding
+            value = (double) significand;
+            if (exponent < 0) {
+                value /= EXACT_POWERS_OF_TEN[-exponent];
+            }
+            else {
+                value *= EXACT_POWERS_OF_TEN[exponent];
+            }
+        }
+        else {
+            long bits = eisel_lemire(significand, exponent);
+            if (bits == -1) {
+                return Double.parseDouble(image.toString());
+            }
+            value = Double.longBitsToDouble(bits);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Computes the double nearest to {@code significand * 10^power}.
+     *
+     * @param significand an unsigned, non-zero value.
+     *
+     * @return the bits of the (positive) double, or -1 if the result
+     * couldn't be determined, or is subnormal or infinite.
+     */
+    private static long eisel_lemire(long significand, int power)
+    {
+        if (power < PowersOfFive.SMALLEST_POWER || power > PowersOfFive.LARGEST_POWER) {
+            return -1;
+        }
+        int  index = 2 * (power - PowersOfFive.SMALLEST_POWER);
+        long factor_high = PowersOfFive.TRUNCATED[index];
+        long factor_low  = PowersOfFive.TRUNCATED[index + 1];
+
+        int lz = Long.numberOfLeadingZeros(significand);
+        long w = significand << lz;
+
+        long upper = multiply_high(w, factor_high);
+        long lower = w * factor_high;
+        if ((upper & 0x1FF) == 0x1FF && unsigned_less_than(lower + w, lower)) {
+            // the truncated product may be off; add in the next 64 bits
+            long product_low    = w * factor_low;
+            long product_middle = lower + multiply_high(w, factor_low);
+            if (unsigned_less_than(product_middle, lower)) {
+                upper++;
+            }
+            if (product_middle + 1 == 0 && (upper & 0x1FF) == 0x1FF
+                && unsigned_less_than(product_low + w, product_low))
+            {
+                return -1;
+            }
+            lower = product_middle;
+        }
+
+        long upper_bit = upper >>> 63;
+        long mantissa = upper >>> (upper_bit + 9);
+        lz += (int) (1 ^ upper_bit);
+
+        // exactly half way between two doubles: round-half-even needs
+        // the bits the truncation threw away
+        if (lower == 0 && (upper & 0x1FF) == 0 && (mantissa & 3) == 1) {
+            return -1;
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (1L << 53)) {
+            // rounding overflowed into the next binade
+            mantissa = 1L << 52;
+            lz--;
+        }
+        mantissa &= ~(1L << 52);
+
+        // floor(power * log2(10)) plus the exponent bias and the 64 bits of w
+        long real_exponent = (((152170 + 65536) * (long) power) >> 16) + 1024 + 63 - lz;
+        if (real_exponent < 1 || real_exponent > 2046) {
+            return -1;
+        }
+        return mantissa | (real_exponent << 52);
+    }
+
+    private static boolean unsigned_less_than(long a, long b)
+    {
+        return (a + Long.MIN_VALUE) < (b + Long.MIN_VALUE);
+    }
+
+    /**
+     * @return the high 64 bits of the unsigned 128-bit product.
+     */
+    private static long multiply_high(long x, long y)
+    {
+        long x0 = x & 0xFFFFFFFFL;
+        long x1 = x >>> 32;
+        long y0 = y & 0xFFFFFFFFL;
+        long y1 = y >>> 32;
+        long p01 = x0 * y1;
+        long p10 = x1 * y0;
+        long middle = p10 + ((x0 * y0) >>> 32) + (p01 & 0xFFFFFFFFL);
+        return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+    }
+
+    /**
+     * The 128-bit truncated powers of five used by the Eisel-Lemire
+     * algorithm, normalized so that the most significant bit is set.
+     * Computed when first needed, as pairs of high and low longs.
+     */
+    private static final class PowersOfFive
+    {
+        static final int    SMALLEST_POWER = -342;
+        static final int    LARGEST_POWER  = 308;
+        static final long[] TRUNCATED      = compute();
+
+        private static long[] compute()
+        {
+            BigInteger five = BigInteger.valueOf(5);
+            long[] powers = new long[2 * (LARGEST_POWER - SMALLEST_POWER + 1)];
+            for (int q = SMALLEST_POWER; q <= LARGEST_POWER; q++) {
+                BigInteger c;
+                if (q < 0) {
+                    // 2^b / 5^-q, rounded up, with enough bits for the
+                    // quotient to have at least 128 significant bits
+                    BigInteger power = five.pow(-q);
+                    int z = power.bitLength();
+                    int b = (q >= -27) ? z + 127 : 2 * z + 128;
+                    c = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                }
+                else {
+                    c = five.pow(q);
+                }
+                int shift = c.bitLength() - 128;
+                c = (shift > 0) ? c.shiftRight(shift) : c.shiftLeft(-shift);
+
+                int index = 2 * (q - SMALLEST_POWER);
+                powers[index]     = c.shiftRight(64).longValue();
+                powers[index + 1] = c.longValue();
+            }
+            return powers;
+        }
+    }
+}
@@ -97,6 +97,23 @@ abstract class UnifiedDataPageX
         return read;
     }
 
+    int load(java.nio.ByteBuffer buffer, int start_offset, long file_position)
+    {
+        if (!isBytes()) {
+            throw new UnsupportedOperationException("character pages can't load bytes");
+        }
+        int read = Math.min(buffer.remaining(), _bytes.length - start_offset);
+        if (read < 1) {
+            return -1;
+        }
+        buffer.get(_bytes, start_offset, read);
+        _base_offset = start_offset;
+        _unread_count = 0;
+        _page_limit = start_offset + read;
+        setFilePosition(file_position, start_offset);
+        return read;
+    }
+
     public int getBufferLimit()    { return _page_limit; }
     public int getOriginalStartingOffset() { return _base_offset; }
 
@@ -177,6 +194,27 @@ abstract class UnifiedDataPageX
             _page_limit  = offset + len;
         }
 
+        /**
+         * Replaces the backing array of this page.  This is used by the
+         * incrementally filled stream, which owns its single page and
+         * compacts or grows it in between top-level values.
+         */
+        final void setByteBuffer(byte[] bytes, int limit) {
+            setByteBuffer(bytes, 0, limit);
+        }
+
+        /**
+         * Replaces the backing array of this page with a user supplied
+         * array whose data starts at <code>offset</code>.  This is used
+         * when a reader over a byte array is reset to a new array.
+         */
+        final void setByteBuffer(byte[] bytes, int offset, int limit) {
+            _bytes       = bytes;
+            _base_offset = offset;
+            _unread_count = 0;
+            _page_limit  = limit;
+        }
+
         @Override
         public int getValue(int offset) {
             return (_bytes[offset] & 0xff);
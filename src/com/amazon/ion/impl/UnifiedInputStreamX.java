@@ -15,12 +15,14 @@
 
 package com.amazon.ion.impl;
 
+import com.amazon.ion.IonException;
 import com.amazon.ion.impl.IonReaderTextRawTokensX.IonReaderTextTokenException;
 import com.amazon.ion.impl.UnifiedSavePointManagerX.SavePoint;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.channels.FileChannel;
 
 /**
  * This is a local stream abstraction, and implementation, that
@@ -117,6 +119,15 @@ abstract class UnifiedInputStreamX
     public static UnifiedInputStreamX makeStream(InputStream stream) throws IOException {
         return new FromByteStream(stream);
     }
+    public static UnifiedInputStreamX makeStream(java.nio.ByteBuffer buffer) throws IOException {
+        return new FromByteBuffer(buffer);
+    }
+    public static UnifiedInputStreamX makeStream(FileChannel channel) throws IOException {
+        return makeStream(channel, FromByteBuffer.MAPPED_WINDOW_SIZE);
+    }
+    static UnifiedInputStreamX makeStream(FileChannel channel, int window_size) throws IOException {
+        return new FromByteBuffer(channel, channel.position(), window_size);
+    }
     public final InputStream getInputStream() { return _stream; }
     public final Reader      getReader()      { return _reader; }
     public final byte[]      getByteArray()   { return _bytes; }
@@ -344,6 +355,9 @@ abstract class UnifiedInputStreamX
                 }
                 _pos += ready;
                 remaining -= ready;
+                if (remaining > 0) {
+                    remaining -= skip_source_helper(remaining);
+                }
                 if (remaining > 0) {
                     if (refill_helper()) {
                         break;
@@ -360,6 +374,41 @@ abstract class UnifiedInputStreamX
         }
         return;
     }
+    /**
+     * Once the current page has been skipped over we can skip the rest
+     * in the source itself, without loading it, as long as nothing needs
+     * the pages (no save points) and there aren't any pages already loaded
+     * past this one.  We then move the file position of the spent page
+     * forward so the next refill loads from the right place.
+     */
+    private final int skip_source_helper(int len) throws IOException
+    {
+        if (_save_points.isSavePointOpen()
+         || _save_points.savePointActiveTop() != null
+         || _buffer.getCurrentPageIdx() != _buffer.getPageCount() - 1
+        ) {
+            return 0;
+        }
+        long skipped = skip_source(len);
+        if (skipped > 0) {
+            UnifiedDataPageX curr = _buffer.getCurrentPage();
+            curr.setFilePosition(curr.getFilePosition(_pos) + skipped, _pos);
+        }
+        return (int) skipped;
+    }
+
+    /**
+     * Advances the underlying source, past the data already loaded into the
+     * pages, without loading what's skipped.  Sources that can't do that
+     * cheaply don't override this.
+     *
+     * @return the number of bytes skipped, which may be less than len.
+     */
+    long skip_source(long len) throws IOException
+    {
+        return 0;
+    }
+
     // NB this method does not follow the contract of InputStream.read, it will return 0 at EOF
     //    It is unclear what the implication to the rest of the system to make it 'conform'
     public final int read(byte[] dst, int offset, int length) throws IOException
@@ -522,7 +571,7 @@ abstract class UnifiedInputStreamX
         int read = 0;
         if (can_fill_new_page()) {
             if (is_byte_data()) {
-                read = curr.load(_stream, start_pos, file_position);
+                read = load_bytes(curr, start_pos, file_position);
             }
             else {
                 read = curr.load(_reader, start_pos, file_position);
@@ -531,6 +580,15 @@ abstract class UnifiedInputStreamX
         return read;
     }
 
+    /**
+     * Loads a page of bytes from the source; sources that don't read
+     * from {@link #_stream} override this.
+     */
+    int load_bytes(UnifiedDataPageX curr, int start_pos, long file_position) throws IOException
+    {
+        return curr.load(_stream, start_pos, file_position);
+    }
+
     //
     // specialized subclasses that provide an appropriate constructor
     // and refill method tailored to efficiently use the data source
@@ -592,6 +650,28 @@ static class FromByteArray extends UnifiedInputStreamX
             make_page_current(curr, 0, offset, offset+length);
             super.init();
         }
+
+        /**
+         * Re-points this stream at another array.  The page, the page
+         * buffer and the save point manager are kept; save points that
+         * are still active over the previous array are popped and
+         * released, as {@link IonReaderBinaryUserX#seek} does.
+         */
+        final void reset(byte[] bytes, int offset, int length)
+        {
+            for (;;) {
+                SavePoint sp = _save_points.savePointActiveTop();
+                if (sp == null) break;
+                _save_points.savePointPopActive(sp);
+                sp.clear();
+                sp.free();
+            }
+            UnifiedDataPageX.Bytes curr = (UnifiedDataPageX.Bytes)_buffer.getCurrentPage();
+            curr.setByteBuffer(bytes, offset, offset+length);
+            // the new array is a stream of its own, as in the constructor
+            curr.setFilePosition(0, 0);
+            make_page_current(curr, 0, offset, offset+length);
+        }
     }
 
     private static class FromByteStream extends UnifiedInputStreamX
@@ -614,4 +694,342 @@ static class FromByteArray extends UnifiedInputStreamX
             _stream.close();
         }
     }
+
+    /**
+     * Reads from a {@link java.nio.ByteBuffer} that doesn't expose its backing
+     * array, typically a direct buffer, or from a {@link FileChannel} which is
+     * memory mapped a window at a time.  The buffer is loaded into our pages
+     * a page at a time with bulk gets, as if it was a stream, except that
+     * the page is never larger than the data needs.  Skipping past the loaded
+     * page only moves the buffer's position (mapping another window if that
+     * lands outside the current one) so skipped values are never touched.
+     *
+     * Only the bytes between the buffer's position and limit are read and
+     * the caller's buffer isn't disturbed, since we work on a duplicate.
+     * Likewise the channel's position isn't used once we've started, and the
+     * channel isn't closed with this stream, so many streams can share one
+     * channel - and, through the mapping, the operating system's page cache.
+     */
+    static final class FromByteBuffer extends UnifiedInputStreamX
+    {
+        // windows are re-mapped on demand, see map_window()
+        static final int MAPPED_WINDOW_SIZE = 64*1024*1024;
+
+        private java.nio.ByteBuffer _window;
+        private final FileChannel   _channel;     // null unless mapping a file
+        private final int           _window_size;
+        private long                _window_end;  // channel offset just past _window
+        private final long          _channel_end;
+
+        FromByteBuffer(java.nio.ByteBuffer buffer) throws IOException
+        {
+            _channel = null;
+            _channel_end = 0;
+            _window_size = 0;
+            _window = buffer.duplicate();
+            init_buffer(buffer.remaining());
+        }
+
+        FromByteBuffer(FileChannel channel, long start, int window_size) throws IOException
+        {
+            if (window_size < 1) {
+                throw new IllegalArgumentException("window size must be positive: " + window_size);
+            }
+            _channel = channel;
+            _window_size = window_size;
+            _channel_end = channel.size();
+            _window = java.nio.ByteBuffer.allocate(0);
+            _window_end = start;
+            init_buffer(_channel_end - start);
+        }
+
+        private void init_buffer(long length) throws IOException
+        {
+            _is_byte_data = true;
+            _is_stream = true;
+            int page_size = (int) Math.min(DEFAULT_PAGE_SIZE, length + UNREAD_LIMIT);
+            _buffer = UnifiedInputBufferX.makePageBuffer(UnifiedInputBufferX.BufferType.BYTES, page_size);
+            super.init();
+            _limit = refill();
+        }
+
+        /**
+         * Maps the window of the channel that starts at the given offset.
+         * @return false if there's nothing (more) to map.
+         */
+        private boolean map_window(long position) throws IOException
+        {
+            if (_channel == null || position >= _channel_end) {
+                return false;
+            }
+            long size = Math.min(_window_size, _channel_end - position);
+            _window = _channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            _window_end = position + size;
+            return true;
+        }
+
+        @Override
+        int load_bytes(UnifiedDataPageX curr, int start_pos, long file_position) throws IOException
+        {
+            if (!_window.hasRemaining() && !map_window(_window_end)) {
+                return -1;
+            }
+            return curr.load(_window, start_pos, file_position);
+        }
+
+        @Override
+        long skip_source(long len) throws IOException
+        {
+            int in_window = _window.remaining();
+            if (len <= in_window) {
+                _window.position(_window.position() + (int) len);
+                return len;
+            }
+            _window.position(_window.limit());
+            if (_channel == null) {
+                return in_window;
+            }
+            long current = _window_end - in_window;
+            long target = Math.min(current + len, _channel_end);
+            if (!map_window(target)) {
+                _window_end = target;
+            }
+            return target - current;
+        }
+    }
+
+    /**
+     * A byte source for binary Ion that is filled from the stream only in
+     * between top-level values, and only with what the stream has ready.
+     *
+     * The data is held in a single page which is compacted and grown as
+     * needed, so that it always holds at least one complete top-level value
+     * before the reader is allowed to look at it.  Since the page is never
+     * refilled while a value is being read the reader never blocks (nor sees
+     * a premature EOF) in the middle of a value.  A source stream that
+     * returns less than what was asked for, or -1, simply means that no more
+     * data is available yet.
+     */
+    static final class FromIncrementalByteStream extends UnifiedInputStreamX
+    {
+        // the offset, in the page, of the end of the pending top-level value
+        // or -1 if its header has not been (completely) seen yet
+        private int     _value_end;
+        private boolean _has_partial_value;
+
+        FromIncrementalByteStream(InputStream stream)
+        {
+            _is_byte_data = true;
+            _is_stream = false; // refill() must never go to the stream
+            _stream = stream;
+            _buffer = UnifiedInputBufferX.makePageBuffer(new byte[DEFAULT_PAGE_SIZE], 0, 0);
+            UnifiedDataPageX curr = _buffer.getCurrentPage();
+            make_page_current(curr, 0, 0, 0);
+            super.init();
+            _value_end = -1;
+        }
+
+        /**
+         * Fills the buffer until it holds at least the first bytes of the
+         * stream, so that the caller can look for the binary version marker.
+         *
+         * @return true if the whole binary version marker has been buffered;
+         *  false if it doesn't match, or if the stream had fewer bytes ready.
+         */
+        boolean startsWithBinaryVersionMarker() throws IOException
+        {
+            int marker_len = _Private_IonConstants.BINARY_VERSION_MARKER_SIZE;
+            while (buffered() < marker_len && fill(marker_len)) {
+                // keep pulling until we have the whole cookie, or the stream is dry
+            }
+            if (buffered() < marker_len) {
+                return false;
+            }
+            for (int ii=0; ii<marker_len; ii++) {
+                if (_bytes[_pos + ii] != _Private_IonConstants.BINARY_VERSION_MARKER_1_0[ii]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return true if fewer bytes than the binary version marker have
+         *  been buffered, and they match its beginning; it's then too early
+         *  to tell whether the stream is binary.
+         */
+        boolean hasBinaryVersionMarkerPrefix()
+        {
+            int buffered = buffered();
+            if (buffered >= _Private_IonConstants.BINARY_VERSION_MARKER_SIZE) {
+                return false;
+            }
+            for (int ii=0; ii<buffered; ii++) {
+                if (_bytes[_pos + ii] != _Private_IonConstants.BINARY_VERSION_MARKER_1_0[ii]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** @return a copy of the bytes that have been buffered but not read. */
+        byte[] bufferedBytes()
+        {
+            byte[] bytes = new byte[buffered()];
+            System.arraycopy(_bytes, _pos, bytes, 0, bytes.length);
+            return bytes;
+        }
+
+        /**
+         * Ensures that the top-level value, IVM or NOP pad beginning at the
+         * current position is completely buffered, pulling whatever the
+         * source stream has ready.  This must only be called when the reader
+         * is positioned between top-level values.  Only the type descriptor
+         * and length of the value are examined, and they are examined only
+         * once no matter how many calls it takes for the value to arrive.
+         *
+         * @return true if the value can be read, false if more data is needed.
+         */
+        boolean fillTopLevelValue() throws IOException
+        {
+            if (_value_end >= 0 && _pos >= _value_end) {
+                // the reader has consumed the previous value
+                _value_end = -1;
+            }
+            for (;;) {
+                if (_value_end < 0) {
+                    _value_end = find_value_end();
+                }
+                int page_limit = _buffer.getCurrentPage().getBufferLimit();
+                if (_value_end >= 0 && _value_end <= page_limit) {
+                    _has_partial_value = false;
+                    return true;
+                }
+                if (!fill(_value_end)) {
+                    _has_partial_value = (buffered() > 0);
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * @return true if the most recent call to {@link #fillTopLevelValue()}
+         *  found part, but not all, of a value.
+         */
+        boolean hasPartialValue()
+        {
+            return _has_partial_value;
+        }
+
+        private int buffered()
+        {
+            return _buffer.getCurrentPage().getBufferLimit() - _pos;
+        }
+
+        /**
+         * Reads the type descriptor, and the length if there is one, of
+         * the value at the current position.
+         *
+         * @return the page offset just past the end of the value, or -1 if
+         *  the header isn't completely buffered yet.
+         */
+        private int find_value_end()
+        {
+            int page_limit = _buffer.getCurrentPage().getBufferLimit();
+            int pos = _pos;
+            if (pos >= page_limit) {
+                return -1;
+            }
+            int td = _bytes[pos++] & 0xff;
+            int tid = _Private_IonConstants.getTypeCode(td);
+            int len = _Private_IonConstants.getLowNibble(td);
+
+            if (td == (_Private_IonConstants.BINARY_VERSION_MARKER_1_0[0] & 0xff)) {
+                len = _Private_IonConstants.BINARY_VERSION_MARKER_SIZE - 1;
+            }
+            else if (len == _Private_IonConstants.lnIsNull
+                  || tid == _Private_IonConstants.tidBoolean) {
+                len = 0;
+            }
+            else if (len == _Private_IonConstants.lnIsVarLen
+                 || (tid == _Private_IonConstants.tidStruct && len == 1)) {
+                // VarUInt length, which the reader limits to 5 bytes
+                long var_len = 0;
+                for (int ii=0; ; ii++) {
+                    if (pos >= page_limit) {
+                        return -1;
+                    }
+                    if (ii == 5) {
+                        // malformed, let the reader report it
+                        return pos;
+                    }
+                    int b = _bytes[pos++] & 0xff;
+                    var_len = (var_len << 7) | (b & 0x7F);
+                    if ((b & 0x80) != 0) break;
+                }
+                if (var_len > Integer.MAX_VALUE - pos) {
+                    throw new IonException("top-level value of length "
+                                           + var_len
+                                           + " is too large to buffer at position "
+                                           + getPosition());
+                }
+                len = (int)var_len;
+            }
+            return pos + len;
+        }
+
+        /**
+         * Reads what the source stream has ready, first making room for at
+         * least {@code needed_end} (a page offset) if it's known.
+         *
+         * @return true if any bytes were read.
+         */
+        private boolean fill(int needed_end) throws IOException
+        {
+            UnifiedDataPageX page = _buffer.getCurrentPage();
+            int page_limit = page.getBufferLimit();
+            byte[] bytes = _bytes;
+            int needed = Math.max(needed_end, page_limit + 1) - _pos;
+
+            if ((long)_pos + needed > bytes.length) {
+                // slide the unread bytes to the front of the page, growing it
+                // if even that isn't enough room
+                int remaining = page_limit - _pos;
+                byte[] dst = bytes;
+                if (needed > bytes.length) {
+                    int new_len = bytes.length;
+                    while (new_len < needed) {
+                        new_len = (new_len > Integer.MAX_VALUE / 2) ? Integer.MAX_VALUE : new_len * 2;
+                    }
+                    dst = new byte[new_len];
+                }
+                long file_position = page.getFilePosition(_pos);
+                System.arraycopy(bytes, _pos, dst, 0, remaining);
+                ((UnifiedDataPageX.Bytes)page).setByteBuffer(dst, remaining);
+                page.setFilePosition(file_position, 0);
+                if (_value_end >= 0) {
+                    _value_end -= _pos;
+                }
+                make_page_current(page, 0, 0, remaining);
+                bytes = _bytes;
+                page_limit = remaining;
+            }
+
+            int read = _stream.read(bytes, page_limit, bytes.length - page_limit);
+            if (read <= 0) {
+                return false;
+            }
+            ((UnifiedDataPageX.Bytes)page).setByteBuffer(bytes, page_limit + read);
+            make_page_current(page, 0, _pos, page_limit + read);
+            return true;
+        }
+
+        @Override
+        public void close()
+            throws IOException
+        {
+            super.close();
+            _stream.close();
+        }
+    }
 }
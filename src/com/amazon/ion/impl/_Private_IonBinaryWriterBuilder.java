@@ -17,6 +17,7 @@ package com.amazon.ion.impl;
 
 import static com.amazon.ion.impl._Private_Utils.initialSymtab;
 
+import com.amazon.ion.ByteBufferSink;
 import com.amazon.ion.IonBinaryWriter;
 import com.amazon.ion.IonCatalog;
 import com.amazon.ion.IonException;
@@ -28,10 +29,13 @@ import com.amazon.ion.ValueFactory;
 import com.amazon.ion.impl.BlockedBuffer.BufferedOutputStream;
 import com.amazon.ion.impl.bin._Private_IonManagedBinaryWriterBuilder;
 import com.amazon.ion.impl.bin._Private_IonManagedBinaryWriterBuilder.AllocatorMode;
+import com.amazon.ion.system.BlockPoolStatistics;
 import com.amazon.ion.system.IonBinaryWriterBuilder;
 import com.amazon.ion.system.IonSystemBuilder;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.GatheringByteChannel;
+import java.util.concurrent.Executor;
 
 /**
  * NOT FOR APPLICATION USE!
@@ -223,6 +227,176 @@ public class _Private_IonBinaryWriterBuilder
         return b;
     }
 
+    @Override
+    public int getLocalSymbolTableRetentionLimit()
+    {
+        return myBinaryWriterBuilder.getLocalSymbolTableRetentionLimit();
+    }
+
+    @Override
+    public void setLocalSymbolTableRetentionLimit(int limit)
+    {
+        mutationCheck();
+        myBinaryWriterBuilder.withLocalSymbolTableRetentionLimit(limit);
+    }
+
+    @Override
+    public
+    _Private_IonBinaryWriterBuilder withLocalSymbolTableRetentionLimit(int limit)
+    {
+        _Private_IonBinaryWriterBuilder b = mutable();
+        b.setLocalSymbolTableRetentionLimit(limit);
+        return b;
+    }
+
+    @Override
+    public boolean isOffHeapBuffersEnabled()
+    {
+        return myBinaryWriterBuilder.isOffHeapBuffersEnabled();
+    }
+
+    @Override
+    public void setOffHeapBuffersEnabled(boolean enabled)
+    {
+        mutationCheck();
+        if (enabled)
+        {
+            myBinaryWriterBuilder.withOffHeapBuffersEnabled();
+        }
+        else
+        {
+            myBinaryWriterBuilder.withOffHeapBuffersDisabled();
+        }
+    }
+
+    @Override
+    public
+    _Private_IonBinaryWriterBuilder withOffHeapBuffersEnabled()
+    {
+        _Private_IonBinaryWriterBuilder b = mutable();
+        b.setOffHeapBuffersEnabled(true);
+        return b;
+    }
+
+    @Override
+    public
+    _Private_IonBinaryWriterBuilder withOffHeapBuffersDisabled()
+    {
+        _Private_IonBinaryWriterBuilder b = mutable();
+        b.setOffHeapBuffersEnabled(false);
+        return b;
+    }
+
+    @Override
+    public long getBlockPoolLimit()
+    {
+        return myBinaryWriterBuilder.getBlockPoolLimit();
+    }
+
+    @Override
+    public void setBlockPoolLimit(long limit)
+    {
+        mutationCheck();
+        myBinaryWriterBuilder.withBlockPoolLimit(limit);
+    }
+
+    @Override
+    public
+    _Private_IonBinaryWriterBuilder withBlockPoolLimit(long limit)
+    {
+        _Private_IonBinaryWriterBuilder b = mutable();
+        b.setBlockPoolLimit(limit);
+        return b;
+    }
+
+    @Override
+    public BlockPoolStatistics getBlockPoolStatistics()
+    {
+        return myBinaryWriterBuilder.getBlockPoolStatistics();
+    }
+
+    @Override
+    public boolean isContainerLengthPredictionEnabled()
+    {
+        return myBinaryWriterBuilder.isContainerLengthPredictionEnabled();
+    }
+
+    @Override
+    public void setContainerLengthPredictionEnabled(boolean enabled)
+    {
+        mutationCheck();
+        if (enabled)
+        {
+            myBinaryWriterBuilder.withContainerLengthPredictionEnabled();
+        }
+        else
+        {
+            myBinaryWriterBuilder.withContainerLengthPredictionDisabled();
+        }
+    }
+
+    @Override
+    public
+    _Private_IonBinaryWriterBuilder withContainerLengthPredictionEnabled()
+    {
+        _Private_IonBinaryWriterBuilder b = mutable();
+        b.setContainerLengthPredictionEnabled(true);
+        return b;
+    }
+
+    @Override
+    public
+    _Private_IonBinaryWriterBuilder withContainerLengthPredictionDisabled()
+    {
+        _Private_IonBinaryWriterBuilder b = mutable();
+        b.setContainerLengthPredictionEnabled(false);
+        return b;
+    }
+
+    @Override
+    public Executor getAsyncExecutor()
+    {
+        return myBinaryWriterBuilder.getAsyncExecutor();
+    }
+
+    @Override
+    public void setAsyncExecutor(Executor executor)
+    {
+        mutationCheck();
+        myBinaryWriterBuilder.withAsyncExecutor(executor);
+    }
+
+    @Override
+    public
+    _Private_IonBinaryWriterBuilder withAsyncExecutor(Executor executor)
+    {
+        _Private_IonBinaryWriterBuilder b = mutable();
+        b.setAsyncExecutor(executor);
+        return b;
+    }
+
+    @Override
+    public long getMaxInFlightBytes()
+    {
+        return myBinaryWriterBuilder.getMaxInFlightBytes();
+    }
+
+    @Override
+    public void setMaxInFlightBytes(long maxInFlightBytes)
+    {
+        mutationCheck();
+        myBinaryWriterBuilder.withMaxInFlightBytes(maxInFlightBytes);
+    }
+
+    @Override
+    public
+    _Private_IonBinaryWriterBuilder withMaxInFlightBytes(long maxInFlightBytes)
+    {
+        _Private_IonBinaryWriterBuilder b = mutable();
+        b.setMaxInFlightBytes(maxInFlightBytes);
+        return b;
+    }
+
     @Override
     public void setIsFloatBinary32Enabled(boolean enabled) {
         mutationCheck();
@@ -372,6 +546,36 @@ public class _Private_IonBinaryWriterBuilder
     }
 
 
+    @Override
+    public final IonWriter build(ByteBufferSink out)
+    {
+        _Private_IonBinaryWriterBuilder b = fillDefaults();
+        try
+        {
+            return b.myBinaryWriterBuilder.newWriter(out);
+        }
+        catch (final IOException e)
+        {
+            throw new IonException("I/O Error", e);
+        }
+    }
+
+
+    @Override
+    public final IonWriter build(GatheringByteChannel out)
+    {
+        _Private_IonBinaryWriterBuilder b = fillDefaults();
+        try
+        {
+            return b.myBinaryWriterBuilder.newWriter(out);
+        }
+        catch (final IOException e)
+        {
+            throw new IonException("I/O Error", e);
+        }
+    }
+
+
     @Deprecated
     public final IonBinaryWriter buildLegacy()
     {
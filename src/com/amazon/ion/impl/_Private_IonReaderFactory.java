@@ -25,11 +25,15 @@ import com.amazon.ion.IonReader;
 import com.amazon.ion.IonSystem;
 import com.amazon.ion.IonTextReader;
 import com.amazon.ion.IonValue;
+import com.amazon.ion.SymbolTable;
 import com.amazon.ion.util.IonStreamUtils;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -66,7 +70,8 @@ public final class _Private_IonReaderFactory
         try
         {
             UnifiedInputStreamX uis = makeUnifiedStream(bytes, offset, length);
-            return makeReader(catalog, uis, offset, LocalSymbolTable.DEFAULT_LST_FACTORY);
+            return makeReader(catalog, uis, offset, LocalSymbolTable.DEFAULT_LST_FACTORY,
+                              _Private_TextReaderOptions.DEFAULT);
         }
         catch (IOException e)
         {
@@ -79,11 +84,22 @@ public final class _Private_IonReaderFactory
                                              int offset,
                                              int length,
                                              _Private_LocalSymbolTableFactory lstFactory)
+    {
+        return makeReader(catalog, bytes, offset, length, lstFactory,
+                          _Private_TextReaderOptions.DEFAULT);
+    }
+
+    public static final IonReader makeReader(IonCatalog catalog,
+                                             byte[] bytes,
+                                             int offset,
+                                             int length,
+                                             _Private_LocalSymbolTableFactory lstFactory,
+                                             _Private_TextReaderOptions textOptions)
     {
         try
         {
             UnifiedInputStreamX uis = makeUnifiedStream(bytes, offset, length);
-            return makeReader(catalog, uis, offset, lstFactory);
+            return makeReader(catalog, uis, offset, lstFactory, textOptions);
         }
         catch (IOException e)
         {
@@ -91,6 +107,28 @@ public final class _Private_IonReaderFactory
         }
     }
 
+    /**
+     * Creates a binary reader over top-level values that aren't preceded by
+     * an Ion version marker, such as a range found by
+     * {@link com.amazon.ion.util.IonBinaryChunker}, reading them in the
+     * context of the given symbol table.  Spans are relative to
+     * {@code offset}.
+     */
+    public static final IonReader makeBinaryReaderOverValues(IonCatalog catalog,
+                                                             byte[] bytes,
+                                                             int offset,
+                                                             int length,
+                                                             SymbolTable symbols)
+    {
+        IonReaderBinaryUserX reader =
+            new IonReaderBinaryUserX(catalog,
+                                     LocalSymbolTable.DEFAULT_LST_FACTORY,
+                                     makeStream(bytes, offset, length),
+                                     offset);
+        reader.init_symbol_table(symbols);
+        return reader;
+    }
+
     public static IonReader makeSystemReader(byte[] bytes,
                                              int offset,
                                              int length)
@@ -147,9 +185,17 @@ public final class _Private_IonReaderFactory
     public static final IonTextReader makeReader(IonCatalog catalog,
                                                  CharSequence chars,
                                                  _Private_LocalSymbolTableFactory lstFactory)
+    {
+        return makeReader(catalog, chars, lstFactory, _Private_TextReaderOptions.DEFAULT);
+    }
+
+    public static final IonTextReader makeReader(IonCatalog catalog,
+                                                 CharSequence chars,
+                                                 _Private_LocalSymbolTableFactory lstFactory,
+                                                 _Private_TextReaderOptions textOptions)
     {
         UnifiedInputStreamX in = makeStream(chars);
-        return new IonReaderTextUserX(catalog, lstFactory, in);
+        return new IonReaderTextUserX(catalog, lstFactory, textOptions, in, 0);
     }
 
     public static final IonReader makeSystemReader(CharSequence chars)
@@ -186,16 +232,105 @@ public final class _Private_IonReaderFactory
     public static final IonReader makeReader(IonCatalog catalog,
                                              InputStream is,
                                              _Private_LocalSymbolTableFactory lstFactory)
+    {
+        return makeReader(catalog, is, lstFactory, _Private_TextReaderOptions.DEFAULT);
+    }
+
+    public static final IonReader makeReader(IonCatalog catalog,
+                                             InputStream is,
+                                             _Private_LocalSymbolTableFactory lstFactory,
+                                             _Private_TextReaderOptions textOptions)
     {
         try {
             UnifiedInputStreamX uis = makeUnifiedStream(is);
-            return makeReader(catalog, uis, 0, lstFactory);
+            return makeReader(catalog, uis, 0, lstFactory, textOptions);
         }
         catch (IOException e) {
             throw new IonException(e);
         }
     }
 
+    /**
+     * Creates a reader that, when the stream holds Ion binary, never blocks
+     * in the middle of a top-level value.  Instead {@link IonReader#next()}
+     * returns null at top-level until the whole value has been received, and
+     * may be called again once the stream has more data.  Ion text streams
+     * are read as usual.
+     * <p>
+     * The binary version marker tells binary from text.  If the stream
+     * hasn't delivered enough of it to tell, the reader is picked by the
+     * first call to {@link IonReader#next()} that can, and until then that
+     * returns null.
+     */
+    public static final IonReader makeIncrementalReader(IonCatalog catalog,
+                                                        InputStream is)
+    {
+        return makeIncrementalReader(catalog, is, LocalSymbolTable.DEFAULT_LST_FACTORY);
+    }
+
+    public static final IonReader makeIncrementalReader(IonCatalog catalog,
+                                                        InputStream is,
+                                                        _Private_LocalSymbolTableFactory lstFactory)
+    {
+        return makeIncrementalReader(catalog, is, lstFactory, _Private_TextReaderOptions.DEFAULT);
+    }
+
+    public static final IonReader makeIncrementalReader(IonCatalog catalog,
+                                                        InputStream is,
+                                                        _Private_LocalSymbolTableFactory lstFactory,
+                                                        _Private_TextReaderOptions textOptions)
+    {
+        is.getClass(); // Force NPE
+
+        if (textOptions._is_json) {
+            return makeReader(catalog, is, lstFactory, textOptions);
+        }
+        try {
+            UnifiedInputStreamX.FromIncrementalByteStream uis =
+                new UnifiedInputStreamX.FromIncrementalByteStream(is);
+            IonReader reader =
+                selectIncrementalReader(catalog, is, uis, lstFactory, textOptions);
+            if (reader == null) {
+                // too early to tell, so next() will pick the reader
+                reader = new IonReaderIncrementalX(catalog, is, uis, lstFactory, textOptions);
+            }
+            return reader;
+        }
+        catch (IOException e) {
+            throw new IonException(e);
+        }
+    }
+
+    /**
+     * Picks the binary or the text reader for an incremental stream by
+     * looking for the binary version marker in what it has ready.
+     *
+     * @return null if the bytes buffered so far are the beginning of the
+     *  marker (or there are none), so it's too early to tell.
+     */
+    static IonReader selectIncrementalReader(IonCatalog catalog,
+                                             InputStream is,
+                                             UnifiedInputStreamX.FromIncrementalByteStream uis,
+                                             _Private_LocalSymbolTableFactory lstFactory,
+                                             _Private_TextReaderOptions textOptions)
+        throws IOException
+    {
+        if (uis.startsWithBinaryVersionMarker()) {
+            return new IonReaderBinaryUserX(catalog,
+                                            lstFactory,
+                                            uis,
+                                            0);
+        }
+        if (uis.hasBinaryVersionMarkerPrefix()) {
+            return null;
+        }
+        // text isn't length-prefixed so it's read the usual way, starting
+        // with the bytes we've already pulled from the stream
+        InputStream text =
+            new SequenceInputStream(new ByteArrayInputStream(uis.bufferedBytes()), is);
+        return makeReader(catalog, text, lstFactory, textOptions);
+    }
+
     public static IonReader makeSystemReader(InputStream is)
     {
         try {
@@ -217,10 +352,18 @@ public final class _Private_IonReaderFactory
     public static final IonTextReader makeReader(IonCatalog catalog,
                                                  Reader chars,
                                                  _Private_LocalSymbolTableFactory lstFactory)
+    {
+        return makeReader(catalog, chars, lstFactory, _Private_TextReaderOptions.DEFAULT);
+    }
+
+    public static final IonTextReader makeReader(IonCatalog catalog,
+                                                 Reader chars,
+                                                 _Private_LocalSymbolTableFactory lstFactory,
+                                                 _Private_TextReaderOptions textOptions)
     {
         try {
             UnifiedInputStreamX in = makeStream(chars);
-            return new IonReaderTextUserX(catalog, lstFactory, in);
+            return new IonReaderTextUserX(catalog, lstFactory, textOptions, in, 0);
         }
         catch (IOException e) {
             throw new IonException(e);
@@ -238,6 +381,103 @@ public final class _Private_IonReaderFactory
         }
     }
 
+    public static final IonReader makeReader(IonCatalog catalog,
+                                             ByteBuffer buffer)
+    {
+        return makeReader(catalog, buffer, LocalSymbolTable.DEFAULT_LST_FACTORY);
+    }
+
+    public static final IonReader makeReader(IonCatalog catalog,
+                                             ByteBuffer buffer,
+                                             _Private_LocalSymbolTableFactory lstFactory)
+    {
+        return makeReader(catalog, buffer, lstFactory, _Private_TextReaderOptions.DEFAULT);
+    }
+
+    public static final IonReader makeReader(IonCatalog catalog,
+                                             ByteBuffer buffer,
+                                             _Private_LocalSymbolTableFactory lstFactory,
+                                             _Private_TextReaderOptions textOptions)
+    {
+        if (buffer.hasArray() && !buffer.isReadOnly())
+        {
+            // a heap buffer is just an array, so we read it in place
+            return makeReader(catalog,
+                              buffer.array(),
+                              buffer.arrayOffset() + buffer.position(),
+                              buffer.remaining(),
+                              lstFactory,
+                              textOptions);
+        }
+        try
+        {
+            UnifiedInputStreamX uis;
+            if (IonStreamUtils.isGzip(buffer))
+            {
+                InputStream in = new ByteBufferInputStream(buffer.duplicate());
+                uis = UnifiedInputStreamX.makeStream(new GZIPInputStream(in));
+            }
+            else
+            {
+                uis = UnifiedInputStreamX.makeStream(buffer);
+            }
+            return makeReader(catalog, uis, 0, lstFactory, textOptions);
+        }
+        catch (IOException e)
+        {
+            throw new IonException(e);
+        }
+    }
+
+    /**
+     * The channel is memory mapped, from its current position to its end,
+     * and is not closed by the reader.
+     */
+    public static final IonReader makeReader(IonCatalog catalog,
+                                             FileChannel channel)
+    {
+        return makeReader(catalog, channel, LocalSymbolTable.DEFAULT_LST_FACTORY);
+    }
+
+    public static final IonReader makeReader(IonCatalog catalog,
+                                             FileChannel channel,
+                                             _Private_LocalSymbolTableFactory lstFactory)
+    {
+        return makeReader(catalog, channel, lstFactory, _Private_TextReaderOptions.DEFAULT);
+    }
+
+    public static final IonReader makeReader(IonCatalog catalog,
+                                             FileChannel channel,
+                                             _Private_LocalSymbolTableFactory lstFactory,
+                                             _Private_TextReaderOptions textOptions)
+    {
+        return makeReader(catalog, channel, UnifiedInputStreamX.FromByteBuffer.MAPPED_WINDOW_SIZE,
+                          lstFactory, textOptions);
+    }
+
+    /** Maps windows of the given size, rather than the default, which is only of interest to tests. */
+    static IonReader makeReader(IonCatalog catalog,
+                                FileChannel channel,
+                                int windowSize,
+                                _Private_LocalSymbolTableFactory lstFactory,
+                                _Private_TextReaderOptions textOptions)
+    {
+        try
+        {
+            UnifiedInputStreamX uis = UnifiedInputStreamX.makeStream(channel, windowSize);
+            if (has_gzip_cookie(uis))
+            {
+                throw new IonException("GZIPped data can't be read from a mapped file;"
+                                       + " read it from an InputStream instead");
+            }
+            return makeReader(catalog, uis, 0, lstFactory, textOptions);
+        }
+        catch (IOException e)
+        {
+            throw new IonException(e);
+        }
+    }
+
     public static final IonReader makeReader(IonCatalog catalog,
                                              IonValue value)
     {
@@ -261,15 +501,17 @@ public final class _Private_IonReaderFactory
     private static IonReader makeReader(IonCatalog catalog,
                                         UnifiedInputStreamX uis,
                                         int offset,
-                                        _Private_LocalSymbolTableFactory lstFactory)
+                                        _Private_LocalSymbolTableFactory lstFactory,
+                                        _Private_TextReaderOptions textOptions)
         throws IOException
     {
         IonReader r;
-        if (has_binary_cookie(uis)) {
+        // JSON is never binary, so binary data fails as invalid JSON
+        if (!textOptions._is_json && has_binary_cookie(uis)) {
             r = new IonReaderBinaryUserX(catalog, lstFactory, uis, offset);
         }
         else {
-            r = new IonReaderTextUserX(catalog, lstFactory, uis, offset);
+            r = new IonReaderTextUserX(catalog, lstFactory, textOptions, uis, offset);
         }
         return r;
     }
@@ -324,15 +566,57 @@ public final class _Private_IonReaderFactory
         return uis;
     }
 
+    /** Only used for GZIPped buffers, everything else is read directly. */
+    private static final class ByteBufferInputStream extends InputStream
+    {
+        private final ByteBuffer _buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer)
+        {
+            _buffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return _buffer.hasRemaining() ? (_buffer.get() & 0xff) : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length)
+        {
+            if (length == 0) return 0;
+            if (!_buffer.hasRemaining()) return -1;
+            int read = Math.min(length, _buffer.remaining());
+            _buffer.get(bytes, offset, read);
+            return read;
+        }
+    }
+
     private static final boolean has_binary_cookie(UnifiedInputStreamX uis)
         throws IOException
     {
-        byte[] bytes = new byte[BINARY_VERSION_MARKER_SIZE];
+        byte[] bytes = peek(uis, BINARY_VERSION_MARKER_SIZE);
+        boolean is_cookie = isIonBinary(bytes, 0, bytes.length);
+        return is_cookie;
+    }
 
-        // try to read the first 4 bytes and unread them (we want
+    private static final boolean has_gzip_cookie(UnifiedInputStreamX uis)
+        throws IOException
+    {
+        byte[] bytes = peek(uis, 2);
+        return IonStreamUtils.isGzip(bytes, 0, bytes.length);
+    }
+
+    private static final byte[] peek(UnifiedInputStreamX uis, int count)
+        throws IOException
+    {
+        byte[] bytes = new byte[count];
+
+        // try to read the first bytes and unread them (we want
         // the data stream undisturbed by our peeking ahead)
         int len;
-        for (len = 0; len < BINARY_VERSION_MARKER_SIZE; len++) {
+        for (len = 0; len < count; len++) {
             int c = uis.read();
             if (c == UnifiedInputStreamX.EOF) {
                 break;
@@ -343,7 +627,11 @@ public final class _Private_IonReaderFactory
             ii--;
             uis.unread(bytes[ii] & 0xff);
         }
-        boolean is_cookie = isIonBinary(bytes, 0, len);
-        return is_cookie;
+        if (len < count) {
+            byte[] read = new byte[len];
+            System.arraycopy(bytes, 0, read, 0, len);
+            bytes = read;
+        }
+        return bytes;
     }
 }
@@ -381,6 +381,22 @@ public class _Private_ScalarConversions
         private static final BigDecimal min_long_decimal_value = BigDecimal.valueOf(Long.MIN_VALUE);
         private static final BigDecimal max_long_decimal_value = BigDecimal.valueOf(Long.MAX_VALUE);
 
+        // powers of ten that are exact as longs, and as doubles
+        private static final long[] long_powers_of_ten = new long[19];
+        private static final double[] double_powers_of_ten = new double[23];
+        static {
+            long p = 1;
+            for (int ii=0; ii<long_powers_of_ten.length; ii++) {
+                long_powers_of_ten[ii] = p;
+                p *= 10;
+            }
+            double d = 1;
+            for (int ii=0; ii<double_powers_of_ten.length; ii++) {
+                double_powers_of_ten[ii] = d;
+                d *= 10;
+            }
+        }
+
         // member variables for the variant
         int         _authoritative_type_idx;             // the original type - this not the bit mask
         int         _types_set;                          // all the various type it's been cast to (includes the original)
@@ -396,6 +412,12 @@ public class _Private_ScalarConversions
         Date        _date_value;
         Timestamp   _timestamp_value;
 
+        // a decimal whose coefficient fits in a long is held as its
+        // unscaled value and scale, _decimal_value is only built on demand
+        boolean     _decimal_is_compact;
+        long        _decimal_unscaled;
+        int         _decimal_scale;
+
         //
         // public accessors
         //
@@ -405,6 +427,7 @@ public class _Private_ScalarConversions
         public final void clear() {
             _authoritative_type_idx = 0;
             _types_set = 0;
+            _decimal_is_compact = false;
         }
         public final boolean hasValueOfType(int value_type) {
             return ((_types_set & AS_TYPE.idx_to_bit_mask(value_type)) != 0);
@@ -463,6 +486,18 @@ public class _Private_ScalarConversions
             _decimal_value = value;
             set_value_type(AS_TYPE.decimal_value);
         }
+        /**
+         * Sets a decimal value of <code>unscaled * 10^-scale</code> without
+         * constructing a {@link Decimal}.  Negative zero can't be
+         * represented this way.
+         */
+        public final void setCompactDecimalValue(long unscaled, int scale) {
+            _decimal_is_compact = true;
+            _decimal_unscaled = unscaled;
+            _decimal_scale = scale;
+            _decimal_value = null;
+            set_value_type(AS_TYPE.decimal_value);
+        }
         public final void setValue(Date value) {
             _date_value = value;
             set_value_type(AS_TYPE.date_value);
@@ -555,11 +590,11 @@ public class _Private_ScalarConversions
         }
         public final BigDecimal getBigDecimal() {
             if (!hasValueOfType(AS_TYPE.decimal_value)) throw new ValueNotSetException("BigDecimal value not set");
-            return Decimal.bigDecimalValue(_decimal_value);
+            return Decimal.bigDecimalValue(decimal_value());
         }
         public final Decimal getDecimal() {
             if (!hasValueOfType(AS_TYPE.decimal_value)) throw new ValueNotSetException("BigDecimal value not set");
-            return _decimal_value;
+            return decimal_value();
         }
         public final Date getDate() {
             if (!hasValueOfType(AS_TYPE.date_value)) throw new ValueNotSetException("Date value not set");
@@ -730,7 +765,7 @@ public class _Private_ScalarConversions
             add_value_type(AS_TYPE.string_value);
         }
         private final void fn_from_decimal_to_string() {
-            _string_value = _decimal_value.toString();
+            _string_value = decimal_value().toString();
             add_value_type(AS_TYPE.string_value);
         }
         private final void fn_from_double_to_string() {
@@ -764,6 +799,14 @@ public class _Private_ScalarConversions
             add_value_type(AS_TYPE.int_value);
         }
         private final void fn_from_decimal_to_int() {
+            if (_decimal_is_compact) {
+                if (!compact_decimal_in_range(Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+                    throw new CantConvertException("BigDecimal value is too large to fit in an int");
+                }
+                _int_value = (int)compact_decimal_truncated();
+                add_value_type(AS_TYPE.int_value);
+                return;
+            }
             if (min_int_decimal_value.compareTo(_decimal_value) > 0
              || max_int_decimal_value.compareTo(_decimal_value) < 0
              ) {
@@ -795,6 +838,14 @@ public class _Private_ScalarConversions
             add_value_type(AS_TYPE.long_value);
         }
         private final void fn_from_decimal_to_long() {
+            if (_decimal_is_compact) {
+                if (!compact_decimal_in_range(Long.MIN_VALUE, Long.MAX_VALUE)) {
+                    throw new CantConvertException("BigDecimal value is too large to fit in a long");
+                }
+                _long_value = compact_decimal_truncated();
+                add_value_type(AS_TYPE.long_value);
+                return;
+            }
             if (min_long_decimal_value.compareTo(_decimal_value) > 0
              || max_long_decimal_value.compareTo(_decimal_value) < 0
             ) {
@@ -821,7 +872,7 @@ public class _Private_ScalarConversions
             add_value_type(AS_TYPE.bigInteger_value);
         }
         private final void fn_from_decimal_to_biginteger() {
-            _bigInteger_value = _decimal_value.toBigInteger();
+            _bigInteger_value = decimal_value().toBigInteger();
             add_value_type(AS_TYPE.bigInteger_value);
         }
         private final void fn_from_double_to_biginteger() {
@@ -860,9 +911,73 @@ public class _Private_ScalarConversions
             add_value_type(AS_TYPE.double_value);
         }
         private final void fn_from_decimal_to_double() {
-            _double_value = _decimal_value.doubleValue();
+            long unscaled = _decimal_unscaled;
+            int  scale = _decimal_scale;
+            if (_decimal_is_compact
+             && unscaled > -(1L << 53) && unscaled < (1L << 53)
+             && scale > -double_powers_of_ten.length && scale < double_powers_of_ten.length
+            ) {
+                // both operands are exact doubles, so the single rounding
+                // of the division or multiplication is the correct one
+                _double_value = (scale >= 0)
+                              ? unscaled / double_powers_of_ten[scale]
+                              : unscaled * double_powers_of_ten[-scale];
+            }
+            else {
+                _double_value = decimal_value().doubleValue();
+            }
             add_value_type(AS_TYPE.double_value);
         }
+
+        private final Decimal decimal_value() {
+            if (_decimal_is_compact) {
+                _decimal_value = Decimal.valueOf(BigInteger.valueOf(_decimal_unscaled), _decimal_scale);
+                _decimal_is_compact = false;
+            }
+            return _decimal_value;
+        }
+        private final boolean compact_decimal_in_range(long min, long max) {
+            long unscaled = _decimal_unscaled;
+            int  scale = _decimal_scale;
+            if (unscaled == 0) {
+                return true;
+            }
+            if (scale <= 0) {
+                if (-scale >= long_powers_of_ten.length) {
+                    return false;
+                }
+                long p = long_powers_of_ten[-scale];
+                if (unscaled > Long.MAX_VALUE / p || unscaled < -(Long.MAX_VALUE / p)) {
+                    return false;
+                }
+                long v = unscaled * p;
+                return (v >= min && v <= max);
+            }
+            long truncated = 0;
+            long remainder = unscaled;
+            if (scale < long_powers_of_ten.length) {
+                truncated = unscaled / long_powers_of_ten[scale];
+                remainder = unscaled % long_powers_of_ten[scale];
+            }
+            if (truncated < min || truncated > max) {
+                return false;
+            }
+            // the fraction takes the value past the end of the range
+            if (truncated == max && remainder > 0) return false;
+            if (truncated == min && remainder < 0) return false;
+            return true;
+        }
+        private final long compact_decimal_truncated() {
+            int scale = _decimal_scale;
+            if (scale <= 0) {
+                // only called after compact_decimal_in_range()
+                return (_decimal_unscaled == 0) ? 0 : _decimal_unscaled * long_powers_of_ten[-scale];
+            }
+            if (scale < long_powers_of_ten.length) {
+                return _decimal_unscaled / long_powers_of_ten[scale];
+            }
+            return 0;
+        }
         private final void fn_from_timestamp_to_date() {
             _date_value = _timestamp_value.dateValue();
             add_value_type(AS_TYPE.date_value);
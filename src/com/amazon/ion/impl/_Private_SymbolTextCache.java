@@ -0,0 +1,128 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+/**
+ * NOT FOR APPLICATION USE!
+ * <p>
+ * A bounded cache of symbol text, shared by the text readers of an
+ * {@link com.amazon.ion.system.IonReaderBuilder} so that repeated field
+ * names, annotations and symbols are returned as the same {@link String}
+ * instead of a fresh copy each time.
+ * <p>
+ * The cache is a direct-mapped table: each text has exactly one slot,
+ * chosen by its hash, and a miss replaces whatever the slot held. Lookups
+ * hash and compare the characters in place, so a hit allocates nothing.
+ * <p>
+ * This class is safe for use by multiple threads without locking. Slots
+ * only ever hold immutable {@link String}s, so a thread that sees a stale
+ * or empty slot simply misses and creates the text itself.
+ */
+public final class _Private_SymbolTextCache
+{
+    /**
+     * Text longer than this isn't cached, as it's unlikely to repeat and
+     * would be costly to retain.
+     */
+    static final int MAX_TEXT_LENGTH = 64;
+
+    /**
+     * The largest size a cache may be given.  This is far more distinct
+     * symbol text than data normally repeats, and keeps a cache from
+     * retaining an unreasonable amount of memory.
+     */
+    public static final int MAX_SIZE = 1 << 16;
+
+    private final String[] _slots;
+    private final int      _mask;
+
+    /**
+     * @param size the maximum number of cached texts, rounded up to a
+     * power of two; at most {@link #MAX_SIZE}.
+     */
+    public _Private_SymbolTextCache(int size)
+    {
+        if (size < 1 || size > MAX_SIZE)
+        {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SIZE);
+        }
+        int capacity = 1;
+        while (capacity < size)
+        {
+            capacity <<= 1;
+        }
+        _slots = new String[capacity];
+        _mask = capacity - 1;
+    }
+
+    /**
+     * @return the number of slots in the cache.
+     */
+    public int size()
+    {
+        return _slots.length;
+    }
+
+    /**
+     * Returns the cached text equal to the given characters, caching a new
+     * copy of them if there is none.
+     *
+     * @return a {@link String} equal to {@code text}, not null.
+     */
+    public String intern(CharSequence text)
+    {
+        int length = text.length();
+        if (length > MAX_TEXT_LENGTH)
+        {
+            return text.toString();
+        }
+
+        // the same function as String.hashCode(), so that the hash of a
+        // cached String is comparable, but computed without creating one
+        int hash = 0;
+        for (int i = 0; i < length; i++)
+        {
+            hash = 31 * hash + text.charAt(i);
+        }
+        // spread the high bits into the index
+        int index = (hash ^ (hash >>> 16)) & _mask;
+
+        String cached = _slots[index];
+        if (cached != null
+            && cached.length() == length
+            && cached.hashCode() == hash
+            && equals(cached, text, length))
+        {
+            return cached;
+        }
+
+        String s = text.toString();
+        _slots[index] = s;
+        return s;
+    }
+
+    private static boolean equals(String cached, CharSequence text, int length)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            if (cached.charAt(i) != text.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+/**
+ * NOT FOR APPLICATION USE!
+ * <p>
+ * The configuration of {@link com.amazon.ion.system.IonReaderBuilder} that
+ * applies only to the text readers it builds.
+ */
+public final class _Private_TextReaderOptions
+{
+    /**
+     * The options of readers that accept the full Ion text grammar.
+     */
+    public static final _Private_TextReaderOptions DEFAULT =
+        new _Private_TextReaderOptions(false, true, null);
+
+    final boolean _is_json;
+    final boolean _track_lines;
+    final _Private_SymbolTextCache _symbol_cache;
+
+    /**
+     * @param isJson true if readers only accept JSON.
+     * @param trackLines true if readers count lines and columns for
+     * {@link com.amazon.ion.TextSpan}s and error messages.
+     * @param symbolCache the cache of symbol text that readers share,
+     * or null if each reader creates its own.
+     */
+    public _Private_TextReaderOptions(boolean isJson,
+                                      boolean trackLines,
+                                      _Private_SymbolTextCache symbolCache)
+    {
+        _is_json = isJson;
+        _track_lines = trackLines;
+        _symbol_cache = symbolCache;
+    }
+}
@@ -819,6 +819,20 @@ public final class _Private_Utils
         return ((LocalSymbolTable) symtab).makeCopy();
     }
 
+    /**
+     * Returns the factory for the local symbol tables of streaming readers.
+     *
+     * @param lazySymbolText
+     *          whether binary readers should leave declared symbols undecoded
+     *          until each one is first resolved
+     */
+    public static _Private_LocalSymbolTableFactory localSymbolTableFactory(boolean lazySymbolText)
+    {
+        return lazySymbolText
+            ? LocalSymbolTable.LAZY_SYMBOL_TEXT_LST_FACTORY
+            : LocalSymbolTable.DEFAULT_LST_FACTORY;
+    }
+
     /**
      * Trampoline to {@link LocalSymbolTableAsStruct.Factory#Factory(ValueFactory)}
      * @param imageFactory
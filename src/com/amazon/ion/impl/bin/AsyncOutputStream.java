@@ -0,0 +1,451 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Writes to a stream in the background, so that the writer filling the next buffers doesn't wait on I/O.
+ * The {@link IonRawBinaryWriter} recognizes this stream and hands over the {@link Block}s holding its finished data
+ * with {@link #write(ByteBuffer[], List)}, which are closed once written; anything else written to it is copied.
+ * <p>
+ * Work runs on an {@link Executor} one piece at a time and in order, so the executor may be shared by many
+ * streams. Writes block while more than a given number of bytes is waiting to be written. The first failure to
+ * write is reported by every later call, and the rest of the data is dropped.
+ * <p>
+ * This class is not thread-safe for its writers, but may be used by one writer thread alongside the executor.
+ */
+/*package*/ final class AsyncOutputStream extends OutputStream implements Runnable
+{
+    private static final int COPY_SIZE = 4096;
+
+    /** Data for the stream, followed by an optional flush or close of it. */
+    private static final class Chunk
+    {
+        final ByteBuffer[] segments;
+        final List<Block> blocks;
+        final long length;
+        final boolean flush;
+        final boolean close;
+
+        Chunk(final ByteBuffer[] segments, final List<Block> blocks, final boolean flush, final boolean close)
+        {
+            long length = 0;
+            for (final ByteBuffer segment : segments)
+            {
+                length += segment.remaining();
+            }
+            this.segments = segments;
+            this.blocks = blocks;
+            this.length = length;
+            this.flush = flush;
+            this.close = close;
+        }
+
+        void release()
+        {
+            for (final Block block : blocks)
+            {
+                block.close();
+            }
+        }
+    }
+
+    /** The outcome of the stream, once it's closed. */
+    private static final class Completion implements Future<Void>
+    {
+        private boolean done;
+        private Throwable failure;
+
+        synchronized void complete(final Throwable failure)
+        {
+            this.failure = failure;
+            this.done = true;
+            notifyAll();
+        }
+
+        public boolean cancel(final boolean mayInterruptIfRunning)
+        {
+            return false;
+        }
+
+        public boolean isCancelled()
+        {
+            return false;
+        }
+
+        public synchronized boolean isDone()
+        {
+            return done;
+        }
+
+        public synchronized Void get() throws InterruptedException, ExecutionException
+        {
+            while (!done)
+            {
+                wait();
+            }
+            return result();
+        }
+
+        public synchronized Void get(final long timeout, final TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException
+        {
+            long remaining = unit.toNanos(timeout);
+            final long deadline = System.nanoTime() + remaining;
+            while (!done)
+            {
+                if (remaining <= 0)
+                {
+                    throw new TimeoutException();
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+            return result();
+        }
+
+        private Void result() throws ExecutionException
+        {
+            if (failure != null)
+            {
+                throw new ExecutionException(failure);
+            }
+            return null;
+        }
+    }
+
+    private final OutputStream out;
+    private final Executor executor;
+    private final long maxInFlightBytes;
+    private final Completion completion;
+    /** Only touched by the task draining the queue. */
+    private byte[] copyBuffer;
+
+    // guarded by this
+    private final ArrayDeque<Chunk> queue;
+    private long inFlightBytes;
+    private int inFlightChunks;
+    private boolean scheduled;
+    private boolean closed;
+    private Throwable failure;
+
+    /*package*/ AsyncOutputStream(final OutputStream out, final Executor executor, final long maxInFlightBytes)
+    {
+        if (out == null || executor == null) { throw new NullPointerException(); }
+        if (maxInFlightBytes < 1)
+        {
+            throw new IllegalArgumentException("Max in-flight bytes must be positive: " + maxInFlightBytes);
+        }
+        this.out = out;
+        this.executor = executor;
+        this.maxInFlightBytes = maxInFlightBytes;
+        this.completion = new Completion();
+        this.queue = new ArrayDeque<Chunk>();
+    }
+
+    /**
+     * Queues the given segments to be written, taking ownership of the blocks that hold them, which are closed
+     * once written or dropped. Blocks while the stream has too much data waiting.
+     */
+    /*package*/ void write(final ByteBuffer[] segments, final List<Block> blocks) throws IOException
+    {
+        submit(new Chunk(segments, blocks, false, false));
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException
+    {
+        final byte[] copy = new byte[len];
+        System.arraycopy(b, off, copy, 0, len);
+        submit(new Chunk(new ByteBuffer[] { ByteBuffer.wrap(copy) }, Collections.<Block>emptyList(), false, false));
+    }
+
+    @Override
+    public void write(final int b) throws IOException
+    {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    /** Queues a flush of the stream after the data written so far; doesn't wait for it. */
+    @Override
+    public void flush() throws IOException
+    {
+        submit(new Chunk(new ByteBuffer[0], Collections.<Block>emptyList(), true, false));
+    }
+
+    /** Waits until the data written so far has been written to the stream, without closing it. */
+    /*package*/ void drain() throws IOException
+    {
+        synchronized (this)
+        {
+            while (inFlightChunks > 0)
+            {
+                try
+                {
+                    wait();
+                }
+                catch (final InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            checkFailure();
+        }
+    }
+
+    /**
+     * Queues the close of the stream after the data written so far, returning a future that completes once it's
+     * closed, or fails with the first error writing to it.
+     */
+    /*package*/ Future<Void> closeAsync() throws IOException
+    {
+        synchronized (this)
+        {
+            if (closed)
+            {
+                return completion;
+            }
+        }
+        submit(new Chunk(new ByteBuffer[0], Collections.<Block>emptyList(), false, true));
+        return completion;
+    }
+
+    /** Closes the stream once the data written so far has been written, and waits for it. */
+    @Override
+    public void close() throws IOException
+    {
+        final Future<Void> closing = closeAsync();
+        try
+        {
+            closing.get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        catch (final ExecutionException e)
+        {
+            throw failed(e.getCause());
+        }
+    }
+
+    private void submit(final Chunk chunk) throws IOException
+    {
+        boolean queued = false;
+        boolean schedule = false;
+        try
+        {
+            synchronized (this)
+            {
+                if (closed)
+                {
+                    throw new IOException("Cannot write to a closed stream");
+                }
+                if (!chunk.close)
+                {
+                    // a chunk larger than the limit is let through once it has the stream to itself
+                    while (failure == null && inFlightBytes > 0 && inFlightBytes + chunk.length > maxInFlightBytes)
+                    {
+                        wait();
+                    }
+                    // the close is queued even after a failure, so the stream is still released
+                    checkFailure();
+                }
+                queue.add(chunk);
+                queued = true;
+                inFlightBytes += chunk.length;
+                inFlightChunks++;
+                closed = chunk.close;
+                if (!scheduled)
+                {
+                    scheduled = true;
+                    schedule = true;
+                }
+            }
+            if (schedule)
+            {
+                executor.execute(this);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        catch (final RejectedExecutionException e)
+        {
+            // nothing will drain the queue, so drop it here, closing the stream if that was queued
+            synchronized (this)
+            {
+                if (failure == null)
+                {
+                    failure = e;
+                }
+            }
+            run();
+            throw failed(e);
+        }
+        finally
+        {
+            if (!queued)
+            {
+                chunk.release();
+            }
+        }
+    }
+
+    /** Writes out the queued chunks, until the queue is empty. */
+    public void run()
+    {
+        while (true)
+        {
+            final Chunk chunk;
+            final boolean failed;
+            synchronized (this)
+            {
+                chunk = queue.poll();
+                if (chunk == null)
+                {
+                    scheduled = false;
+                    return;
+                }
+                failed = failure != null;
+            }
+
+            Throwable error = null;
+            try
+            {
+                if (!failed)
+                {
+                    writeChunk(chunk);
+                }
+            }
+            catch (final IOException e)
+            {
+                error = e;
+            }
+            catch (final RuntimeException e)
+            {
+                error = e;
+            }
+            finally
+            {
+                chunk.release();
+            }
+            if (chunk.close)
+            {
+                try
+                {
+                    out.close();
+                }
+                catch (final IOException e)
+                {
+                    if (error == null)
+                    {
+                        error = e;
+                    }
+                }
+            }
+
+            final Throwable outcome;
+            synchronized (this)
+            {
+                if (failure == null)
+                {
+                    failure = error;
+                }
+                outcome = failure;
+                inFlightBytes -= chunk.length;
+                inFlightChunks--;
+                notifyAll();
+            }
+            if (chunk.close)
+            {
+                completion.complete(outcome);
+            }
+        }
+    }
+
+    private void writeChunk(final Chunk chunk) throws IOException
+    {
+        if (chunk.segments.length > 0)
+        {
+            if (out instanceof ByteBufferSinkOutputStream)
+            {
+                ((ByteBufferSinkOutputStream) out).write(chunk.segments, 0, chunk.segments.length);
+            }
+            else
+            {
+                for (final ByteBuffer segment : chunk.segments)
+                {
+                    writeSegment(segment);
+                }
+            }
+        }
+        if (chunk.flush)
+        {
+            out.flush();
+        }
+    }
+
+    private void writeSegment(final ByteBuffer segment) throws IOException
+    {
+        if (segment.hasArray())
+        {
+            out.write(segment.array(), segment.arrayOffset() + segment.position(), segment.remaining());
+            return;
+        }
+        if (copyBuffer == null)
+        {
+            copyBuffer = new byte[COPY_SIZE];
+        }
+        while (segment.hasRemaining())
+        {
+            final int amount = Math.min(segment.remaining(), copyBuffer.length);
+            segment.get(copyBuffer, 0, amount);
+            out.write(copyBuffer, 0, amount);
+        }
+    }
+
+    /** Throws the first failure to write, if there has been one. Must hold the lock. */
+    private void checkFailure() throws IOException
+    {
+        if (failure != null)
+        {
+            throw failed(failure);
+        }
+    }
+
+    private static IOException failed(final Throwable cause)
+    {
+        return new IOException("Writing to the stream in the background failed", cause);
+    }
+}
@@ -16,24 +16,30 @@
 package com.amazon.ion.impl.bin;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 
 /**
  * An abstraction for a block of managed memory.  A {@link Block} is acquired by a caller via
  * {@link BlockAllocator#allocateBlock()} and released by {@link #close()}.
  * <p>
+ * A block is backed either by an array on the heap ({@link HeapBlock}), or by a direct {@link ByteBuffer} that is
+ * not ({@link DirectBlock}).  Callers access the data through the methods of this class, which each kind implements
+ * without checking which kind it is.
+ * <p>
  * This class and its implementations are <b>not</b> thread-safe.
  */
 /*package*/ abstract class Block implements Closeable
 {
-    /** The data backing this block. */
-    public final byte[] data;
+    private final int capacity;
     /** The first index for which data has not been written to or read from. */
     public int limit;
 
-    /*package*/ Block(final byte[] data)
+    /*package*/ Block(final int capacity)
     {
-        this.data = data;
+        this.capacity = capacity;
         this.limit = 0;
     }
 
@@ -46,15 +52,30 @@ import java.io.Closeable;
     /** Returns the unused amount of bytes from the limit to the capacity of the data array. */
     public final int remaining()
     {
-        return data.length - limit;
+        return capacity - limit;
     }
 
     /** Returns the underlying data array's capacity. */
     public final int capacity()
     {
-        return data.length;
+        return capacity;
     }
 
+    /** Returns the octet at the given index. */
+    public abstract byte get(int index);
+
+    /** Sets the octet at the given index. */
+    public abstract void put(int index, byte value);
+
+    /** Copies octets from an array to the block, starting at the given index. */
+    public abstract void put(int index, byte[] src, int off, int len);
+
+    /** Writes a segment of the block to a stream. */
+    public abstract void writeTo(OutputStream out, int off, int len) throws IOException;
+
+    /** Returns a buffer over a segment of the block, sharing its data. */
+    public abstract ByteBuffer slice(int off, int len);
+
     /**
      * Releases the block back to the {@link BlockAllocator} from whence it was allocated from.
      * This method <b>must</b> be called when the block is no longer needed.
@@ -31,7 +31,7 @@ package com.amazon.ion.impl.bin;
                 @Override
                 public Block allocateBlock()
                 {
-                    return new Block(new byte[blockSize])
+                    return new HeapBlock(new byte[blockSize])
                     {
                         @Override
                         public void close() {}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import com.amazon.ion.ByteBufferSink;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SelectableChannel;
+
+/**
+ * Adapts a {@link ByteBufferSink} to the {@link OutputStream} the writers are built over.  The
+ * {@link IonRawBinaryWriter} recognizes this stream and hands its buffered blocks to the sink with
+ * {@link #write(ByteBuffer[], int, int)}; anything else written to it is wrapped, not copied.
+ */
+/*package*/ final class ByteBufferSinkOutputStream extends OutputStream
+{
+    private final ByteBufferSink sink;
+    private final ByteBuffer[] single;
+
+    /*package*/ ByteBufferSinkOutputStream(final ByteBufferSink sink)
+    {
+        if (sink == null) { throw new NullPointerException(); }
+        this.sink = sink;
+        this.single = new ByteBuffer[1];
+    }
+
+    /*package*/ void write(final ByteBuffer[] buffers, final int offset, final int length) throws IOException
+    {
+        sink.write(buffers, offset, length);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException
+    {
+        single[0] = ByteBuffer.wrap(b, off, len);
+        try
+        {
+            sink.write(single, 0, 1);
+        }
+        finally
+        {
+            single[0] = null;
+        }
+    }
+
+    @Override
+    public void write(final int b) throws IOException
+    {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        sink.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        sink.close();
+    }
+
+    /**
+     * Returns a sink that writes to a channel. The channel must be in blocking mode, as every buffer is written out
+     * before the sink returns; a channel that makes no progress on a write fails it rather than being retried.
+     */
+    /*package*/ static ByteBufferSink channelSink(final GatheringByteChannel channel)
+    {
+        if (channel == null) { throw new NullPointerException(); }
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking())
+        {
+            throw new IllegalArgumentException("Channel must be in blocking mode");
+        }
+        return new ByteBufferSink()
+        {
+            public void write(final ByteBuffer[] buffers, final int offset, final int length) throws IOException
+            {
+                final int end = offset + length;
+                int first = offset;
+                while (first < end && !buffers[first].hasRemaining())
+                {
+                    first++;
+                }
+                while (first < end)
+                {
+                    if (channel.write(buffers, first, end - first) == 0)
+                    {
+                        // a blocking channel always writes something, so retrying would spin
+                        throw new IOException("Channel made no progress writing; it must be in blocking mode");
+                    }
+                    // channels may write less than asked for, so pick up from the first buffer with data left
+                    while (first < end && !buffers[first].hasRemaining())
+                    {
+                        first++;
+                    }
+                }
+            }
+
+            public void flush() {}
+
+            public void close() throws IOException
+            {
+                channel.close();
+            }
+        };
+    }
+}
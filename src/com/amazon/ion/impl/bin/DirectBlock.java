@@ -0,0 +1,81 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link Block} backed by a direct {@link ByteBuffer}, outside of the heap.
+ */
+/*package*/ abstract class DirectBlock extends Block
+{
+    /** Size of the intermediate array used to copy data off the heap to a stream. */
+    private static final int COPY_SIZE = 4096;
+
+    private final ByteBuffer buffer;
+
+    /*package*/ DirectBlock(final ByteBuffer buffer)
+    {
+        super(buffer.capacity());
+        this.buffer = buffer;
+    }
+
+    @Override
+    public final byte get(final int index)
+    {
+        return buffer.get(index);
+    }
+
+    @Override
+    public final void put(final int index, final byte value)
+    {
+        buffer.put(index, value);
+    }
+
+    @Override
+    public final void put(final int index, final byte[] src, final int off, final int len)
+    {
+        buffer.position(index);
+        buffer.put(src, off, len);
+    }
+
+    @Override
+    public final void writeTo(final OutputStream out, int off, int len) throws IOException
+    {
+        // streams only take arrays, so this copies through one
+        final byte[] copy = new byte[Math.min(len, COPY_SIZE)];
+        while (len > 0)
+        {
+            final int amount = Math.min(len, copy.length);
+            buffer.position(off);
+            buffer.get(copy, 0, amount);
+            out.write(copy, 0, amount);
+            off += amount;
+            len -= amount;
+        }
+    }
+
+    @Override
+    public final ByteBuffer slice(final int off, final int len)
+    {
+        final ByteBuffer slice = buffer.duplicate();
+        slice.limit(off + len);
+        slice.position(off);
+        return slice;
+    }
+}
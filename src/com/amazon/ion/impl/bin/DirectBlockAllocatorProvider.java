@@ -0,0 +1,133 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A pooling implementation of {@link BlockAllocatorProvider} whose blocks are backed by memory outside of the Java
+ * heap, so that writers buffering large amounts of data don't churn through heap blocks.  Combined with output to a
+ * {@link java.nio.channels.GatheringByteChannel}, the encoded data is never copied onto the heap.
+ * <p>
+ * Direct buffers are costly to allocate and are only released by the garbage collector, so blocks are carved out of
+ * larger slabs and pooled in a global thread-safe free block list for each block size, like
+ * {@link PooledBlockAllocatorProvider}.  A slab is released once none of its blocks are reachable.
+ * <p>
+ * This implementation is thread-safe.
+ */
+/*package*/ final class DirectBlockAllocatorProvider extends BlockAllocatorProvider
+{
+    /** The size of the slabs blocks are carved from, unless a block is larger. */
+    static final int SLAB_SIZE = 1024 * 1024; // 1MB
+
+    /**
+     * A {@link BlockAllocator} of for a particular size that carves blocks from a shared slab and has a single
+     * thread-safe free list.
+     * <p>
+     * This implementation is thread-safe.
+     */
+    private final class DirectBlockAllocator extends BlockAllocator
+    {
+        private final int blockSize, blockLimit;
+        private final ConcurrentLinkedQueue<Block> freeBlocks;
+        static final int FREE_CAPACITY = 1024 * 1024 * 64; // 64MB
+        private ByteBuffer slab;
+
+        public DirectBlockAllocator(final int blockSize)
+        {
+            this.blockSize = blockSize;
+            this.freeBlocks = new ConcurrentLinkedQueue<Block>();
+            this.blockLimit = FREE_CAPACITY / blockSize;
+            this.slab = null;
+        }
+
+        /** Carves the memory for a new block from the current slab, allocating a new slab when it's used up. */
+        private synchronized ByteBuffer carve()
+        {
+            if (slab == null || slab.remaining() < blockSize)
+            {
+                slab = ByteBuffer.allocateDirect(Math.max(SLAB_SIZE / blockSize, 1) * blockSize);
+            }
+            final int start = slab.position();
+            slab.limit(start + blockSize);
+            final ByteBuffer memory = slab.slice();
+            slab.limit(slab.capacity());
+            slab.position(start + blockSize);
+            return memory;
+        }
+
+        @Override
+        public Block allocateBlock()
+        {
+            Block block = freeBlocks.poll();
+            if (block == null)
+            {
+                block = new DirectBlock(carve())
+                {
+                    @Override
+                    public void close()
+                    {
+                        if (freeBlocks.size() < blockLimit) {
+                            reset();
+                            freeBlocks.add(this);
+                        }
+                    }
+                };
+            }
+            return block;
+        }
+
+        @Override
+        public int getBlockSize()
+        {
+            return blockSize;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private final ConcurrentMap<Integer, BlockAllocator> allocators;
+
+    public DirectBlockAllocatorProvider()
+    {
+        allocators = new ConcurrentHashMap<Integer, BlockAllocator>();
+    }
+
+    @Override
+    public BlockAllocator vendAllocator(final int blockSize)
+    {
+        if (blockSize <= 0)
+        {
+            throw new IllegalArgumentException("Invalid block size: " + blockSize);
+        }
+
+        BlockAllocator allocator = allocators.get(blockSize);
+        if (allocator == null)
+        {
+            allocator = new DirectBlockAllocator(blockSize);
+            final BlockAllocator existingAllocator = allocators.putIfAbsent(blockSize, allocator);
+            if (existingAllocator != null)
+            {
+                allocator = existingAllocator;
+            }
+        }
+        return allocator;
+    }
+}
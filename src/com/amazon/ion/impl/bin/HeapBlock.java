@@ -0,0 +1,65 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link Block} backed by an array on the heap.
+ */
+/*package*/ abstract class HeapBlock extends Block
+{
+    /** The data backing this block. */
+    public final byte[] data;
+
+    /*package*/ HeapBlock(final byte[] data)
+    {
+        super(data.length);
+        this.data = data;
+    }
+
+    @Override
+    public final byte get(final int index)
+    {
+        return data[index];
+    }
+
+    @Override
+    public final void put(final int index, final byte value)
+    {
+        data[index] = value;
+    }
+
+    @Override
+    public final void put(final int index, final byte[] src, final int off, final int len)
+    {
+        System.arraycopy(src, off, data, index, len);
+    }
+
+    @Override
+    public final void writeTo(final OutputStream out, final int off, final int len) throws IOException
+    {
+        out.write(data, off, len);
+    }
+
+    @Override
+    public final ByteBuffer slice(final int off, final int len)
+    {
+        return ByteBuffer.wrap(data, off, len);
+    }
+}
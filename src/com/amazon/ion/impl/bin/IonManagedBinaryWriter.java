@@ -30,9 +30,11 @@ import static com.amazon.ion.impl.bin.Symbols.systemSymbolTable;
 import static com.amazon.ion.impl.bin.Symbols.systemSymbols;
 import static java.util.Collections.unmodifiableList;
 
+import com.amazon.ion.AsyncWriter;
 import com.amazon.ion.IonCatalog;
 import com.amazon.ion.IonException;
 import com.amazon.ion.IonType;
+import com.amazon.ion.ResettableWriter;
 import com.amazon.ion.SymbolTable;
 import com.amazon.ion.SymbolToken;
 import com.amazon.ion.Timestamp;
@@ -51,6 +53,8 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /** Wraps {@link IonRawBinaryWriter} with symbol table management. */
 @SuppressWarnings("deprecation")
@@ -376,7 +380,7 @@ import java.util.Map;
                     {
 
                         // flush out the pre-existing symbol and user content before the user provided symbol table
-                        self.finish();
+                        self.finish(/*mayRetainLocals*/ false);
 
                         // replace the symbol table context with the user provided one
                         // TODO determine if the resolver mode should be configurable for this use case
@@ -642,15 +646,24 @@ import java.util.Map;
 
     private final IonCatalog                    catalog;
     private final ImportedSymbolContext         bootstrapImports;
+    private final SymbolTable                   initialSymbolTable;
+    private final ImportedSymbolContext         initialImports;
 
     private ImportedSymbolContext               imports;
     private final Map<String, SymbolToken>      locals;
     private boolean                             localsLocked;
+    /** locals kept by {@link #reset} that the current stream hasn't declared yet */
+    private boolean                             localsPending;
     private SymbolTable                         localSymbolTableView;
 
     private final IonRawBinaryWriter            symbols;
     private final IonRawBinaryWriter            user;
 
+    /** the executor writing out finished data in the background, or null to write it as it's finished */
+    private final Executor                      asyncExecutor;
+    private final long                          maxInFlightBytes;
+    private AsyncOutputStream                   async;
+
     private UserState                           userState;
     private SymbolState                         symbolState;
 
@@ -660,6 +673,7 @@ import java.util.Map;
     private final List<String>                  userSymbols;
     private final ImportDescriptor              userCurrentImport;
     private final boolean                       lstAppendEnabled;
+    private final int                           localsRetentionLimit;
     private boolean                             isUserLSTAppend;
 
     private boolean                             closed;
@@ -669,25 +683,32 @@ import java.util.Map;
                                        throws IOException
     {
         super(builder.optimization);
+        this.asyncExecutor = builder.asyncExecutor;
+        this.maxInFlightBytes = builder.maxInFlightBytes;
+        this.async = (asyncExecutor == null) ? null : new AsyncOutputStream(out, asyncExecutor, maxInFlightBytes);
+        final OutputStream target = (async == null) ? out : async;
         this.symbols = new IonRawBinaryWriter(
             builder.provider,
             builder.symbolsBlockSize,
-            out,
+            target,
             WriteValueOptimization.NONE, // optimization is not relevant for the nested raw writer
             StreamCloseMode.NO_CLOSE,
             StreamFlushMode.NO_FLUSH,
             builder.preallocationMode,
-            builder.isFloatBinary32Enabled
+            builder.isFloatBinary32Enabled,
+            builder.isContainerLengthPredictionEnabled
         );
         this.user = new IonRawBinaryWriter(
             builder.provider,
             builder.userBlockSize,
-            out,
+            target,
             WriteValueOptimization.NONE, // optimization is not relevant for the nested raw writer
-            StreamCloseMode.CLOSE,
+            // the background stream is closed by this writer, which may not wait for it
+            (async == null) ? StreamCloseMode.CLOSE : StreamCloseMode.NO_CLOSE,
             StreamFlushMode.FLUSH,
             builder.preallocationMode,
-            builder.isFloatBinary32Enabled
+            builder.isFloatBinary32Enabled,
+            builder.isContainerLengthPredictionEnabled
         );
 
         this.catalog = builder.catalog;
@@ -695,6 +716,7 @@ import java.util.Map;
 
         this.locals = new LinkedHashMap<String, SymbolToken>();
         this.localsLocked = false;
+        this.localsPending = false;
         this.localSymbolTableView = new LocalSymbolTableView();
         this.symbolState = SymbolState.SYSTEM_SYMBOLS;
         this.closed = false;
@@ -706,18 +728,32 @@ import java.util.Map;
         this.userSymbols = new ArrayList<String>();
         this.userCurrentImport = new ImportDescriptor();
         this.lstAppendEnabled = builder.isLocalSymbolTableAppendEnabled;
+        this.localsRetentionLimit = builder.localSymbolTableRetentionLimit;
         this.isUserLSTAppend = false;
 
         // TODO decide if initial LST should survive finish() and seed the next LST
         final SymbolTable lst = builder.initialSymbolTable;
+        this.initialSymbolTable = lst;
         if (lst != null)
         {
             // build import context from seeded LST
             final List<SymbolTable> lstImportList = Arrays.asList(lst.getImportedTables());
             // TODO determine if the resolver mode should be configurable for this use case
-            final ImportedSymbolContext lstImports = new ImportedSymbolContext(ImportedSymbolResolverMode.DELEGATE, lstImportList);
-            this.imports = lstImports;
+            this.initialImports = new ImportedSymbolContext(ImportedSymbolResolverMode.DELEGATE, lstImportList);
+        }
+        else
+        {
+            this.initialImports = builder.imports;
+        }
+        startWithInitialSymbolTable();
+    }
 
+    private void startWithInitialSymbolTable() throws IOException
+    {
+        this.imports = initialImports;
+        final SymbolTable lst = initialSymbolTable;
+        if (lst != null)
+        {
             // intern all of the local symbols provided from LST
             final Iterator<String> symbolIter = lst.iterateDeclaredSymbolNames();
             while (symbolIter.hasNext())
@@ -729,10 +765,6 @@ import java.util.Map;
             // TODO determine if we really need to force emitting LST if there are no imports/locals
             startLocalSymbolTableIfNeeded(/*writeIVM*/ true);
         }
-        else
-        {
-            this.imports = builder.imports;
-        }
     }
 
     public _Private_IonRawWriter getRawWriter()
@@ -755,7 +787,7 @@ import java.util.Map;
     public void writeIonVersionMarker() throws IOException
     {
         // this has to force a reset of symbol table context
-        finish();
+        finish(/*mayRetainLocals*/ false);
     }
 
     public int getDepth()
@@ -767,7 +799,9 @@ import java.util.Map;
 
     private void startLocalSymbolTableIfNeeded(final boolean writeIVM) throws IOException
     {
-        boolean isAppend = symbolState == SymbolState.LOCAL_SYMBOLS_FLUSHED && lstAppendEnabled;
+        // a retained table can only be added to by appending
+        boolean isAppend = symbolState == SymbolState.LOCAL_SYMBOLS_FLUSHED
+                           && (lstAppendEnabled || localsRetentionLimit > 0);
         if (symbolState == SymbolState.SYSTEM_SYMBOLS || isAppend)
         {
             if (writeIVM && !isAppend)
@@ -805,6 +839,16 @@ import java.util.Map;
             // XXX no step out
             symbolState = SymbolState.LOCAL_SYMBOLS_WITH_IMPORTS_ONLY;
         }
+        if (localsPending)
+        {
+            // declare the symbols that reset() kept for this stream
+            localsPending = false;
+            startLocalSymbolTableSymbolListIfNeeded();
+            for (final String text : locals.keySet())
+            {
+                symbols.writeString(text);
+            }
+        }
     }
 
     private void startLocalSymbolTableSymbolListIfNeeded() throws IOException
@@ -839,6 +883,10 @@ import java.util.Map;
             }
             // try the locals
             token = locals.get(text);
+            if (token != null && localsPending)
+            {
+                startLocalSymbolTableIfNeeded(/*writeIVM*/ true);
+            }
             if (token == null)
             {
                 if (localsLocked)
@@ -881,13 +929,24 @@ import java.util.Map;
             // so an error would be raised on read. Fail early on write.
             throw new UnknownSymbolException(sid);
         }
+        if (localsPending && sid >= imports.localSidStart)
+        {
+            try
+            {
+                startLocalSymbolTableIfNeeded(/*writeIVM*/ true);
+            }
+            catch (final IOException e)
+            {
+                throw new IonException("Error synthesizing symbols", e);
+            }
+        }
         // no text, we just return what we got
         return token;
     }
 
     public SymbolTable getSymbolTable()
     {
-        if (symbolState == SymbolState.SYSTEM_SYMBOLS && imports.parents.isEmpty())
+        if (symbolState == SymbolState.SYSTEM_SYMBOLS && imports.parents.isEmpty() && !localsPending)
         {
             return Symbols.systemSymbolTable();
         }
@@ -1035,10 +1094,11 @@ import java.util.Map;
     private boolean handleIVM(int sid) throws IOException {
         if (user.isIVM(sid))
         {
-            if (user.hasWrittenValuesSinceFinished())
+            if (user.hasWrittenValuesSinceFinished() || symbolState == SymbolState.LOCAL_SYMBOLS_FLUSHED)
             {
-                // this explicitly translates SID 2 to an IVM and flushes out local symbol state
-                finish();
+                // this explicitly translates SID 2 to an IVM and flushes out local symbol state,
+                // including any that finish() retained
+                finish(/*mayRetainLocals*/ false);
             }
             else
             {
@@ -1105,7 +1165,7 @@ import java.util.Map;
 
     public void flush() throws IOException
     {
-        if (getDepth() == 0 && !user.hasAnnotations() && (localsLocked || lstAppendEnabled))
+        if (getDepth() == 0 && !user.hasAnnotations() && (localsLocked || lstAppendEnabled || localsRetentionLimit > 0))
         {
             unsafeFlush();
         }
@@ -1126,21 +1186,127 @@ import java.util.Map;
     }
 
     public void finish() throws IOException
+    {
+        finish(/*mayRetainLocals*/ true);
+    }
+
+    /**
+     * @param mayRetainLocals false if the symbol table context must end,
+     * regardless of the retention limit.
+     */
+    private void finish(final boolean mayRetainLocals) throws IOException
     {
         if (getDepth() != 0)
         {
             throw new IllegalStateException("IonWriter.finish() can only be called at top-level.");
         }
         unsafeFlush();
+        if (mayRetainLocals && localsRetentionLimit > 0 && locals.size() <= localsRetentionLimit)
+        {
+            // the data that follows continues in the current symbol table context
+            return;
+        }
         // Reset local symbols
-        // TODO be more configurable with respect to local symbol table caching
         locals.clear();
         localsLocked = false;
+        localsPending = false;
         symbolState = SymbolState.SYSTEM_SYMBOLS;
         imports = bootstrapImports;
     }
 
+    private void reset(final OutputStream out, final boolean keepSymbolTable) throws IOException
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("Cannot reset a closed writer.");
+        }
+        if (getDepth() != 0)
+        {
+            throw new IllegalStateException("IonWriter can only be reset at top-level.");
+        }
+        if (user.hasAnnotations())
+        {
+            throw new IllegalStateException("IonWriter cannot be reset with pending annotations.");
+        }
+        if (out == null) { throw new NullPointerException(); }
+        if (!user.hasWrittenValuesSinceFinished()
+            && (symbolState == SymbolState.LOCAL_SYMBOLS_WITH_IMPORTS_ONLY
+                || symbolState == SymbolState.LOCAL_SYMBOLS))
+        {
+            // a table started without values after it, such as the initial
+            // symbol table, must still be closed for the stream to finish
+            symbolState.closeTable(symbols);
+            symbolState = SymbolState.LOCAL_SYMBOLS_FLUSHED;
+        }
+        unsafeFlush();
+
+        OutputStream target = out;
+        if (async != null)
+        {
+            // the current stream isn't closed, but its data must be written out
+            async.drain();
+            async = new AsyncOutputStream(out, asyncExecutor, maxInFlightBytes);
+            target = async;
+        }
+        symbols.reset(target);
+        user.reset(target);
+        symbolState = SymbolState.SYSTEM_SYMBOLS;
+        if (keepSymbolTable && localsLocked)
+        {
+            // keep the imports and locals; the table is declared again
+            // when the new stream first needs it
+            localsPending = !locals.isEmpty();
+        }
+        else
+        {
+            locals.clear();
+            localsLocked = false;
+            localsPending = false;
+            startWithInitialSymbolTable();
+        }
+    }
+
+    @Override
+    public <T> T asFacet(final Class<T> facetType)
+    {
+        if (facetType == ResettableWriter.class)
+        {
+            return facetType.cast(new ResettableWriterFacet());
+        }
+        if (facetType == AsyncWriter.class && asyncExecutor != null)
+        {
+            return facetType.cast(new AsyncWriterFacet());
+        }
+        return super.asFacet(facetType);
+    }
+
+    private class AsyncWriterFacet implements AsyncWriter
+    {
+        public Future<Void> closeAsync() throws IOException
+        {
+            close(false);
+            return async.closeAsync();
+        }
+    }
+
+    private class ResettableWriterFacet implements ResettableWriter
+    {
+        public void reset(final OutputStream out, final boolean keepSymbolTable) throws IOException
+        {
+            IonManagedBinaryWriter.this.reset(out, keepSymbolTable);
+        }
+    }
+
     public void close() throws IOException
+    {
+        close(true);
+    }
+
+    /**
+     * Closes the writer; with a background stream, this either waits for the stream to be written and closed, or
+     * only queues its close.
+     */
+    private void close(final boolean waitForStream) throws IOException
     {
         if (closed)
         {
@@ -1163,7 +1329,24 @@ import java.util.Map;
             }
             finally
             {
-                user.close();
+                try
+                {
+                    user.close();
+                }
+                finally
+                {
+                    if (async != null)
+                    {
+                        if (waitForStream)
+                        {
+                            async.close();
+                        }
+                        else
+                        {
+                            async.closeAsync();
+                        }
+                    }
+                }
             }
         }
     }
@@ -56,6 +56,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -255,6 +256,12 @@ import java.util.NoSuchElementException;
         public long length;
         /** The patchlist for this container. */
         public PatchList patches;
+        /** The length preallocated for this container. */
+        public PreallocationMode preallocationMode;
+        /** The slot of this container's path in the length prediction table, or -1 if none. */
+        public int predictionSlot;
+        /** The hash of this container's path from the top-level, used for length prediction. */
+        public int pathHash;
 
         public ContainerInfo()
         {
@@ -262,6 +269,9 @@ import java.util.NoSuchElementException;
             position = -1;
             length = -1;
             patches = null;
+            preallocationMode = null;
+            predictionSlot = -1;
+            pathHash = 0;
         }
 
         public void appendPatch(final PatchPoint patch)
@@ -290,6 +300,9 @@ import java.util.NoSuchElementException;
             this.position = offset;
             this.patches = null;
             this.length = 0;
+            this.preallocationMode = null;
+            this.predictionSlot = -1;
+            this.pathHash = 0;
         }
 
         @Override
@@ -564,8 +577,17 @@ import java.util.NoSuchElementException;
 
     private static final int SID_UNASSIGNED = -1;
 
+    /** Number of slots in the container length prediction table, must be a power of two. */
+    private static final int LENGTH_PREDICTION_SLOTS = 256;
+    /** The bits of a prediction slot holding the predicted length width, which is the pad size of a {@link PreallocationMode}. */
+    private static final int LENGTH_PREDICTION_WIDTH_MASK = 0x3;
+    /** The number of consecutive narrower lengths after which a path's predicted width shrinks. */
+    private static final int LENGTH_PREDICTION_SHRINK_THRESHOLD = 4;
+    /** The path kind of annotation wrappers, which is distinct from the ordinals of the container types. */
+    private static final int ANNOTATION_PATH_KIND = -1;
+
     private final BlockAllocator                allocator;
-    private final OutputStream                  out;
+    private OutputStream                        out;
     private final StreamCloseMode               streamCloseMode;
     private final StreamFlushMode               streamFlushMode;
     private final PreallocationMode             preallocationMode;
@@ -574,6 +596,10 @@ import java.util.NoSuchElementException;
     private final WriteBuffer                   patchBuffer;
     private final PatchList                     patchPoints;
     private final RecyclingStack<ContainerInfo> containers;
+    private final byte[]                        lengthPredictions;
+    // segment lists for output to a ByteBufferSink, allocated on first use
+    private List<ByteBuffer>                    segments;
+    private ByteBuffer[]                        segmentArray;
     private int                                 depth;
     private boolean                             hasWrittenValuesSinceFinished;
     private boolean                             hasWrittenValuesSinceConstructed;
@@ -592,7 +618,8 @@ import java.util.NoSuchElementException;
                                    final StreamCloseMode streamCloseMode,
                                    final StreamFlushMode streamFlushMode,
                                    final PreallocationMode preallocationMode,
-                                   final boolean isFloatBinary32Enabled)
+                                   final boolean isFloatBinary32Enabled,
+                                   final boolean isLengthPredictionEnabled)
                                    throws IOException
     {
         super(optimization);
@@ -616,6 +643,18 @@ import java.util.NoSuchElementException;
                 }
             }
         );
+        if (isLengthPredictionEnabled)
+        {
+            // until a path has been seen, predict the configured width
+            this.lengthPredictions = new byte[LENGTH_PREDICTION_SLOTS];
+            Arrays.fill(lengthPredictions, (byte) (preallocationMode.typedLength - 1));
+        }
+        else
+        {
+            this.lengthPredictions = null;
+        }
+        this.segments                         = null;
+        this.segmentArray                     = new ByteBuffer[0];
         this.depth                            = 0;
         this.hasWrittenValuesSinceFinished    = false;
         this.hasWrittenValuesSinceConstructed = false;
@@ -778,6 +817,60 @@ import java.util.NoSuchElementException;
         containers.push().initialize(type, buffer.position() + 1);
     }
 
+    /**
+     * Pushes a container or annotation wrapper whose length is to be patched in when it is popped, reserving as many
+     * bytes for the length as have been needed by values at the same path before.
+     *
+     * @param fieldSid the field name of the value, or {@link #SID_UNASSIGNED}.
+     * @param kind the ordinal of the container's {@link IonType}, or {@link #ANNOTATION_PATH_KIND}.
+     * @return the preallocation mode of the pushed container.
+     */
+    private PreallocationMode pushPreallocatedContainer(final ContainerType type, final int fieldSid, final int kind)
+    {
+        if (lengthPredictions == null)
+        {
+            updateLength(preallocationMode.typedLength);
+            pushContainer(type);
+            containers.peek().preallocationMode = preallocationMode;
+            return preallocationMode;
+        }
+
+        // the path of a value is the path of its parent, its field name, and its kind
+        int hash = containers.isEmpty() ? 0 : containers.peek().pathHash;
+        hash = (hash * 31 + fieldSid) * 31 + kind;
+        final int slot = (hash ^ (hash >>> 16)) & (LENGTH_PREDICTION_SLOTS - 1);
+        final PreallocationMode mode =
+            PreallocationMode.withPadSize(lengthPredictions[slot] & LENGTH_PREDICTION_WIDTH_MASK);
+
+        updateLength(mode.typedLength);
+        pushContainer(type);
+        final ContainerInfo container = containers.peek();
+        container.preallocationMode = mode;
+        container.predictionSlot = slot;
+        container.pathHash = hash;
+        return mode;
+    }
+
+    /** Learns the width of the length of a popped container for the next value at the same path. */
+    private void recordLength(final int slot, final long length)
+    {
+        final int width = length <= 0xD ? 0 : length <= 0x7F ? 1 : 2;
+        final int prediction = lengthPredictions[slot];
+        final int predictedWidth = prediction & LENGTH_PREDICTION_WIDTH_MASK;
+        if (width < predictedWidth)
+        {
+            // a wasted byte is cheaper than a side patch, so only shrink once lengths are consistently narrower
+            final int narrower = (prediction >> 2) + 1;
+            lengthPredictions[slot] = (byte) (narrower < LENGTH_PREDICTION_SHRINK_THRESHOLD
+                ? (narrower << 2) | predictedWidth
+                : width);
+        }
+        else
+        {
+            lengthPredictions[slot] = (byte) width;
+        }
+    }
+
     private void addPatchPoint(final long position, final int oldLength, final long value)
     {
         // record the size in a patch buffer
@@ -824,15 +917,20 @@ import java.util.NoSuchElementException;
         if (current.type != ContainerType.VALUE)
         {
             // patch in the length
+            final PreallocationMode mode = current.preallocationMode;
             final long position = current.position;
-            if (current.length <= preallocationMode.contentMaxLength && preallocationMode != PreallocationMode.PREALLOCATE_0)
+            if (current.predictionSlot >= 0)
             {
-                preallocationMode.patchLength(buffer, position, length);
+                recordLength(current.predictionSlot, length);
+            }
+            if (current.length <= mode.contentMaxLength && mode != PreallocationMode.PREALLOCATE_0)
+            {
+                mode.patchLength(buffer, position, length);
             }
             else
             {
                 // side patch
-                if (current.length <= 0xD && preallocationMode == PreallocationMode.PREALLOCATE_0)
+                if (current.length <= 0xD && mode == PreallocationMode.PREALLOCATE_0)
                 {
                     // XXX if we're not using padding we can get here and optimize the length a little without side patching!
                     final long typePosition = position - 1;
@@ -841,7 +939,7 @@ import java.util.NoSuchElementException;
                 }
                 else
                 {
-                    addPatchPoint(position, preallocationMode.typedLength - 1, length);
+                    addPatchPoint(position, mode.typedLength - 1, length);
                 }
             }
         }
@@ -884,6 +982,7 @@ import java.util.NoSuchElementException;
     /** prepare to write values with field name and annotations. */
     private void prepareValue()
     {
+        final int fieldSid = currentFieldSid;
         if (isInStruct() && currentFieldSid <= SID_UNASSIGNED)
         {
             throw new IllegalStateException("IonWriter.setFieldName() must be called before writing a value into a struct.");
@@ -899,9 +998,9 @@ import java.util.NoSuchElementException;
         if (!currentAnnotationSids.isEmpty())
         {
             // we have to push a container context for annotations
-            updateLength(preallocationMode.typedLength);
-            pushContainer(ContainerType.ANNOTATION);
-            buffer.writeBytes(preallocationMode.annotationsTypedPreallocatedBytes);
+            final PreallocationMode mode =
+                pushPreallocatedContainer(ContainerType.ANNOTATION, fieldSid, ANNOTATION_PATH_KIND);
+            buffer.writeBytes(mode.annotationsTypedPreallocatedBytes);
 
             final long annotationsLengthPosition = buffer.position();
             buffer.writeVarUInt(0L);
@@ -949,11 +1048,15 @@ import java.util.NoSuchElementException;
         {
             throw new IonException("Cannot step into " + containerType);
         }
+        final int fieldSid = currentFieldSid;
         prepareValue();
-        updateLength(preallocationMode.typedLength);
-        pushContainer(containerType == STRUCT ? ContainerType.STRUCT : ContainerType.SEQUENCE);
+        final PreallocationMode mode = pushPreallocatedContainer(
+            containerType == STRUCT ? ContainerType.STRUCT : ContainerType.SEQUENCE,
+            fieldSid,
+            containerType.ordinal()
+        );
         depth++;
-        buffer.writeBytes(preallocationMode.containerTypedPreallocatedBytes[containerType.ordinal()]);
+        buffer.writeBytes(mode.containerTypedPreallocatedBytes[containerType.ordinal()]);
     }
 
     public void stepOut() throws IOException
@@ -1630,7 +1733,15 @@ import java.util.NoSuchElementException;
             throw new IllegalStateException("Cannot finish within container: " + containers);
         }
 
-        if (patchPoints.isEmpty())
+        if (out instanceof AsyncOutputStream)
+        {
+            handOffTo((AsyncOutputStream) out);
+        }
+        else if (out instanceof ByteBufferSinkOutputStream)
+        {
+            gatherTo((ByteBufferSinkOutputStream) out);
+        }
+        else if (patchPoints.isEmpty())
         {
             // nothing to patch--write 'em out!
             buffer.writeTo(out);
@@ -1653,9 +1764,12 @@ import java.util.NoSuchElementException;
             }
             buffer.writeTo(out, bufferPosition, buffer.position() - bufferPosition);
         }
+        if (!(out instanceof AsyncOutputStream))
+        {
+            patchBuffer.reset();
+            buffer.reset();
+        }
         patchPoints.clear();
-        patchBuffer.reset();
-        buffer.reset();
 
         if (streamFlushMode == StreamFlushMode.FLUSH)
         {
@@ -1665,6 +1779,88 @@ import java.util.NoSuchElementException;
         hasWrittenValuesSinceFinished = false;
     }
 
+    /** Collects the buffered data, with its patches spliced in, as slices of the blocks in {@link #segments}. */
+    private void collectSegments()
+    {
+        if (segments == null)
+        {
+            segments = new ArrayList<ByteBuffer>();
+        }
+        long bufferPosition = 0;
+        for (final PatchPoint patch : patchPoints)
+        {
+            buffer.addSegmentsTo(segments, bufferPosition, patch.oldPosition - bufferPosition);
+            patchBuffer.addSegmentsTo(segments, patch.patchPosition, patch.patchLength);
+            bufferPosition = patch.oldPosition + patch.oldLength;
+        }
+        buffer.addSegmentsTo(segments, bufferPosition, buffer.position() - bufferPosition);
+    }
+
+    /**
+     * Hands the buffered data, with its patches, to a stream that writes it in the background. The stream takes
+     * the blocks holding the data, and this writer carries on with fresh ones.
+     */
+    private void handOffTo(final AsyncOutputStream async) throws IOException
+    {
+        collectSegments();
+        if (segments.isEmpty())
+        {
+            patchBuffer.reset();
+            buffer.reset();
+            return;
+        }
+        final ByteBuffer[] chunk = segments.toArray(new ByteBuffer[segments.size()]);
+        segments.clear();
+        // the data is the stream's from here, even if it can't take it
+        patchPoints.clear();
+        final List<Block> blocks = buffer.detachBlocks();
+        blocks.addAll(patchBuffer.detachBlocks());
+        async.write(chunk, blocks);
+    }
+
+    /** Hands the buffered data, with its patches, to a sink as a single list of segments. */
+    private void gatherTo(final ByteBufferSinkOutputStream sink) throws IOException
+    {
+        collectSegments();
+        if (!segments.isEmpty())
+        {
+            segmentArray = segments.toArray(segmentArray);
+            try
+            {
+                sink.write(segmentArray, 0, segments.size());
+            }
+            finally
+            {
+                // don't retain references to the blocks
+                Arrays.fill(segmentArray, 0, segments.size(), null);
+                segments.clear();
+            }
+        }
+    }
+
+    /**
+     * Re-points this writer at a new stream, keeping its buffers and
+     * container stack. The writer must be finished, so that nothing remains
+     * to be written to the current stream.
+     */
+    /*package*/ void reset(final OutputStream out)
+    {
+        if (out == null) { throw new NullPointerException(); }
+        if (closed)
+        {
+            throw new IllegalStateException("Cannot reset a closed writer");
+        }
+        if (buffer.position() != 0 || !containers.isEmpty() || depth > 0)
+        {
+            throw new IllegalStateException("Cannot reset a writer with unfinished data");
+        }
+        this.out = out;
+        this.hasWrittenValuesSinceFinished    = false;
+        this.hasWrittenValuesSinceConstructed = false;
+        clearAnnotations();
+        this.currentFieldSid = SID_UNASSIGNED;
+    }
+
     public void close() throws IOException
     {
         if (closed)
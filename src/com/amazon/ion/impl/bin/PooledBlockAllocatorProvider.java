@@ -51,7 +51,7 @@ import java.util.concurrent.ConcurrentMap;
             Block block = freeBlocks.poll();
             if (block == null)
             {
-                block = new Block(new byte[blockSize])
+                block = new HeapBlock(new byte[blockSize])
                 {
                     @Override
                     public void close()
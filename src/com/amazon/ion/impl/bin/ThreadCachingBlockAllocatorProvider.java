@@ -0,0 +1,476 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import com.amazon.ion.system.BlockPoolStatistics;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pooling implementation of {@link BlockAllocatorProvider} built for many threads allocating blocks at once.
+ * <p>
+ * Each thread keeps a small cache of free blocks for each block size, which it allocates from and releases to
+ * without synchronization.  Blocks move between the thread caches and a pool shared by all threads in batches of
+ * {@link #BATCH_SIZE}, so that threads only contend on the shared pool once per batch.
+ * <p>
+ * The shared pool and the thread caches together hold no more than a byte budget.  A thread cache reserves its
+ * share of the budget a batch at a time, holding room for at most {@code 2 * BATCH_SIZE} blocks of each size, and a
+ * batch handed to the shared pool takes its reservation with it; blocks released once the budget is spent are left
+ * to the garbage collector.  The reservations of threads that have ended are returned when the pool is next trimmed
+ * or measured.
+ * <p>
+ * Batches that have gone unused in the shared pool for an idle period are dropped, so that memory isn't kept after a
+ * burst of writing.  This is checked at most twice per period as blocks are allocated and released, and may be done
+ * at any time with {@link #trim()}.
+ * <p>
+ * The hit, miss and resident byte counts are approximate: the counts of each thread are published once per batch,
+ * and the resident bytes of thread caches are read without synchronization.
+ * <p>
+ * This implementation is thread-safe.
+ */
+/*package*/ final class ThreadCachingBlockAllocatorProvider extends BlockAllocatorProvider implements BlockPoolStatistics
+{
+    /** The number of blocks moved between a thread cache and the shared pool at once. */
+    static final int BATCH_SIZE = 16;
+    /** How long a batch of blocks may go unused in the shared pool before it's dropped. */
+    static final long DEFAULT_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    /** A batch of free blocks in the shared pool. */
+    private static final class Batch
+    {
+        final Block[] blocks;
+        final long pooledAt;
+
+        Batch(final Block[] blocks, final long pooledAt)
+        {
+            this.blocks = blocks;
+            this.pooledAt = pooledAt;
+        }
+    }
+
+    /**
+     * The registry's reference to a thread cache, which keeps the cache's reservation of the budget so that it can be
+     * returned once the cache's thread has ended.
+     */
+    private static final class CacheRef extends WeakReference<LocalCache>
+    {
+        final int blockSize;
+        /** The number of blocks of budget the cache holds; only changed by the cache's thread, once per batch. */
+        volatile int reserved;
+
+        CacheRef(final LocalCache cache, final int blockSize)
+        {
+            super(cache);
+            this.blockSize = blockSize;
+            this.reserved = 0;
+        }
+    }
+
+    /**
+     * The free blocks of one size that are cached by one thread.
+     * <p>
+     * This class is only used by its thread, except for the racy reads of {@link #count}.
+     */
+    private static final class LocalCache
+    {
+        final SizeClass sizeClass;
+        final Block[] blocks;
+        final CacheRef ref;
+        int count;
+        int hits;
+        int misses;
+
+        LocalCache(final SizeClass sizeClass)
+        {
+            this.sizeClass = sizeClass;
+            this.blocks = new Block[2 * BATCH_SIZE];
+            this.ref = new CacheRef(this, sizeClass.blockSize);
+            this.count = 0;
+        }
+
+        /** Publishes the counts of this thread once they make up a batch. */
+        void count(final boolean hit)
+        {
+            if (hit)
+            {
+                hits++;
+            }
+            else
+            {
+                misses++;
+            }
+            if (hits + misses >= BATCH_SIZE)
+            {
+                sizeClass.publishCounts(hits, misses);
+                hits = 0;
+                misses = 0;
+            }
+        }
+    }
+
+    /**
+     * The {@link BlockAllocator} for one block size, shared by all threads.
+     * <p>
+     * This implementation is thread-safe.
+     */
+    private final class SizeClass extends BlockAllocator
+    {
+        private final int blockSize;
+        private final long batchBytes;
+        private final ThreadLocal<LocalCache> caches;
+        /** Batches of free blocks, most recently pooled first; guarded by this. */
+        private final ArrayDeque<Batch> shared;
+        /** Written under the lock of this, but read without it to decide whether a trim is due. */
+        private volatile long lastTrimmed;
+
+        SizeClass(final int blockSize)
+        {
+            this.blockSize = blockSize;
+            this.batchBytes = ((long) blockSize) * BATCH_SIZE;
+            this.caches = new ThreadLocal<LocalCache>()
+            {
+                @Override
+                protected LocalCache initialValue()
+                {
+                    final LocalCache cache = new LocalCache(SizeClass.this);
+                    registry.add(cache.ref);
+                    return cache;
+                }
+            };
+            this.shared = new ArrayDeque<Batch>();
+            this.lastTrimmed = System.nanoTime();
+        }
+
+        @Override
+        public Block allocateBlock()
+        {
+            final LocalCache cache = caches.get();
+            if (cache.count == 0)
+            {
+                refill(cache);
+            }
+            if (cache.count > 0)
+            {
+                final Block block = cache.blocks[--cache.count];
+                cache.blocks[cache.count] = null;
+                final CacheRef ref = cache.ref;
+                if (cache.count < ref.reserved - BATCH_SIZE - BATCH_SIZE / 2)
+                {
+                    // give back the budget of a batch the cache no longer needs room for
+                    ref.reserved -= BATCH_SIZE;
+                    reservedBytes.addAndGet(-batchBytes);
+                }
+                cache.count(true);
+                return block;
+            }
+            cache.count(false);
+            return newBlock();
+        }
+
+        private Block newBlock()
+        {
+            if (offHeap)
+            {
+                return new DirectBlock(ByteBuffer.allocateDirect(blockSize))
+                {
+                    @Override
+                    public void close()
+                    {
+                        release(this);
+                    }
+                };
+            }
+            return new HeapBlock(new byte[blockSize])
+            {
+                @Override
+                public void close()
+                {
+                    release(this);
+                }
+            };
+        }
+
+        /** Returns a block to the cache of the calling thread, which need not be the thread that allocated it. */
+        private void release(final Block block)
+        {
+            block.reset();
+            final LocalCache cache = caches.get();
+            final CacheRef ref = cache.ref;
+            if (cache.count == ref.reserved)
+            {
+                if (cache.count == cache.blocks.length)
+                {
+                    handOff(cache);
+                }
+                if (!tryReserve(batchBytes))
+                {
+                    // the pool is at its budget, so the block is left to the garbage collector
+                    return;
+                }
+                ref.reserved += BATCH_SIZE;
+            }
+            cache.blocks[cache.count++] = block;
+        }
+
+        /** Moves the oldest batch of a full thread cache, along with its reservation, to the shared pool. */
+        private void handOff(final LocalCache cache)
+        {
+            final Block[] blocks = new Block[BATCH_SIZE];
+            System.arraycopy(cache.blocks, 0, blocks, 0, BATCH_SIZE);
+            System.arraycopy(cache.blocks, BATCH_SIZE, cache.blocks, 0, cache.count - BATCH_SIZE);
+            cache.count -= BATCH_SIZE;
+            cache.ref.reserved -= BATCH_SIZE;
+            for (int i = cache.count; i < cache.blocks.length; i++)
+            {
+                cache.blocks[i] = null;
+            }
+
+            final long now = System.nanoTime();
+            trimIfDue(now);
+            synchronized (this)
+            {
+                shared.addFirst(new Batch(blocks, now));
+            }
+            sharedBytes.addAndGet(batchBytes);
+        }
+
+        /**
+         * Moves a batch from the shared pool to an empty thread cache, if there is one. The batch brings its
+         * reservation with it, which replaces whatever the empty cache held.
+         */
+        private void refill(final LocalCache cache)
+        {
+            trimIfDue(System.nanoTime());
+            final Batch batch;
+            synchronized (this)
+            {
+                batch = shared.pollFirst();
+            }
+            if (batch == null)
+            {
+                return;
+            }
+            sharedBytes.addAndGet(-batchBytes);
+            final CacheRef ref = cache.ref;
+            final int held = ref.reserved;
+            ref.reserved = BATCH_SIZE;
+            if (held > 0)
+            {
+                reservedBytes.addAndGet(-((long) held) * blockSize);
+            }
+            System.arraycopy(batch.blocks, 0, cache.blocks, 0, BATCH_SIZE);
+            cache.count = BATCH_SIZE;
+        }
+
+        /** Drops the batches that have gone unused for the idle period, checking no more than twice per period. */
+        private void trimIfDue(final long now)
+        {
+            if (now - lastTrimmed >= idleNanos / 2)
+            {
+                trim(now);
+            }
+        }
+
+        /*package*/ void trim(final long now)
+        {
+            int dropped = 0;
+            synchronized (this)
+            {
+                lastTrimmed = now;
+                while (!shared.isEmpty() && now - shared.peekLast().pooledAt >= idleNanos)
+                {
+                    shared.pollLast();
+                    dropped++;
+                }
+            }
+            if (dropped > 0)
+            {
+                sharedBytes.addAndGet(-dropped * batchBytes);
+                reservedBytes.addAndGet(-dropped * batchBytes);
+            }
+            reclaimEndedCaches();
+        }
+
+        void publishCounts(final int hitCount, final int missCount)
+        {
+            hits.addAndGet(hitCount);
+            misses.addAndGet(missCount);
+            // a cheap point for a pool that no longer hands batches around to notice that it's idle
+            trimIfDue(System.nanoTime());
+        }
+
+        @Override
+        public int getBlockSize()
+        {
+            return blockSize;
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private final long maxPooledBytes;
+    private final boolean offHeap;
+    private final long idleNanos;
+    private final ConcurrentMap<Integer, SizeClass> sizeClasses;
+    /** The thread caches, for counting their resident bytes; a cache goes away with its thread. */
+    private final ConcurrentLinkedQueue<CacheRef> registry;
+    /** The bytes of the budget held by the shared pools and thread caches of all sizes. */
+    private final AtomicLong reservedBytes;
+    /** The bytes held by the shared pools of all sizes. */
+    private final AtomicLong sharedBytes;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * @param maxPooledBytes the most bytes of free blocks the shared pool and thread caches may hold.
+     * @param offHeap whether blocks are backed by direct buffers instead of arrays on the heap.
+     */
+    public ThreadCachingBlockAllocatorProvider(final long maxPooledBytes, final boolean offHeap)
+    {
+        this(maxPooledBytes, offHeap, DEFAULT_IDLE_NANOS);
+    }
+
+    /*package*/ ThreadCachingBlockAllocatorProvider(final long maxPooledBytes,
+                                                    final boolean offHeap,
+                                                    final long idleNanos)
+    {
+        if (maxPooledBytes < 0)
+        {
+            throw new IllegalArgumentException("Invalid pool size: " + maxPooledBytes);
+        }
+        this.maxPooledBytes = maxPooledBytes;
+        this.offHeap = offHeap;
+        this.idleNanos = idleNanos;
+        this.sizeClasses = new ConcurrentHashMap<Integer, SizeClass>();
+        this.registry = new ConcurrentLinkedQueue<CacheRef>();
+        this.reservedBytes = new AtomicLong();
+        this.sharedBytes = new AtomicLong();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    @Override
+    public BlockAllocator vendAllocator(final int blockSize)
+    {
+        if (blockSize <= 0)
+        {
+            throw new IllegalArgumentException("Invalid block size: " + blockSize);
+        }
+
+        SizeClass allocator = sizeClasses.get(blockSize);
+        if (allocator == null)
+        {
+            allocator = new SizeClass(blockSize);
+            final SizeClass existingAllocator = sizeClasses.putIfAbsent(blockSize, allocator);
+            if (existingAllocator != null)
+            {
+                allocator = existingAllocator;
+            }
+        }
+        return allocator;
+    }
+
+    /** Reserves part of the budget, unless that would exceed it. */
+    private boolean tryReserve(final long bytes)
+    {
+        while (true)
+        {
+            final long reserved = reservedBytes.get();
+            if (reserved + bytes > maxPooledBytes)
+            {
+                return false;
+            }
+            if (reservedBytes.compareAndSet(reserved, reserved + bytes))
+            {
+                return true;
+            }
+        }
+    }
+
+    /** Returns the reservations of the caches whose threads have ended. */
+    private void reclaimEndedCaches()
+    {
+        for (final CacheRef ref : registry)
+        {
+            // only the caller that removes the reference returns its reservation
+            if (ref.get() == null && registry.remove(ref))
+            {
+                reservedBytes.addAndGet(-((long) ref.reserved) * ref.blockSize);
+            }
+        }
+    }
+
+    /**
+     * Drops all batches in the shared pool that have gone unused for the idle period, and returns the reservations
+     * of threads that have ended.
+     */
+    public void trim()
+    {
+        final long now = System.nanoTime();
+        for (final SizeClass sizeClass : sizeClasses.values())
+        {
+            sizeClass.trim(now);
+        }
+    }
+
+    public long getMaxPooledBytes()
+    {
+        return maxPooledBytes;
+    }
+
+    public boolean isOffHeap()
+    {
+        return offHeap;
+    }
+
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    public long getResidentBytes()
+    {
+        reclaimEndedCaches();
+        long bytes = sharedBytes.get();
+        for (final CacheRef ref : registry)
+        {
+            final LocalCache cache = ref.get();
+            if (cache != null)
+            {
+                bytes += ((long) cache.count) * ref.blockSize;
+            }
+        }
+        return bytes;
+    }
+
+    /** Returns the bytes of the budget that are held, for testing. */
+    /*package*/ long getReservedBytes()
+    {
+        return reservedBytes.get();
+    }
+}
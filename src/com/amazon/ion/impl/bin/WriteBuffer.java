@@ -18,6 +18,7 @@ package com.amazon.ion.impl.bin;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -69,6 +70,20 @@ import java.util.List;
         current = blocks.get(index);
     }
 
+    /**
+     * Hands over the blocks holding the data written so far, which the caller must close, and resets the write
+     * buffer to empty with a fresh block.
+     */
+    public List<Block> detachBlocks()
+    {
+        final List<Block> detached = new ArrayList<Block>(blocks);
+        blocks.clear();
+        allocateNewBlock();
+        index = 0;
+        current = blocks.get(index);
+        return detached;
+    }
+
     public void close()
     {
         // free all the blocks
@@ -112,7 +127,7 @@ import java.util.List;
         final int index = index(position);
         final int offset = offset(position);
         final Block block = blocks.get(index);
-        return block.data[offset] & OCTET_MASK;
+        return block.get(offset) & OCTET_MASK;
     }
 
     /** Writes a single octet to the buffer, expanding if necessary. */
@@ -128,7 +143,7 @@ import java.util.List;
             current = blocks.get(index);
         }
         final Block block = current;
-        block.data[block.limit] = octet;
+        block.put(block.limit, octet);
         block.limit++;
     }
 
@@ -139,7 +154,7 @@ import java.util.List;
         {
             final Block block = current;
             final int amount = Math.min(len, block.remaining());
-            System.arraycopy(bytes, off, block.data, block.limit, amount);
+            block.put(block.limit, bytes, off, amount);
             block.limit += amount;
             off += amount;
             len -= amount;
@@ -166,7 +181,7 @@ import java.util.List;
         }
 
         final Block block = current;
-        System.arraycopy(bytes, off, block.data, block.limit, len);
+        block.put(block.limit, bytes, off, len);
         block.limit += len;
     }
 
@@ -287,20 +302,20 @@ import java.util.List;
 
             if (ch < UTF8_2_OCTET_MIN_VALUE)
             {
-                block.data[limit++] = (byte) ch;
+                block.put(limit++, (byte) ch);
                 octets++;
             }
             else if (ch < UTF8_3_OCTET_MIN_VALUE)
             {
-                block.data[limit++] = (byte) (UTF8_2_OCTET_PREFIX_MASK | (ch >> UTF8_2_OCTET_SHIFT)                    );
-                block.data[limit++] = (byte) (UTF8_FOLLOW_PREFIX_MASK  | (ch                        & UTF8_FOLLOW_MASK));
+                block.put(limit++, (byte) (UTF8_2_OCTET_PREFIX_MASK | (ch >> UTF8_2_OCTET_SHIFT)                    ));
+                block.put(limit++, (byte) (UTF8_FOLLOW_PREFIX_MASK  | (ch                        & UTF8_FOLLOW_MASK)));
                 octets += 2;
             }
             else
             {
-                block.data[limit++] = (byte) (UTF8_3_OCTET_PREFIX_MASK | ( ch >> UTF8_3_OCTET_SHIFT)                    );
-                block.data[limit++] = (byte) (UTF8_FOLLOW_PREFIX_MASK  | ((ch >> UTF8_2_OCTET_SHIFT) & UTF8_FOLLOW_MASK));
-                block.data[limit++] = (byte) (UTF8_FOLLOW_PREFIX_MASK  | ( ch                        & UTF8_FOLLOW_MASK));
+                block.put(limit++, (byte) (UTF8_3_OCTET_PREFIX_MASK | ( ch >> UTF8_3_OCTET_SHIFT)                    ));
+                block.put(limit++, (byte) (UTF8_FOLLOW_PREFIX_MASK  | ((ch >> UTF8_2_OCTET_SHIFT) & UTF8_FOLLOW_MASK)));
+                block.put(limit++, (byte) (UTF8_FOLLOW_PREFIX_MASK  | ( ch                        & UTF8_FOLLOW_MASK)));
                 octets += 3;
             }
             off++;
@@ -339,13 +354,13 @@ import java.util.List;
 
             if (ch < UTF8_2_OCTET_MIN_VALUE)
             {
-                block.data[limit++] = (byte) ch;
+                block.put(limit++, (byte) ch);
                 octets++;
             }
             else
             {
-                block.data[limit++] = (byte) (UTF8_2_OCTET_PREFIX_MASK | (ch >> UTF8_2_OCTET_SHIFT)                    );
-                block.data[limit++] = (byte) (UTF8_FOLLOW_PREFIX_MASK  | (ch                        & UTF8_FOLLOW_MASK));
+                block.put(limit++, (byte) (UTF8_2_OCTET_PREFIX_MASK | (ch >> UTF8_2_OCTET_SHIFT)                    ));
+                block.put(limit++, (byte) (UTF8_FOLLOW_PREFIX_MASK  | (ch                        & UTF8_FOLLOW_MASK)));
                 octets += 2;
             }
             off++;
@@ -392,7 +407,7 @@ import java.util.List;
                 break;
             }
 
-            block.data[limit++] = (byte) ch;
+            block.put(limit++, (byte) ch);
             octets++;
             off++;
             len--;
@@ -458,10 +473,9 @@ import java.util.List;
         }
 
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte) (value >> UINT_2_OCTET_SHIFT);
-        data[limit++] = (byte) (value                      );
+        block.put(limit++, (byte) (value >> UINT_2_OCTET_SHIFT));
+        block.put(limit++, (byte) (value                      ));
         block.limit = limit;
     }
 
@@ -481,11 +495,10 @@ import java.util.List;
         }
 
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte) (value >> UINT_3_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_2_OCTET_SHIFT);
-        data[limit++] = (byte) (value                      );
+        block.put(limit++, (byte) (value >> UINT_3_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_2_OCTET_SHIFT));
+        block.put(limit++, (byte) (value                      ));
         block.limit = limit;
     }
 
@@ -506,12 +519,11 @@ import java.util.List;
         }
 
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte) (value >> UINT_4_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_3_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_2_OCTET_SHIFT);
-        data[limit++] = (byte) (value                      );
+        block.put(limit++, (byte) (value >> UINT_4_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_3_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_2_OCTET_SHIFT));
+        block.put(limit++, (byte) (value                      ));
         block.limit = limit;
     }
 
@@ -533,13 +545,12 @@ import java.util.List;
         }
 
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte) (value >> UINT_5_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_4_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_3_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_2_OCTET_SHIFT);
-        data[limit++] = (byte) (value                      );
+        block.put(limit++, (byte) (value >> UINT_5_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_4_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_3_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_2_OCTET_SHIFT));
+        block.put(limit++, (byte) (value                      ));
         block.limit = limit;
     }
 
@@ -562,14 +573,13 @@ import java.util.List;
         }
 
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte) (value >> UINT_6_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_5_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_4_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_3_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_2_OCTET_SHIFT);
-        data[limit++] = (byte) ( value                     );
+        block.put(limit++, (byte) (value >> UINT_6_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_5_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_4_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_3_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_2_OCTET_SHIFT));
+        block.put(limit++, (byte) ( value                     ));
         block.limit = limit;
     }
 
@@ -593,15 +603,14 @@ import java.util.List;
         }
 
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte) (value >> UINT_7_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_6_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_5_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_4_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_3_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_2_OCTET_SHIFT);
-        data[limit++] = (byte) (value                      );
+        block.put(limit++, (byte) (value >> UINT_7_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_6_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_5_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_4_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_3_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_2_OCTET_SHIFT));
+        block.put(limit++, (byte) (value                      ));
         block.limit = limit;
     }
 
@@ -626,16 +635,15 @@ import java.util.List;
         }
 
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte) (value >> UINT_8_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_7_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_6_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_5_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_4_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_3_OCTET_SHIFT);
-        data[limit++] = (byte) (value >> UINT_2_OCTET_SHIFT);
-        data[limit++] = (byte) ( value                      );
+        block.put(limit++, (byte) (value >> UINT_8_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_7_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_6_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_5_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_4_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_3_OCTET_SHIFT));
+        block.put(limit++, (byte) (value >> UINT_2_OCTET_SHIFT));
+        block.put(limit++, (byte) ( value                      ));
         block.limit = limit;
 
 
@@ -811,10 +819,9 @@ import java.util.List;
     private int writeVarUIntDirect2(final long value)
     {
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte)  ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK);
-        data[limit++] = (byte) (((value)                           & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK);
+        block.put(limit++, (byte)  ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(limit++, (byte) (((value)                           & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK));
 
         block.limit = limit;
         return 2;
@@ -823,11 +830,10 @@ import java.util.List;
     private int writeVarUIntDirect3(final long value)
     {
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte)  ((value >> VAR_UINT_3_OCTET_SHIFT) & VAR_INT_MASK);
-        data[limit++] = (byte)  ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK);
-        data[limit++] = (byte) (((value)                           & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK);
+        block.put(limit++, (byte)  ((value >> VAR_UINT_3_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(limit++, (byte)  ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(limit++, (byte) (((value)                           & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK));
 
         block.limit = limit;
         return 3;
@@ -836,12 +842,11 @@ import java.util.List;
     private int writeVarUIntDirect4(final long value)
     {
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte)  ((value >> VAR_UINT_4_OCTET_SHIFT) & VAR_INT_MASK);
-        data[limit++] = (byte)  ((value >> VAR_UINT_3_OCTET_SHIFT) & VAR_INT_MASK);
-        data[limit++] = (byte)  ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK);
-        data[limit++] = (byte) (((value)                           & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK);
+        block.put(limit++, (byte)  ((value >> VAR_UINT_4_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(limit++, (byte)  ((value >> VAR_UINT_3_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(limit++, (byte)  ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(limit++, (byte) (((value)                           & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK));
 
         block.limit = limit;
         return 4;
@@ -850,13 +855,12 @@ import java.util.List;
     private int writeVarUIntDirect5(final long value)
     {
         final Block block = current;
-        final byte[] data = block.data;
         int limit = block.limit;
-        data[limit++] = (byte)  ((value >> VAR_UINT_5_OCTET_SHIFT) & VAR_INT_MASK);
-        data[limit++] = (byte)  ((value >> VAR_UINT_4_OCTET_SHIFT) & VAR_INT_MASK);
-        data[limit++] = (byte)  ((value >> VAR_UINT_3_OCTET_SHIFT) & VAR_INT_MASK);
-        data[limit++] = (byte)  ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK);
-        data[limit++] = (byte) (((value)                           & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK);
+        block.put(limit++, (byte)  ((value >> VAR_UINT_5_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(limit++, (byte)  ((value >> VAR_UINT_4_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(limit++, (byte)  ((value >> VAR_UINT_3_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(limit++, (byte)  ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(limit++, (byte) (((value)                           & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK));
 
         block.limit = limit;
         return 5;
@@ -1038,9 +1042,9 @@ import java.util.List;
     {
         // XXX we're stradling a block
         final Block block1 = blocks.get(index);
-        block1.data[offset] = (byte) ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK);
+        block1.put(offset, (byte) ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK));
         final Block block2 = blocks.get(index + 1);
-        block2.data[0]      = (byte) ((value                            & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK);
+        block2.put(0, (byte) ((value                            & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK));
     }
 
     public void writeVarUIntDirect2At(long position, long value)
@@ -1055,8 +1059,8 @@ import java.util.List;
         }
 
         final Block block = blocks.get(index);
-        block.data[offset    ] = (byte) ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK);
-        block.data[offset + 1] = (byte) ((value                            & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK);
+        block.put(offset, (byte) ((value >> VAR_UINT_2_OCTET_SHIFT) & VAR_INT_MASK));
+        block.put(offset + 1, (byte) ((value                            & VAR_INT_MASK) | VAR_INT_FINAL_OCTET_SIGNAL_MASK));
     }
 
     public void writeUInt8At(final long position, final long value)
@@ -1066,7 +1070,7 @@ import java.util.List;
 
         // XXX we'll never overrun a block unless we're given a position past our block array
         final Block block = blocks.get(index);
-        block.data[offset] = (byte) value;
+        block.put(offset, (byte) value);
     }
 
     /** Write the entire buffer to output stream. */
@@ -1075,7 +1079,7 @@ import java.util.List;
         for (int i = 0; i <= index; i++)
         {
             Block block = blocks.get(i);
-            out.write(block.data, 0, block.limit);
+            block.writeTo(out, 0, block.limit);
         }
     }
 
@@ -1087,8 +1091,24 @@ import java.util.List;
             final int index = index(position);
             final int offset = offset(position);
             final Block block = blocks.get(index);
-            final int amount = (int) Math.min(block.data.length - offset, length);
-            out.write(block.data, offset, amount);
+            final int amount = (int) Math.min(block.capacity() - offset, length);
+            block.writeTo(out, offset, amount);
+
+            position += amount;
+            length -= amount;
+        }
+    }
+
+    /** Adds buffers over a specific segment of data from the buffer to a list, without copying the data. */
+    public void addSegmentsTo(final List<ByteBuffer> segments, long position, long length)
+    {
+        while (length > 0)
+        {
+            final int index = index(position);
+            final int offset = offset(position);
+            final Block block = blocks.get(index);
+            final int amount = (int) Math.min(block.capacity() - offset, length);
+            segments.add(block.slice(offset, amount));
 
             position += amount;
             length -= amount;
@@ -40,7 +40,8 @@ public class _PrivateIon_HashTrampoline
                 IonRawBinaryWriter.StreamCloseMode.CLOSE,
                 IonRawBinaryWriter.StreamFlushMode.FLUSH,
                 IonRawBinaryWriter.PreallocationMode.PREALLOCATE_0,
-                false     // force floats to be encoded as binary64
+                false,    // force floats to be encoded as binary64
+                false     // hashing writers are short-lived, so there is nothing to learn container lengths from
         );
     }
 }
@@ -17,6 +17,7 @@ package com.amazon.ion.impl.bin;
 
 import static com.amazon.ion.impl.bin.IonManagedBinaryWriter.ONLY_SYSTEM_IMPORTS;
 
+import com.amazon.ion.ByteBufferSink;
 import com.amazon.ion.IonBinaryWriter;
 import com.amazon.ion.IonCatalog;
 import com.amazon.ion.IonException;
@@ -29,11 +30,14 @@ import com.amazon.ion.impl.bin.IonBinaryWriterAdapter.Factory;
 import com.amazon.ion.impl.bin.IonManagedBinaryWriter.ImportedSymbolContext;
 import com.amazon.ion.impl.bin.IonManagedBinaryWriter.ImportedSymbolResolverMode;
 import com.amazon.ion.impl.bin.IonRawBinaryWriter.PreallocationMode;
+import com.amazon.ion.system.BlockPoolStatistics;
 import com.amazon.ion.system.SimpleCatalog;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.GatheringByteChannel;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 // TODO unify this with the IonWriter builder APIs
 
@@ -62,14 +66,23 @@ public final class _Private_IonManagedBinaryWriterBuilder
             {
                 return BlockAllocatorProviders.basicProvider();
             }
+        },
+        DIRECT
+        {
+            @Override
+            BlockAllocatorProvider createAllocatorProvider()
+            {
+                return new DirectBlockAllocatorProvider();
+            }
         };
 
         /*package*/ abstract BlockAllocatorProvider createAllocatorProvider();
     }
 
     public static final int DEFAULT_BLOCK_SIZE = 32768;
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 4L * 1024 * 1024;
 
-    /*package*/ final    BlockAllocatorProvider provider;
+    /*package*/ volatile BlockAllocatorProvider provider;
     /*package*/ volatile int                    symbolsBlockSize;
     /*package*/ volatile int                    userBlockSize;
     /*package*/ volatile PreallocationMode      preallocationMode;
@@ -78,7 +91,11 @@ public final class _Private_IonManagedBinaryWriterBuilder
     /*package*/ volatile WriteValueOptimization optimization;
     /*package*/ volatile SymbolTable            initialSymbolTable;
     /*package*/ volatile boolean                isLocalSymbolTableAppendEnabled;
+    /*package*/ volatile int                    localSymbolTableRetentionLimit;
     /*package*/ volatile boolean                isFloatBinary32Enabled;
+    /*package*/ volatile boolean                isContainerLengthPredictionEnabled;
+    /*package*/ volatile Executor               asyncExecutor;
+    /*package*/ volatile long                   maxInFlightBytes;
 
     private _Private_IonManagedBinaryWriterBuilder(final BlockAllocatorProvider provider)
     {
@@ -90,7 +107,11 @@ public final class _Private_IonManagedBinaryWriterBuilder
         this.catalog = new SimpleCatalog();
         this.optimization = WriteValueOptimization.NONE;
         this.isLocalSymbolTableAppendEnabled = false;
+        this.localSymbolTableRetentionLimit = 0;
         this.isFloatBinary32Enabled = false;
+        this.isContainerLengthPredictionEnabled = false;
+        this.asyncExecutor = null;
+        this.maxInFlightBytes = DEFAULT_MAX_IN_FLIGHT_BYTES;
     }
 
     private _Private_IonManagedBinaryWriterBuilder(final _Private_IonManagedBinaryWriterBuilder other)
@@ -104,7 +125,11 @@ public final class _Private_IonManagedBinaryWriterBuilder
         this.optimization       = other.optimization;
         this.initialSymbolTable = other.initialSymbolTable;
         this.isLocalSymbolTableAppendEnabled = other.isLocalSymbolTableAppendEnabled;
+        this.localSymbolTableRetentionLimit = other.localSymbolTableRetentionLimit;
         this.isFloatBinary32Enabled = other.isFloatBinary32Enabled;
+        this.isContainerLengthPredictionEnabled = other.isContainerLengthPredictionEnabled;
+        this.asyncExecutor = other.asyncExecutor;
+        this.maxInFlightBytes = other.maxInFlightBytes;
     }
 
     public _Private_IonManagedBinaryWriterBuilder copy()
@@ -208,6 +233,21 @@ public final class _Private_IonManagedBinaryWriterBuilder
         return this;
     }
 
+    public int getLocalSymbolTableRetentionLimit()
+    {
+        return localSymbolTableRetentionLimit;
+    }
+
+    public _Private_IonManagedBinaryWriterBuilder withLocalSymbolTableRetentionLimit(final int limit)
+    {
+        if (limit < 0)
+        {
+            throw new IllegalArgumentException("Retention limit cannot be negative: " + limit);
+        }
+        localSymbolTableRetentionLimit = limit;
+        return this;
+    }
+
     public _Private_IonManagedBinaryWriterBuilder withFloatBinary32Enabled() {
         isFloatBinary32Enabled = true;
         return this;
@@ -218,6 +258,121 @@ public final class _Private_IonManagedBinaryWriterBuilder
         return this;
     }
 
+    public boolean isOffHeapBuffersEnabled()
+    {
+        if (provider instanceof ThreadCachingBlockAllocatorProvider)
+        {
+            return ((ThreadCachingBlockAllocatorProvider) provider).isOffHeap();
+        }
+        return provider instanceof DirectBlockAllocatorProvider;
+    }
+
+    public _Private_IonManagedBinaryWriterBuilder withOffHeapBuffersEnabled()
+    {
+        updateProvider(true, getBlockPoolLimit());
+        return this;
+    }
+
+    public _Private_IonManagedBinaryWriterBuilder withOffHeapBuffersDisabled()
+    {
+        updateProvider(false, getBlockPoolLimit());
+        return this;
+    }
+
+    public long getBlockPoolLimit()
+    {
+        if (provider instanceof ThreadCachingBlockAllocatorProvider)
+        {
+            return ((ThreadCachingBlockAllocatorProvider) provider).getMaxPooledBytes();
+        }
+        return 0;
+    }
+
+    public _Private_IonManagedBinaryWriterBuilder withBlockPoolLimit(final long limit)
+    {
+        if (limit < 0)
+        {
+            throw new IllegalArgumentException("Block pool limit cannot be negative: " + limit);
+        }
+        updateProvider(isOffHeapBuffersEnabled(), limit);
+        return this;
+    }
+
+    /** Returns the counters of the pool, or null if the builder has no block pool limit. */
+    public BlockPoolStatistics getBlockPoolStatistics()
+    {
+        if (provider instanceof ThreadCachingBlockAllocatorProvider)
+        {
+            return (ThreadCachingBlockAllocatorProvider) provider;
+        }
+        return null;
+    }
+
+    /** Replaces the block pool, unless it already has the given properties. */
+    private void updateProvider(final boolean offHeap, final long limit)
+    {
+        if (offHeap == isOffHeapBuffersEnabled() && limit == getBlockPoolLimit())
+        {
+            return;
+        }
+        if (limit > 0)
+        {
+            provider = new ThreadCachingBlockAllocatorProvider(limit, offHeap);
+        }
+        else
+        {
+            provider = (offHeap ? AllocatorMode.DIRECT : AllocatorMode.POOLED).createAllocatorProvider();
+        }
+    }
+
+    public boolean isContainerLengthPredictionEnabled()
+    {
+        return isContainerLengthPredictionEnabled;
+    }
+
+    public _Private_IonManagedBinaryWriterBuilder withContainerLengthPredictionEnabled()
+    {
+        isContainerLengthPredictionEnabled = true;
+        return this;
+    }
+
+    public _Private_IonManagedBinaryWriterBuilder withContainerLengthPredictionDisabled()
+    {
+        isContainerLengthPredictionEnabled = false;
+        return this;
+    }
+
+    public Executor getAsyncExecutor()
+    {
+        return asyncExecutor;
+    }
+
+    /**
+     * Sets the executor that writes the finished data of the writers in the background, or null to write it as
+     * it's finished.
+     */
+    public _Private_IonManagedBinaryWriterBuilder withAsyncExecutor(final Executor executor)
+    {
+        asyncExecutor = executor;
+        return this;
+    }
+
+    public long getMaxInFlightBytes()
+    {
+        return maxInFlightBytes;
+    }
+
+    /** Sets how many bytes each writer may have waiting to be written in the background before it blocks. */
+    public _Private_IonManagedBinaryWriterBuilder withMaxInFlightBytes(final long maxInFlightBytes)
+    {
+        if (maxInFlightBytes < 1)
+        {
+            throw new IllegalArgumentException("Max in-flight bytes must be positive: " + maxInFlightBytes);
+        }
+        this.maxInFlightBytes = maxInFlightBytes;
+        return this;
+    }
+
     public _Private_IonManagedBinaryWriterBuilder withInitialSymbolTable(SymbolTable symbolTable)
     {
         if (symbolTable != null)
@@ -260,6 +415,16 @@ public final class _Private_IonManagedBinaryWriterBuilder
         return new IonManagedBinaryWriter(this, out);
     }
 
+    public IonWriter newWriter(final ByteBufferSink out) throws IOException
+    {
+        return newWriter(new ByteBufferSinkOutputStream(out));
+    }
+
+    public IonWriter newWriter(final GatheringByteChannel out) throws IOException
+    {
+        return newWriter(ByteBufferSinkOutputStream.channelSink(out));
+    }
+
     public IonBinaryWriter newLegacyWriter()
     {
         try
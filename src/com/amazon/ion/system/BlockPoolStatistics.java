@@ -0,0 +1,55 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.system;
+
+/**
+ * Counters of the pool of blocks that binary writers buffer their data in,
+ * for sizing the pool's budget, along with a way to release the pool's idle
+ * memory. See {@link IonBinaryWriterBuilder#setBlockPoolLimit(long)}.
+ * <p>
+ * <b>WARNING:</b> This interface should not be implemented or extended by
+ * code outside of this library.
+ * <p>
+ * The counts are updated by each thread in batches, so they may lag behind
+ * the pool's use by a few blocks per thread.
+ */
+public interface BlockPoolStatistics
+{
+    /**
+     * Gets the number of blocks allocated from the pool that were reused.
+     */
+    public long getHitCount();
+
+    /**
+     * Gets the number of blocks allocated from the pool that had to be
+     * created, because there were none free to reuse.
+     */
+    public long getMissCount();
+
+    /**
+     * Gets the number of bytes of free blocks the pool holds, across its
+     * shared pool and the caches of its threads.
+     */
+    public long getResidentBytes();
+
+    /**
+     * Drops the free blocks that have gone unused in the shared pool for a
+     * while. The pool does this itself as blocks are allocated and released,
+     * so this is only needed to release the memory of a pool that has gone
+     * quiet.
+     */
+    public void trim();
+}
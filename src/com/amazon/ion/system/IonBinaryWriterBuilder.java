@@ -15,12 +15,16 @@
 
 package com.amazon.ion.system;
 
+import com.amazon.ion.ByteBufferSink;
 import com.amazon.ion.IonCatalog;
 import com.amazon.ion.IonReader;
 import com.amazon.ion.IonWriter;
 import com.amazon.ion.SubstituteSymbolTableException;
 import com.amazon.ion.SymbolTable;
 import com.amazon.ion.impl._Private_IonBinaryWriterBuilder;
+import java.io.OutputStream;
+import java.nio.channels.GatheringByteChannel;
+import java.util.concurrent.Executor;
 
 
 /**
@@ -30,7 +34,9 @@ import com.amazon.ion.impl._Private_IonBinaryWriterBuilder;
  * this library.
  * <p>
  * Builders may be configured once and reused to construct multiple
- * objects.
+ * objects. The writers they build support the
+ * {@link com.amazon.ion.ResettableWriter} facet, which re-points a writer at
+ * a new output stream without rebuilding it.
  * <p>
  * <b>Instances of this class are not not safe for use by multiple threads
  * unless they are {@linkplain #immutable() immutable}.</b>
@@ -195,6 +201,358 @@ public abstract class IonBinaryWriterBuilder
     public abstract IonBinaryWriterBuilder withLocalSymbolTableAppendDisabled();
 
 
+    /**
+     * Gets the number of local symbols that a writer's local symbol table
+     * may hold and still be retained by {@link IonWriter#finish()}.
+     *
+     * @return the retention limit; zero means that the table is never
+     * retained, which is the default.
+     *
+     * @see #setLocalSymbolTableRetentionLimit(int)
+     * @see #withLocalSymbolTableRetentionLimit(int)
+     */
+    public abstract int getLocalSymbolTableRetentionLimit();
+
+
+    /**
+     * Sets the number of local symbols that a writer's local symbol table
+     * may hold and still be retained by {@link IonWriter#finish()}.
+     * <p>
+     * By default, {@code finish()} ends the current symbol table context,
+     * so data written after it must declare its symbols again in a new
+     * local symbol table. With a positive limit, {@code finish()} still
+     * writes out all buffered data, but the local symbol table survives
+     * it, as long as it holds no more than {@code limit} local symbols.
+     * Data written after {@code finish()} then uses the symbols already
+     * declared, and declares any new ones with a local symbol table that
+     * appends to the current one (as if
+     * {@linkplain #setLocalSymbolTableAppendEnabled(boolean) appending}
+     * were enabled). Once the table grows past the limit, {@code finish()}
+     * ends the symbol table context as usual, bounding the memory the
+     * writer and the stream's readers spend on symbols.
+     * <p>
+     * This suits long-lived writers that call {@code finish()} to make
+     * each batch of data durable, where the batches share most of their
+     * symbols. Since every batch after the first depends on the symbols
+     * declared before it, the batches can't be read on their own.
+     * Writing an Ion version marker always ends the symbol table context.
+     *
+     * @param limit the largest number of local symbols to retain; zero
+     * disables retention.
+     *
+     * @see #getLocalSymbolTableRetentionLimit()
+     * @see #withLocalSymbolTableRetentionLimit(int)
+     *
+     * @throws IllegalArgumentException if {@code limit} is negative.
+     */
+    public abstract void setLocalSymbolTableRetentionLimit(int limit);
+
+
+    /**
+     * Declares the number of local symbols that a writer's local symbol
+     * table may hold and still be retained by {@link IonWriter#finish()},
+     * returning a new mutable builder if this is immutable.
+     *
+     * @param limit the largest number of local symbols to retain; zero
+     * disables retention.
+     *
+     * @see #getLocalSymbolTableRetentionLimit()
+     * @see #setLocalSymbolTableRetentionLimit(int)
+     *
+     * @throws IllegalArgumentException if {@code limit} is negative.
+     */
+    public abstract
+    IonBinaryWriterBuilder withLocalSymbolTableRetentionLimit(int limit);
+
+
+    /**
+     * Determines whether the writers built buffer their data outside of the
+     * Java heap.
+     *
+     * @return true if off-heap buffers are enabled, which is not the
+     * default.
+     *
+     * @see #setOffHeapBuffersEnabled(boolean)
+     */
+    public abstract boolean isOffHeapBuffersEnabled();
+
+
+    /**
+     * Enables or disables buffering data outside of the Java heap. This
+     * functionality is disabled by default.
+     * <p>
+     * Writers buffer their data in fixed-size blocks until it's
+     * {@linkplain IonWriter#finish() finished}, and the blocks are pooled
+     * for reuse by the writers of this builder and its copies. By default
+     * the blocks are arrays on the heap; when enabled, they are direct
+     * {@link java.nio.ByteBuffer}s carved from larger regions of native
+     * memory. Writers that buffer large documents then don't fill the heap
+     * with blocks, and writers {@linkplain #build(GatheringByteChannel)
+     * built over a channel} hand the blocks to it without copying them onto
+     * the heap at all. Writing to an {@link OutputStream} copies the data
+     * through a small array, so this is best combined with channel output.
+     * <p>
+     * Changing this setting gives the builder a new pool of blocks.
+     *
+     * @param enabled {@code true} to buffer data off the heap,
+     * {@code false} to buffer it in arrays on the heap.
+     *
+     * @see #withOffHeapBuffersEnabled()
+     * @see #withOffHeapBuffersDisabled()
+     */
+    public abstract void setOffHeapBuffersEnabled(boolean enabled);
+
+
+    /**
+     * Enables buffering data outside of the Java heap, returning a new
+     * mutable builder if this is immutable.
+     *
+     * @see #setOffHeapBuffersEnabled(boolean)
+     */
+    public abstract
+    IonBinaryWriterBuilder withOffHeapBuffersEnabled();
+
+
+    /**
+     * Disables buffering data outside of the Java heap, returning a new
+     * mutable builder if this is immutable. This is the default behavior.
+     *
+     * @see #setOffHeapBuffersEnabled(boolean)
+     */
+    public abstract
+    IonBinaryWriterBuilder withOffHeapBuffersDisabled();
+
+
+    /**
+     * Gets the most bytes of free blocks that the block pool of this
+     * builder shares between threads.
+     *
+     * @return the limit; zero means that the default pool is used, which is
+     * the default.
+     *
+     * @see #setBlockPoolLimit(long)
+     */
+    public abstract long getBlockPoolLimit();
+
+
+    /**
+     * Sets the most bytes of free blocks that the block pool of this builder
+     * shares between threads.
+     * <p>
+     * Writers buffer their data in blocks taken from a pool, which the
+     * writers of this builder and its copies share. By default the pool is
+     * a single free list for each block size, which retains up to 64 MB of
+     * blocks of each size for as long as the builder is reachable.
+     * <p>
+     * With a positive limit, the builder uses a pool for many threads
+     * writing at once instead. Each thread caches a few free blocks that it
+     * reuses without synchronization, and hands them to and from the shared
+     * pool in batches. The shared pool and the caches of the threads
+     * together hold no more than {@code limit} bytes, and the shared pool
+     * drops blocks that go unused for a while, so memory isn't retained after
+     * a burst of writing. Its use can be measured, and its idle blocks
+     * dropped, with {@link #getBlockPoolStatistics()}.
+     * <p>
+     * Changing this setting gives the builder a new pool of blocks.
+     *
+     * @param limit the most bytes of free blocks to share between threads;
+     * zero selects the default pool.
+     *
+     * @throws IllegalArgumentException if {@code limit} is negative.
+     *
+     * @see #getBlockPoolLimit()
+     * @see #withBlockPoolLimit(long)
+     */
+    public abstract void setBlockPoolLimit(long limit);
+
+
+    /**
+     * Sets the most bytes of free blocks that the block pool of this builder
+     * shares between threads, returning a new mutable builder if this is
+     * immutable.
+     *
+     * @param limit the most bytes of free blocks to share between threads;
+     * zero selects the default pool.
+     *
+     * @throws IllegalArgumentException if {@code limit} is negative.
+     *
+     * @see #setBlockPoolLimit(long)
+     */
+    public abstract
+    IonBinaryWriterBuilder withBlockPoolLimit(long limit);
+
+
+    /**
+     * Gets the counters of the block pool of this builder, which is shared
+     * by its copies.
+     *
+     * @return the counters, or null if the builder has no
+     * {@linkplain #setBlockPoolLimit(long) block pool limit}.
+     */
+    public abstract BlockPoolStatistics getBlockPoolStatistics();
+
+
+    /**
+     * Determines whether the writers built learn how long containers tend
+     * to be.
+     *
+     * @return true if container length prediction is enabled, which is not
+     * the default.
+     *
+     * @see #setContainerLengthPredictionEnabled(boolean)
+     */
+    public abstract boolean isContainerLengthPredictionEnabled();
+
+
+    /**
+     * Enables or disables container length prediction. This functionality
+     * is disabled by default.
+     * <p>
+     * The binary encoding of a list, sexp, struct or annotated value begins
+     * with its length, which isn't known until the value has been written.
+     * Writers reserve a fixed number of bytes for it, and when the length
+     * doesn't fit, keep it on the side and splice it in as the data is
+     * written out, which is slower than writing the data in one piece.
+     * <p>
+     * When enabled, writers remember how many bytes the lengths of recent
+     * values needed, keyed by where the values sit: their field names and
+     * types, and those of the containers around them. The next value at
+     * the same place reserves that many bytes, so that data with a
+     * regular shape, such as a stream of records, rarely needs its lengths
+     * spliced in, and small values aren't padded to fit large ones.
+     * The encoded data is valid Ion either way, but its exact bytes may
+     * differ.
+     *
+     * @param enabled {@code true} to predict the lengths of containers,
+     * {@code false} to always reserve the same number of bytes.
+     *
+     * @see #withContainerLengthPredictionEnabled()
+     * @see #withContainerLengthPredictionDisabled()
+     */
+    public abstract void setContainerLengthPredictionEnabled(boolean enabled);
+
+
+    /**
+     * Enables container length prediction, returning a new mutable builder
+     * if this is immutable.
+     *
+     * @see #setContainerLengthPredictionEnabled(boolean)
+     */
+    public abstract
+    IonBinaryWriterBuilder withContainerLengthPredictionEnabled();
+
+
+    /**
+     * Disables container length prediction, returning a new mutable builder
+     * if this is immutable. This is the default behavior.
+     *
+     * @see #setContainerLengthPredictionEnabled(boolean)
+     */
+    public abstract
+    IonBinaryWriterBuilder withContainerLengthPredictionDisabled();
+
+
+    /**
+     * Gets the executor that writes the output of the writers built in the
+     * background.
+     *
+     * @return the executor; null means that writers write their output as
+     * it is finished, which is the default.
+     *
+     * @see #setAsyncExecutor(Executor)
+     */
+    public abstract Executor getAsyncExecutor();
+
+
+    /**
+     * Sets the executor that writes the output of the writers built in the
+     * background. By default there is none.
+     * <p>
+     * Writers buffer their data until it is
+     * {@linkplain IonWriter#finish() finished}, and then write it out. With
+     * an executor, they instead hand the buffers holding the finished data
+     * to a task on the executor, which writes them out while the writer
+     * carries on filling fresh buffers. The tasks of each writer run one at
+     * a time and in order, so one executor may serve many writers. Since
+     * the writer doesn't wait, an error writing its data is reported by a
+     * later call, and the rest of the data is dropped.
+     * <p>
+     * {@link IonWriter#close()} waits until all of the data has been
+     * written and the stream closed. The writers also have the
+     * {@link com.amazon.ion.AsyncWriter} facet, which closes them without
+     * waiting.
+     *
+     * @param executor the executor to write output with; null writes it as
+     * it is finished.
+     *
+     * @see #getAsyncExecutor()
+     * @see #withAsyncExecutor(Executor)
+     * @see #setMaxInFlightBytes(long)
+     */
+    public abstract void setAsyncExecutor(Executor executor);
+
+
+    /**
+     * Sets the executor that writes the output of the writers built in the
+     * background, returning a new mutable builder if this is immutable.
+     *
+     * @param executor the executor to write output with; null writes it as
+     * it is finished.
+     *
+     * @see #setAsyncExecutor(Executor)
+     */
+    public abstract
+    IonBinaryWriterBuilder withAsyncExecutor(Executor executor);
+
+
+    /**
+     * Gets the most bytes of finished data that each writer may have
+     * waiting to be written in the background.
+     *
+     * @return the limit, which is 4 MB by default.
+     *
+     * @see #setMaxInFlightBytes(long)
+     */
+    public abstract long getMaxInFlightBytes();
+
+
+    /**
+     * Sets the most bytes of finished data that each writer may have
+     * waiting to be written in the background. This only applies with an
+     * {@linkplain #setAsyncExecutor(Executor) executor}.
+     * <p>
+     * When finishing more data would go past the limit, the writer waits
+     * for the data before it to be written, which bounds the memory it
+     * holds when the stream is slower than the writer. Data larger than
+     * the limit is written once nothing else is waiting.
+     *
+     * @param maxInFlightBytes the limit, which must be positive.
+     *
+     * @throws IllegalArgumentException if {@code maxInFlightBytes} isn't
+     * positive.
+     *
+     * @see #getMaxInFlightBytes()
+     * @see #withMaxInFlightBytes(long)
+     */
+    public abstract void setMaxInFlightBytes(long maxInFlightBytes);
+
+
+    /**
+     * Sets the most bytes of finished data that each writer may have
+     * waiting to be written in the background, returning a new mutable
+     * builder if this is immutable.
+     *
+     * @param maxInFlightBytes the limit, which must be positive.
+     *
+     * @throws IllegalArgumentException if {@code maxInFlightBytes} isn't
+     * positive.
+     *
+     * @see #setMaxInFlightBytes(long)
+     */
+    public abstract
+    IonBinaryWriterBuilder withMaxInFlightBytes(long maxInFlightBytes);
+
+
     /**
      * Enables or disables writing Binary32 (4-byte, single precision,
      * IEEE-754) values for floats when there would be no loss in precision.
@@ -249,6 +607,47 @@ public abstract class IonBinaryWriterBuilder
      */
     public abstract IonBinaryWriterBuilder withFloatBinary32Disabled();
 
+
+    /**
+     * Builds a new writer over a sink that receives the writer's buffers
+     * themselves. Each time the data is {@linkplain IonWriter#finish()
+     * finished}, the buffered blocks are handed to the sink as a list of
+     * {@link java.nio.ByteBuffer}s, with no intermediate copy, instead of
+     * being written to an {@link OutputStream} one segment at a time.
+     * Closing the writer closes the sink.
+     *
+     * @param out the sink that will receive Ion data. Must not be null.
+     *
+     * @return a new {@link IonWriter} instance; not {@code null}.
+     *
+     * @see ByteBufferSink
+     */
+    public abstract IonWriter build(ByteBufferSink out);
+
+
+    /**
+     * Builds a new writer over a channel, such as a
+     * {@link java.nio.channels.FileChannel} or a
+     * {@link java.nio.channels.SocketChannel}. Each time the data is
+     * {@linkplain IonWriter#finish() finished}, the buffered blocks are
+     * written with a single {@link GatheringByteChannel#write(java.nio.ByteBuffer[])
+     * gathering write}, with no intermediate copy, repeated only if the
+     * channel writes less than all of them.
+     * <p>
+     * The channel must be in blocking mode, since each finish returns only
+     * once all of the data has been written. A write that makes no progress
+     * fails with an {@link java.io.IOException} rather than being retried.
+     * Closing the writer closes the channel.
+     *
+     * @param out the channel that will receive Ion data. Must not be null.
+     *
+     * @return a new {@link IonWriter} instance; not {@code null}.
+     *
+     * @throws IllegalArgumentException if {@code out} is a
+     * {@link java.nio.channels.SelectableChannel} in non-blocking mode.
+     */
+    public abstract IonWriter build(GatheringByteChannel out);
+
     //=========================================================================
 
 
@@ -15,6 +15,7 @@
 
 package com.amazon.ion.system;
 
+import static com.amazon.ion.impl._Private_IonReaderFactory.makeIncrementalReader;
 import static com.amazon.ion.impl._Private_IonReaderFactory.makeReader;
 
 import com.amazon.ion.IonCatalog;
@@ -24,9 +25,16 @@ import com.amazon.ion.IonStruct;
 import com.amazon.ion.IonSystem;
 import com.amazon.ion.IonTextReader;
 import com.amazon.ion.IonValue;
+import com.amazon.ion.ResettableReader;
+import com.amazon.ion.impl._Private_LocalSymbolTableFactory;
+import com.amazon.ion.impl._Private_SymbolTextCache;
+import com.amazon.ion.impl._Private_TextReaderOptions;
+import com.amazon.ion.impl._Private_Utils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * Build a new {@link IonReader} from the given {@link IonCatalog} and data
@@ -42,6 +50,12 @@ public class IonReaderBuilder
 {
 
     private IonCatalog catalog = null;
+    private boolean isIncrementalReadingEnabled = false;
+    private boolean isLazySymbolTextEnabled = false;
+    private boolean isStrictJsonEnabled = false;
+    private boolean isLineTrackingEnabled = true;
+    private int symbolTextCacheSize = 0;
+    private _Private_SymbolTextCache symbolTextCache = null;
 
     private IonReaderBuilder()
     {
@@ -50,6 +64,12 @@ public class IonReaderBuilder
     private IonReaderBuilder(IonReaderBuilder that)
     {
         this.catalog = that.catalog;
+        this.isIncrementalReadingEnabled = that.isIncrementalReadingEnabled;
+        this.isLazySymbolTextEnabled = that.isLazySymbolTextEnabled;
+        this.isStrictJsonEnabled = that.isStrictJsonEnabled;
+        this.isLineTrackingEnabled = that.isLineTrackingEnabled;
+        this.symbolTextCacheSize = that.symbolTextCacheSize;
+        this.symbolTextCache = that.symbolTextCache;
     }
 
     /**
@@ -151,6 +171,355 @@ public class IonReaderBuilder
         return catalog;
     }
 
+    /**
+     * Declares whether readers built over an {@link InputStream} of Ion
+     * binary read incrementally, returning a new mutable builder if the
+     * current one is immutable.
+     *
+     * @param isEnabled true if incremental reading should be enabled.
+     *
+     * @return this builder instance, if mutable;
+     * otherwise a mutable copy of this builder.
+     *
+     * @see #setIncrementalReadingEnabled(boolean)
+     * @see #isIncrementalReadingEnabled()
+     */
+    public IonReaderBuilder withIncrementalReadingEnabled(boolean isEnabled)
+    {
+        IonReaderBuilder b = mutable();
+        b.setIncrementalReadingEnabled(isEnabled);
+        return b;
+    }
+
+    /**
+     * Sets whether readers built over an {@link InputStream} of Ion binary
+     * read incrementally. An incremental reader never blocks, or fails, when
+     * a top-level value has only partially arrived: it only asks the stream
+     * for more bytes in between top-level values, and only ever reads what
+     * the stream has ready. When the next top-level value is incomplete
+     * {@link IonReader#next()} returns null. Once more data is available
+     * from the stream the caller may call {@code next()} again, which
+     * resumes where the previous call left off.
+     * <p>
+     * The stream given to {@link #build(InputStream)} should therefore
+     * return whatever bytes are currently available (possibly none, by
+     * returning -1) instead of blocking. Its first bytes tell binary from
+     * text, and until the stream has delivered enough of them
+     * {@code next()} returns null as well. A stream that begins with the
+     * four-byte Ion binary version marker is then read incrementally, and
+     * any other stream is read with the regular blocking readers. Each
+     * top-level value is buffered in its entirety before it is read, so the
+     * reader's memory use grows with
+     * the size of the largest top-level value. Calling
+     * {@link IonReader#close()} after {@code next()} returned null in the
+     * middle of a value raises an {@link IonException}.
+     * <p>
+     * Incremental reading does not apply to Ion text, nor to GZIPped Ion
+     * data, nor to any of the other {@code build} methods, whose data is
+     * complete from the start. It is disabled by default.
+     *
+     * @param isEnabled true if incremental reading should be enabled.
+     *
+     * @see #withIncrementalReadingEnabled(boolean)
+     * @see #isIncrementalReadingEnabled()
+     *
+     * @throws UnsupportedOperationException if this builder is immutable.
+     */
+    public void setIncrementalReadingEnabled(boolean isEnabled)
+    {
+        mutationCheck();
+        this.isIncrementalReadingEnabled = isEnabled;
+    }
+
+    /**
+     * @return true if readers built over an {@link InputStream} of Ion binary
+     * read incrementally.
+     *
+     * @see #setIncrementalReadingEnabled(boolean)
+     * @see #withIncrementalReadingEnabled(boolean)
+     */
+    public boolean isIncrementalReadingEnabled()
+    {
+        return isIncrementalReadingEnabled;
+    }
+
+    /**
+     * Declares whether binary readers decode the symbols of local symbol
+     * tables lazily, returning a new mutable builder if the current one is
+     * immutable.
+     *
+     * @param isEnabled true if lazy symbol text should be enabled.
+     *
+     * @return this builder instance, if mutable;
+     * otherwise a mutable copy of this builder.
+     *
+     * @see #setLazySymbolTextEnabled(boolean)
+     * @see #isLazySymbolTextEnabled()
+     */
+    public IonReaderBuilder withLazySymbolTextEnabled(boolean isEnabled)
+    {
+        IonReaderBuilder b = mutable();
+        b.setLazySymbolTextEnabled(isEnabled);
+        return b;
+    }
+
+    /**
+     * Sets whether binary readers decode the symbols of local symbol tables
+     * lazily. When enabled, the symbols declared by each local symbol table
+     * are kept as the UTF-8 bytes they were read from, and a symbol's text is
+     * only decoded the first time its ID is resolved, for example by
+     * {@link IonReader#getFieldName()} or {@link IonReader#stringValue()}.
+     * This speeds up reading streams with large symbol tables of which only
+     * a few symbols are ever used.
+     * <p>
+     * Looking up a symbol by its text (as done by
+     * {@link com.amazon.ion.SymbolTable#findSymbol(String)}) decodes all of
+     * the table's symbols at once. Lazy symbol text does not apply to Ion
+     * text, nor to readers over an {@link IonValue}. It is disabled by
+     * default.
+     *
+     * @param isEnabled true if lazy symbol text should be enabled.
+     *
+     * @see #withLazySymbolTextEnabled(boolean)
+     * @see #isLazySymbolTextEnabled()
+     *
+     * @throws UnsupportedOperationException if this builder is immutable.
+     */
+    public void setLazySymbolTextEnabled(boolean isEnabled)
+    {
+        mutationCheck();
+        this.isLazySymbolTextEnabled = isEnabled;
+    }
+
+    /**
+     * @return true if binary readers decode the symbols of local symbol
+     * tables lazily.
+     *
+     * @see #setLazySymbolTextEnabled(boolean)
+     * @see #withLazySymbolTextEnabled(boolean)
+     */
+    public boolean isLazySymbolTextEnabled()
+    {
+        return isLazySymbolTextEnabled;
+    }
+
+    /**
+     * Declares whether built readers only accept JSON, returning a new
+     * mutable builder if the current one is immutable.
+     *
+     * @param isEnabled true if readers should only accept JSON.
+     *
+     * @return this builder instance, if mutable;
+     * otherwise a mutable copy of this builder.
+     *
+     * @see #setStrictJsonEnabled(boolean)
+     * @see #isStrictJsonEnabled()
+     */
+    public IonReaderBuilder withStrictJsonEnabled(boolean isEnabled)
+    {
+        IonReaderBuilder b = mutable();
+        b.setStrictJsonEnabled(isEnabled);
+        return b;
+    }
+
+    /**
+     * Sets whether built readers only accept JSON. When enabled, the data
+     * is always read as text, whose tokens are restricted to JSON's:
+     * objects, arrays, strings, numbers, {@code true}, {@code false} and
+     * {@code null}. There are no annotations, s-expressions, symbols,
+     * long strings, lobs, timestamps or typed nulls to look for, so the
+     * reader's work for each token is smaller. Anything outside of JSON,
+     * including comments, trailing commas, unquoted field names and Ion's
+     * additional string escapes, raises an {@link IonException}, as does
+     * Ion binary data. Whitespace-separated sequences of top-level values,
+     * such as JSON Lines, are accepted.
+     * <p>
+     * Values are read through the standard {@link IonReader} API. Objects
+     * are read as Ion structs, arrays as lists and {@code null} as
+     * {@code null.null}. A number with neither a fraction nor an exponent
+     * is read as an int, one with only a fraction as a decimal, and one
+     * with an exponent as a float, just as Ion text would read it.
+     * <p>
+     * As with Ion text, values that are skipped rather than read are only
+     * checked as far as needed to find their end. Strict JSON does not
+     * apply to readers over an {@link IonValue}. It is disabled by default.
+     *
+     * @param isEnabled true if readers should only accept JSON.
+     *
+     * @see #withStrictJsonEnabled(boolean)
+     * @see #isStrictJsonEnabled()
+     *
+     * @throws UnsupportedOperationException if this builder is immutable.
+     */
+    public void setStrictJsonEnabled(boolean isEnabled)
+    {
+        mutationCheck();
+        this.isStrictJsonEnabled = isEnabled;
+    }
+
+    /**
+     * @return true if built readers only accept JSON.
+     *
+     * @see #setStrictJsonEnabled(boolean)
+     * @see #withStrictJsonEnabled(boolean)
+     */
+    public boolean isStrictJsonEnabled()
+    {
+        return isStrictJsonEnabled;
+    }
+
+    /**
+     * Declares whether built text readers count lines and columns,
+     * returning a new mutable builder if the current one is immutable.
+     *
+     * @param isEnabled true if text readers should count lines and columns.
+     *
+     * @return this builder instance, if mutable;
+     * otherwise a mutable copy of this builder.
+     *
+     * @see #setLineTrackingEnabled(boolean)
+     * @see #isLineTrackingEnabled()
+     */
+    public IonReaderBuilder withLineTrackingEnabled(boolean isEnabled)
+    {
+        IonReaderBuilder b = mutable();
+        b.setLineTrackingEnabled(isEnabled);
+        return b;
+    }
+
+    /**
+     * Sets whether built text readers count lines and columns. When
+     * enabled, the reader keeps track of the line and column of every
+     * value, which it uses to provide {@link com.amazon.ion.TextSpan}s and
+     * to report the line and offset at which a syntax error occurred.
+     * <p>
+     * Applications that never ask for these, such as batch jobs that only
+     * consume values, can disable tracking to save the reader that work.
+     * The reader's {@link com.amazon.ion.Span}s are then only available as
+     * {@link com.amazon.ion.OffsetSpan}s, so they can still be hoisted, and
+     * error messages report the offset of the error from the start of the
+     * input instead of its line and column. Binary readers never count
+     * lines, so they are unaffected. It is enabled by default.
+     *
+     * @param isEnabled true if text readers should count lines and columns.
+     *
+     * @see #withLineTrackingEnabled(boolean)
+     * @see #isLineTrackingEnabled()
+     *
+     * @throws UnsupportedOperationException if this builder is immutable.
+     */
+    public void setLineTrackingEnabled(boolean isEnabled)
+    {
+        mutationCheck();
+        this.isLineTrackingEnabled = isEnabled;
+    }
+
+    /**
+     * @return true if built text readers count lines and columns.
+     *
+     * @see #setLineTrackingEnabled(boolean)
+     * @see #withLineTrackingEnabled(boolean)
+     */
+    public boolean isLineTrackingEnabled()
+    {
+        return isLineTrackingEnabled;
+    }
+
+    /**
+     * Declares the size of the symbol text cache shared by built text
+     * readers, returning a new mutable builder if the current one is
+     * immutable.
+     *
+     * @param size the maximum number of cached texts, up to 65536, or zero
+     * to disable the cache.
+     *
+     * @return this builder instance, if mutable;
+     * otherwise a mutable copy of this builder.
+     *
+     * @see #setSymbolTextCacheSize(int)
+     * @see #getSymbolTextCacheSize()
+     */
+    public IonReaderBuilder withSymbolTextCacheSize(int size)
+    {
+        IonReaderBuilder b = mutable();
+        b.setSymbolTextCacheSize(size);
+        return b;
+    }
+
+    /**
+     * Sets the size of the symbol text cache shared by built text readers.
+     * By default, a text reader creates a new {@link String} each time it
+     * reads a field name, annotation or symbol value. With a cache, text
+     * that has been read before, by this reader or any other built by this
+     * builder, is returned as the same {@link String}. This saves the
+     * allocation when the same few names are read over and over, as with
+     * the field names of a stream of similar records, and keeps values
+     * that retain the text, such as {@link IonValue}s, from retaining
+     * duplicate copies of it.
+     * <p>
+     * The cache holds at most {@code size} texts (rounded up to a power of
+     * two), and {@code size} may be at most 65536, which is far more
+     * distinct text than data normally repeats. New text replaces old text
+     * when the cache is full, and only short text is cached at all. It is
+     * safe for use by readers on different threads. Copies of this builder,
+     * including immutable ones, share its cache until they are given a cache
+     * of their own. Setting a size, even the current one, starts a new empty
+     * cache. Binary readers do not use the cache, as they resolve text
+     * through symbol tables. It is disabled by default.
+     *
+     * @param size the maximum number of cached texts, up to 65536, or zero
+     * to disable the cache.
+     *
+     * @see #withSymbolTextCacheSize(int)
+     * @see #getSymbolTextCacheSize()
+     *
+     * @throws UnsupportedOperationException if this builder is immutable.
+     * @throws IllegalArgumentException if {@code size} is negative or
+     * greater than 65536.
+     */
+    public void setSymbolTextCacheSize(int size)
+    {
+        mutationCheck();
+        if (size < 0 || size > _Private_SymbolTextCache.MAX_SIZE)
+        {
+            throw new IllegalArgumentException("size must be between 0 and "
+                                               + _Private_SymbolTextCache.MAX_SIZE);
+        }
+        this.symbolTextCacheSize = size;
+        this.symbolTextCache =
+            (size == 0) ? null : new _Private_SymbolTextCache(size);
+    }
+
+    /**
+     * @return the size of the shared symbol text cache as it was set, or
+     * zero if it is disabled. The cache itself may hold somewhat more, as
+     * the size is rounded up to a power of two.
+     *
+     * @see #setSymbolTextCacheSize(int)
+     * @see #withSymbolTextCacheSize(int)
+     */
+    public int getSymbolTextCacheSize()
+    {
+        return symbolTextCacheSize;
+    }
+
+    private _Private_TextReaderOptions textOptions()
+    {
+        if (!isStrictJsonEnabled && isLineTrackingEnabled
+            && symbolTextCache == null)
+        {
+            return _Private_TextReaderOptions.DEFAULT;
+        }
+        return new _Private_TextReaderOptions(isStrictJsonEnabled,
+                                              isLineTrackingEnabled,
+                                              symbolTextCache);
+    }
+
+    private _Private_LocalSymbolTableFactory lstFactory()
+    {
+        return _Private_Utils.localSymbolTableFactory(isLazySymbolTextEnabled);
+    }
+
     private IonCatalog validateCatalog()
     {
         // matches behavior in IonSystemBuilder when no catalog provided
@@ -175,7 +544,8 @@ public class IonReaderBuilder
      */
     public IonReader build(byte[] ionData)
     {
-        return makeReader(validateCatalog(), ionData);
+        return makeReader(validateCatalog(), ionData, 0, ionData.length, lstFactory(),
+                          textOptions());
     }
 
     /**
@@ -184,6 +554,10 @@ public class IonReaderBuilder
      * binary data.
      * <p>
      * This method will auto-detect and uncompress GZIPped Ion data.
+     * <p>
+     * Readers over uncompressed Ion binary data support the
+     * {@link ResettableReader} facet, which re-points the reader at new
+     * data without rebuilding it.
      *
      * @param ionData the source of the Ion data, which is used only within the
      * range of bytes starting at {@code offset} for {@code len} bytes.
@@ -198,7 +572,8 @@ public class IonReaderBuilder
      */
     public IonReader build(byte[] ionData, int offset, int length)
     {
-        return makeReader(validateCatalog(), ionData, offset, length);
+        return makeReader(validateCatalog(), ionData, offset, length, lstFactory(),
+                          textOptions());
     }
 
     /**
@@ -206,7 +581,9 @@ public class IonReaderBuilder
      * instance over the given stream of Ion data, detecting whether it's text or
      * binary data.
      * <p>
-     * This method will auto-detect and uncompress GZIPped Ion data.
+     * This method will auto-detect and uncompress GZIPped Ion data, unless
+     * {@linkplain #setIncrementalReadingEnabled(boolean) incremental reading}
+     * is enabled.
      * <p>
      * Because this library performs its own buffering, it's recommended that
      * users avoid adding additional buffering to the given stream.
@@ -223,7 +600,68 @@ public class IonReaderBuilder
      */
     public IonReader build(InputStream ionData)
     {
-        return makeReader(validateCatalog(), ionData);
+        if (isIncrementalReadingEnabled) {
+            return makeIncrementalReader(validateCatalog(), ionData, lstFactory(),
+                                         textOptions());
+        }
+        return makeReader(validateCatalog(), ionData, lstFactory(), textOptions());
+    }
+
+    /**
+     * Based on the builder's configuration properties, creates a new IonReader
+     * instance over the given buffer of Ion data, detecting whether it's text
+     * or binary data.
+     * <p>
+     * This method will auto-detect and uncompress GZIPped Ion data.
+     * <p>
+     * Only the bytes between the buffer's position and its limit are read,
+     * and neither is modified by the reader. The data is not copied up front:
+     * a buffer backed by an accessible array is read in place, just like
+     * {@link #build(byte[], int, int)}, while other buffers (such as direct
+     * buffers) are read a page at a time into the reader's own buffer. In
+     * either case the reader retains a reference to the buffer, so its data
+     * must not be modified while the reader is active.
+     *
+     * @param ionData the source of the Ion data, which may be either Ion
+     * binary data or UTF-8 Ion text. Must not be null.
+     *
+     * @return a new {@link IonReader} instance; not {@code null}.
+     */
+    public IonReader build(ByteBuffer ionData)
+    {
+        return makeReader(validateCatalog(), ionData, lstFactory(), textOptions());
+    }
+
+    /**
+     * Based on the builder's configuration properties, creates a new IonReader
+     * instance over the contents of a file, from the channel's current
+     * position to its end, detecting whether it's text or binary data.
+     * <p>
+     * The file is memory mapped, in windows of up to 64 MB, rather than read
+     * through a stream. Values that are skipped (by calling
+     * {@link IonReader#next()} without reading them, or by
+     * {@link IonReader#stepOut() stepping out} early) are never loaded, so
+     * scanning for a few values in a large file only touches the parts of
+     * the file that hold them. Many readers may be built over the same
+     * channel, concurrently, in which case they share the operating system's
+     * page cache for the file.
+     * <p>
+     * The reader neither uses nor changes the position of the channel once
+     * built, and it does not close the channel, which remains owned by the
+     * caller. The file must not be modified while the reader is active.
+     * GZIPped data is not supported; use {@link #build(InputStream)} instead.
+     *
+     * @param ionData the file to read, which may contain either Ion binary
+     * data or UTF-8 Ion text. Must not be null.
+     *
+     * @return a new {@link IonReader} instance; not {@code null}.
+     *
+     * @throws IonException if the channel throws {@link IOException}, or if
+     * the data is GZIPped.
+     */
+    public IonReader build(FileChannel ionData)
+    {
+        return makeReader(validateCatalog(), ionData, lstFactory(), textOptions());
     }
 
     /**
@@ -245,7 +683,7 @@ public class IonReaderBuilder
      */
     public IonReader build(Reader ionText)
     {
-        return makeReader(validateCatalog(), ionText);
+        return makeReader(validateCatalog(), ionText, lstFactory(), textOptions());
     }
 
     /**
@@ -276,7 +714,7 @@ public class IonReaderBuilder
      */
     public IonTextReader build(String ionText)
     {
-        return makeReader(validateCatalog(), ionText);
+        return makeReader(validateCatalog(), ionText, lstFactory(), textOptions());
     }
 
     private static class Mutable extends IonReaderBuilder
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.util;
+
+import com.amazon.ion.IonCatalog;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.OffsetSpan;
+import com.amazon.ion.SpanProvider;
+import com.amazon.ion.SymbolTable;
+import com.amazon.ion.impl._Private_IonReaderFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Splits a block of Ion binary data into chunks of top-level values that
+ * can be decoded independently, for example by different threads.
+ * <p>
+ * The scan reads the data's system values (Ion version markers and local
+ * symbol tables) but of every other top-level value it only reads the type
+ * descriptor and length, skipping over its contents. Each resulting
+ * {@link Chunk} is a contiguous range of user values along with the symbol
+ * table that's active for them, from which a new reader over just that
+ * range may be built.
+ * <p>
+ * The symbol tables of the chunks are made read-only once the scan is
+ * complete, so that they may be shared by readers on different threads.
+ * When a local symbol table is appended to, the chunks before and after
+ * the append share the same table, which holds the symbols of both.
+ */
+public final class IonBinaryChunker
+{
+    /**
+     * A contiguous range of top-level user values, all of which use the same
+     * symbol table.
+     */
+    public static final class Chunk
+    {
+        private final IonCatalog  myCatalog;
+        private final byte[]      myData;
+        private final int         myOffset;
+        private final int         myLength;
+        private final int         myValueCount;
+        private final SymbolTable mySymbolTable;
+
+        private Chunk(IonCatalog catalog, byte[] data, int offset, int length,
+                      int valueCount, SymbolTable symbolTable)
+        {
+            myCatalog     = catalog;
+            myData        = data;
+            myOffset      = offset;
+            myLength      = length;
+            myValueCount  = valueCount;
+            mySymbolTable = symbolTable;
+        }
+
+        /**
+         * @return the position of the chunk's first byte within the scanned
+         * array.
+         */
+        public int getOffset()
+        {
+            return myOffset;
+        }
+
+        /**
+         * @return the number of bytes in the chunk.
+         */
+        public int getLength()
+        {
+            return myLength;
+        }
+
+        /**
+         * @return the number of top-level values in the chunk.
+         */
+        public int getValueCount()
+        {
+            return myValueCount;
+        }
+
+        /**
+         * @return the symbol table that's active for the chunk's values;
+         * read-only.
+         */
+        public SymbolTable getSymbolTable()
+        {
+            return mySymbolTable;
+        }
+
+        /**
+         * Creates a new reader over just the values of this chunk, using its
+         * symbol table. Readers of different chunks may be used concurrently.
+         * Spans reported by the reader are relative to the chunk's offset.
+         *
+         * @return a new binary reader; not null.
+         */
+        public IonReader newReader()
+        {
+            return _Private_IonReaderFactory.makeBinaryReaderOverValues(myCatalog,
+                                                                        myData,
+                                                                        myOffset,
+                                                                        myLength,
+                                                                        mySymbolTable);
+        }
+    }
+
+
+    private IonBinaryChunker()
+    {
+    }
+
+    /**
+     * Splits a block of Ion binary data into chunks.
+     *
+     * @param catalog the catalog used to resolve shared symbol table
+     * imports. Must not be null.
+     * @param ionBinary the data to scan. The chunks, and the readers built
+     * from them, retain a reference to the array, so its data must not be
+     * modified while they're in use. Must not be null.
+     * @param offset the position of the data within {@code ionBinary}.
+     * @param length the number of bytes of data.
+     * @param targetChunkSize the number of bytes at which a chunk is closed;
+     * values are added to a chunk until it's at least this long, so chunks
+     * of a single large value may be longer. If zero or less, each value
+     * has its own chunk.
+     *
+     * @return the chunks, in order; not null.
+     *
+     * @throws IllegalArgumentException if the data isn't (uncompressed)
+     * Ion binary.
+     */
+    public static List<Chunk> scan(IonCatalog catalog,
+                                   byte[] ionBinary,
+                                   int offset,
+                                   int length,
+                                   int targetChunkSize)
+    {
+        if (! IonStreamUtils.isIonBinary(ionBinary, offset, length))
+        {
+            throw new IllegalArgumentException("data is not Ion binary");
+        }
+        IonReader reader = _Private_IonReaderFactory.makeReader(catalog, ionBinary, offset, length);
+        SpanProvider spans = reader.asFacet(SpanProvider.class);
+
+        List<Chunk> chunks = new ArrayList<Chunk>();
+        IdentityHashMap<SymbolTable, Boolean> symbolTables =
+            new IdentityHashMap<SymbolTable, Boolean>();
+        SymbolTable chunkSymbols = null;
+        int chunkStart = 0;
+        int chunkEnd = 0;
+        int chunkValues = 0;
+        while (reader.next() != null)
+        {
+            OffsetSpan span = (OffsetSpan) spans.currentSpan();
+            int start = offset + (int) span.getStartOffset();
+            int end = offset + (int) span.getFinishOffset();
+            SymbolTable symbols = reader.getSymbolTable();
+
+            // anything in between values is a system value
+            if (chunkValues != 0
+                && (start != chunkEnd || symbols != chunkSymbols))
+            {
+                chunks.add(new Chunk(catalog, ionBinary, chunkStart,
+                                     chunkEnd - chunkStart, chunkValues,
+                                     chunkSymbols));
+                chunkValues = 0;
+            }
+            if (chunkValues == 0)
+            {
+                chunkStart = start;
+                chunkSymbols = symbols;
+                symbolTables.put(symbols, Boolean.TRUE);
+            }
+            chunkEnd = end;
+            chunkValues++;
+            if (chunkEnd - chunkStart >= targetChunkSize)
+            {
+                chunks.add(new Chunk(catalog, ionBinary, chunkStart,
+                                     chunkEnd - chunkStart, chunkValues,
+                                     chunkSymbols));
+                chunkValues = 0;
+            }
+        }
+        if (chunkValues != 0)
+        {
+            chunks.add(new Chunk(catalog, ionBinary, chunkStart,
+                                 chunkEnd - chunkStart, chunkValues,
+                                 chunkSymbols));
+        }
+
+        for (SymbolTable symbols : symbolTables.keySet())
+        {
+            symbols.makeReadOnly();
+        }
+        return chunks;
+    }
+}
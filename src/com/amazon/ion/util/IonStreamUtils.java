@@ -24,6 +24,7 @@ import com.amazon.ion.IonWriter;
 import com.amazon.ion.impl._Private_ListWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Utility methods for working with the Ion streaming interfaces,
@@ -91,6 +92,35 @@ public class IonStreamUtils
     }
 
 
+    /**
+     * Determines whether a buffer contains GZIPped data, starting at its
+     * position. The position and limit of the buffer are not changed.
+     *
+     * @param buffer the data to check.
+     *
+     * @return {@code true} if the buffer contains GZIPped data; {@code false}
+     * if the buffer is null or if it has too few bytes remaining.
+     *
+     */
+    public static boolean isGzip(ByteBuffer buffer)
+    {
+        if (buffer == null || buffer.remaining() < GZIP_HEADER.length)
+        {
+            return false;
+        }
+
+        int offset = buffer.position();
+        for (int i = 0; i < GZIP_HEADER.length; i++)
+        {
+            if (GZIP_HEADER[i] != buffer.get(offset + i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
     private static boolean cookieMatches(byte[] cookie,
                                          byte[] buffer,
                                          int offset,
@@ -0,0 +1,1049 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.util;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Splits UTF-8 Ion text (including newline-delimited JSON) into chunks of
+ * top-level values that can be decoded independently, and decodes them in
+ * parallel.
+ * <p>
+ * Chunks only ever end at the end of a line that closes a top-level value,
+ * so data whose top-level values are all on one line (such as a single
+ * value per line) splits best. Lines inside strings, long strings, quoted
+ * symbols, comments, lobs and containers are never split, nor are
+ * annotations separated from their values, nor are adjacent long strings
+ * (which form a single value) separated from each other.
+ * <p>
+ * The scan that finds the line ends is itself done in parallel, by
+ * speculation: the data is divided into ranges that start at line
+ * starts, and each range is scanned on the assumption that its first line
+ * starts at the top level. Once the ranges are scanned, each assumption is
+ * checked against the true state at the end of the range before it, and
+ * the (rare) ranges whose assumption was wrong are scanned again.
+ * <p>
+ * Ion version markers and local symbol tables in the data are tracked, so
+ * that the reader of each chunk first reads those that apply to it; this
+ * keeps symbol IDs (such as {@code $10}) in the chunks resolvable. Data
+ * that only ends its lines with carriage returns is not split.
+ */
+public final class IonTextChunker
+{
+    /**
+     * A contiguous range of top-level values.
+     */
+    public static final class Chunk
+    {
+        private final Source myData;
+        private final long   myOffset;
+        private final int    myLength;
+        private final byte[] myDirectives;
+
+        private Chunk(Source data, long offset, int length, byte[] directives)
+        {
+            myData       = data;
+            myOffset     = offset;
+            myLength     = length;
+            myDirectives = directives;
+        }
+
+        /**
+         * @return the position of the chunk's first byte relative to the
+         * start of the scanned data.
+         */
+        public long getOffset()
+        {
+            return myOffset;
+        }
+
+        /**
+         * @return the number of bytes in the chunk.
+         */
+        public int getLength()
+        {
+            return myLength;
+        }
+
+        /**
+         * Creates a new reader over the values of this chunk, preceded by
+         * the Ion version marker and local symbol tables that apply to them.
+         * Readers of different chunks may be used concurrently.
+         *
+         * @param readerBuilder configures the reader. Must not be null.
+         *
+         * @return a new reader; not null.
+         */
+        public IonReader newReader(IonReaderBuilder readerBuilder)
+        {
+            ByteBuffer values;
+            try
+            {
+                values = myData.window(myOffset, myLength);
+            }
+            catch (IOException e)
+            {
+                throw new IonException(e);
+            }
+            if (myDirectives == null)
+            {
+                return readerBuilder.build(values);
+            }
+            return readerBuilder.build(new SequenceInputStream(new ByteArrayInputStream(myDirectives),
+                                                               new ByteBufferInputStream(values)));
+        }
+    }
+
+    /**
+     * Decodes the values of a chunk.  Called concurrently, for different
+     * chunks, by the threads of the executor.
+     *
+     * @param <T> the type of the result.
+     */
+    public interface Decoder<T>
+    {
+        /**
+         * @param reader a new reader over the chunk, which is closed when
+         * this returns.
+         *
+         * @return the result for the chunk, which is passed to the
+         * {@link Handler}.
+         */
+        public T decode(IonReader reader) throws IOException;
+    }
+
+    /**
+     * Receives the results of decoding the chunks, on the thread that
+     * called {@link IonTextChunker#read}.
+     *
+     * @param <T> the type of the result.
+     */
+    public interface Handler<T>
+    {
+        public void handle(T result);
+    }
+
+
+    private IonTextChunker()
+    {
+    }
+
+    /**
+     * Splits a buffer of Ion text into chunks, scanning it in parallel.
+     *
+     * @param ionText the data between the buffer's position and limit is
+     * scanned; neither is modified. The chunks, and the readers built from
+     * them, retain a reference to the buffer, so its data must not be
+     * modified while they're in use. Must not be null.
+     * @param targetChunkSize the number of bytes after which a chunk is
+     * closed at the next line that ends a top-level value. Must be positive.
+     * @param executor runs the scan of each range of the data; if null, the
+     * data is scanned on the calling thread.
+     *
+     * @return the chunks, in order; not null.
+     */
+    public static List<Chunk> scan(ByteBuffer ionText,
+                                   int targetChunkSize,
+                                   ExecutorService executor)
+        throws IOException, InterruptedException
+    {
+        return scan(new BufferSource(ionText.slice()), targetChunkSize, executor);
+    }
+
+    /**
+     * Splits a file of Ion text into chunks, from the channel's current
+     * position to its end, scanning it in parallel.  The file is memory
+     * mapped a range at a time, so it may be larger than 2 GB, although
+     * each chunk must be smaller than that.
+     *
+     * @param ionText the file to read. Its position is not changed, and the
+     * file must not be modified while the chunks, and the readers built
+     * from them, are in use. Must not be null.
+     * @param targetChunkSize the number of bytes after which a chunk is
+     * closed at the next line that ends a top-level value. Must be positive.
+     * @param executor runs the scan of each range of the data; if null, the
+     * data is scanned on the calling thread.
+     *
+     * @return the chunks, in order; not null.
+     */
+    public static List<Chunk> scan(FileChannel ionText,
+                                   int targetChunkSize,
+                                   ExecutorService executor)
+        throws IOException, InterruptedException
+    {
+        return scan(new ChannelSource(ionText, ionText.position()), targetChunkSize, executor);
+    }
+
+    /**
+     * Decodes chunks in parallel, passing each chunk's result to a handler
+     * on the calling thread.  A bounded number of chunks are decoded ahead
+     * of the handler, so that fast decoders don't buffer all the results.
+     *
+     * @param chunks the chunks to decode. Must not be null.
+     * @param readerBuilder configures the reader of each chunk. Must not
+     * be null.
+     * @param executor decodes the chunks. Any kind of executor may be
+     * used, including a {@code ForkJoinPool}. Must not be null.
+     * @param decoder decodes each chunk. Must not be null.
+     * @param ordered if true, the results are handled in the order of the
+     * chunks; otherwise each result is handled as soon as it's ready, which
+     * keeps the executor busier when chunks take different times to decode.
+     * @param handler receives each result. Must not be null.
+     *
+     * @throws IOException if a decoder throws one.
+     * @throws IonException if a decoder throws any other checked exception.
+     */
+    public static <T> void read(List<Chunk> chunks,
+                                IonReaderBuilder readerBuilder,
+                                ExecutorService executor,
+                                Decoder<? extends T> decoder,
+                                boolean ordered,
+                                Handler<? super T> handler)
+        throws IOException, InterruptedException
+    {
+        int window = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+        CompletionService<T> completions = new ExecutorCompletionService<T>(executor);
+        LinkedList<Future<T>> pending = new LinkedList<Future<T>>();
+        int next = 0;
+        try
+        {
+            while (next < chunks.size() || !pending.isEmpty())
+            {
+                while (next < chunks.size() && pending.size() < window)
+                {
+                    Callable<T> task = decodeTask(chunks.get(next++), readerBuilder, decoder);
+                    pending.add(ordered ? executor.submit(task) : completions.submit(task));
+                }
+                Future<T> done;
+                if (ordered)
+                {
+                    done = pending.removeFirst();
+                }
+                else
+                {
+                    done = completions.take();
+                    pending.remove(done);
+                }
+                handler.handle(getResult(done));
+            }
+        }
+        finally
+        {
+            for (Future<T> future : pending)
+            {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static <T> Callable<T> decodeTask(final Chunk chunk,
+                                              final IonReaderBuilder readerBuilder,
+                                              final Decoder<? extends T> decoder)
+    {
+        return new Callable<T>()
+        {
+            public T call() throws IOException
+            {
+                IonReader reader = chunk.newReader(readerBuilder);
+                try
+                {
+                    return decoder.decode(reader);
+                }
+                finally
+                {
+                    reader.close();
+                }
+            }
+        };
+    }
+
+    private static <T> T getResult(Future<T> future)
+        throws IOException, InterruptedException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IonException(cause);
+        }
+    }
+
+
+    //=========================================================================
+    // Data sources
+
+    /**
+     * Random access to the data, by windows that may be read concurrently.
+     */
+    private interface Source
+    {
+        long size();
+
+        /**
+         * @return a buffer whose index zero is at {@code position}, holding
+         * {@code length} bytes.
+         */
+        ByteBuffer window(long position, int length) throws IOException;
+    }
+
+    private static final class BufferSource implements Source
+    {
+        private final ByteBuffer myBuffer;
+
+        BufferSource(ByteBuffer buffer)
+        {
+            myBuffer = buffer;
+        }
+
+        public long size()
+        {
+            return myBuffer.limit();
+        }
+
+        public ByteBuffer window(long position, int length)
+        {
+            ByteBuffer window = myBuffer.duplicate();
+            window.limit((int) position + length);
+            window.position((int) position);
+            return window.slice();
+        }
+    }
+
+    private static final class ChannelSource implements Source
+    {
+        private final FileChannel myChannel;
+        private final long        myStart;
+        private final long        mySize;
+
+        ChannelSource(FileChannel channel, long start) throws IOException
+        {
+            myChannel = channel;
+            myStart   = start;
+            mySize    = channel.size() - start;
+        }
+
+        public long size()
+        {
+            return mySize;
+        }
+
+        public ByteBuffer window(long position, int length) throws IOException
+        {
+            return myChannel.map(FileChannel.MapMode.READ_ONLY, myStart + position, length);
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream
+    {
+        private final ByteBuffer myBuffer;
+
+        ByteBufferInputStream(ByteBuffer buffer)
+        {
+            myBuffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return myBuffer.hasRemaining() ? (myBuffer.get() & 0xff) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (len == 0) return 0;
+            if (!myBuffer.hasRemaining()) return -1;
+            len = Math.min(len, myBuffer.remaining());
+            myBuffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available()
+        {
+            return myBuffer.remaining();
+        }
+    }
+
+
+    //=========================================================================
+    // Scanning
+
+    // how far past the end of its range a scan may need to look
+    private static final int LOOKAHEAD = 64;
+    // how much is read at a time while looking for line starts
+    private static final int LINE_SEARCH_WINDOW = 64 * 1024;
+
+    private static List<Chunk> scan(final Source data,
+                                    int targetChunkSize,
+                                    ExecutorService executor)
+        throws IOException, InterruptedException
+    {
+        if (targetChunkSize <= 0)
+        {
+            throw new IllegalArgumentException("targetChunkSize must be positive");
+        }
+        final long size = data.size();
+
+        // the speculative ranges each start at a line start
+        final List<Long> starts = new ArrayList<Long>();
+        starts.add(0L);
+        long position = targetChunkSize;
+        while (position < size)
+        {
+            long lineStart = nextLineStart(data, position, size);
+            if (lineStart < 0) break;
+            starts.add(lineStart);
+            position = lineStart + targetChunkSize;
+        }
+
+        List<Range> ranges = new ArrayList<Range>(starts.size());
+        for (int i = 0; i < starts.size(); i++)
+        {
+            long end = (i + 1 < starts.size()) ? starts.get(i + 1) : size;
+            ranges.add(new Range(starts.get(i), end));
+        }
+
+        if (executor != null && ranges.size() > 1)
+        {
+            List<Future<Void>> scans = new ArrayList<Future<Void>>(ranges.size());
+            for (final Range range : ranges)
+            {
+                scans.add(executor.submit(new Callable<Void>()
+                {
+                    public Void call() throws IOException
+                    {
+                        range.scan(data, size, ScanState.speculative(range.myStart));
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> scan : scans)
+            {
+                getResult(scan);
+            }
+        }
+
+        // check each speculation against the true state, rescanning as needed
+        ScanState state = ScanState.initial();
+        for (Range range : ranges)
+        {
+            if (range.myEndState == null || !state.matchesSpeculation(range.myStart))
+            {
+                range.scan(data, size, state);
+            }
+            state = range.myEndState;
+        }
+
+        return chunks(data, size, ranges);
+    }
+
+    /**
+     * @return the position after the first newline at or after
+     * {@code position}, or -1 if there's none before the end of the data.
+     */
+    private static long nextLineStart(Source data, long position, long size)
+        throws IOException
+    {
+        while (position < size)
+        {
+            int length = (int) Math.min(LINE_SEARCH_WINDOW, size - position);
+            ByteBuffer window = data.window(position, length);
+            for (int i = 0; i < length; i++)
+            {
+                if (window.get(i) == '\n')
+                {
+                    long lineStart = position + i + 1;
+                    return (lineStart < size) ? lineStart : -1;
+                }
+            }
+            position += length;
+        }
+        return -1;
+    }
+
+    private static List<Chunk> chunks(Source data, long size, List<Range> ranges)
+        throws IOException
+    {
+        List<long[]> directives = new ArrayList<long[]>();
+        List<Chunk> chunks = new ArrayList<Chunk>();
+        long chunkStart = 0;
+        int applicable = 0; // the first directive that applies to the chunk
+        int known = 0;      // the directives that precede the chunk
+        byte[] prefix = null;
+        for (int i = 0; i <= ranges.size(); i++)
+        {
+            long chunkEnd;
+            if (i < ranges.size())
+            {
+                Range range = ranges.get(i);
+                directives.addAll(range.myDirectives);
+                chunkEnd = range.myFirstSplit;
+                if (chunkEnd <= chunkStart) continue;
+            }
+            else
+            {
+                chunkEnd = size;
+                if (chunkEnd <= chunkStart) break;
+            }
+            if (chunkEnd - chunkStart > Integer.MAX_VALUE)
+            {
+                throw new IonException("Ion text has no line break for more than 2 GB at position "
+                                       + chunkStart);
+            }
+            chunks.add(new Chunk(data, chunkStart, (int) (chunkEnd - chunkStart), prefix));
+
+            // the next chunk is preceded by every directive since the last
+            // version marker
+            boolean changed = false;
+            while (known < directives.size() && directives.get(known)[0] < chunkEnd)
+            {
+                long[] directive = directives.get(known);
+                if (directive[2] == DIRECTIVE_IVM)
+                {
+                    applicable = known;
+                }
+                known++;
+                changed = true;
+            }
+            if (changed)
+            {
+                prefix = directivesText(data, directives.subList(applicable, known));
+            }
+            chunkStart = chunkEnd;
+        }
+        return Collections.unmodifiableList(chunks);
+    }
+
+    private static byte[] directivesText(Source data, List<long[]> directives)
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (long[] directive : directives)
+        {
+            int length = (int) (directive[1] - directive[0]);
+            ByteBuffer text = data.window(directive[0], length);
+            byte[] bytes = new byte[length];
+            text.get(bytes);
+            out.write(bytes);
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+
+
+    private static final long DIRECTIVE_IVM = 0;
+    private static final long DIRECTIVE_SYMBOL_TABLE = 1;
+
+    /**
+     * The results of scanning one range of the data.
+     */
+    private static final class Range
+    {
+        final long   myStart;
+        final long   myEnd;
+        long         myFirstSplit;
+        List<long[]> myDirectives;
+        ScanState    myEndState;
+
+        Range(long start, long end)
+        {
+            myStart = start;
+            myEnd   = end;
+        }
+
+        void scan(Source data, long size, ScanState start) throws IOException
+        {
+            long windowEnd = Math.min(myEnd + LOOKAHEAD, size);
+            if (windowEnd - myStart > Integer.MAX_VALUE)
+            {
+                throw new IonException("Ion text has no line break for more than 2 GB at position "
+                                       + myStart);
+            }
+            myFirstSplit = -1;
+            myDirectives = new ArrayList<long[]>(0);
+            ScanState state = start.copy();
+            new Scanner(data.window(myStart, (int) (windowEnd - myStart)), myStart, state, this)
+                .scan((int) (myEnd - myStart));
+            myEndState = state;
+        }
+
+        void split(long position)
+        {
+            if (myFirstSplit < 0)
+            {
+                myFirstSplit = position;
+            }
+        }
+
+        void directive(long start, long end, long kind)
+        {
+            myDirectives.add(new long[] { start, end, kind });
+        }
+    }
+
+
+    // scanner modes
+    private static final int CODE            = 0;
+    private static final int LINE_COMMENT    = 1;
+    private static final int BLOCK_COMMENT   = 2;
+    private static final int STRING          = 3;
+    private static final int QUOTED_SYMBOL   = 4;
+    private static final int LONG_STRING     = 5;
+    private static final int LOB             = 6;
+    private static final int LOB_STRING      = 7;
+    private static final int LOB_LONG_STRING = 8;
+
+    // values of lastSignificant other than the byte itself
+    private static final int NONE     = -1;
+    private static final int LONG_END = -2;
+
+    /**
+     * The lexical state of a scan, at a position between tokens or within
+     * a string, comment or lob.
+     */
+    private static final class ScanState
+    {
+        int     myMode = CODE;
+        int     myDepth;
+        /** The last significant top-level byte, or NONE or LONG_END. */
+        int     myLastSignificant = NONE;
+        /** Whether whitespace or a comment follows myLastSignificant. */
+        boolean mySeparated = true;
+        /** A line start that ends a top-level value if what follows isn't "::". */
+        long    myPendingSplit = -1;
+        /** The start of the current top-level value. */
+        long    myValueStart = -1;
+        /** Whether the current top-level value starts with $ion_symbol_table. */
+        boolean myValueIsSymbolTable;
+        /** Whether the current top-level value is $ion_1_0, unless annotating another. */
+        boolean myPendingIvm;
+        /** The start of the symbol table struct being scanned, if any. */
+        long    myDirectiveStart = -1;
+
+        static ScanState initial()
+        {
+            return new ScanState();
+        }
+
+        /**
+         * @return the state assumed at the start of a range: the start of a
+         * line, following the end of a top-level value.
+         */
+        static ScanState speculative(long lineStart)
+        {
+            ScanState state = new ScanState();
+            state.myPendingSplit = lineStart;
+            return state;
+        }
+
+        ScanState copy()
+        {
+            ScanState copy = new ScanState();
+            copy.myMode               = myMode;
+            copy.myDepth              = myDepth;
+            copy.myLastSignificant    = myLastSignificant;
+            copy.mySeparated          = mySeparated;
+            copy.myPendingSplit       = myPendingSplit;
+            copy.myValueStart         = myValueStart;
+            copy.myValueIsSymbolTable = myValueIsSymbolTable;
+            copy.myPendingIvm         = myPendingIvm;
+            copy.myDirectiveStart     = myDirectiveStart;
+            return copy;
+        }
+
+        /**
+         * @return whether scanning on from this state gives the same results
+         * as scanning on from {@link #speculative(long)}.
+         */
+        boolean matchesSpeculation(long lineStart)
+        {
+            // once separated, only these properties of the last significant
+            // byte matter
+            return myMode == CODE
+                && myDepth == 0
+                && mySeparated
+                && myLastSignificant != ':'
+                && myLastSignificant != LONG_END
+                && myPendingSplit == lineStart
+                && !myValueIsSymbolTable
+                && !myPendingIvm
+                && myDirectiveStart < 0;
+        }
+    }
+
+    private static final byte[] SYMBOL_TABLE = utf8("$ion_symbol_table");
+    private static final byte[] QUOTED_SYMBOL_TABLE = utf8("'$ion_symbol_table'");
+    private static final byte[] IVM = utf8("$ion_1_0");
+
+    private static byte[] utf8(String text)
+    {
+        try
+        {
+            return text.getBytes("UTF-8");
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Scanner
+    {
+        private final ByteBuffer myWindow;
+        private final int        myLimit;
+        private final long       myBase;
+        private final ScanState  myState;
+        private final Range      myRange;
+
+        Scanner(ByteBuffer window, long base, ScanState state, Range range)
+        {
+            myWindow = window;
+            myLimit  = window.limit();
+            myBase   = base;
+            myState  = state;
+            myRange  = range;
+        }
+
+        private int peek(int i)
+        {
+            return (i < myLimit) ? (myWindow.get(i) & 0xff) : -1;
+        }
+
+        private boolean isTripleQuote(int i)
+        {
+            return peek(i) == '\'' && peek(i + 1) == '\'' && peek(i + 2) == '\'';
+        }
+
+        /**
+         * Scans up to {@code end}, which is either a line start or the end
+         * of the data. Tokens never span a line start, so the scan stops
+         * exactly there.
+         */
+        void scan(int end)
+        {
+            ScanState s = myState;
+            int i = 0;
+            while (i < end)
+            {
+                int b = myWindow.get(i) & 0xff;
+                switch (s.myMode)
+                {
+                    case CODE:
+                        i = code(i, b);
+                        break;
+                    case LINE_COMMENT:
+                        if (b == '\n' || b == '\r')
+                        {
+                            s.myMode = CODE;
+                        }
+                        else
+                        {
+                            i++;
+                        }
+                        break;
+                    case BLOCK_COMMENT:
+                        if (b == '*' && peek(i + 1) == '/')
+                        {
+                            s.myMode = CODE;
+                            i += 2;
+                        }
+                        else
+                        {
+                            i++;
+                        }
+                        break;
+                    case STRING:
+                    case LOB_STRING:
+                        if (b == '\\')
+                        {
+                            i += 2;
+                        }
+                        else
+                        {
+                            if (b == '"')
+                            {
+                                if (s.myMode == STRING)
+                                {
+                                    endToken('"');
+                                }
+                                else
+                                {
+                                    s.myMode = LOB;
+                                }
+                            }
+                            i++;
+                        }
+                        break;
+                    case QUOTED_SYMBOL:
+                        if (b == '\\')
+                        {
+                            i += 2;
+                        }
+                        else
+                        {
+                            if (b == '\'')
+                            {
+                                endToken('\'');
+                            }
+                            i++;
+                        }
+                        break;
+                    case LONG_STRING:
+                    case LOB_LONG_STRING:
+                        if (b == '\\')
+                        {
+                            i += 2;
+                        }
+                        else if (isTripleQuote(i))
+                        {
+                            if (s.myMode == LONG_STRING)
+                            {
+                                endToken(LONG_END);
+                            }
+                            else
+                            {
+                                s.myMode = LOB;
+                            }
+                            i += 3;
+                        }
+                        else
+                        {
+                            i++;
+                        }
+                        break;
+                    case LOB:
+                        if (b == '"')
+                        {
+                            s.myMode = LOB_STRING;
+                            i++;
+                        }
+                        else if (isTripleQuote(i))
+                        {
+                            s.myMode = LOB_LONG_STRING;
+                            i += 3;
+                        }
+                        else if (b == '}' && peek(i + 1) == '}')
+                        {
+                            endToken('}');
+                            i += 2;
+                        }
+                        else
+                        {
+                            i++;
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException();
+                }
+            }
+        }
+
+        private void endToken(int last)
+        {
+            myState.myMode = CODE;
+            myState.myLastSignificant = last;
+            myState.mySeparated = false;
+        }
+
+        /**
+         * Scans from a byte outside of any token.
+         * @return the position following what was scanned.
+         */
+        private int code(int i, int b)
+        {
+            ScanState s = myState;
+            switch (b)
+            {
+                case '\n':
+                    if (s.myDepth == 0
+                        && s.myLastSignificant != ':'
+                        && s.myLastSignificant != LONG_END)
+                    {
+                        s.myPendingSplit = myBase + i + 1;
+                    }
+                    s.mySeparated = true;
+                    return i + 1;
+                case ' ':
+                case '\t':
+                case '\r':
+                case 0x0B:
+                case 0x0C:
+                    s.mySeparated = true;
+                    return i + 1;
+                case '/':
+                    int next = peek(i + 1);
+                    if (next == '/' || next == '*')
+                    {
+                        s.myMode = (next == '/') ? LINE_COMMENT : BLOCK_COMMENT;
+                        s.mySeparated = true;
+                        return i + 2;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            if (s.myDepth == 0)
+            {
+                topLevel(i, b);
+            }
+
+            switch (b)
+            {
+                case '"':
+                    s.myMode = STRING;
+                    return i + 1;
+                case '\'':
+                    if (isTripleQuote(i))
+                    {
+                        s.myMode = LONG_STRING;
+                        return i + 3;
+                    }
+                    s.myMode = QUOTED_SYMBOL;
+                    return i + 1;
+                case '{':
+                    if (peek(i + 1) == '{')
+                    {
+                        s.myMode = LOB;
+                        return i + 2;
+                    }
+                    s.myDepth++;
+                    return i + 1;
+                case '[':
+                case '(':
+                    s.myDepth++;
+                    return i + 1;
+                case '}':
+                case ']':
+                case ')':
+                    if (s.myDepth > 0 && --s.myDepth == 0)
+                    {
+                        s.myLastSignificant = b;
+                        s.mySeparated = false;
+                        if (s.myDirectiveStart >= 0)
+                        {
+                            myRange.directive(s.myDirectiveStart, myBase + i + 1,
+                                              DIRECTIVE_SYMBOL_TABLE);
+                            s.myDirectiveStart = -1;
+                        }
+                    }
+                    return i + 1;
+                default:
+                    return i + 1;
+            }
+        }
+
+        /**
+         * Tracks the significant bytes at the top level, which is where
+         * splits, version markers and symbol tables are found.
+         */
+        private void topLevel(int i, int b)
+        {
+            ScanState s = myState;
+            long position = myBase + i;
+
+            if (s.myPendingSplit >= 0)
+            {
+                if (b != ':')
+                {
+                    myRange.split(s.myPendingSplit);
+                }
+                s.myPendingSplit = -1;
+            }
+
+            int last = s.myLastSignificant;
+            boolean newValue = last != ':' && b != ':'
+                && !(last == LONG_END && isTripleQuote(i))
+                && (s.mySeparated
+                    || last == NONE || last == LONG_END
+                    || last == '}' || last == ']' || last == ')'
+                    || last == '"' || last == '\''
+                    || b == '"' || b == '\'' || b == '{' || b == '[' || b == '(');
+
+            if (s.myPendingIvm && (b == ':' || newValue))
+            {
+                // a version marker unless it's an annotation
+                if (b != ':')
+                {
+                    myRange.directive(s.myValueStart, s.myValueStart + IVM.length,
+                                      DIRECTIVE_IVM);
+                }
+                s.myPendingIvm = false;
+            }
+
+            if (newValue)
+            {
+                s.myValueStart = position;
+                s.myValueIsSymbolTable =
+                    matchesSymbol(i, SYMBOL_TABLE) || matches(i, QUOTED_SYMBOL_TABLE);
+                s.myPendingIvm = matchesSymbol(i, IVM);
+            }
+
+            if (b == '{' && peek(i + 1) != '{'
+                && s.myValueIsSymbolTable && last == ':')
+            {
+                s.myDirectiveStart = s.myValueStart;
+            }
+
+            s.myLastSignificant = b;
+            s.mySeparated = false;
+        }
+
+        private boolean matches(int i, byte[] text)
+        {
+            for (int j = 0; j < text.length; j++)
+            {
+                if (peek(i + j) != text[j]) return false;
+            }
+            return true;
+        }
+
+        /** Matches an identifier symbol, which must not continue. */
+        private boolean matchesSymbol(int i, byte[] text)
+        {
+            if (!matches(i, text)) return false;
+            int next = peek(i + text.length);
+            return !((next >= 'a' && next <= 'z') || (next >= 'A' && next <= 'Z')
+                     || (next >= '0' && next <= '9') || next == '_' || next == '$');
+        }
+    }
+}
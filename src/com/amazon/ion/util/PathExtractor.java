@@ -0,0 +1,382 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.util;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts the values at a set of paths from a stream of Ion data in a
+ * single pass, without materializing any {@link com.amazon.ion.IonValue}s.
+ * <p>
+ * Each search path is written as an Ion S-expression whose elements are
+ * the steps to take from a top-level value down to the values of interest:
+ * <ul>
+ *   <li>a symbol or string selects the struct fields with that name;</li>
+ *   <li>a non-negative int selects the child at that position of any
+ *       container;</li>
+ *   <li>the symbol {@code *} selects every child of any container (use the
+ *       string {@code "*"} to select fields named {@code *}).</li>
+ * </ul>
+ * Annotations on a step additionally require the selected values to carry
+ * each of those annotations, and annotations on the S-expression itself do
+ * the same for the top-level values. For example, {@code (orders * items *
+ * sku)} selects the {@code sku} field of every item of every order, and
+ * {@code order::(lines 0)} selects the first line of top-level values
+ * annotated {@code order}. The empty path {@code ()} selects the top-level
+ * values themselves.
+ * <p>
+ * The callback of each matching path is invoked with the reader positioned
+ * on the matching value, in the order the paths were added. Callbacks may
+ * read the value, including by stepping into it, but must leave the reader
+ * at the same depth; if a value also matches a longer path, callbacks must
+ * not step into it, so that the longer path can still be searched. Values
+ * that can't match any path are skipped without being read, which for
+ * binary data means skipping over them by their encoded length.
+ * <p>
+ * Instances are immutable and safe for use by multiple threads, though each
+ * reader may only be used by one thread at a time.
+ */
+public final class PathExtractor
+{
+    /**
+     * Receives the values that match a search path.
+     */
+    public interface Callback
+    {
+        /**
+         * Invoked with the reader positioned on a matching value.
+         *
+         * @param reader the reader being searched. The callback may read
+         * the current value but must leave the reader at the same depth.
+         */
+        public void onMatch(IonReader reader);
+    }
+
+    /**
+     * Builds {@link PathExtractor}s from one or more search paths.
+     */
+    public static final class Builder
+    {
+        private final List<Path> myPaths = new ArrayList<Path>();
+
+        /**
+         * Adds a search path.
+         *
+         * @param searchPath the Ion text of the path, as described in
+         * {@link PathExtractor}. Must not be null.
+         * @param callback invoked for each value that matches the path.
+         * Must not be null.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if the path isn't a valid
+         * search path.
+         * @throws IonException if the path isn't valid Ion text.
+         */
+        public Builder withSearchPath(String searchPath, Callback callback)
+        {
+            callback.getClass(); // fast null check
+            myPaths.add(parsePath(searchPath, callback));
+            return this;
+        }
+
+        /**
+         * @return a new extractor that searches for all of the paths added
+         * so far.
+         */
+        public PathExtractor build()
+        {
+            return new PathExtractor(myPaths.toArray(new Path[myPaths.size()]));
+        }
+    }
+
+    /**
+     * @return a new builder with no search paths.
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+
+    private static final int ANY_INDEX = -1;
+
+    private static final class Step
+    {
+        /** The field name to match, or null if this isn't a field step. */
+        final String   myFieldName;
+        /** The index to match, or {@link #ANY_INDEX}. */
+        final int      myIndex;
+        final String[] myAnnotations;
+
+        Step(String fieldName, int index, String[] annotations)
+        {
+            myFieldName   = fieldName;
+            myIndex       = index;
+            myAnnotations = annotations;
+        }
+    }
+
+    private static final class Path
+    {
+        final String[] myAnnotations;
+        final Step[]   mySteps;
+        final Callback myCallback;
+
+        Path(String[] annotations, Step[] steps, Callback callback)
+        {
+            myAnnotations = annotations;
+            mySteps       = steps;
+            myCallback    = callback;
+        }
+    }
+
+    private static Path parsePath(String searchPath, Callback callback)
+    {
+        IonReader reader = IonReaderBuilder.standard().build(searchPath);
+        if (reader.next() != IonType.SEXP || reader.isNullValue())
+        {
+            throw new IllegalArgumentException("search path must be an S-expression: " + searchPath);
+        }
+        String[] pathAnnotations = reader.getTypeAnnotations();
+        List<Step> steps = new ArrayList<Step>();
+        reader.stepIn();
+        IonType type;
+        while ((type = reader.next()) != null)
+        {
+            String[] annotations = reader.getTypeAnnotations();
+            if (reader.isNullValue())
+            {
+                throw new IllegalArgumentException("invalid step in search path: " + searchPath);
+            }
+            switch (type)
+            {
+                case SYMBOL:
+                    String text = reader.stringValue();
+                    // the * symbol matches any field; a "*" string is a field name
+                    steps.add(new Step("*".equals(text) ? null : text, ANY_INDEX, annotations));
+                    break;
+                case STRING:
+                    steps.add(new Step(reader.stringValue(), ANY_INDEX, annotations));
+                    break;
+                case INT:
+                    long index = reader.longValue();
+                    if (index < 0 || index > Integer.MAX_VALUE)
+                    {
+                        throw new IllegalArgumentException("invalid index in search path: " + searchPath);
+                    }
+                    steps.add(new Step(null, (int) index, annotations));
+                    break;
+                default:
+                    throw new IllegalArgumentException("invalid step in search path: " + searchPath);
+            }
+        }
+        reader.stepOut();
+        if (reader.next() != null)
+        {
+            throw new IllegalArgumentException("search path must be a single S-expression: " + searchPath);
+        }
+        return new Path(pathAnnotations, steps.toArray(new Step[steps.size()]), callback);
+    }
+
+
+    private final Path[] myPaths;
+    private final int    myMaxSteps;
+
+    private PathExtractor(Path[] paths)
+    {
+        myPaths = paths;
+        int maxSteps = 0;
+        for (Path path : paths)
+        {
+            maxSteps = Math.max(maxSteps, path.mySteps.length);
+        }
+        myMaxSteps = maxSteps;
+    }
+
+    /**
+     * Searches every remaining value at the reader's current depth, invoking
+     * the callbacks of the paths that match.  The values are treated as
+     * top-level values, so a reader that has been stepped into a container
+     * searches that container's children.
+     *
+     * @param reader must not be null.
+     */
+    public void match(IonReader reader)
+    {
+        Matcher matcher = new Matcher();
+        while (reader.next() != null)
+        {
+            matcher.matchTopLevel(reader);
+        }
+    }
+
+    /**
+     * Searches the reader's current value, invoking the callbacks of the
+     * paths that match.  The value is treated as a top-level value.
+     *
+     * @param reader must not be null, and must be positioned on a value.
+     */
+    public void matchCurrentValue(IonReader reader)
+    {
+        if (reader.getType() == null)
+        {
+            throw new IllegalStateException("the reader must be positioned on a value");
+        }
+        new Matcher().matchTopLevel(reader);
+    }
+
+
+    private static boolean hasAnnotations(String[] required, String[] actual)
+    {
+        for (String annotation : required)
+        {
+            boolean found = false;
+            for (String a : actual)
+            {
+                if (annotation.equals(a))
+                {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Holds the scratch space for one search, so that extractors can be
+     * shared between threads.  {@code myCandidates[n]} holds the indexes of
+     * the paths whose first {@code n} steps matched the values on the way
+     * down to the current one.
+     */
+    private final class Matcher
+    {
+        private final int[][] myCandidates;
+
+        Matcher()
+        {
+            myCandidates = new int[myMaxSteps + 1][myPaths.length];
+        }
+
+        void matchTopLevel(IonReader reader)
+        {
+            String[] annotations = null;
+            int[] candidates = myCandidates[0];
+            int count = 0;
+            for (int i = 0; i < myPaths.length; i++)
+            {
+                String[] required = myPaths[i].myAnnotations;
+                if (required.length != 0)
+                {
+                    if (annotations == null)
+                    {
+                        annotations = reader.getTypeAnnotations();
+                    }
+                    if (!hasAnnotations(required, annotations)) continue;
+                }
+                candidates[count++] = i;
+            }
+            if (count != 0)
+            {
+                matchValue(reader, 0, count);
+            }
+        }
+
+        /**
+         * Matches the current value against the {@code count} paths in
+         * {@code myCandidates[level]}, each of which matched the first
+         * {@code level} steps on the way to it.
+         */
+        private void matchValue(IonReader reader, int level, int count)
+        {
+            int[] candidates = myCandidates[level];
+            boolean descend = false;
+            for (int i = 0; i < count; i++)
+            {
+                Path path = myPaths[candidates[i]];
+                if (path.mySteps.length == level)
+                {
+                    int depth = reader.getDepth();
+                    path.myCallback.onMatch(reader);
+                    if (reader.getDepth() != depth)
+                    {
+                        throw new IllegalStateException("search path callbacks must not change the reader's depth");
+                    }
+                }
+                else
+                {
+                    descend = true;
+                }
+            }
+
+            if (!descend || reader.isNullValue()) return;
+            IonType type = reader.getType();
+            if (type != IonType.STRUCT && type != IonType.LIST && type != IonType.SEXP) return;
+
+            int[] next = myCandidates[level + 1];
+            reader.stepIn();
+            for (int index = 0; reader.next() != null; index++)
+            {
+                String fieldName = null;
+                boolean hasFieldName = false;
+                String[] annotations = null;
+                int nextCount = 0;
+                for (int i = 0; i < count; i++)
+                {
+                    Step[] steps = myPaths[candidates[i]].mySteps;
+                    if (steps.length == level) continue;
+                    Step step = steps[level];
+                    if (step.myFieldName != null)
+                    {
+                        if (type != IonType.STRUCT) continue;
+                        if (!hasFieldName)
+                        {
+                            // fields with unknown text never match
+                            fieldName = reader.getFieldNameSymbol().getText();
+                            hasFieldName = true;
+                        }
+                        if (!step.myFieldName.equals(fieldName)) continue;
+                    }
+                    else if (step.myIndex != ANY_INDEX && step.myIndex != index)
+                    {
+                        continue;
+                    }
+                    if (step.myAnnotations.length != 0)
+                    {
+                        if (annotations == null)
+                        {
+                            annotations = reader.getTypeAnnotations();
+                        }
+                        if (!hasAnnotations(step.myAnnotations, annotations)) continue;
+                    }
+                    next[nextCount++] = candidates[i];
+                }
+                if (nextCount != 0)
+                {
+                    matchValue(reader, level + 1, nextCount);
+                }
+            }
+            reader.stepOut();
+        }
+    }
+}
@@ -3084,4 +3084,57 @@ public class TimestampTest
         assertEquals(millisFromTimestamp, ts2.getMillis());
         */
     }
+
+    @Test
+    public void testFixedLayoutValueOf()
+    {
+        Timestamp ts = Timestamp.valueOf("2019-10-17T12:34:56Z");
+        checkFields(2019, 10, 17, 12, 34, 56, null, 0, SECOND, ts);
+
+        ts = Timestamp.valueOf("2019-10-17T12:34:56.000Z");
+        checkFields(2019, 10, 17, 12, 34, 56, new BigDecimal("0.000"), 0, FRACTION, ts);
+
+        ts = Timestamp.valueOf("2019-10-17T12:34:56.123456789+05:30");
+        checkFields(2019, 10, 17, 12, 34, 56, new BigDecimal("0.123456789"), 330, FRACTION, ts);
+        assertEquals("2019-10-17T12:34:56.123456789+05:30", ts.toString());
+
+        // ten fraction digits take the general path
+        ts = Timestamp.valueOf("2019-10-17T12:34:56.1234567890-05:30");
+        checkFields(2019, 10, 17, 12, 34, 56, new BigDecimal("0.1234567890"), -330, FRACTION, ts);
+
+        ts = Timestamp.valueOf("2020-01-01T00:00:00.5-00:00");
+        checkFields(2020, 1, 1, 0, 0, 0, new BigDecimal("0.5"), null, FRACTION, ts);
+
+        ts = Timestamp.valueOf(new StringBuilder("2000-02-29T23:59:59.999-23:59"));
+        checkFields(2000, 2, 29, 23, 59, 59, new BigDecimal("0.999"), -1439, FRACTION, ts);
+    }
+
+    @Test
+    public void testFixedLayoutValidation()
+    {
+        String[] images = {
+            "2019-02-29T00:00:00Z",
+            "2019-13-01T00:00:00Z",
+            "0000-01-01T00:00:00Z",
+            "2019-01-01T24:00:00Z",
+            "2019-01-01T00:60:00Z",
+            "2019-01-01T00:00:60Z",
+            "2019-01-01T00:00:00+24:00",
+            "2019-01-01T00:00:00+00:60",
+            "2019-01-01T00:00:00.Z",
+            "2019-01-01T00:00:00",
+            "2019-01-01T00:00:00.123",
+            "2019-01-01T00:00:0aZ",
+            "2019-01-01T00:00:00+01:0",
+        };
+        for (String image : images) {
+            try {
+                Timestamp.valueOf(image);
+                fail("expected an IllegalArgumentException for " + image);
+            }
+            catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
 }
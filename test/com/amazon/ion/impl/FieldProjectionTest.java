@@ -0,0 +1,262 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.FieldProjection;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class FieldProjectionTest
+{
+    private static final int FIELD_COUNT = 80;
+
+    /**
+     * Writes a struct with many fields of various types, one of which is a
+     * nested struct, followed by a list of ints.  The fields are declared in
+     * an order that depends on {@code shift}, so streams written with
+     * different shifts give the same names different SIDs.
+     */
+    private static void writeRecord(IonWriter writer, int id, int shift) throws IOException
+    {
+        writer.stepIn(IonType.STRUCT);
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            int f = (i + shift) % FIELD_COUNT;
+            writer.setFieldName("f" + f);
+            switch (f % 4) {
+            case 0:
+                writer.writeInt(id * 1000 + f);
+                break;
+            case 1:
+                writer.setTypeAnnotations("note");
+                writer.writeString("value " + f);
+                break;
+            case 2:
+                writer.writeNull(IonType.DECIMAL);
+                break;
+            default:
+                writer.writeBool(true);
+                break;
+            }
+        }
+        writer.setFieldName("nested");
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName("a");
+        writer.writeInt(id);
+        writer.setFieldName("b");
+        writer.stepIn(IonType.LIST);
+        writer.writeInt(1);
+        writer.stepOut();
+        writer.setFieldName("c");
+        writer.writeSymbol("sym" + id);
+        writer.stepOut();
+        writer.stepOut();
+
+        writer.stepIn(IonType.LIST);
+        writer.writeInt(id);
+        writer.writeInt(id + 1);
+        writer.stepOut();
+    }
+
+    private static byte[] write(int count, int shift) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        for (int id = 0; id < count; id++) {
+            writeRecord(writer, id, shift);
+        }
+        writer.close();
+        return out.toByteArray();
+    }
+
+    private static FieldProjection projection(IonReader reader)
+    {
+        FieldProjection projection = reader.asFacet(FieldProjection.class);
+        assertNotNull(projection);
+        return projection;
+    }
+
+    private static List<String> fieldNames(IonReader reader)
+    {
+        List<String> names = new ArrayList<String>();
+        while (reader.next() != null) {
+            names.add(reader.getFieldName());
+        }
+        return names;
+    }
+
+    private static void assertProjectedRecord(IonReader reader, int id)
+    {
+        assertEquals(IonType.STRUCT, reader.next());
+        reader.stepIn();
+        assertEquals(IonType.INT, reader.next());
+        assertEquals("f40", reader.getFieldName());
+        assertEquals(id * 1000 + 40, reader.intValue());
+        assertEquals(IonType.STRING, reader.next());
+        assertEquals("f41", reader.getFieldName());
+        assertEquals("note", reader.getTypeAnnotations()[0]);
+        assertEquals(IonType.STRUCT, reader.next());
+        assertEquals("nested", reader.getFieldName());
+        reader.stepIn();
+        assertEquals(IonType.SYMBOL, reader.next());
+        assertEquals("c", reader.getFieldName());
+        assertEquals("sym" + id, reader.stringValue());
+        assertNull(reader.next());
+        reader.stepOut();
+        assertNull(reader.next());
+        reader.stepOut();
+
+        // lists aren't projected
+        assertEquals(IonType.LIST, reader.next());
+        reader.stepIn();
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(IonType.INT, reader.next());
+        assertNull(reader.next());
+        reader.stepOut();
+    }
+
+    private static void project(IonReader reader)
+    {
+        FieldProjection projection = projection(reader);
+        projection.projectFields(1, "nested", "f41", "f40", "missing");
+        projection.projectFields(2, "c");
+    }
+
+    @Test
+    public void testProjectionByName() throws IOException
+    {
+        byte[] data = write(20, 0);
+        IonReader reader = IonReaderBuilder.standard().build(data);
+        project(reader);
+        for (int id = 0; id < 20; id++) {
+            assertProjectedRecord(reader, id);
+        }
+        assertNull(reader.next());
+
+        reader = IonReaderBuilder.standard().build(new ByteArrayInputStream(data));
+        project(reader);
+        for (int id = 0; id < 20; id++) {
+            assertProjectedRecord(reader, id);
+        }
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testProjectionFollowsSymbolTables() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(write(3, 0));
+        out.write(write(3, 17));
+        IonReader reader = IonReaderBuilder.standard().build(out.toByteArray());
+        project(reader);
+        for (int id = 0; id < 3; id++) {
+            assertProjectedRecord(reader, id);
+        }
+        int sid = reader.getSymbolTable().findSymbol("f40");
+        for (int id = 0; id < 3; id++) {
+            assertProjectedRecord(reader, id);
+        }
+        assertTrue(sid != reader.getSymbolTable().findSymbol("f40"));
+    }
+
+    @Test
+    public void testProjectionBySid() throws IOException
+    {
+        IonReader reader = IonReaderBuilder.standard().build(write(2, 0));
+        assertEquals(IonType.STRUCT, reader.next());
+        int f7 = reader.getSymbolTable().findSymbol("f7");
+        int f8 = reader.getSymbolTable().findSymbol("f8");
+        projection(reader).projectFieldIds(1, f8, f7);
+        for (int id = 0; id < 2; id++) {
+            if (id > 0) {
+                reader.next();
+                assertEquals(IonType.STRUCT, reader.next());
+            }
+            reader.stepIn();
+            List<String> names = fieldNames(reader);
+            assertEquals(2, names.size());
+            assertEquals("f7", names.get(0));
+            assertEquals("f8", names.get(1));
+            reader.stepOut();
+        }
+    }
+
+    @Test
+    public void testChangingProjectionWithinStruct() throws IOException
+    {
+        IonReader reader = IonReaderBuilder.standard().build(write(2, 0));
+        FieldProjection projection = projection(reader);
+        assertEquals(IonType.STRUCT, reader.next());
+        reader.stepIn();
+        assertEquals(IonType.INT, reader.next());
+        assertEquals("f0", reader.getFieldName());
+
+        projection.projectFields(1, "f2", "f60");
+        assertEquals(IonType.DECIMAL, reader.next());
+        assertEquals("f2", reader.getFieldName());
+        assertEquals(IonType.INT, reader.next());
+        assertEquals("f60", reader.getFieldName());
+        assertNull(reader.next());
+        reader.stepOut();
+
+        reader.next();
+        projection.clearProjection(1);
+        assertEquals(IonType.STRUCT, reader.next());
+        reader.stepIn();
+        assertEquals(FIELD_COUNT + 1, fieldNames(reader).size());
+        reader.stepOut();
+    }
+
+    @Test
+    public void testEmptyProjection() throws IOException
+    {
+        IonReader reader = IonReaderBuilder.standard().build(write(1, 0));
+        projection(reader).projectFields(1);
+        assertEquals(IonType.STRUCT, reader.next());
+        reader.stepIn();
+        assertNull(reader.next());
+        reader.stepOut();
+        assertEquals(IonType.LIST, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testInvalidDepth() throws IOException
+    {
+        IonReader reader = IonReaderBuilder.standard().build(write(1, 0));
+        try {
+            projection(reader).projectFields(0, "f1");
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.OffsetSpan;
+import com.amazon.ion.SpanProvider;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class IonReaderBinaryIncrementalTest
+{
+    /**
+     * A stream over data that arrives over time; reads return only what has
+     * been fed so far, and -1 when nothing is available.
+     */
+    private static class FeedableInputStream extends InputStream
+    {
+        private final byte[] data;
+        private int available;
+        private int pos;
+
+        FeedableInputStream(byte[] data)
+        {
+            this.data = data;
+        }
+
+        void feed(int count)
+        {
+            available = Math.min(data.length, available + count);
+        }
+
+        boolean isExhausted()
+        {
+            return available == data.length;
+        }
+
+        @Override
+        public int read()
+        {
+            if (pos >= available) return -1;
+            return data[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (pos >= available) return -1;
+            int n = Math.min(len, available - pos);
+            System.arraycopy(data, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+
+    private static final int IVM_SIZE = _Private_IonConstants.BINARY_VERSION_MARKER_SIZE;
+
+    private static IonReaderBuilder incrementalBuilder()
+    {
+        return IonReaderBuilder.standard().withIncrementalReadingEnabled(true);
+    }
+
+    private static byte[] writeSample() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        writer.writeInt(123);
+        writer.setTypeAnnotations("note");
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName("name");
+        writer.writeString("incremental");
+        writer.setFieldName("values");
+        writer.stepIn(IonType.LIST);
+        writer.writeSymbol("alpha");
+        writer.writeDecimal(new java.math.BigDecimal("1.25"));
+        writer.stepOut();
+        writer.stepOut();
+        writer.writeSymbol("beta");
+        writer.close();
+        return out.toByteArray();
+    }
+
+    private static void assertSample(IonReader reader)
+    {
+        assertEquals(IonType.INT, reader.getType());
+        assertEquals(123, reader.intValue());
+    }
+
+    @Test
+    public void testValuesArriveOneByteAtATime() throws Exception
+    {
+        byte[] data = writeSample();
+        FeedableInputStream in = new FeedableInputStream(data);
+        in.feed(IVM_SIZE);
+        IonReader reader = incrementalBuilder().build(in);
+
+        int nullsSeen = 0;
+        int valuesSeen = 0;
+        while (valuesSeen < 3) {
+            IonType type = reader.next();
+            if (type == null) {
+                assertFalse("reader reported EOF before the data ended", in.isExhausted());
+                nullsSeen++;
+                in.feed(1);
+                continue;
+            }
+            switch (valuesSeen) {
+            case 0:
+                assertSample(reader);
+                break;
+            case 1:
+                assertEquals(IonType.STRUCT, type);
+                assertEquals("note", reader.getTypeAnnotations()[0]);
+                reader.stepIn();
+                assertEquals(IonType.STRING, reader.next());
+                assertEquals("name", reader.getFieldName());
+                assertEquals("incremental", reader.stringValue());
+                assertEquals(IonType.LIST, reader.next());
+                reader.stepIn();
+                assertEquals(IonType.SYMBOL, reader.next());
+                assertEquals("alpha", reader.stringValue());
+                assertEquals(IonType.DECIMAL, reader.next());
+                assertEquals("1.25", reader.bigDecimalValue().toString());
+                assertNull(reader.next());
+                reader.stepOut();
+                assertNull(reader.next());
+                reader.stepOut();
+                break;
+            case 2:
+                assertEquals(IonType.SYMBOL, type);
+                assertEquals("beta", reader.stringValue());
+                break;
+            }
+            valuesSeen++;
+        }
+        assertTrue(nullsSeen > 0);
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void testResumeDoesNotLoseValues() throws Exception
+    {
+        byte[] data = writeSample();
+        FeedableInputStream in = new FeedableInputStream(data);
+        in.feed(IVM_SIZE);
+        IonReader reader = incrementalBuilder().build(in);
+        assertNull(reader.next());
+        in.feed(data.length);
+        assertEquals(IonType.INT, reader.next());
+        assertSample(reader);
+        assertEquals(IonType.STRUCT, reader.next());
+        assertEquals(IonType.SYMBOL, reader.next());
+        assertEquals("beta", reader.stringValue());
+        assertNull(reader.next());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void testValueLargerThanBuffer() throws Exception
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append((char) ('a' + (i % 26)));
+        }
+        String big = sb.toString();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        for (int i = 0; i < 3; i++) {
+            writer.writeString(big);
+        }
+        writer.close();
+        byte[] data = out.toByteArray();
+
+        FeedableInputStream in = new FeedableInputStream(data);
+        in.feed(IVM_SIZE);
+        IonReader reader = incrementalBuilder().build(in);
+        int valuesSeen = 0;
+        while (valuesSeen < 3) {
+            if (reader.next() == null) {
+                in.feed(4096);
+                continue;
+            }
+            assertEquals(big, reader.stringValue());
+            valuesSeen++;
+        }
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void testCloseWithinValueFails() throws Exception
+    {
+        byte[] data = writeSample();
+        FeedableInputStream in = new FeedableInputStream(data);
+        in.feed(IVM_SIZE);
+        IonReader reader = incrementalBuilder().build(in);
+        in.feed(data.length - 1 - IVM_SIZE);
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(IonType.STRUCT, reader.next());
+        assertNull(reader.next());
+        try {
+            reader.close();
+            fail("expected an IonException");
+        }
+        catch (IonException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTextFallsBackToBlockingReader() throws Exception
+    {
+        byte[] data = "123 {a:b} c".getBytes("UTF-8");
+        FeedableInputStream in = new FeedableInputStream(data);
+        in.feed(data.length);
+        IonReader reader = incrementalBuilder().build(in);
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(IonType.STRUCT, reader.next());
+        assertEquals(IonType.SYMBOL, reader.next());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    /** Hands out all of its data, but never more than a few bytes per read. */
+    private static class TrickleInputStream extends InputStream
+    {
+        private final byte[] data;
+        private final int chunk;
+        private int pos;
+
+        TrickleInputStream(byte[] data, int chunk)
+        {
+            this.data = data;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read()
+        {
+            if (pos >= data.length) return -1;
+            return data[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (pos >= data.length) return -1;
+            int n = Math.min(Math.min(len, chunk), data.length - pos);
+            System.arraycopy(data, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+
+    private static List<Long> startOffsets(IonReader reader)
+    {
+        List<Long> offsets = new ArrayList<Long>();
+        SpanProvider spans = reader.asFacet(SpanProvider.class);
+        while (reader.next() != null) {
+            offsets.add(spans.currentSpan().asFacet(OffsetSpan.class).getStartOffset());
+        }
+        return offsets;
+    }
+
+    @Test
+    public void testOffsetsSurviveRefills() throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        for (int i = 0; i < 3000; i++) {
+            writer.writeString("value number " + i);
+        }
+        writer.close();
+        byte[] data = out.toByteArray();
+
+        List<Long> expected = startOffsets(IonReaderBuilder.standard().build(data));
+        assertEquals(3000, expected.size());
+        // the page is compacted and refilled many times over
+        IonReader reader = incrementalBuilder().build(new TrickleInputStream(data, 37));
+        assertEquals(expected, startOffsets(reader));
+        reader.close();
+    }
+
+    @Test
+    public void testEmptyStreamIsNotBinary() throws Exception
+    {
+        FeedableInputStream in = new FeedableInputStream(new byte[0]);
+        IonReader reader = incrementalBuilder().build(in);
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void testShortStreamsAreNotBinary() throws Exception
+    {
+        // text too short to hold a version marker must still be read as text
+        String[] texts = { "1", "ab", "[1]" };
+        for (String text : texts) {
+            byte[] data = text.getBytes("UTF-8");
+            FeedableInputStream in = new FeedableInputStream(data);
+            in.feed(data.length);
+            IonReader reader = incrementalBuilder().build(in);
+            assertFalse(reader instanceof IonReaderBinaryUserX);
+            IonType type = reader.next();
+            assertTrue(text, type == IonType.INT || type == IonType.SYMBOL || type == IonType.LIST);
+            assertNull(reader.next());
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testVersionMarkerArrivesOneByteAtATime() throws Exception
+    {
+        // a prefix of the marker isn't enough to tell binary from text
+        byte[] data = writeSample();
+        FeedableInputStream in = new FeedableInputStream(data);
+        IonReader reader = incrementalBuilder().build(in);
+        for (int length = 0; length < IVM_SIZE; length++) {
+            assertNull(reader.next());
+            assertNull(reader.getType());
+            assertEquals(0, reader.getDepth());
+            in.feed(1);
+        }
+        in.feed(data.length);
+        assertEquals(IonType.INT, reader.next());
+        assertSample(reader);
+        assertNotNull(reader.asFacet(SpanProvider.class));
+        assertEquals(IonType.STRUCT, reader.next());
+        assertEquals(IonType.SYMBOL, reader.next());
+        assertEquals("beta", reader.stringValue());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void testTextArrivesAfterBuild() throws Exception
+    {
+        byte[] data = "1 two".getBytes("UTF-8");
+        FeedableInputStream in = new FeedableInputStream(data);
+        IonReader reader = incrementalBuilder().build(in);
+        assertNull(reader.next());
+        in.feed(data.length);
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(1, reader.intValue());
+        assertEquals(IonType.SYMBOL, reader.next());
+        assertEquals("two", reader.stringValue());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void testBuilderCopiesSetting()
+    {
+        IonReaderBuilder builder = incrementalBuilder();
+        assertTrue(builder.isIncrementalReadingEnabled());
+        assertTrue(builder.immutable().isIncrementalReadingEnabled());
+        assertTrue(builder.copy().isIncrementalReadingEnabled());
+        assertFalse(IonReaderBuilder.standard().isIncrementalReadingEnabled());
+    }
+}
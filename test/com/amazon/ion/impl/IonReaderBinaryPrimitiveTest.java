@@ -0,0 +1,329 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.Decimal;
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.ResettableReader;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Covers the decoding of binary ints and decimals whose values fit in a
+ * long directly into primitives.
+ */
+public class IonReaderBinaryPrimitiveTest
+{
+    private static byte[] write(List<?> values) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        for (Object value : values) {
+            if (value instanceof BigDecimal) {
+                writer.writeDecimal((BigDecimal) value);
+            }
+            else if (value instanceof BigInteger) {
+                writer.writeInt((BigInteger) value);
+            }
+            else if (value instanceof Long) {
+                writer.writeInt((Long) value);
+            }
+            else {
+                writer.writeFloat((Double) value);
+            }
+        }
+        writer.close();
+        return out.toByteArray();
+    }
+
+    private static List<BigDecimal> decimals()
+    {
+        List<BigDecimal> values = new ArrayList<BigDecimal>();
+        Random random = new Random(42);
+        long[] unscaled = {
+            0, 1, -1, 7, 9, 10, -12345, 2147483647, 2147483648L, -2147483648L,
+            -2147483649L, 9007199254740991L, 9007199254740993L, Long.MAX_VALUE,
+            Long.MIN_VALUE + 1, 123456789012345678L
+        };
+        int[] scales = { 0, 1, 2, -1, -2, 9, 18, 19, 22, 23, -18, -19, -22, -23, 40, -40 };
+        for (long u : unscaled) {
+            for (int scale : scales) {
+                values.add(BigDecimal.valueOf(u, scale));
+            }
+        }
+        for (int i = 0; i < 2000; i++) {
+            long u = random.nextLong() >> random.nextInt(64);
+            values.add(BigDecimal.valueOf(u, random.nextInt(60) - 30));
+        }
+        // values just beyond the edges of int and long
+        values.add(new BigDecimal("2147483647.5"));
+        values.add(new BigDecimal("-2147483648.5"));
+        values.add(new BigDecimal("2147483647.0"));
+        values.add(new BigDecimal("-2147483648.0"));
+        values.add(new BigDecimal("922337203685477580.7"));
+        values.add(new BigDecimal("9223372036854775807e0"));
+        // coefficients that need more than a long
+        values.add(new BigDecimal("9223372036854775808"));
+        values.add(new BigDecimal("-123456789012345678901234567890.123"));
+        return values;
+    }
+
+    @Test
+    public void testDecimalsMatchBigDecimal() throws IOException
+    {
+        List<BigDecimal> values = decimals();
+        IonReader reader = IonReaderBuilder.standard().build(write(values));
+        for (BigDecimal expected : values) {
+            assertEquals(IonType.DECIMAL, reader.next());
+            String message = expected.toString();
+            assertEquals(message,
+                         Double.doubleToLongBits(expected.doubleValue()),
+                         Double.doubleToLongBits(reader.doubleValue()));
+
+            boolean fitsLong = expected.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) >= 0
+                            && expected.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0;
+            try {
+                assertEquals(message, expected.longValue(), reader.longValue());
+                assertTrue(message, fitsLong);
+            }
+            catch (IonException e) {
+                assertTrue(message, !fitsLong);
+            }
+
+            boolean fitsInt = expected.compareTo(BigDecimal.valueOf(Integer.MIN_VALUE)) >= 0
+                           && expected.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) <= 0;
+            try {
+                assertEquals(message, expected.intValue(), reader.intValue());
+                assertTrue(message, fitsInt);
+            }
+            catch (IonException e) {
+                assertTrue(message, !fitsInt);
+            }
+
+            assertEquals(expected, reader.bigDecimalValue());
+            assertEquals(expected.toBigInteger(), reader.bigIntegerValue());
+        }
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testDecimalNegativeZero() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        writer.writeDecimal(Decimal.negativeZero(2));
+        writer.writeDecimal(Decimal.valueOf(0));
+        writer.close();
+
+        IonReader reader = IonReaderBuilder.standard().build(out.toByteArray());
+        assertEquals(IonType.DECIMAL, reader.next());
+        assertTrue(reader.decimalValue().isNegativeZero());
+        assertEquals(2, reader.decimalValue().scale());
+        assertEquals(IonType.DECIMAL, reader.next());
+        assertEquals(0.0, reader.doubleValue(), 0);
+        assertTrue(!reader.decimalValue().isNegativeZero());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testIntsAtTheEdgesOfLong() throws IOException
+    {
+        List<Object> values = new ArrayList<Object>();
+        values.add(Long.MIN_VALUE);
+        values.add(Long.MAX_VALUE);
+        values.add(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE));
+        values.add(BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.ONE));
+        IonReader reader = IonReaderBuilder.standard().build(write(values));
+
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(Long.MIN_VALUE, reader.longValue());
+        assertEquals(BigInteger.valueOf(Long.MIN_VALUE), reader.bigIntegerValue());
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(Long.MAX_VALUE, reader.longValue());
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(values.get(2), reader.bigIntegerValue());
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(values.get(3), reader.bigIntegerValue());
+        try {
+            reader.longValue();
+            fail("expected an IonException");
+        }
+        catch (IonException e) {
+            // expected
+        }
+        assertNull(reader.next());
+    }
+
+    private static final Object THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    private static final Method ALLOCATED_BYTES = allocatedBytesMethod();
+
+    private static Method allocatedBytesMethod()
+    {
+        try {
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            if (!type.isInstance(THREAD_BEAN)) return null;
+            return type.getMethod("getThreadAllocatedBytes", long.class);
+        }
+        catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread, or -1 if
+     * the JVM can't tell.
+     */
+    private static long allocatedBytes()
+    {
+        if (ALLOCATED_BYTES == null) return -1;
+        try {
+            return (Long) ALLOCATED_BYTES.invoke(THREAD_BEAN, Thread.currentThread().getId());
+        }
+        catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static double readAll(IonReader reader)
+    {
+        double sum = 0;
+        IonType type;
+        while ((type = reader.next()) != null) {
+            switch (type) {
+            case INT:
+                sum += reader.longValue();
+                break;
+            case FLOAT:
+                sum += reader.doubleValue();
+                break;
+            case DECIMAL:
+                sum += reader.doubleValue();
+                sum += reader.longValue();
+                break;
+            default:
+                throw new IllegalStateException();
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void testNumericValuesAcrossResets() throws IOException
+    {
+        List<Object> values = new ArrayList<Object>();
+        Random random = new Random(7);
+        double expected = 0;
+        for (int i = 0; i < 10000; i++) {
+            switch (i % 3) {
+            case 0:
+                long l = random.nextLong() >> random.nextInt(64);
+                values.add(l);
+                expected += l;
+                break;
+            case 1:
+                double d = random.nextDouble() * 1000;
+                values.add(d);
+                expected += d;
+                break;
+            default:
+                BigDecimal bd = BigDecimal.valueOf(random.nextInt(), random.nextInt(10));
+                values.add(bd);
+                expected += bd.doubleValue();
+                expected += bd.longValue();
+                break;
+            }
+        }
+        byte[] data = write(values);
+
+        // the primitive decoding state must not leak from one pass to the next
+        IonReader reader = IonReaderBuilder.standard().build(data);
+        ResettableReader resettable = reader.asFacet(ResettableReader.class);
+        assertEquals(expected, readAll(reader), 0);
+        for (int i = 0; i < 3; i++) {
+            resettable.reset(data, 0, data.length);
+            assertEquals(expected, readAll(reader), 0);
+        }
+    }
+
+    @Test
+    public void testNumericValuesDoNotAllocate() throws IOException
+    {
+        if (allocatedBytes() < 0) return; // not measurable on this JVM
+
+        List<Object> values = new ArrayList<Object>();
+        Random random = new Random(11);
+        for (int i = 0; i < 10000; i++) {
+            switch (i % 3) {
+            case 0:
+                values.add(random.nextLong() >> random.nextInt(64));
+                break;
+            case 1:
+                values.add(random.nextDouble() * 1000);
+                break;
+            default:
+                values.add(BigDecimal.valueOf(random.nextInt(), random.nextInt(10)));
+                break;
+            }
+        }
+        byte[] data = write(values);
+
+        IonReader reader = IonReaderBuilder.standard().build(data);
+        ResettableReader resettable = reader.asFacet(ResettableReader.class);
+        double expected = readAll(reader);
+        // warm up the reset path and the JIT, so only the steady state is
+        // measured
+        for (int i = 0; i < 20; i++) {
+            resettable.reset(data, 0, data.length);
+            assertEquals(expected, readAll(reader), 0);
+        }
+
+        // measuring allocates too; take that out of the result
+        allocatedBytes();
+        long overhead = -allocatedBytes() + allocatedBytes();
+        int passes = 10;
+        long before = allocatedBytes();
+        for (int i = 0; i < passes; i++) {
+            resettable.reset(data, 0, data.length);
+            readAll(reader);
+        }
+        long allocated = allocatedBytes() - before - overhead;
+
+        // an allocation per value would be at least 16 bytes each; allow
+        // far less than one byte per value for whatever the JVM does
+        // behind the scenes
+        long limit = (long) passes * values.size() / 4;
+        assertTrue("allocated " + allocated + " bytes over " + passes + " passes",
+                   allocated < limit);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.SimpleCatalog;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IonReaderMappedFileTest
+{
+    private static final int VALUE_COUNT = 2000;
+
+    // Small windows so that the values straddle them.
+    private static final int WINDOW_SIZE = 1000;
+
+    private File file;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        file = File.createTempFile("IonReaderMappedFileTest", ".10n");
+        FileOutputStream out = new FileOutputStream(file);
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName("id");
+            writer.writeInt(i);
+            writer.setFieldName("payload");
+            writer.stepIn(IonType.LIST);
+            for (int j = 0; j < i % 50; j++) {
+                writer.writeString("item " + j);
+            }
+            writer.stepOut();
+            writer.setFieldName("name");
+            writer.writeString("value " + i);
+            writer.stepOut();
+        }
+        writer.close();
+
+        raf = new RandomAccessFile(file, "r");
+        channel = raf.getChannel();
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        raf.close();
+        file.delete();
+    }
+
+    private static IonReader read(FileChannel channel)
+    {
+        return _Private_IonReaderFactory.makeReader(new SimpleCatalog(), channel, WINDOW_SIZE,
+                                                    LocalSymbolTable.DEFAULT_LST_FACTORY,
+                                                    _Private_TextReaderOptions.DEFAULT);
+    }
+
+    private static void assertValue(IonReader reader, int i)
+    {
+        reader.stepIn();
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(i, reader.intValue());
+        assertEquals(IonType.LIST, reader.next());
+        assertEquals(IonType.STRING, reader.next());
+        assertEquals("value " + i, reader.stringValue());
+        reader.stepOut();
+    }
+
+    @Test
+    public void testReadAllValues() throws IOException
+    {
+        IonReader reader = read(channel);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            assertEquals(IonType.STRUCT, reader.next());
+            reader.stepIn();
+            assertEquals(IonType.INT, reader.next());
+            assertEquals(i, reader.intValue());
+            assertEquals(IonType.LIST, reader.next());
+            reader.stepIn();
+            for (int j = 0; j < i % 50; j++) {
+                assertEquals(IonType.STRING, reader.next());
+                assertEquals("item " + j, reader.stringValue());
+            }
+            assertNull(reader.next());
+            reader.stepOut();
+            assertEquals(IonType.STRING, reader.next());
+            assertEquals("value " + i, reader.stringValue());
+            reader.stepOut();
+        }
+        assertNull(reader.next());
+        reader.close();
+        assertTrue("the reader must not close the channel", channel.isOpen());
+        assertEquals(0, channel.position());
+    }
+
+    @Test
+    public void testSkipValues() throws IOException
+    {
+        IonReader reader = read(channel);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            assertEquals(IonType.STRUCT, reader.next());
+            if (i % 97 == 0) {
+                assertValue(reader, i);
+            }
+        }
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void testStepOutEarly() throws IOException
+    {
+        IonReader reader = read(channel);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            assertEquals(IonType.STRUCT, reader.next());
+            reader.stepIn();
+            assertEquals(IonType.INT, reader.next());
+            assertEquals(i, reader.intValue());
+            reader.stepOut();
+        }
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void testReadersShareChannel() throws IOException
+    {
+        IonReader first = read(channel);
+        IonReader second = read(channel);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            assertEquals(IonType.STRUCT, first.next());
+            assertValue(first, i);
+            if (i % 2 == 0) {
+                assertEquals(IonType.STRUCT, second.next());
+                assertValue(second, i / 2);
+            }
+        }
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testStartsAtChannelPosition() throws IOException
+    {
+        byte[] text = "abc 123".getBytes("UTF-8");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(text);
+        out.close();
+        channel.position(4);
+        // the default window covers the whole file
+        IonReader reader = IonReaderBuilder.standard().build(channel);
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(123, reader.intValue());
+        assertNull(reader.next());
+        reader.close();
+        assertEquals(4, channel.position());
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.SpanProvider;
+import com.amazon.ion.TextSpan;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Checks that scanning runs of bytes directly out of UTF-8 input gives the
+ * same results as reading the same text from characters.
+ */
+public class IonReaderTextByteRunTest
+{
+    private static final String RECORD =
+        "{ id: 12_345, name: \"plain ascii text\", sym: some_symbol$1,\r\n" +
+        "  esc: \"tab\\there \\\"quoted\\\" \\u00e9 \\U0001F600\",\n" +
+        "  utf8: \"caf\u00e9 \u4e2d\u6587 \ud83d\ude00 end\", // comment\n" +
+        "  'quoted sym': [1, -20, 3.25, 4e10, 0x1F, 2019-10-17T12:34:56Z],\n" +
+        "  /* block */ long: '''one\nline''' '''two''', \t\t dec: 12.500d-3,\n" +
+        "  clob: {{\"clob text\"}}, blob: {{ aGVsbG8= }},\n" +
+        "  ann: other::'\u00e9t\u00e9'::null.int, sexp: (a + b_c 123) }\n";
+
+    private static String data(int records)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < records; i++) {
+            sb.append(RECORD);
+            sb.append("  \t \"").append(i).append("\" ").append(i).append(' ');
+            sb.append("sym").append(i).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param columns whether to include the column of each value, which for
+     * byte input counts bytes rather than characters.
+     */
+    private static void collect(IonReader reader, List<String> events, boolean columns)
+        throws IOException
+    {
+        SpanProvider spans = reader.asFacet(SpanProvider.class);
+        IonType type;
+        while ((type = reader.next()) != null) {
+            TextSpan span = (TextSpan) spans.currentSpan();
+            StringBuilder event = new StringBuilder();
+            event.append(span.getStartLine()).append(':');
+            if (columns) {
+                event.append(span.getStartColumn());
+            }
+            event.append(' ');
+            if (reader.isInStruct()) {
+                event.append(reader.getFieldName()).append(' ');
+            }
+            if (!reader.isNullValue()
+                && (type == IonType.STRUCT || type == IonType.LIST || type == IonType.SEXP)) {
+                event.append(type);
+                events.add(event.toString());
+                reader.stepIn();
+                collect(reader, events, columns);
+                reader.stepOut();
+                continue;
+            }
+            IonWriter writer = IonTextWriterBuilder.standard().build(event);
+            writer.writeValue(reader);
+            writer.close();
+            events.add(event.toString());
+        }
+    }
+
+    private static List<String> events(IonReader reader, boolean columns)
+        throws IOException
+    {
+        List<String> events = new ArrayList<String>();
+        collect(reader, events, columns);
+        reader.close();
+        return events;
+    }
+
+    @Test
+    public void testBytesMatchChars() throws IOException
+    {
+        // enough data to cross the page boundaries of stream input
+        String text = data(1000);
+        byte[] utf8 = text.getBytes("UTF-8");
+
+        List<String> expected = events(IonReaderBuilder.standard().build(text), false);
+        assertEquals(expected, events(IonReaderBuilder.standard().build(utf8), false));
+        assertEquals(events(IonReaderBuilder.standard().build(utf8), true),
+                     events(IonReaderBuilder.standard().build(new ByteArrayInputStream(utf8)), true));
+    }
+
+    @Test
+    public void testAsciiColumns() throws IOException
+    {
+        String text = data(1000).replaceAll("[^\\p{ASCII}]", "x");
+        byte[] utf8 = text.getBytes("UTF-8");
+
+        List<String> expected = events(IonReaderBuilder.standard().build(text), true);
+        assertEquals(expected, events(IonReaderBuilder.standard().build(utf8), true));
+        assertEquals(expected,
+                     events(IonReaderBuilder.standard().build(new ByteArrayInputStream(utf8)), true));
+    }
+
+    @Test
+    public void testRunsAtEndOfInput() throws IOException
+    {
+        String[] texts = { "abc", "12345", "\"abc\"", "   ", "a::b", "123 456" };
+        for (String text : texts) {
+            byte[] utf8 = text.getBytes("UTF-8");
+            assertEquals(events(IonReaderBuilder.standard().build(text), true),
+                         events(IonReaderBuilder.standard().build(utf8), true));
+        }
+    }
+
+    private static void assertInvalid(byte[] data)
+    {
+        try {
+            events(IonReaderBuilder.standard().build(data), false);
+            fail("expected an IonException");
+        }
+        catch (IonException e) {
+            // expected
+        }
+        catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void testInvalidStrings() throws IOException
+    {
+        assertInvalid("\"line\nbreak\"".getBytes("UTF-8"));
+        assertInvalid("\"control\u0001\"".getBytes("UTF-8"));
+        assertInvalid("\"\\ud800ascii\"".getBytes("UTF-8"));
+        assertInvalid("\"unterminated".getBytes("UTF-8"));
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class IonReaderTextJsonTest
+{
+    private static final IonReaderBuilder JSON =
+        IonReaderBuilder.standard().withStrictJsonEnabled(true).immutable();
+
+    private static final String DOCUMENT =
+        "{\"id\":1,\"name\":\"first \\\"one\\\" \\u00e9\\/\\n\",\"tags\":[],\"empty\":{},"
+        + "\"nested\":{\"a\":[1,-2,3.5,-0.25,1e3,2.5E-3,-1E+2,0],"
+        + "\"b\":[true,false,null,[\"[\",\"{\"],{\"}\":\"]\"}]},"
+        + "\"big\":123456789012345678901234567890,\"ok\":true}\n"
+        + "  [ 1 , \"two\" , { \"three\" : 3 } ]\r\n"
+        + "\"top level string\"\t42 null\n"
+        + "{\"\":\"empty field name\",\"unicode\":\"\u65e5\u672c\\ud83d\\ude00\"}\n";
+
+    private static List<IonReader> readers(IonReaderBuilder builder, String text)
+        throws IOException
+    {
+        byte[] utf8 = text.getBytes("UTF-8");
+        ByteBuffer direct = ByteBuffer.allocateDirect(utf8.length);
+        direct.put(utf8);
+        direct.flip();
+
+        List<IonReader> readers = new ArrayList<IonReader>();
+        readers.add(builder.build(text));
+        readers.add(builder.build(utf8));
+        readers.add(builder.build(new ByteArrayInputStream(utf8)));
+        readers.add(builder.build(new StringReader(text)));
+        readers.add(builder.build(direct));
+        readers.add(builder.copy().withIncrementalReadingEnabled(true)
+                           .build(new ByteArrayInputStream(utf8)));
+        return readers;
+    }
+
+    /**
+     * @return the Ion text of all of the reader's values, read in full.
+     */
+    private static String text(IonReader reader) throws IOException
+    {
+        StringBuilder out = new StringBuilder();
+        IonWriter writer = IonTextWriterBuilder.standard().build(out);
+        writer.writeValues(reader);
+        writer.close();
+        return out.toString();
+    }
+
+    @Test
+    public void testReadsLikeIonText() throws IOException
+    {
+        String expected = text(IonReaderBuilder.standard().build(DOCUMENT));
+        for (IonReader reader : readers(JSON, DOCUMENT)) {
+            assertEquals(expected, text(reader));
+        }
+    }
+
+    @Test
+    public void testNumberTypes() throws IOException
+    {
+        IonReader reader = JSON.build("[0, -12, 123456789012345678901, 1.5, -0.0, 1e5, 1.5E-3, 2e+1]");
+        assertEquals(IonType.LIST, reader.next());
+        reader.stepIn();
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(0, reader.intValue());
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(-12, reader.intValue());
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(new BigInteger("123456789012345678901"), reader.bigIntegerValue());
+        assertEquals(IonType.DECIMAL, reader.next());
+        assertEquals("1.5", reader.decimalValue().toString());
+        assertEquals(IonType.DECIMAL, reader.next());
+        assertEquals(true, reader.decimalValue().isNegativeZero());
+        assertEquals(IonType.FLOAT, reader.next());
+        assertEquals(1e5, reader.doubleValue(), 0);
+        assertEquals(IonType.FLOAT, reader.next());
+        assertEquals(1.5e-3, reader.doubleValue(), 0);
+        assertEquals(IonType.FLOAT, reader.next());
+        assertEquals(20, reader.doubleValue(), 0);
+        assertNull(reader.next());
+        reader.stepOut();
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testSkippingValues() throws IOException
+    {
+        for (IonReader reader : readers(JSON, DOCUMENT)) {
+            assertEquals(IonType.STRUCT, reader.next());
+            reader.stepIn();
+            assertEquals(IonType.INT, reader.next());
+            assertEquals("id", reader.getFieldName());
+            assertEquals(IonType.STRING, reader.next());
+            assertEquals(IonType.LIST, reader.next());
+            assertEquals(IonType.STRUCT, reader.next());
+            assertEquals(IonType.STRUCT, reader.next());
+            assertEquals("nested", reader.getFieldName());
+            reader.stepIn();
+            assertEquals(IonType.LIST, reader.next());
+            reader.stepIn();
+            assertEquals(IonType.INT, reader.next());
+            reader.stepOut();
+            assertEquals(IonType.LIST, reader.next());
+            assertEquals("b", reader.getFieldName());
+            reader.stepOut();
+            assertEquals(IonType.INT, reader.next());
+            assertEquals("big", reader.getFieldName());
+            reader.stepOut();
+
+            assertEquals(IonType.LIST, reader.next());
+            assertEquals(IonType.STRING, reader.next());
+            assertEquals(IonType.INT, reader.next());
+            assertEquals(42, reader.intValue());
+            assertEquals(IonType.NULL, reader.next());
+            assertEquals(true, reader.isNullValue());
+            assertEquals(IonType.STRUCT, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    private static void assertInvalid(String text) throws IOException
+    {
+        for (IonReader reader : readers(JSON, text)) {
+            try {
+                text(reader);
+                fail("expected an IonException for " + text);
+            }
+            catch (IonException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsIonOnlySyntax() throws IOException
+    {
+        String[] invalid = {
+            "abc", "'quoted'", "a::1", "\"a\"::1", "(1 2)", "{{ aGVsbG8= }}",
+            "{{ \"clob\" }}", "'''long'''", "null.int", "nan", "+inf", "-inf",
+            "2019-01-01T", "0x10", "0b1", "1_000", "1d5", "+1", "01", "-01",
+            "1.", ".5", "-", "1e", "1.e5", "$ion_1_0", "$10", "{a:1}",
+            "{'a':1}", "[1,]", "{\"a\":1,}", "[,1]", "[1 2]", "{\"a\" 1}",
+            "{\"a\":}", "{\"a\":1 \"b\":2}", "]", "}", "[", "{\"a\":1",
+            "[1}", "truex", "nul", "1true", "true-1",
+            "/* comment */ 1", "1 // comment", "[1, /* c */ 2]",
+            "\"\\x41\"", "\"\\'\"", "\"\\a\"", "\"\\U0001F600\"", "\"\\0\"",
+            "\"a\\\nb\"", "\"raw\ttab\"", "\"raw\u000bvt\"",
+        };
+        for (String text : invalid) {
+            assertInvalid(text);
+        }
+    }
+
+    @Test
+    public void testRejectsBinary() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        writer.writeInt(1);
+        writer.close();
+        try {
+            text(JSON.build(out.toByteArray()));
+            fail("expected an IonException");
+        }
+        catch (IonException e) {
+            // expected
+        }
+        // while the default builder reads it
+        IonReader reader = IonReaderBuilder.standard().build(out.toByteArray());
+        assertEquals(IonType.INT, reader.next());
+    }
+
+    @Test
+    public void testBuilderProperty()
+    {
+        IonReaderBuilder builder = IonReaderBuilder.standard();
+        assertEquals(false, builder.isStrictJsonEnabled());
+        assertEquals(true, builder.withStrictJsonEnabled(true).isStrictJsonEnabled());
+        assertEquals(true, builder.immutable().isStrictJsonEnabled());
+        assertEquals(true, builder.copy().isStrictJsonEnabled());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.OffsetSpan;
+import com.amazon.ion.SeekableReader;
+import com.amazon.ion.Span;
+import com.amazon.ion.SpanProvider;
+import com.amazon.ion.TextSpan;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+public class IonReaderTextLineTrackingTest
+{
+    private static final IonReaderBuilder UNTRACKED =
+        IonReaderBuilder.standard().withLineTrackingEnabled(false).immutable();
+
+    private static final String DOCUMENT =
+        "$ion_1_0\n"
+        + "first::{ a: 1, b: \"two\\\n lines\", c: '''long''' // comment\n"
+        + "   '''string''', d: [1.5, 2e3, 2019-01-01T, {{ aGVsbG8= }}] }\r\n"
+        + "/* block\r\ncomment */ (sexp \"\\r\\n\" + - ) \r"
+        + "'sym' 123\n";
+
+    private static String text(IonReader reader) throws IOException
+    {
+        StringBuilder out = new StringBuilder();
+        IonWriter writer = IonTextWriterBuilder.standard().build(out);
+        writer.writeValues(reader);
+        writer.close();
+        return out.toString();
+    }
+
+    @Test
+    public void testReadsTheSameValues() throws IOException
+    {
+        String expected = text(IonReaderBuilder.standard().build(DOCUMENT));
+        byte[] utf8 = DOCUMENT.getBytes("UTF-8");
+        assertEquals(expected, text(UNTRACKED.build(DOCUMENT)));
+        assertEquals(expected, text(UNTRACKED.build(utf8)));
+        assertEquals(expected, text(UNTRACKED.build(new ByteArrayInputStream(utf8))));
+    }
+
+    @Test
+    public void testSpans() throws IOException
+    {
+        String data = "1\n  [2, 3]\r\n abc";
+
+        IonReader tracked = IonReaderBuilder.standard().build(data);
+        IonReader untracked = UNTRACKED.build(data);
+        for (int i = 0; i < 3; i++) {
+            IonType type = tracked.next();
+            assertEquals(type, untracked.next());
+
+            Span trackedSpan = tracked.asFacet(SpanProvider.class).currentSpan();
+            Span untrackedSpan = untracked.asFacet(SpanProvider.class).currentSpan();
+            assertNotNull(trackedSpan.asFacet(TextSpan.class));
+            assertNull(untrackedSpan.asFacet(TextSpan.class));
+            assertEquals(trackedSpan.asFacet(OffsetSpan.class).getStartOffset(),
+                         untrackedSpan.asFacet(OffsetSpan.class).getStartOffset());
+        }
+
+        // spans over untracked readers can still be hoisted
+        untracked = UNTRACKED.build(data);
+        untracked.next();
+        untracked.next();
+        Span list = untracked.asFacet(SpanProvider.class).currentSpan();
+        untracked.next();
+        untracked.asFacet(SeekableReader.class).hoist(list);
+        assertEquals(IonType.LIST, untracked.next());
+        untracked.stepIn();
+        assertEquals(IonType.INT, untracked.next());
+        assertEquals(2, untracked.intValue());
+    }
+
+    private static String errorMessage(IonReader reader) throws IOException
+    {
+        try {
+            text(reader);
+        }
+        catch (IonException e) {
+            return e.getMessage();
+        }
+        fail("expected an IonException");
+        return null;
+    }
+
+    @Test
+    public void testErrorsReportOffsets() throws IOException
+    {
+        String data = "1\n2\n[3, 4,,]";
+
+        String tracked = errorMessage(IonReaderBuilder.standard().build(data));
+        assertTrue(tracked, tracked.contains(" at line 3 offset "));
+
+        String untracked = errorMessage(UNTRACKED.build(data));
+        assertTrue(untracked, untracked.contains(" at offset 11"));
+        untracked = errorMessage(UNTRACKED.build(data.getBytes("UTF-8")));
+        assertTrue(untracked, untracked.contains(" at offset 11"));
+    }
+
+    @Test
+    public void testBuilderProperty()
+    {
+        IonReaderBuilder builder = IonReaderBuilder.standard();
+        assertEquals(true, builder.isLineTrackingEnabled());
+        assertEquals(false, builder.withLineTrackingEnabled(false).isLineTrackingEnabled());
+        assertEquals(false, builder.immutable().isLineTrackingEnabled());
+        assertEquals(false, builder.copy().isLineTrackingEnabled());
+    }
+}
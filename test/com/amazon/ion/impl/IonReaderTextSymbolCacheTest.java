@@ -0,0 +1,251 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class IonReaderTextSymbolCacheTest
+{
+    private static final String DOCUMENT =
+        "ann::{ field: sym, 'quoted field': 'quoted sym', \"str\": ann }";
+
+    /**
+     * @return the field name, annotation and symbol texts of the document.
+     */
+    private static List<String> texts(IonReader reader)
+    {
+        List<String> texts = new ArrayList<String>();
+        assertEquals(IonType.STRUCT, reader.next());
+        texts.add(reader.getTypeAnnotations()[0]);
+        reader.stepIn();
+        while (reader.next() != null) {
+            texts.add(reader.getFieldName());
+            texts.add(reader.stringValue());
+        }
+        reader.stepOut();
+        return texts;
+    }
+
+    private static void assertAllSame(List<String> expected, List<String> actual)
+    {
+        assertEquals(expected, actual);
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testReadersShareText() throws IOException
+    {
+        IonReaderBuilder builder =
+            IonReaderBuilder.standard().withSymbolTextCacheSize(256).immutable();
+        byte[] utf8 = DOCUMENT.getBytes("UTF-8");
+
+        List<String> first = texts(builder.build(DOCUMENT));
+        assertEquals(7, first.size());
+        assertAllSame(first, texts(builder.build(DOCUMENT)));
+        assertAllSame(first, texts(builder.build(utf8)));
+        assertAllSame(first, texts(builder.build(new ByteArrayInputStream(utf8))));
+        assertAllSame(first, texts(builder.copy().build(DOCUMENT)));
+    }
+
+    @Test
+    public void testUncachedText() throws IOException
+    {
+        List<String> first = texts(IonReaderBuilder.standard().build(DOCUMENT));
+        List<String> second = texts(IonReaderBuilder.standard().build(DOCUMENT));
+        assertEquals(first, second);
+        assertNotSame(first.get(0), second.get(0));
+
+        // a new size is a new cache
+        IonReaderBuilder builder = IonReaderBuilder.standard().withSymbolTextCacheSize(16);
+        first = texts(builder.build(DOCUMENT));
+        builder.setSymbolTextCacheSize(16);
+        second = texts(builder.build(DOCUMENT));
+        assertEquals(first, second);
+        assertNotSame(first.get(0), second.get(0));
+
+        // strings are values, not symbol text
+        IonReader r1 = builder.build("\"text\"");
+        IonReader r2 = builder.build("\"text\"");
+        r1.next();
+        r2.next();
+        assertNotSame(r1.stringValue(), r2.stringValue());
+    }
+
+    @Test
+    public void testJsonFieldNames()
+    {
+        IonReaderBuilder builder = IonReaderBuilder.standard()
+            .withStrictJsonEnabled(true).withSymbolTextCacheSize(16);
+        IonReader r1 = builder.build("{\"name\":1}");
+        IonReader r2 = builder.build("{\"name\":2}");
+        r1.next();
+        r1.stepIn();
+        r1.next();
+        r2.next();
+        r2.stepIn();
+        r2.next();
+        assertSame(r1.getFieldName(), r2.getFieldName());
+    }
+
+    @Test
+    public void testReadsTheSameValues() throws IOException
+    {
+        // a tiny cache, so that texts keep replacing each other
+        IonReaderBuilder builder =
+            IonReaderBuilder.standard().withSymbolTextCacheSize(2);
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            data.append("a").append(i % 13).append("::{ f").append(i % 7)
+                .append(": s").append(i % 11).append(", '' : '', '")
+                .append(i).append(" long text to exceed the cached length limit")
+                .append(" of symbols, which is sixty-four': x }\n");
+        }
+        String expected = write(IonReaderBuilder.standard().build(data.toString()));
+        assertEquals(expected, write(builder.build(data.toString())));
+    }
+
+    private static String write(IonReader reader) throws IOException
+    {
+        StringBuilder out = new StringBuilder();
+        IonWriter writer = IonTextWriterBuilder.standard().build(out);
+        writer.writeValues(reader);
+        writer.close();
+        return out.toString();
+    }
+
+    @Test
+    public void testCache()
+    {
+        _Private_SymbolTextCache cache = new _Private_SymbolTextCache(5);
+        assertEquals(8, cache.size());
+
+        String a = cache.intern(new StringBuilder("a"));
+        assertSame(a, cache.intern(new StringBuilder("a")));
+        assertEquals("", cache.intern(new StringBuilder()));
+
+        // texts with the same hash share a slot
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        String aa = cache.intern(new StringBuilder("Aa"));
+        assertEquals("BB", cache.intern(new StringBuilder("BB")));
+        String aa2 = cache.intern(new StringBuilder("Aa"));
+        assertEquals("Aa", aa2);
+        assertNotSame(aa, aa2);
+        assertSame(aa2, cache.intern(new StringBuilder("Aa")));
+
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i <= _Private_SymbolTextCache.MAX_TEXT_LENGTH; i++) {
+            longText.append('x');
+        }
+        assertNotSame(cache.intern(longText), cache.intern(longText));
+
+        try {
+            new _Private_SymbolTextCache(0);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(_Private_SymbolTextCache.MAX_SIZE,
+                     new _Private_SymbolTextCache(_Private_SymbolTextCache.MAX_SIZE).size());
+        try {
+            new _Private_SymbolTextCache(_Private_SymbolTextCache.MAX_SIZE + 1);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception
+    {
+        final IonReaderBuilder builder =
+            IonReaderBuilder.standard().withSymbolTextCacheSize(8).immutable();
+        final StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            data.append("{ f").append(i % 31).append(": s").append(i % 37).append(" }\n");
+        }
+        final String expected = write(IonReaderBuilder.standard().build(data.toString()));
+        final AtomicInteger failures = new AtomicInteger();
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                @Override
+                public void run()
+                {
+                    try {
+                        for (int i = 0; i < 10; i++) {
+                            if (!expected.equals(write(builder.build(data.toString())))) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    }
+                    catch (Throwable e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.get());
+    }
+
+    @Test
+    public void testBuilderProperty()
+    {
+        IonReaderBuilder builder = IonReaderBuilder.standard();
+        assertEquals(0, builder.getSymbolTextCacheSize());
+        assertEquals(1000, builder.withSymbolTextCacheSize(1000).getSymbolTextCacheSize());
+        assertEquals(1000, builder.immutable().getSymbolTextCacheSize());
+        assertEquals(65536, builder.withSymbolTextCacheSize(65536).getSymbolTextCacheSize());
+        assertEquals(0, builder.withSymbolTextCacheSize(0).getSymbolTextCacheSize());
+        try {
+            builder.setSymbolTextCacheSize(-1);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            builder.setSymbolTextCacheSize(65537);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.SymbolTable;
+import com.amazon.ion.SystemSymbols;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+
+public class LazySymbolTextTest
+{
+    private static final int SYMBOL_COUNT = 1000;
+    private static final int FIRST_LOCAL_SID = 10;
+    private static final int NULL_SYMBOL = 10;
+    private static final int INT_SYMBOL = 20;
+
+    private static final IonReaderBuilder LAZY =
+        IonReaderBuilder.standard().withLazySymbolTextEnabled(true).immutable();
+
+    //=========================================================================
+    // A minimal binary encoder, since the writers won't emit symbol tables
+    // with non-string symbols in them.
+
+    private static void writeVarUInt(ByteArrayOutputStream out, int value)
+    {
+        int shift = 28;
+        while (shift > 0 && (value >>> shift) == 0) shift -= 7;
+        for (; shift > 0; shift -= 7) {
+            out.write((value >>> shift) & 0x7F);
+        }
+        out.write((value & 0x7F) | 0x80);
+    }
+
+    private static byte[] tlv(int type, byte[] body)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (body.length < 14) {
+            out.write((type << 4) | body.length);
+        }
+        else {
+            out.write((type << 4) | 14);
+            writeVarUInt(out, body.length);
+        }
+        out.write(body, 0, body.length);
+        return out.toByteArray();
+    }
+
+    private static byte[] symbolValue(int sid)
+    {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (sid > 0xFF) body.write(sid >> 8);
+        body.write(sid & 0xFF);
+        return tlv(7, body.toByteArray());
+    }
+
+    private static byte[] localSymbolTable(boolean append, List<String> symbols)
+        throws IOException
+    {
+        ByteArrayOutputStream list = new ByteArrayOutputStream();
+        for (int i = 0; i < symbols.size(); i++) {
+            String symbol = symbols.get(i);
+            if (symbol != null) {
+                list.write(tlv(8, symbol.getBytes("UTF-8")));
+            }
+            else if (i % 2 == 0) {
+                list.write(0x8F); // null.string
+            }
+            else {
+                list.write(new byte[] { 0x21, 0x05 }); // an int
+            }
+        }
+        ByteArrayOutputStream struct = new ByteArrayOutputStream();
+        if (append) {
+            writeVarUInt(struct, SystemSymbols.IMPORTS_SID);
+            struct.write(symbolValue(SystemSymbols.ION_SYMBOL_TABLE_SID));
+        }
+        writeVarUInt(struct, SystemSymbols.SYMBOLS_SID);
+        struct.write(tlv(0xB, list.toByteArray()));
+
+        byte[] value = tlv(0xD, struct.toByteArray());
+        ByteArrayOutputStream wrapper = new ByteArrayOutputStream();
+        writeVarUInt(wrapper, 1);
+        writeVarUInt(wrapper, SystemSymbols.ION_SYMBOL_TABLE_SID);
+        wrapper.write(value);
+        return tlv(0xE, wrapper.toByteArray());
+    }
+
+    private static List<String> symbols(String prefix, int count)
+    {
+        List<String> symbols = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            boolean noText = i == NULL_SYMBOL || i == INT_SYMBOL;
+            symbols.add(noText ? null : prefix + "é" + i);
+        }
+        return symbols;
+    }
+
+    /**
+     * A large symbol table, some symbol values, a struct, then an appended
+     * symbol table and a symbol that refers to it.
+     */
+    private static byte[] data() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(_Private_IonConstants.BINARY_VERSION_MARKER_1_0);
+        out.write(localSymbolTable(false, symbols("sym", SYMBOL_COUNT)));
+        for (int i = 0; i < SYMBOL_COUNT; i += 7) {
+            out.write(symbolValue(FIRST_LOCAL_SID + i));
+        }
+        ByteArrayOutputStream struct = new ByteArrayOutputStream();
+        writeVarUInt(struct, FIRST_LOCAL_SID + 999);
+        struct.write(symbolValue(FIRST_LOCAL_SID + 1));
+        out.write(tlv(0xD, struct.toByteArray()));
+        out.write(localSymbolTable(true, symbols("more", 30)));
+        out.write(symbolValue(FIRST_LOCAL_SID + SYMBOL_COUNT + 3));
+        return out.toByteArray();
+    }
+
+    //=========================================================================
+
+    private static String text(IonReader reader)
+    {
+        return reader.symbolValue().getText();
+    }
+
+    private static void assertSameValues(IonReader expected, IonReader actual)
+    {
+        for (int i = 0; i < SYMBOL_COUNT; i += 7) {
+            assertEquals(IonType.SYMBOL, expected.next());
+            assertEquals(IonType.SYMBOL, actual.next());
+            assertEquals(text(expected), text(actual));
+        }
+        assertEquals(IonType.STRUCT, expected.next());
+        assertEquals(IonType.STRUCT, actual.next());
+        expected.stepIn();
+        actual.stepIn();
+        assertEquals(IonType.SYMBOL, expected.next());
+        assertEquals(IonType.SYMBOL, actual.next());
+        assertEquals(expected.getFieldName(), actual.getFieldName());
+        assertEquals(text(expected), text(actual));
+        expected.stepOut();
+        actual.stepOut();
+        assertEquals(IonType.SYMBOL, expected.next());
+        assertEquals(IonType.SYMBOL, actual.next());
+        assertEquals("moreé3", text(actual));
+        assertEquals(text(expected), text(actual));
+        assertNull(expected.next());
+        assertNull(actual.next());
+    }
+
+    @Test
+    public void testSameValuesAsEagerReader() throws IOException
+    {
+        byte[] data = data();
+        assertSameValues(IonReaderBuilder.standard().build(data), LAZY.build(data));
+        assertSameValues(IonReaderBuilder.standard().build(data),
+                         LAZY.build(new ByteArrayInputStream(data)));
+        assertSameValues(IonReaderBuilder.standard().build(data),
+                         LAZY.withIncrementalReadingEnabled(true)
+                             .build(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    public void testSymbolsDecodedWhenResolved() throws IOException
+    {
+        IonReader reader = LAZY.build(data());
+        assertEquals(IonType.SYMBOL, reader.next());
+        LocalSymbolTable symtab = (LocalSymbolTable) reader.getSymbolTable();
+        assertNull(symtab.mySymbolNames[500]);
+        assertEquals("symé500", symtab.findKnownSymbol(FIRST_LOCAL_SID + 500));
+        assertEquals("symé500", symtab.mySymbolNames[500]);
+        assertNull(symtab.findKnownSymbol(FIRST_LOCAL_SID + NULL_SYMBOL));
+        assertNull(symtab.findKnownSymbol(FIRST_LOCAL_SID + INT_SYMBOL));
+        assertNull(symtab.findKnownSymbol(FIRST_LOCAL_SID + SYMBOL_COUNT));
+        assertNull(symtab.mySymbolNames[501]);
+    }
+
+    @Test
+    public void testLookupsByText() throws IOException
+    {
+        byte[] data = data();
+        IonReader reader = LAZY.build(data);
+        assertEquals(IonType.SYMBOL, reader.next());
+        SymbolTable lazy = reader.getSymbolTable();
+        assertEquals(FIRST_LOCAL_SID + 42, lazy.findSymbol("symé42"));
+        assertEquals(FIRST_LOCAL_SID + 42, lazy.find("symé42").getSid());
+        assertEquals(SymbolTable.UNKNOWN_SYMBOL_ID, lazy.findSymbol("other"));
+        assertEquals(FIRST_LOCAL_SID + SYMBOL_COUNT - 1, lazy.getMaxId());
+
+        IonReader eager = IonReaderBuilder.standard().build(data);
+        eager.next();
+        Iterator<String> expected = eager.getSymbolTable().iterateDeclaredSymbolNames();
+        Iterator<String> actual = lazy.iterateDeclaredSymbolNames();
+        while (expected.hasNext()) {
+            assertEquals(expected.next(), actual.next());
+        }
+        assertFalse(actual.hasNext());
+    }
+
+    @Test
+    public void testBuilderOption()
+    {
+        IonReaderBuilder builder = IonReaderBuilder.standard();
+        assertFalse(builder.isLazySymbolTextEnabled());
+        assertTrue(LAZY.isLazySymbolTextEnabled());
+        assertTrue(LAZY.copy().isLazySymbolTextEnabled());
+        assertTrue(LAZY.mutable() != LAZY);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.OffsetSpan;
+import com.amazon.ion.ResettableReader;
+import com.amazon.ion.SpanProvider;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.impl.UnifiedSavePointManagerX.SavePoint;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Test;
+
+public class ResettableReaderTest
+{
+    /**
+     * Writes a struct whose field name and symbol value are specific to
+     * the message, so each message has its own local symbol table.
+     */
+    private static byte[] message(int id, int padding) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[padding]);
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        writer.setTypeAnnotations("message");
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName("field" + id);
+        writer.writeSymbol("symbol" + id);
+        writer.setFieldName("values");
+        writer.stepIn(IonType.LIST);
+        writer.writeInt(id);
+        writer.writeString("string " + id);
+        writer.stepOut();
+        writer.stepOut();
+        writer.close();
+        return out.toByteArray();
+    }
+
+    private static void assertMessage(IonReader reader, int id)
+    {
+        assertEquals(IonType.STRUCT, reader.next());
+        assertEquals("message", reader.getTypeAnnotations()[0]);
+        reader.stepIn();
+        assertEquals(IonType.SYMBOL, reader.next());
+        assertEquals("field" + id, reader.getFieldName());
+        assertEquals("symbol" + id, reader.stringValue());
+        assertEquals(IonType.LIST, reader.next());
+        reader.stepIn();
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(id, reader.intValue());
+        assertEquals(IonType.STRING, reader.next());
+        assertEquals("string " + id, reader.stringValue());
+        assertNull(reader.next());
+        reader.stepOut();
+        assertNull(reader.next());
+        reader.stepOut();
+        assertNull(reader.next());
+    }
+
+    private static ResettableReader resetter(IonReader reader)
+    {
+        ResettableReader resettable = reader.asFacet(ResettableReader.class);
+        assertNotNull(resettable);
+        return resettable;
+    }
+
+    @Test
+    public void testResetBetweenMessages() throws IOException
+    {
+        byte[] first = message(0, 0);
+        IonReader reader = IonReaderBuilder.standard().build(first);
+        assertMessage(reader, 0);
+        ResettableReader resettable = resetter(reader);
+        for (int i = 1; i < 100; i++) {
+            byte[] data = message(i, i % 7);
+            resettable.reset(data, i % 7, data.length - i % 7);
+            assertMessage(reader, i);
+        }
+    }
+
+    @Test
+    public void testResetWithinContainers() throws IOException
+    {
+        byte[] first = message(1, 0);
+        IonReader reader = IonReaderBuilder.standard().build(first);
+        assertEquals(IonType.STRUCT, reader.next());
+        reader.stepIn();
+        reader.next();
+        reader.next();
+        reader.stepIn();
+        assertEquals(2, reader.getDepth());
+
+        byte[] second = message(2, 0);
+        resetter(reader).reset(second, 0, second.length);
+        assertEquals(0, reader.getDepth());
+        assertNull(reader.getType());
+        assertMessage(reader, 2);
+    }
+
+    @Test
+    public void testResetAfterClose() throws IOException
+    {
+        byte[] first = message(1, 0);
+        IonReader reader = IonReaderBuilder.standard().build(first);
+        ResettableReader resettable = resetter(reader);
+        reader.close();
+
+        byte[] second = message(2, 0);
+        resettable.reset(second, 0, second.length);
+        assertMessage(reader, 2);
+    }
+
+    @Test
+    public void testSpansAreRelativeToResetOffset() throws IOException
+    {
+        byte[] first = message(1, 0);
+        IonReader reader = IonReaderBuilder.standard().build(first);
+        assertEquals(IonType.STRUCT, reader.next());
+        long expected = ((OffsetSpan) reader.asFacet(SpanProvider.class).currentSpan()).getStartOffset();
+
+        byte[] second = message(1, 13);
+        resetter(reader).reset(second, 13, second.length - 13);
+        assertEquals(IonType.STRUCT, reader.next());
+        OffsetSpan span = (OffsetSpan) reader.asFacet(SpanProvider.class).currentSpan();
+        assertEquals(expected, span.getStartOffset());
+    }
+
+    @Test
+    public void testResetReleasesActiveSavePoints() throws IOException
+    {
+        byte[] first = message(1, 0);
+        UnifiedInputStreamX.FromByteArray input =
+            (UnifiedInputStreamX.FromByteArray) UnifiedInputStreamX.makeStream(first);
+        SavePoint sp = input.savePointAllocate();
+        sp.start(0, 0);
+        input.read();
+        input.read();
+        sp.markEnd();
+        input._save_points.savePointPushActive(sp, 0, 0);
+        assertTrue(input._save_points.isSavePointOpen());
+
+        byte[] second = message(2, 0);
+        input.reset(second, 0, second.length);
+        assertNull(input._save_points.savePointActiveTop());
+        assertFalse(input._save_points.isSavePointOpen());
+        assertTrue(sp.isClear());
+        assertEquals(second[0] & 0xff, input.read());
+    }
+
+    @Test
+    public void testResetRejectsText() throws IOException
+    {
+        byte[] first = message(1, 0);
+        IonReader reader = IonReaderBuilder.standard().build(first);
+        byte[] text = "{a:b}".getBytes("UTF-8");
+        try {
+            resetter(reader).reset(text, 0, text.length);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFacetUnavailableForOtherSources() throws IOException
+    {
+        IonReader text = IonReaderBuilder.standard().build("{a:b}".getBytes("UTF-8"));
+        assertNull(text.asFacet(ResettableReader.class));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+        gzip.write(message(1, 0));
+        gzip.close();
+        IonReader gzipped = IonReaderBuilder.standard().build(bytes.toByteArray());
+        assertNull(gzipped.asFacet(ResettableReader.class));
+    }
+}
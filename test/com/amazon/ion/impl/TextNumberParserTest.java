@@ -0,0 +1,202 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.Decimal;
+import com.amazon.ion.IntegerSize;
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Test;
+
+public class TextNumberParserTest
+{
+    private static void assertDouble(String image)
+    {
+        long expected = Double.doubleToRawLongBits(Double.parseDouble(image));
+        long actual = Double.doubleToRawLongBits(
+            TextNumberParser.parseDouble(new StringBuilder(image), image.length()));
+        if (expected != actual) {
+            fail(image + ": expected " + Double.longBitsToDouble(expected)
+                 + " but was " + Double.longBitsToDouble(actual));
+        }
+    }
+
+    @Test
+    public void testDoubleEdgeCases()
+    {
+        String[] images = {
+            "0e0", "-0e0", "0.000e10", "1e0", "-1e0", "1.5e0", "123.456e7",
+            "9007199254740992e0", "9007199254740993e0", "9007199254740995e0",
+            "1e22", "1e23", "1e-22", "1e-23", "8.41e21", "5e-324", "4.9e-324",
+            "2.4703282292062327e-324", "2.4703282292062328e-324",
+            "2.2250738585072011e-308", "2.2250738585072014e-308",
+            "1.7976931348623157e308", "1.7976931348623158e308",
+            "1.7976931348623159e308", "1e309", "1e-400", "1e400",
+            "18446744073709551615e0", "9999999999999999999e0",
+            "12345678901234567890123e-5", "0.1e1", "3.141592653589793238e0",
+            "7.3177701707893310e15", "9.0071992547409915e15",
+            "1.00000000000000011102230246251565404236316680908203125e0",
+            "1.00000000000000011102230246251565404236316680908203124e0",
+            "1.00000000000000011102230246251565404236316680908203126e0",
+            "0.0000000000000000000000000000001e0", "00001.5e0", "1.e5", "+1e5",
+        };
+        for (String image : images) {
+            assertDouble(image);
+        }
+    }
+
+    @Test
+    public void testRandomDoubles()
+    {
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            double d = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(d) || Double.isInfinite(d)) continue;
+            String image = Double.toString(d);
+            if (image.indexOf('E') < 0) {
+                image += "e0";
+            }
+            assertDouble(image);
+        }
+        for (int i = 0; i < 200000; i++) {
+            // short significands with assorted exponents, including
+            // exactly half way cases
+            long significand = random.nextLong() >>> (1 + random.nextInt(63));
+            int exponent = random.nextInt(700) - 350;
+            assertDouble(significand + "e" + exponent);
+            assertDouble("-" + significand + "." + random.nextInt(1000) + "e" + exponent);
+        }
+        for (int i = 1; i < 64; i++) {
+            // halfway between two doubles, and either side
+            BigDecimal halfway = new BigDecimal(BigInteger.ONE.shiftLeft(i).add(BigInteger.ONE)
+                                                .shiftLeft(64 - i));
+            assertDouble(halfway.toString() + "e0");
+            assertDouble(halfway.add(BigDecimal.ONE) + "e0");
+            assertDouble(halfway.subtract(BigDecimal.ONE) + "e0");
+        }
+    }
+
+    @Test
+    public void testInvalidDoubles()
+    {
+        String[] images = { "", "-", "e5", "1e", "1e+", "1e5.5", "1x" };
+        for (String image : images) {
+            try {
+                TextNumberParser.parseDouble(new StringBuilder(image), image.length());
+                fail("expected a NumberFormatException for " + image);
+            }
+            catch (NumberFormatException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testLongs()
+    {
+        long[] values = { 0, 1, -1, 9, 10, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                          Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1 };
+        for (long value : values) {
+            String image = Long.toString(value);
+            assertEquals(value, TextNumberParser.parseLong(new StringBuilder(image), image.length()));
+        }
+        assertEquals(-7, TextNumberParser.parseInt(new StringBuilder("-0007"), 5));
+        assertEquals(7, TextNumberParser.parseInt(new StringBuilder("+7"), 2));
+    }
+
+    private static IonReader reader(String text)
+    {
+        return IonReaderBuilder.standard().build(text);
+    }
+
+    @Test
+    public void testReaderValues()
+    {
+        IonReader reader = reader(
+            "0 -1 2147483647 -2147483648 2147483648 1999999999 9223372036854775807"
+            + " -9223372036854775808 9223372036854775808 1_000_000");
+        long[] longs = { 0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 2147483648L,
+                         1999999999, Long.MAX_VALUE, Long.MIN_VALUE };
+        for (long value : longs) {
+            assertEquals(IonType.INT, reader.next());
+            assertEquals(value, reader.longValue());
+            IntegerSize size = reader.getIntegerSize();
+            assertTrue(value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE
+                       ? size != IntegerSize.BIG_INTEGER
+                       : size == IntegerSize.LONG);
+        }
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(IntegerSize.BIG_INTEGER, reader.getIntegerSize());
+        assertEquals(new BigInteger("9223372036854775808"), reader.bigIntegerValue());
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(1000000, reader.intValue());
+
+        String[] decimals = { "0.", "-0.", "-0.00", "1.50", "-12.345d-3", "1d10",
+                              "123456789012345678901234567890.5", "0.0d-100" };
+        reader = reader(join(decimals));
+        for (String image : decimals) {
+            assertEquals(IonType.DECIMAL, reader.next());
+            Decimal expected = Decimal.valueOf(image.replace('d', 'e'));
+            Decimal actual = reader.decimalValue();
+            assertTrue(image, Decimal.equals(expected, actual));
+            assertEquals(image, expected.scale(), actual.scale());
+        }
+
+        String[] floats = { "0e0", "-0e0", "1.5e0", "-2.5e-3", "1e23",
+                            "1.7976931348623157e308", "12345678901234567890123e0" };
+        reader = reader(join(floats));
+        for (String image : floats) {
+            assertEquals(IonType.FLOAT, reader.next());
+            assertEquals(image, Double.doubleToRawLongBits(Double.parseDouble(image)),
+                         Double.doubleToRawLongBits(reader.doubleValue()));
+        }
+    }
+
+    private static String join(String[] images)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (String image : images) {
+            sb.append(image).append(' ');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testInvalidReaderValues()
+    {
+        String[] texts = { "1.5d5.5", "1e5.5" };
+        for (String text : texts) {
+            IonReader reader = reader(text);
+            try {
+                reader.next();
+                reader.doubleValue();
+                fail("expected an IonException for " + text);
+            }
+            catch (IonException e) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.Utf8ValueProvider;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class Utf8ValueProviderTest
+{
+    private static final String[] TEXTS = {
+        "", "key", "café", "日本語", "emoji 😀 here"
+    };
+
+    private static byte[] utf8(String text) throws IOException
+    {
+        return text.getBytes("UTF-8");
+    }
+
+    private static byte[] writeValues(int padding) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[padding]);
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        for (String text : TEXTS) {
+            writer.writeString(text);
+            writer.writeSymbol(text.length() == 0 ? "empty" : text);
+        }
+        writer.writeInt(1);
+        writer.writeNull(IonType.STRING);
+        writer.close();
+        return out.toByteArray();
+    }
+
+    private static Utf8ValueProvider provider(IonReader reader)
+    {
+        Utf8ValueProvider provider = reader.asFacet(Utf8ValueProvider.class);
+        assertNotNull(provider);
+        return provider;
+    }
+
+    @Test
+    public void testStringBytesInPlace() throws IOException
+    {
+        byte[] data = writeValues(5);
+        IonReader reader = IonReaderBuilder.standard().build(data, 5, data.length - 5);
+        Utf8ValueProvider provider = provider(reader);
+        for (String text : TEXTS) {
+            assertEquals(IonType.STRING, reader.next());
+            assertTrue(provider.utf8Buffer() == data);
+            int offset = provider.utf8Offset();
+            int length = provider.utf8Length();
+            assertArrayEquals(utf8(text), Arrays.copyOfRange(data, offset, offset + length));
+            // the raw bytes are still available once the string is materialized
+            assertEquals(text, reader.stringValue());
+            assertEquals(offset, provider.utf8Offset());
+            reader.next();
+        }
+    }
+
+    @Test
+    public void testEqualsAndHash() throws IOException
+    {
+        IonReader reader = IonReaderBuilder.standard().build(writeValues(0));
+        Utf8ValueProvider provider = provider(reader);
+        for (String text : TEXTS) {
+            byte[] key = utf8(text);
+            byte[] padded = new byte[key.length + 3];
+            System.arraycopy(key, 0, padded, 2, key.length);
+
+            assertEquals(IonType.STRING, reader.next());
+            assertTrue(provider.utf8Equals(key, 0, key.length));
+            assertTrue(provider.utf8Equals(padded, 2, key.length));
+            assertFalse(provider.utf8Equals(padded, 0, key.length + 1));
+            assertFalse(provider.utf8Equals(utf8(text + "x"), 0, key.length + 1));
+            assertEquals(Arrays.hashCode(key), provider.utf8HashCode());
+
+            String symbol = text.length() == 0 ? "empty" : text;
+            key = utf8(symbol);
+            assertEquals(IonType.SYMBOL, reader.next());
+            assertTrue(provider.utf8Equals(key, 0, key.length));
+            assertFalse(provider.utf8Equals(key, 0, key.length - 1));
+            assertFalse(provider.utf8Equals(utf8("other"), 0, 5));
+            assertEquals(Arrays.hashCode(key), provider.utf8HashCode());
+            assertEquals(symbol, reader.stringValue());
+        }
+    }
+
+    @Test
+    public void testOtherValuesAreRejected() throws IOException
+    {
+        IonReader reader = IonReaderBuilder.standard().build(writeValues(0));
+        Utf8ValueProvider provider = provider(reader);
+        while (reader.next() != IonType.INT) {
+            // skip the strings and symbols
+        }
+        try {
+            provider.utf8Length();
+            fail("expected an IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(IonType.STRING, reader.next());
+        assertTrue(reader.isNullValue());
+        try {
+            provider.utf8HashCode();
+            fail("expected an IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFacetUnavailableForStreams() throws IOException
+    {
+        IonReader reader = IonReaderBuilder.standard().build(new ByteArrayInputStream(writeValues(0)));
+        assertNull(reader.asFacet(Utf8ValueProvider.class));
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.ValueStreamProvider;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class ValueStreamProviderTest
+{
+    private static String text()
+    {
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            big.append("line ").append(i).append(" é\\u00e9 \\U0001F600\\n");
+        }
+        StringBuilder base64 = new StringBuilder();
+        for (int i = 0; i < 30000; i++) {
+            base64.append("AAEC/f7/ ");
+        }
+        return "\"short \\\"escaped\\\" \\\n continued\" "
+            + "'''long ''' /* between */ '''segments\nwith newlines'''\n"
+            + "\"surrogates \\ud83d\\ude00 and 😀 and 日本語\" "
+            + "\"\" "
+            + "{{ aGVsbG8gd29ybGQ= }} "
+            + "{{ }} "
+            + "{{ \"a clob \\x7f \\\"}}\\\"\" }} "
+            + "{{ '''long clob }}\n''' '''\\x00 part''' }} "
+            + "[\"nested\", {{ AQID }}] "
+            + "\"" + big + "\" "
+            + "{{ " + base64 + "}} "
+            + "end";
+    }
+
+    private static byte[] binary(String text) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        writer.writeValues(IonReaderBuilder.standard().build(text));
+        writer.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * @return readers over the same data as text and binary, from arrays
+     * and streams.
+     */
+    private static List<IonReader> readers() throws IOException
+    {
+        String text = text();
+        byte[] utf8 = text.getBytes("UTF-8");
+        byte[] binary = binary(text);
+        List<IonReader> readers = new ArrayList<IonReader>();
+        readers.add(IonReaderBuilder.standard().build(text));
+        readers.add(IonReaderBuilder.standard().build(utf8));
+        readers.add(IonReaderBuilder.standard().build(new ByteArrayInputStream(utf8)));
+        readers.add(IonReaderBuilder.standard().build(binary));
+        readers.add(IonReaderBuilder.standard().build(new ByteArrayInputStream(binary)));
+        return readers;
+    }
+
+    private static ValueStreamProvider provider(IonReader reader)
+    {
+        ValueStreamProvider provider = reader.asFacet(ValueStreamProvider.class);
+        assertNotNull(provider);
+        return provider;
+    }
+
+    private static String readAll(Reader in, int chunk) throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[chunk];
+        int count;
+        while ((count = in.read(buffer, 0, chunk)) >= 0) {
+            text.append(buffer, 0, count);
+        }
+        return text.toString();
+    }
+
+    private static byte[] readAll(InputStream in, int chunk) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[chunk];
+        int count;
+        while ((count = in.read(buffer, 0, chunk)) >= 0) {
+            bytes.write(buffer, 0, count);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the values of the data, with lobs as byte arrays.
+     */
+    private static List<Object> expected() throws IOException
+    {
+        List<Object> values = new ArrayList<Object>();
+        IonReader reader = IonReaderBuilder.standard().build(text());
+        IonType type;
+        while ((type = reader.next()) != null) {
+            if (IonType.isLob(type)) {
+                values.add(reader.newBytes());
+            }
+            else if (type == IonType.STRING) {
+                values.add(reader.stringValue());
+            }
+        }
+        return values;
+    }
+
+    @Test
+    public void testStreamsMatchValues() throws IOException
+    {
+        List<Object> expected = expected();
+        for (int chunk : new int[] { 1, 7, 4096 }) {
+            for (IonReader reader : readers()) {
+                ValueStreamProvider provider = provider(reader);
+                int i = 0;
+                IonType type;
+                while ((type = reader.next()) != null) {
+                    if (IonType.isLob(type)) {
+                        byte[] bytes = readAll(provider.newLobInputStream(), chunk);
+                        assertArrayEquals(reader.toString(), (byte[]) expected.get(i++), bytes);
+                    }
+                    else if (type == IonType.STRING) {
+                        String text = readAll(provider.newStringReader(), chunk);
+                        assertEquals(reader.toString(), expected.get(i++), text);
+                    }
+                }
+                assertEquals(expected.size(), i);
+            }
+        }
+    }
+
+    @Test
+    public void testPartialReadsAreSkipped() throws IOException
+    {
+        for (IonReader reader : readers()) {
+            ValueStreamProvider provider = provider(reader);
+            int values = 0;
+            IonType type;
+            while ((type = reader.next()) != null) {
+                values++;
+                if (IonType.isLob(type)) {
+                    provider.newLobInputStream().read(new byte[3]);
+                }
+                else if (type == IonType.STRING) {
+                    provider.newStringReader().read(new char[3]);
+                }
+                else if (type == IonType.LIST) {
+                    reader.stepIn();
+                    assertEquals(IonType.STRING, reader.next());
+                    provider.newStringReader().read();
+                    assertEquals(IonType.BLOB, reader.next());
+                    provider.newLobInputStream().read();
+                    reader.stepOut();
+                }
+            }
+            assertEquals(12, values);
+        }
+    }
+
+    @Test
+    public void testStreamOverLoadedValue() throws IOException
+    {
+        List<IonReader> readers = readers();
+        for (int r = 0; r < readers.size(); r++) {
+            IonReader reader = readers.get(r);
+            ValueStreamProvider provider = provider(reader);
+            assertEquals(IonType.STRING, reader.next());
+            String text = reader.stringValue();
+            assertEquals(text, readAll(provider.newStringReader(), 10));
+            for (int i = 0; i < 4; i++) {
+                reader.next();
+            }
+            assertEquals(IonType.BLOB, reader.getType());
+            byte[] bytes = reader.newBytes();
+            if (r >= 3) {
+                // binary lobs are read from the input only once
+                bytes = new byte[0];
+            }
+            assertArrayEquals(bytes, readAll(provider.newLobInputStream(), 10));
+        }
+    }
+
+    @Test
+    public void testMisuse() throws IOException
+    {
+        for (IonReader reader : readers()) {
+            ValueStreamProvider provider = provider(reader);
+            assertEquals(IonType.STRING, reader.next());
+            try {
+                provider.newLobInputStream();
+                fail("expected an IllegalStateException");
+            }
+            catch (IllegalStateException e) {
+                // expected
+            }
+            Reader in = provider.newStringReader();
+            in.read();
+            try {
+                provider.newStringReader();
+                fail("expected an IllegalStateException");
+            }
+            catch (IllegalStateException e) {
+                // expected
+            }
+            try {
+                reader.stringValue();
+                fail("expected an IllegalStateException");
+            }
+            catch (IllegalStateException e) {
+                // expected
+            }
+
+            assertEquals(IonType.STRING, reader.next());
+            try {
+                in.read();
+                fail("expected an IllegalStateException");
+            }
+            catch (IllegalStateException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testMisuseBeforeFirstRead() throws IOException
+    {
+        // the value is streamed as soon as the stream is created
+        for (IonReader reader : readers()) {
+            ValueStreamProvider provider = provider(reader);
+            assertEquals(IonType.STRING, reader.next());
+            Reader in = provider.newStringReader();
+            try {
+                reader.stringValue();
+                fail("expected an IllegalStateException");
+            }
+            catch (IllegalStateException e) {
+                // expected
+            }
+            try {
+                provider.newStringReader();
+                fail("expected an IllegalStateException");
+            }
+            catch (IllegalStateException e) {
+                // expected
+            }
+            assertEquals("short \"escaped\"  continued", readAll(in, 10));
+
+            for (int i = 0; i < 4; i++) {
+                reader.next();
+            }
+            assertEquals(IonType.BLOB, reader.getType());
+            InputStream lob = provider.newLobInputStream();
+            try {
+                reader.newBytes();
+                fail("expected an IllegalStateException");
+            }
+            catch (IllegalStateException e) {
+                // expected
+            }
+            try {
+                provider.newLobInputStream();
+                fail("expected an IllegalStateException");
+            }
+            catch (IllegalStateException e) {
+                // expected
+            }
+            assertArrayEquals("hello world".getBytes("UTF-8"), readAll(lob, 10));
+        }
+    }
+
+    @Test
+    public void testInvalidContent() throws IOException
+    {
+        // a binary string that isn't UTF-8
+        byte[] binary = { (byte) 0xE0, 0x01, 0x00, (byte) 0xEA, (byte) 0x82, (byte) 0xC3, 0x28 };
+        IonReader reader = IonReaderBuilder.standard().build(binary);
+        assertEquals(IonType.STRING, reader.next());
+        try {
+            readAll(provider(reader).newStringReader(), 10);
+            fail("expected an IOException");
+        }
+        catch (IOException e) {
+            // expected
+        }
+
+        String[] texts = { "\"unterminated", "{{ aGVsbG8= }", "{{ \"clob\" ", "'''long" };
+        for (String text : texts) {
+            reader = IonReaderBuilder.standard().build(text);
+            IonType type = reader.next();
+            try {
+                if (type == IonType.STRING) {
+                    readAll(provider(reader).newStringReader(), 10);
+                }
+                else {
+                    readAll(provider(reader).newLobInputStream(), 10);
+                }
+                fail("expected an IonException for " + text);
+            }
+            catch (IonException e) {
+                // expected
+            }
+        }
+    }
+}
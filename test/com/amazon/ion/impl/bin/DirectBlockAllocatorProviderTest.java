@@ -0,0 +1,197 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.ByteBufferSink;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.impl.bin._Private_IonManagedBinaryWriterBuilder.AllocatorMode;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class DirectBlockAllocatorProviderTest
+{
+    private final DirectBlockAllocatorProvider provider = new DirectBlockAllocatorProvider();
+
+    @Test
+    public void testReuseBlockAfterClose()
+    {
+        final BlockAllocator allocator = provider.vendAllocator(8);
+        final Block block1 = allocator.allocateBlock();
+        final Block block2 = allocator.allocateBlock();
+        assertTrue(block1 instanceof DirectBlock);
+        assertEquals(8, block1.capacity());
+        assertEquals(0, block1.limit);
+        block1.limit = 7;
+        block1.close();
+        assertSame(block1, allocator.allocateBlock());
+        assertEquals(0, block1.limit);
+        assertSame(allocator, provider.vendAllocator(8));
+        assertNotSame(allocator, provider.vendAllocator(16));
+        block2.close();
+    }
+
+    @Test
+    public void testBlocksDoNotOverlap()
+    {
+        // enough blocks to span more than one slab
+        final int count = DirectBlockAllocatorProvider.SLAB_SIZE / 1000 + 10;
+        final BlockAllocator allocator = provider.vendAllocator(1000);
+        final Block[] blocks = new Block[count];
+        for (int i = 0; i < count; i++) {
+            blocks[i] = allocator.allocateBlock();
+            blocks[i].put(0, (byte) i);
+            blocks[i].put(999, (byte) ~i);
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals((byte) i, blocks[i].get(0));
+            assertEquals((byte) ~i, blocks[i].get(999));
+            blocks[i].close();
+        }
+    }
+
+    @Test
+    public void testBlockAccess() throws IOException
+    {
+        final Block block = provider.vendAllocator(16).allocateBlock();
+        block.put(0, new byte[] { 9, 1, 2, 3, 9 }, 1, 3);
+        block.put(3, (byte) 4);
+        block.limit = 4;
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        block.writeTo(out, 1, 3);
+        assertArrayEquals(new byte[] { 2, 3, 4 }, out.toByteArray());
+
+        final ByteBuffer slice = block.slice(0, 2);
+        assertTrue(slice.isDirect());
+        assertEquals(2, slice.remaining());
+        assertEquals(1, slice.get(0));
+        assertEquals(2, slice.get(1));
+        block.close();
+    }
+
+    @Test
+    public void testInvalidBlockSize()
+    {
+        try {
+            provider.vendAllocator(0);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static void writeData(IonWriter writer) throws IOException
+    {
+        for (int i = 0; i < 100; i++) {
+            writer.setTypeAnnotations("record");
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName("id");
+            writer.writeInt(i * 1000003L);
+            writer.setFieldName("name");
+            writer.writeString("name é中 " + i);
+            writer.setFieldName("values");
+            writer.stepIn(IonType.LIST);
+            for (int j = 0; j < i; j++) {
+                writer.writeFloat(j / 3.0);
+            }
+            writer.stepOut();
+            writer.stepOut();
+        }
+    }
+
+    private static byte[] write(_Private_IonManagedBinaryWriterBuilder builder) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = builder.newWriter(out);
+        writeData(writer);
+        writer.close();
+        return out.toByteArray();
+    }
+
+    private static _Private_IonManagedBinaryWriterBuilder builder(AllocatorMode mode)
+    {
+        // blocks small enough that values straddle them
+        return _Private_IonManagedBinaryWriterBuilder.create(mode)
+            .withUserBlockSize(13)
+            .withSymbolsBlockSize(7);
+    }
+
+    @Test
+    public void testWriterOutput() throws IOException
+    {
+        byte[] expected = write(builder(AllocatorMode.BASIC));
+        for (int pad = 0; pad <= 2; pad++) {
+            assertArrayEquals(write(builder(AllocatorMode.BASIC).withPaddedLengthPreallocation(pad)),
+                              write(builder(AllocatorMode.DIRECT).withPaddedLengthPreallocation(pad)));
+        }
+
+        // the sink gets the blocks themselves
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = builder(AllocatorMode.DIRECT).newWriter(new ByteBufferSink()
+        {
+            public void write(ByteBuffer[] buffers, int offset, int length)
+            {
+                for (int i = offset; i < offset + length; i++) {
+                    assertTrue(buffers[i].isDirect());
+                    while (buffers[i].hasRemaining()) {
+                        out.write(buffers[i].get());
+                    }
+                }
+            }
+
+            public void flush() {}
+
+            public void close() {}
+        });
+        writeData(writer);
+        writer.close();
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    public void testBuilderProperty() throws IOException
+    {
+        IonBinaryWriterBuilder builder = IonBinaryWriterBuilder.standard();
+        assertFalse(builder.isOffHeapBuffersEnabled());
+        builder = builder.withOffHeapBuffersEnabled().immutable();
+        assertTrue(builder.isOffHeapBuffersEnabled());
+        assertTrue(builder.copy().isOffHeapBuffersEnabled());
+        assertFalse(builder.withOffHeapBuffersDisabled().isOffHeapBuffersEnabled());
+
+        ByteArrayOutputStream onHeap = new ByteArrayOutputStream();
+        ByteArrayOutputStream offHeap = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(onHeap);
+        writeData(writer);
+        writer.close();
+        writer = builder.build(offHeap);
+        writeData(writer);
+        writer.close();
+        assertArrayEquals(onHeap.toByteArray(), offHeap.toByteArray());
+    }
+}
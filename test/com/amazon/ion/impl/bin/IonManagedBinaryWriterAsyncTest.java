@@ -0,0 +1,414 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.AsyncWriter;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.ResettableWriter;
+import com.amazon.ion.impl.bin.WriterTestUtils.TrackingOutputStream;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class IonManagedBinaryWriterAsyncTest
+{
+    /** Holds its tasks until they are run by the test, unless set to run them directly. */
+    private static class ManualExecutor implements Executor
+    {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        volatile boolean direct = false;
+
+        public void execute(Runnable task)
+        {
+            if (direct)
+            {
+                task.run();
+                return;
+            }
+            synchronized (this)
+            {
+                tasks.add(task);
+            }
+        }
+
+        synchronized int pending()
+        {
+            return tasks.size();
+        }
+
+        void runAll()
+        {
+            while (true)
+            {
+                Runnable task;
+                synchronized (this)
+                {
+                    if (tasks.isEmpty())
+                    {
+                        return;
+                    }
+                    task = tasks.remove(0);
+                }
+                task.run();
+            }
+        }
+    }
+
+    private static final Executor INLINE = new Executor()
+    {
+        public void execute(Runnable task)
+        {
+            task.run();
+        }
+    };
+
+    private static void writeRecords(IonWriter writer, int first, int count) throws IOException
+    {
+        for (int i = first; i < first + count; i++) {
+            writer.setTypeAnnotations("record");
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName("id");
+            writer.writeInt(i);
+            writer.setFieldName("name");
+            writer.writeSymbol("name" + i % 50);
+            writer.setFieldName("values");
+            writer.stepIn(IonType.LIST);
+            for (int j = 0; j < i % 20; j++) {
+                writer.writeString("value " + j);
+            }
+            writer.stepOut();
+            writer.stepOut();
+        }
+    }
+
+    private static byte[] write(IonBinaryWriterBuilder builder) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = builder.build(out);
+        for (int i = 0; i < 20; i++) {
+            writeRecords(writer, i * 50, 50);
+            writer.finish();
+        }
+        writer.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testSameData() throws Exception
+    {
+        byte[] expected = write(IonBinaryWriterBuilder.standard());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertArrayEquals(expected, write(IonBinaryWriterBuilder.standard().withAsyncExecutor(executor)));
+            assertArrayEquals(expected, write(IonBinaryWriterBuilder.standard()
+                .withAsyncExecutor(executor)
+                .withMaxInFlightBytes(100)
+                .withOffHeapBuffersEnabled()));
+            IonBinaryWriterBuilder predicting = IonBinaryWriterBuilder.standard()
+                .withContainerLengthPredictionEnabled();
+            assertArrayEquals(write(predicting), write(predicting.withAsyncExecutor(executor)));
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSharedExecutor() throws Exception
+    {
+        final byte[] expected = write(IonBinaryWriterBuilder.standard());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        final IonBinaryWriterBuilder builder = IonBinaryWriterBuilder.standard()
+            .withAsyncExecutor(executor)
+            .withMaxInFlightBytes(1000)
+            .immutable();
+        final List<Throwable> failures = new ArrayList<Throwable>();
+        Thread[] threads = new Thread[4];
+        try {
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try {
+                            for (int i = 0; i < 5; i++) {
+                                assertArrayEquals(expected, write(builder));
+                            }
+                        }
+                        catch (Throwable e) {
+                            synchronized (failures) {
+                                failures.add(e);
+                            }
+                        }
+                    }
+                };
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertEquals(new ArrayList<Throwable>(), failures);
+    }
+
+    @Test
+    public void testFinishDoesNotWait() throws IOException
+    {
+        ManualExecutor executor = new ManualExecutor();
+        TrackingOutputStream out = new TrackingOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().withAsyncExecutor(executor).build(out);
+        writeRecords(writer, 0, 10);
+        writer.finish();
+        assertEquals(0, out.size());
+        assertEquals(1, executor.pending());
+
+        executor.runAll();
+        byte[] first = out.toByteArray();
+        assertTrue(first.length > 0);
+        writeRecords(writer, 10, 10);
+        writer.finish();
+        assertEquals(first.length, out.size());
+        executor.runAll();
+        assertTrue(out.size() > first.length);
+        assertFalse(out.closed);
+    }
+
+    @Test
+    public void testBackpressure() throws Exception
+    {
+        final ManualExecutor executor = new ManualExecutor();
+        TrackingOutputStream out = new TrackingOutputStream();
+        // room for the first finish, symbol table and all, but no more
+        int firstLength = write(IonBinaryWriterBuilder.standard(), 10).length;
+        final IonWriter writer = IonBinaryWriterBuilder.standard()
+            .withAsyncExecutor(executor)
+            .withMaxInFlightBytes(firstLength)
+            .build(out);
+        writeRecords(writer, 0, 10);
+        writer.finish();
+        assertEquals(1, executor.pending());
+
+        final List<Throwable> failures = new ArrayList<Throwable>();
+        Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try {
+                    writeRecords(writer, 10, 10);
+                    writer.finish();
+                }
+                catch (Throwable e) {
+                    failures.add(e);
+                }
+            }
+        };
+        thread.start();
+        thread.join(200);
+        assertTrue(thread.isAlive());
+        assertEquals(0, out.size());
+
+        // the symbol table and the values are queued one after the other
+        while (thread.isAlive()) {
+            executor.runAll();
+            thread.join(10);
+        }
+        assertEquals(new ArrayList<Throwable>(), failures);
+        executor.runAll();
+
+        Future<Void> closing = writer.asFacet(AsyncWriter.class).closeAsync();
+        assertFalse(closing.isDone());
+        executor.runAll();
+        assertTrue(closing.isDone());
+        assertNull(closing.get());
+        assertTrue(out.closed);
+        assertArrayEquals(write(IonBinaryWriterBuilder.standard(), 20), out.toByteArray());
+    }
+
+    private static byte[] write(IonBinaryWriterBuilder builder, int count) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = builder.build(out);
+        writeRecords(writer, 0, count / 2);
+        writer.finish();
+        writeRecords(writer, count / 2, count - count / 2);
+        writer.close();
+        return out.toByteArray();
+    }
+
+    private static class FailingOutputStream extends OutputStream
+    {
+        boolean closed = false;
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            throw new IOException("disk full");
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            throw new IOException("disk full");
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+
+    @Test
+    public void testFailureIsReportedLater() throws IOException
+    {
+        ManualExecutor executor = new ManualExecutor();
+        FailingOutputStream out = new FailingOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().withAsyncExecutor(executor).build(out);
+        writeRecords(writer, 0, 10);
+        writer.finish();
+        executor.runAll();
+        writeRecords(writer, 10, 10);
+        try {
+            writer.finish();
+            fail("expected an IOException");
+        }
+        catch (IOException e) {
+            assertEquals("disk full", e.getCause().getMessage());
+        }
+        executor.direct = true;
+        try {
+            writer.close();
+            fail("expected an IOException");
+        }
+        catch (IOException e) {
+            assertEquals("disk full", e.getCause().getMessage());
+        }
+        assertTrue(out.closed);
+    }
+
+    @Test
+    public void testCloseAsyncFailure() throws Exception
+    {
+        ManualExecutor executor = new ManualExecutor();
+        FailingOutputStream out = new FailingOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().withAsyncExecutor(executor).build(out);
+        writeRecords(writer, 0, 10);
+        AsyncWriter async = writer.asFacet(AsyncWriter.class);
+        Future<Void> closing = async.closeAsync();
+        assertSame(closing, async.closeAsync());
+        executor.runAll();
+        try {
+            closing.get();
+            fail("expected an ExecutionException");
+        }
+        catch (ExecutionException e) {
+            assertEquals("disk full", e.getCause().getMessage());
+        }
+        assertTrue(out.closed);
+    }
+
+    @Test
+    public void testReset() throws IOException
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TrackingOutputStream first = new TrackingOutputStream();
+            TrackingOutputStream second = new TrackingOutputStream();
+            IonWriter writer = IonBinaryWriterBuilder.standard().withAsyncExecutor(executor).build(first);
+            writeRecords(writer, 0, 5);
+            writer.finish();
+            writeRecords(writer, 5, 5);
+            // the data for the first stream is written before the reset returns
+            writer.asFacet(ResettableWriter.class).reset(second, false);
+            byte[] expected = write(IonBinaryWriterBuilder.standard(), 10);
+            assertArrayEquals(expected, first.toByteArray());
+            assertFalse(first.closed);
+
+            writeRecords(writer, 0, 5);
+            writer.finish();
+            writeRecords(writer, 5, 5);
+            writer.close();
+            assertArrayEquals(expected, second.toByteArray());
+            assertTrue(second.closed);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFacetOnlyWhenAsync() throws IOException
+    {
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(new ByteArrayOutputStream());
+        assertNull(writer.asFacet(AsyncWriter.class));
+        writer.close();
+        writer = IonBinaryWriterBuilder.standard().withAsyncExecutor(INLINE).build(new ByteArrayOutputStream());
+        assertNotNull(writer.asFacet(AsyncWriter.class));
+        writer.close();
+    }
+
+    @Test
+    public void testBuilderProperties()
+    {
+        IonBinaryWriterBuilder builder = IonBinaryWriterBuilder.standard();
+        assertNull(builder.getAsyncExecutor());
+        assertEquals(_Private_IonManagedBinaryWriterBuilder.DEFAULT_MAX_IN_FLIGHT_BYTES, builder.getMaxInFlightBytes());
+        builder = builder.withAsyncExecutor(INLINE).withMaxInFlightBytes(123).immutable();
+        assertSame(INLINE, builder.getAsyncExecutor());
+        assertEquals(123, builder.getMaxInFlightBytes());
+        assertSame(INLINE, builder.copy().getAsyncExecutor());
+        assertEquals(123, builder.copy().getMaxInFlightBytes());
+        assertNull(builder.withAsyncExecutor(null).getAsyncExecutor());
+        try {
+            builder.setMaxInFlightBytes(1);
+            fail("expected an UnsupportedOperationException");
+        }
+        catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            builder.withMaxInFlightBytes(0);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import static com.amazon.ion.impl.bin.WriterTestUtils.text;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.ByteBufferSink;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.Pipe;
+import org.junit.Test;
+
+public class IonManagedBinaryWriterGatheringTest
+{
+    /** Keeps a copy of everything written, along with the number of calls and buffers. */
+    private static class CollectingSink implements ByteBufferSink
+    {
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int writes = 0;
+        int buffers = 0;
+        boolean closed = false;
+
+        public void write(ByteBuffer[] buffers, int offset, int length)
+        {
+            writes++;
+            for (int i = offset; i < offset + length; i++) {
+                ByteBuffer buffer = buffers[i];
+                assertTrue(buffer.hasArray());
+                data.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                this.buffers++;
+            }
+        }
+
+        public void flush() {}
+
+        public void close()
+        {
+            closed = true;
+        }
+    }
+
+    /**
+     * A channel that writes no more than a few bytes at a time, and stops
+     * making progress once it has taken {@code capacity} bytes.
+     */
+    private static class TrickleChannel implements GatheringByteChannel
+    {
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int capacity = Integer.MAX_VALUE;
+        boolean open = true;
+
+        public long write(ByteBuffer[] srcs, int offset, int length)
+        {
+            long written = 0;
+            for (int i = offset; i < offset + length && written < 5; i++) {
+                while (srcs[i].hasRemaining() && written < 5 && data.size() < capacity) {
+                    data.write(srcs[i].get());
+                    written++;
+                }
+            }
+            return written;
+        }
+
+        public long write(ByteBuffer[] srcs)
+        {
+            return write(srcs, 0, srcs.length);
+        }
+
+        public int write(ByteBuffer src)
+        {
+            return (int) write(new ByteBuffer[] { src });
+        }
+
+        public boolean isOpen()
+        {
+            return open;
+        }
+
+        public void close()
+        {
+            open = false;
+        }
+    }
+
+    private static void writeData(IonWriter writer) throws IOException
+    {
+        for (int i = 0; i < 50; i++) {
+            writer.setTypeAnnotations("record");
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName("kind");
+            writer.writeSymbol("kind" + (i % 4));
+            writer.setFieldName("body");
+            writer.stepIn(IonType.LIST);
+            // large enough that the lengths are patched in
+            writer.writeString(text(i * 7));
+            writer.stepOut();
+            writer.stepOut();
+        }
+        writer.finish();
+        writer.writeInt(42);
+    }
+
+    private static _Private_IonManagedBinaryWriterBuilder builder()
+    {
+        return _Private_IonManagedBinaryWriterBuilder
+            .create(_Private_IonManagedBinaryWriterBuilder.AllocatorMode.BASIC)
+            .withPaddedLengthPreallocation(0)
+            .withUserBlockSize(64)
+            .withSymbolsBlockSize(16);
+    }
+
+    private static byte[] expected() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = builder().newWriter(out);
+        writeData(writer);
+        writer.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testSink() throws IOException
+    {
+        CollectingSink sink = new CollectingSink();
+        IonWriter writer = builder().newWriter(sink);
+        writeData(writer);
+        // one gathering write for the symbol table and one for the values
+        assertEquals(2, sink.writes);
+        assertTrue(sink.buffers > 2);
+        assertFalse(sink.closed);
+        writer.close();
+        assertTrue(sink.closed);
+        assertArrayEquals(expected(), sink.data.toByteArray());
+    }
+
+    @Test
+    public void testPartialChannelWrites() throws IOException
+    {
+        TrickleChannel channel = new TrickleChannel();
+        IonWriter writer = builder().newWriter(channel);
+        writeData(writer);
+        writer.close();
+        assertFalse(channel.isOpen());
+        assertArrayEquals(expected(), channel.data.toByteArray());
+    }
+
+    @Test
+    public void testStalledChannel() throws IOException
+    {
+        TrickleChannel channel = new TrickleChannel();
+        channel.capacity = 10;
+        IonWriter writer = builder().newWriter(channel);
+        try {
+            writeData(writer);
+            fail("expected an IOException");
+        }
+        catch (IOException e) {
+            // expected, rather than retrying forever
+        }
+        assertEquals(10, channel.data.size());
+    }
+
+    @Test
+    public void testNonBlockingChannel() throws IOException
+    {
+        Pipe pipe = Pipe.open();
+        try {
+            pipe.sink().configureBlocking(false);
+            IonBinaryWriterBuilder.standard().build(pipe.sink());
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+        finally {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+
+    @Test
+    public void testFileChannel() throws IOException
+    {
+        File file = File.createTempFile("ion", ".10n");
+        try {
+            FileChannel channel = new FileOutputStream(file).getChannel();
+            IonWriter writer = IonBinaryWriterBuilder.standard().build(channel);
+            writeData(writer);
+            writer.close();
+            assertFalse(channel.isOpen());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            IonWriter streamWriter = IonBinaryWriterBuilder.standard().build(out);
+            writeData(streamWriter);
+            streamWriter.close();
+
+            RandomAccessFile in = new RandomAccessFile(file, "r");
+            byte[] actual = new byte[(int) in.length()];
+            in.readFully(actual);
+            in.close();
+            assertArrayEquals(out.toByteArray(), actual);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testPublicSink() throws IOException
+    {
+        CollectingSink sink = new CollectingSink();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(sink);
+        writer.writeSymbol("abc");
+        writer.close();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter streamWriter = IonBinaryWriterBuilder.standard().build(out);
+        streamWriter.writeSymbol("abc");
+        streamWriter.close();
+        assertArrayEquals(out.toByteArray(), sink.data.toByteArray());
+    }
+}
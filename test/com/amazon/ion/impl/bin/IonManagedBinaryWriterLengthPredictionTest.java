@@ -0,0 +1,184 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import static com.amazon.ion.impl.bin.WriterTestUtils.text;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+public class IonManagedBinaryWriterLengthPredictionTest
+{
+    /**
+     * Writes records whose nested values have lengths of every width,
+     * varying by record.
+     */
+    private static void writeRecords(IonWriter writer, int count) throws IOException
+    {
+        for (int i = 0; i < count; i++) {
+            writer.setTypeAnnotations("record");
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName("id");
+            writer.writeInt(i);
+            writer.setFieldName("tags");
+            writer.stepIn(IonType.LIST);
+            for (int j = 0; j < i % 5; j++) {
+                writer.writeSymbol("tag" + j);
+            }
+            writer.stepOut();
+            writer.setFieldName("body");
+            writer.stepIn(IonType.SEXP);
+            // crosses the one and two byte length boundaries every few records
+            writer.writeString(text((i % 7 == 0) ? 20000 : (i % 3 == 0) ? 200 : i % 10));
+            writer.stepOut();
+            writer.setFieldName("nested");
+            writer.setTypeAnnotations("a", "b");
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName("x");
+            writer.stepIn(IonType.STRUCT);
+            writer.stepOut();
+            writer.stepOut();
+            writer.stepOut();
+        }
+    }
+
+    private static byte[] write(IonBinaryWriterBuilder builder, int count) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = builder.build(out);
+        writeRecords(writer, count);
+        writer.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testSameData() throws IOException
+    {
+        String expected = text(write(IonBinaryWriterBuilder.standard(), 100));
+        assertEquals(expected, text(write(
+            IonBinaryWriterBuilder.standard().withContainerLengthPredictionEnabled(), 100)));
+        for (int pad = 0; pad <= 2; pad++) {
+            _Private_IonManagedBinaryWriterBuilder builder = padded(pad)
+                .withUserBlockSize(11)
+                .withContainerLengthPredictionEnabled();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            IonWriter writer = builder.newWriter(out);
+            writeRecords(writer, 100);
+            writer.close();
+            assertEquals(expected, text(out.toByteArray()));
+        }
+    }
+
+    private static _Private_IonManagedBinaryWriterBuilder padded(int pad)
+    {
+        return _Private_IonManagedBinaryWriterBuilder
+            .create(_Private_IonManagedBinaryWriterBuilder.AllocatorMode.BASIC)
+            .withPaddedLengthPreallocation(pad);
+    }
+
+    @Test
+    public void testSmallValuesAreNotPadded() throws IOException
+    {
+        ByteArrayOutputStream padded = new ByteArrayOutputStream();
+        ByteArrayOutputStream predicted = new ByteArrayOutputStream();
+        IonWriter paddedWriter = padded(2).newWriter(padded);
+        IonWriter predictedWriter = padded(2).withContainerLengthPredictionEnabled().newWriter(predicted);
+        for (int i = 0; i < 6; i++) {
+            for (IonWriter writer : new IonWriter[] { paddedWriter, predictedWriter }) {
+                writer.stepIn(IonType.LIST);
+                writer.writeInt(i);
+                writer.stepOut();
+            }
+        }
+        paddedWriter.close();
+        predictedWriter.close();
+
+        // the first lists are padded as usual, until the prediction shrinks
+        byte[] bytes = predicted.toByteArray();
+        assertEquals(padded.size() - 2 * 2, bytes.length);
+        assertEquals((byte) 0xB2, bytes[bytes.length - 3]);
+        assertEquals(text(padded.toByteArray()), text(bytes));
+    }
+
+    @Test
+    public void testRecordsShrink() throws IOException
+    {
+        ByteArrayOutputStream padded = new ByteArrayOutputStream();
+        ByteArrayOutputStream predicted = new ByteArrayOutputStream();
+        IonWriter paddedWriter = padded(2).newWriter(padded);
+        IonWriter predictedWriter = padded(2).withContainerLengthPredictionEnabled().newWriter(predicted);
+        writeRecords(paddedWriter, 1000);
+        writeRecords(predictedWriter, 1000);
+        paddedWriter.close();
+        predictedWriter.close();
+        assertTrue(predicted.size() < padded.size());
+        assertEquals(text(padded.toByteArray()), text(predicted.toByteArray()));
+    }
+
+    @Test
+    public void testRegularDataIsUnchanged() throws IOException
+    {
+        // lengths that always need the same width are predicted exactly,
+        // so the encoding is the minimal one the default writer patches in
+        IonBinaryWriterBuilder builder = IonBinaryWriterBuilder.standard();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        IonWriter expectedWriter = builder.build(expected);
+        IonWriter actualWriter = builder.withContainerLengthPredictionEnabled().build(actual);
+        for (IonWriter writer : new IonWriter[] { expectedWriter, actualWriter }) {
+            for (int i = 0; i < 100; i++) {
+                writer.setTypeAnnotations("record");
+                writer.stepIn(IonType.STRUCT);
+                writer.setFieldName("small");
+                writer.stepIn(IonType.LIST);
+                writer.writeInt(i % 10);
+                writer.stepOut();
+                writer.setFieldName("medium");
+                writer.writeString(text(100 + i % 10));
+                writer.stepOut();
+            }
+            writer.close();
+        }
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void testBuilderProperty()
+    {
+        IonBinaryWriterBuilder builder = IonBinaryWriterBuilder.standard();
+        assertFalse(builder.isContainerLengthPredictionEnabled());
+        builder = builder.withContainerLengthPredictionEnabled().immutable();
+        assertTrue(builder.isContainerLengthPredictionEnabled());
+        assertTrue(builder.copy().isContainerLengthPredictionEnabled());
+        assertFalse(builder.withContainerLengthPredictionDisabled().isContainerLengthPredictionEnabled());
+        try {
+            builder.setContainerLengthPredictionEnabled(false);
+            fail("expected an UnsupportedOperationException");
+        }
+        catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import static com.amazon.ion.impl.bin.WriterTestUtils.text;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.ResettableWriter;
+import com.amazon.ion.impl.bin.WriterTestUtils.TrackingOutputStream;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+public class IonManagedBinaryWriterResetTest
+{
+    private static void writeMessage(IonWriter writer, int i) throws IOException
+    {
+        writer.setTypeAnnotations("message");
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName("id");
+        writer.writeInt(i);
+        writer.setFieldName("kind");
+        writer.writeSymbol("kind" + (i % 3));
+        writer.setFieldName("body");
+        writer.writeString("body of " + i);
+        writer.stepOut();
+    }
+
+    private static byte[] freshMessage(IonBinaryWriterBuilder builder, int i) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = builder.build(out);
+        writeMessage(writer, i);
+        writer.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testResetMatchesNewWriters() throws IOException
+    {
+        IonBinaryWriterBuilder builder = IonBinaryWriterBuilder.standard().immutable();
+        TrackingOutputStream out = new TrackingOutputStream();
+        IonWriter writer = builder.build(out);
+        ResettableWriter resettable = writer.asFacet(ResettableWriter.class);
+        assertNotNull(resettable);
+
+        for (int i = 0; i < 10; i++) {
+            writeMessage(writer, i);
+            TrackingOutputStream next = new TrackingOutputStream();
+            resettable.reset(next, i % 2 == 0);
+
+            // the finished stream is complete, and is the caller's to close
+            assertArrayEquals(freshMessage(builder, i), out.toByteArray());
+            assertFalse(out.closed);
+            out = next;
+        }
+        writer.close();
+        assertEquals(0, out.size());
+        assertTrue(out.closed);
+    }
+
+    @Test
+    public void testKeepLockedSymbolTable() throws IOException
+    {
+        IonBinaryWriterBuilder builder = IonBinaryWriterBuilder.standard();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = builder.build(out);
+        ResettableWriter resettable = writer.asFacet(ResettableWriter.class);
+
+        writeMessage(writer, 0);
+        writeMessage(writer, 1);
+        writeMessage(writer, 2);
+        writer.getSymbolTable().makeReadOnly();
+        int maxId = writer.getSymbolTable().getMaxId();
+
+        for (int i = 3; i < 10; i++) {
+            ByteArrayOutputStream next = new ByteArrayOutputStream();
+            resettable.reset(next, true);
+            out = next;
+
+            // the kept table is in effect before it's written
+            assertEquals(maxId, writer.getSymbolTable().getMaxId());
+            writeMessage(writer, i);
+            resettable.reset(new ByteArrayOutputStream(), true);
+            assertEquals(text(freshMessage(builder, i)), text(out.toByteArray()));
+        }
+
+        // no new symbols may be added to the kept table
+        try {
+            writer.writeSymbol("unknown");
+            fail("expected an IonException");
+        }
+        catch (IonException e) {
+            // expected
+        }
+
+        // values without symbols don't need the table
+        ByteArrayOutputStream next = new ByteArrayOutputStream();
+        resettable.reset(next, true);
+        writer.writeInt(42);
+        resettable.reset(new ByteArrayOutputStream(), true);
+        assertEquals("42", text(next.toByteArray()));
+        assertEquals(6, next.size()); // IVM and int
+
+        // while a new table can be started without keeping the old one
+        next = new ByteArrayOutputStream();
+        resettable.reset(next, false);
+        writer.writeSymbol("unknown");
+        writer.close();
+        assertEquals("unknown", text(next.toByteArray()));
+    }
+
+    @Test
+    public void testKeepMutableSymbolTable() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        writer.writeSymbol("abc");
+
+        // only read-only tables are kept
+        ByteArrayOutputStream next = new ByteArrayOutputStream();
+        writer.asFacet(ResettableWriter.class).reset(next, true);
+        assertEquals(9, writer.getSymbolTable().getMaxId());
+        writer.writeSymbol("def");
+        writer.close();
+        assertEquals("abc", text(out.toByteArray()));
+        assertEquals("def", text(next.toByteArray()));
+    }
+
+    @Test
+    public void testInitialSymbolTable() throws IOException
+    {
+        ByteArrayOutputStream seed = new ByteArrayOutputStream();
+        IonWriter seedWriter = IonBinaryWriterBuilder.standard().build(seed);
+        writeMessage(seedWriter, 0);
+        seedWriter.close();
+        IonReader seedReader = IonReaderBuilder.standard().build(seed.toByteArray());
+        seedReader.next();
+        IonBinaryWriterBuilder builder = IonBinaryWriterBuilder.standard()
+            .withInitialSymbolTable(seedReader.getSymbolTable());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = builder.build(out);
+        ResettableWriter resettable = writer.asFacet(ResettableWriter.class);
+        int maxId = writer.getSymbolTable().getMaxId();
+
+        // a stream with nothing but the initial table
+        ByteArrayOutputStream next = new ByteArrayOutputStream();
+        resettable.reset(next, false);
+        assertEquals("", text(out.toByteArray()));
+
+        // each new stream starts with it again
+        assertEquals(maxId, writer.getSymbolTable().getMaxId());
+        writeMessage(writer, 1);
+        writer.close();
+        assertArrayEquals(freshMessage(builder, 1), next.toByteArray());
+    }
+
+    @Test
+    public void testResetFailures() throws IOException
+    {
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(new ByteArrayOutputStream());
+        ResettableWriter resettable = writer.asFacet(ResettableWriter.class);
+
+        writer.stepIn(IonType.LIST);
+        try {
+            resettable.reset(new ByteArrayOutputStream(), false);
+            fail("expected an IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+        writer.stepOut();
+
+        try {
+            resettable.reset(null, false);
+            fail("expected a NullPointerException");
+        }
+        catch (NullPointerException e) {
+            // expected
+        }
+
+        writer.close();
+        try {
+            resettable.reset(new ByteArrayOutputStream(), false);
+            fail("expected an IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testResetWithPendingAnnotations() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        ResettableWriter resettable = writer.asFacet(ResettableWriter.class);
+        writer.writeInt(1);
+
+        // annotations without their value would otherwise be lost
+        writer.setTypeAnnotations("pending");
+        ByteArrayOutputStream next = new ByteArrayOutputStream();
+        try {
+            resettable.reset(next, false);
+            fail("expected an IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+
+        // the writer is unchanged, and still annotates the next value
+        writer.writeInt(2);
+        resettable.reset(next, false);
+        writer.writeInt(3);
+        writer.close();
+        assertEquals("1 pending::2", text(out.toByteArray()));
+        assertEquals("3", text(next.toByteArray()));
+    }
+}
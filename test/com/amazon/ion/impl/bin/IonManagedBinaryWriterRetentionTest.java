@@ -0,0 +1,187 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import static com.amazon.ion.impl.bin.WriterTestUtils.text;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class IonManagedBinaryWriterRetentionTest
+{
+    private static final byte[] IVM = { (byte) 0xE0, 0x01, 0x00, (byte) 0xEA };
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private int finished = 0;
+
+    private static void writeBatch(IonWriter writer, String... symbols) throws IOException
+    {
+        for (String symbol : symbols) {
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName("name");
+            writer.writeSymbol(symbol);
+            writer.stepOut();
+        }
+    }
+
+    /**
+     * @return the bytes written since the previous call.
+     */
+    private byte[] finishBatch(IonWriter writer) throws IOException
+    {
+        writer.finish();
+        byte[] all = out.toByteArray();
+        byte[] batch = Arrays.copyOfRange(all, finished, all.length);
+        finished = all.length;
+        return batch;
+    }
+
+    private static boolean contains(byte[] data, String text) throws IOException
+    {
+        byte[] needle = text.getBytes("UTF-8");
+        outer:
+        for (int i = 0; i + needle.length <= data.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (data[i + j] != needle[j]) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean startsWithIvm(byte[] data)
+    {
+        return data.length >= IVM.length
+            && Arrays.equals(IVM, Arrays.copyOf(data, IVM.length));
+    }
+
+    @Test
+    public void testRetainedAcrossFinish() throws IOException
+    {
+        IonWriter writer = IonBinaryWriterBuilder.standard()
+            .withLocalSymbolTableRetentionLimit(100)
+            .build(out);
+
+        writeBatch(writer, "alpha", "beta");
+        byte[] first = finishBatch(writer);
+        assertTrue(startsWithIvm(first));
+        assertTrue(contains(first, "alpha"));
+
+        // nothing but values
+        writeBatch(writer, "beta", "alpha");
+        byte[] second = finishBatch(writer);
+        assertFalse(startsWithIvm(second));
+        assertFalse(contains(second, "alpha"));
+        assertEquals(2 * 4, second.length); // {name:<local symbol>}
+
+        // only the new symbol is appended
+        writeBatch(writer, "gamma", "alpha");
+        byte[] third = finishBatch(writer);
+        assertFalse(startsWithIvm(third));
+        assertTrue(contains(third, "gamma"));
+        assertFalse(contains(third, "alpha"));
+
+        writer.close();
+        assertEquals("{name:alpha} {name:beta} {name:beta} {name:alpha} "
+                     + "{name:gamma} {name:alpha}", text(out.toByteArray()));
+    }
+
+    @Test
+    public void testLimitResetsContext() throws IOException
+    {
+        IonWriter writer = IonBinaryWriterBuilder.standard()
+            .withLocalSymbolTableRetentionLimit(2)
+            .build(out);
+
+        writeBatch(writer, "alpha", "beta");
+        finishBatch(writer);
+        writeBatch(writer, "gamma");
+        byte[] second = finishBatch(writer);
+        assertFalse(startsWithIvm(second));
+
+        // three local symbols now, which is over the limit
+        writeBatch(writer, "alpha");
+        byte[] third = finishBatch(writer);
+        assertTrue(startsWithIvm(third));
+        assertTrue(contains(third, "alpha"));
+
+        writer.close();
+        assertEquals("{name:alpha} {name:beta} {name:gamma} {name:alpha}", text(out.toByteArray()));
+    }
+
+    @Test
+    public void testNotRetainedByDefault() throws IOException
+    {
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        writeBatch(writer, "alpha");
+        finishBatch(writer);
+        writeBatch(writer, "alpha");
+        byte[] second = finishBatch(writer);
+        assertTrue(startsWithIvm(second));
+        assertTrue(contains(second, "alpha"));
+        writer.close();
+    }
+
+    @Test
+    public void testVersionMarkerResetsContext() throws IOException
+    {
+        IonWriter writer = IonBinaryWriterBuilder.standard()
+            .withLocalSymbolTableRetentionLimit(100)
+            .build(out);
+        writeBatch(writer, "alpha");
+        finishBatch(writer);
+        writer.writeSymbol("$ion_1_0");
+        writeBatch(writer, "alpha");
+        byte[] second = finishBatch(writer);
+        assertTrue(startsWithIvm(second));
+        assertTrue(contains(second, "alpha"));
+        writer.close();
+        assertEquals("{name:alpha} {name:alpha}", text(out.toByteArray()));
+    }
+
+    @Test
+    public void testBuilderProperty()
+    {
+        IonBinaryWriterBuilder builder = IonBinaryWriterBuilder.standard();
+        assertEquals(0, builder.getLocalSymbolTableRetentionLimit());
+        builder = builder.withLocalSymbolTableRetentionLimit(10).immutable();
+        assertEquals(10, builder.getLocalSymbolTableRetentionLimit());
+        assertEquals(10, builder.copy().getLocalSymbolTableRetentionLimit());
+        try {
+            builder.setLocalSymbolTableRetentionLimit(5);
+            fail("expected an UnsupportedOperationException");
+        }
+        catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            IonBinaryWriterBuilder.standard().withLocalSymbolTableRetentionLimit(-1);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
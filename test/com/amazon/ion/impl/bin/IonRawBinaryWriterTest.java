@@ -123,7 +123,8 @@ public class IonRawBinaryWriterTest extends Assert
             StreamCloseMode.NO_CLOSE,
             StreamFlushMode.NO_FLUSH,
             preallocationMode,
-            true
+            true,
+            false
         );
     }
 
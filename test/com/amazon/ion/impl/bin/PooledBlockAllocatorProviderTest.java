@@ -44,14 +44,14 @@ public class PooledBlockAllocatorProviderTest
     public void testReuseBlockAfterClose()
     {
         final BlockAllocator allocator = provider.vendAllocator(8);
-        final Block block1 = allocator.allocateBlock();
-        final Block block2 = allocator.allocateBlock();
+        final HeapBlock block1 = (HeapBlock) allocator.allocateBlock();
+        final HeapBlock block2 = (HeapBlock) allocator.allocateBlock();
         assertNotSame(block1.data, block2.data);
         assertEquals(0, block1.limit);
         assertEquals(8, block1.data.length);
         block1.limit = 7;
         block1.close();
-        final Block block1Again = allocator.allocateBlock();
+        final HeapBlock block1Again = (HeapBlock) allocator.allocateBlock();
         assertSame(block1.data, block1Again.data);
         assertEquals(0, block1Again.limit);
     }
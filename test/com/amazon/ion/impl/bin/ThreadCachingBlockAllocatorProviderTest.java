@@ -0,0 +1,369 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import static com.amazon.ion.impl.bin.ThreadCachingBlockAllocatorProvider.BATCH_SIZE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.BlockPoolStatistics;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ThreadCachingBlockAllocatorProviderTest
+{
+    private static final int BLOCK_SIZE = 8;
+    private static final long NEVER = TimeUnit.DAYS.toNanos(1);
+
+    private static List<Block> allocate(BlockAllocator allocator, int count)
+    {
+        List<Block> blocks = new ArrayList<Block>();
+        for (int i = 0; i < count; i++) {
+            blocks.add(allocator.allocateBlock());
+        }
+        return blocks;
+    }
+
+    private static void close(List<Block> blocks)
+    {
+        for (Block block : blocks) {
+            block.close();
+        }
+    }
+
+    /** Runs a task on another thread, so that it has its own cache. */
+    private static <T> T onOtherThread(final Callable<T> task) throws Exception
+    {
+        final List<T> result = new ArrayList<T>();
+        final List<Exception> failure = new ArrayList<Exception>();
+        Thread thread = new Thread() {
+            @Override
+            public void run()
+            {
+                try {
+                    result.add(task.call());
+                }
+                catch (Exception e) {
+                    failure.add(e);
+                }
+            }
+        };
+        thread.start();
+        thread.join();
+        if (!failure.isEmpty()) {
+            throw failure.get(0);
+        }
+        return result.get(0);
+    }
+
+    private interface Callable<T>
+    {
+        T call() throws Exception;
+    }
+
+    @Test
+    public void testReuseOnSameThread()
+    {
+        ThreadCachingBlockAllocatorProvider provider =
+            new ThreadCachingBlockAllocatorProvider(1024, false, NEVER);
+        BlockAllocator allocator = provider.vendAllocator(BLOCK_SIZE);
+        assertSame(allocator, provider.vendAllocator(BLOCK_SIZE));
+
+        Block block = allocator.allocateBlock();
+        assertTrue(block instanceof HeapBlock);
+        assertEquals(BLOCK_SIZE, block.capacity());
+        block.limit = 5;
+        block.close();
+        assertEquals(BLOCK_SIZE, provider.getResidentBytes());
+        for (int i = 1; i < BATCH_SIZE; i++) {
+            Block again = allocator.allocateBlock();
+            assertSame(block, again);
+            assertEquals(0, again.limit);
+            again.close();
+        }
+
+        // the counts are published once they make up a batch
+        assertEquals(BATCH_SIZE - 1, provider.getHitCount());
+        assertEquals(1, provider.getMissCount());
+    }
+
+    @Test
+    public void testBatchesAreShared() throws Exception
+    {
+        ThreadCachingBlockAllocatorProvider provider =
+            new ThreadCachingBlockAllocatorProvider(1024 * 1024, false, NEVER);
+        final BlockAllocator allocator = provider.vendAllocator(BLOCK_SIZE);
+
+        // a full thread cache hands its oldest batch to the shared pool
+        final List<Block> blocks = allocate(allocator, 3 * BATCH_SIZE);
+        close(blocks);
+        assertEquals(3 * BATCH_SIZE * BLOCK_SIZE, provider.getResidentBytes());
+
+        List<Block> reused = onOtherThread(new Callable<List<Block>>() {
+            public List<Block> call()
+            {
+                return allocate(allocator, BATCH_SIZE);
+            }
+        });
+        assertEquals(new HashSet<Block>(blocks.subList(0, BATCH_SIZE)), new HashSet<Block>(reused));
+        assertEquals(2 * BATCH_SIZE * BLOCK_SIZE, provider.getResidentBytes());
+
+        // the shared pool is empty again, so the other thread creates new ones
+        List<Block> created = onOtherThread(new Callable<List<Block>>() {
+            public List<Block> call()
+            {
+                return allocate(allocator, 1);
+            }
+        });
+        assertFalse(blocks.contains(created.get(0)));
+    }
+
+    @Test
+    public void testBudget() throws Exception
+    {
+        // the pool holds three batches, including the thread caches
+        ThreadCachingBlockAllocatorProvider provider =
+            new ThreadCachingBlockAllocatorProvider(3 * BATCH_SIZE * BLOCK_SIZE, false, NEVER);
+        final BlockAllocator allocator = provider.vendAllocator(BLOCK_SIZE);
+        close(allocate(allocator, 5 * BATCH_SIZE));
+        assertEquals(3 * BATCH_SIZE * BLOCK_SIZE, provider.getResidentBytes());
+        assertEquals(3 * BATCH_SIZE * BLOCK_SIZE, provider.getReservedBytes());
+
+        // other threads and sizes count towards the same budget
+        onOtherThread(new Callable<Void>() {
+            public Void call()
+            {
+                close(allocate(allocator, 2 * BATCH_SIZE));
+                return null;
+            }
+        });
+        close(allocate(provider.vendAllocator(2 * BLOCK_SIZE), 3 * BATCH_SIZE));
+        assertTrue(provider.getResidentBytes() <= 3 * BATCH_SIZE * BLOCK_SIZE);
+        assertEquals(3 * BATCH_SIZE * BLOCK_SIZE, provider.getReservedBytes());
+    }
+
+    @Test
+    public void testEndedThreadsReturnTheirReservations() throws Exception
+    {
+        ThreadCachingBlockAllocatorProvider provider =
+            new ThreadCachingBlockAllocatorProvider(BATCH_SIZE * BLOCK_SIZE, false, NEVER);
+        final BlockAllocator allocator = provider.vendAllocator(BLOCK_SIZE);
+        onOtherThread(new Callable<Void>() {
+            public Void call()
+            {
+                close(allocate(allocator, 1));
+                return null;
+            }
+        });
+        assertEquals(BATCH_SIZE * BLOCK_SIZE, provider.getReservedBytes());
+
+        // the thread's cache goes once it's collected, leaving the budget to others
+        for (int i = 0; i < 100 && provider.getReservedBytes() != 0; i++) {
+            System.gc();
+            Thread.sleep(10);
+            provider.trim();
+        }
+        assertEquals(0, provider.getReservedBytes());
+        assertEquals(0, provider.getResidentBytes());
+        close(allocate(allocator, 1));
+        assertEquals(BLOCK_SIZE, provider.getResidentBytes());
+    }
+
+    @Test
+    public void testIdleTrimming() throws Exception
+    {
+        ThreadCachingBlockAllocatorProvider provider =
+            new ThreadCachingBlockAllocatorProvider(1024 * 1024, false, TimeUnit.MILLISECONDS.toNanos(10));
+        BlockAllocator allocator = provider.vendAllocator(BLOCK_SIZE);
+        close(allocate(allocator, 4 * BATCH_SIZE));
+        assertEquals(4 * BATCH_SIZE * BLOCK_SIZE, provider.getResidentBytes());
+        provider.trim();
+        assertEquals(4 * BATCH_SIZE * BLOCK_SIZE, provider.getResidentBytes());
+
+        Thread.sleep(20);
+        BlockPoolStatistics statistics = provider;
+        statistics.trim();
+        // the thread's cache is kept, the idle shared batches are not
+        assertEquals(2 * BATCH_SIZE * BLOCK_SIZE, provider.getResidentBytes());
+        assertEquals(2 * BATCH_SIZE * BLOCK_SIZE, provider.getReservedBytes());
+    }
+
+    @Test
+    public void testTrimmingWhileAllocating() throws Exception
+    {
+        ThreadCachingBlockAllocatorProvider provider =
+            new ThreadCachingBlockAllocatorProvider(1024 * 1024, false, TimeUnit.MILLISECONDS.toNanos(10));
+        BlockAllocator allocator = provider.vendAllocator(BLOCK_SIZE);
+        close(allocate(allocator, 4 * BATCH_SIZE));
+        assertEquals(4 * BATCH_SIZE * BLOCK_SIZE, provider.getResidentBytes());
+
+        // allocating from the thread's cache never touches the shared pool,
+        // but still notices that its batches have gone idle
+        Thread.sleep(20);
+        allocate(allocator, BATCH_SIZE);
+        assertEquals(BATCH_SIZE * BLOCK_SIZE, provider.getResidentBytes());
+    }
+
+    @Test
+    public void testOffHeap()
+    {
+        ThreadCachingBlockAllocatorProvider provider =
+            new ThreadCachingBlockAllocatorProvider(1024, true, NEVER);
+        assertTrue(provider.isOffHeap());
+        Block block = provider.vendAllocator(BLOCK_SIZE).allocateBlock();
+        assertTrue(block instanceof DirectBlock);
+        block.put(7, (byte) 1);
+        assertEquals(1, block.get(7));
+        block.close();
+        assertSame(block, provider.vendAllocator(BLOCK_SIZE).allocateBlock());
+    }
+
+    @Test
+    public void testInvalidArguments()
+    {
+        try {
+            new ThreadCachingBlockAllocatorProvider(-1, false);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new ThreadCachingBlockAllocatorProvider(1024, false).vendAllocator(0);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception
+    {
+        // room for the caches of the threads, and a few batches to share
+        final Thread[] threads = new Thread[8];
+        final long budget = (2 * threads.length + 4) * BATCH_SIZE * BLOCK_SIZE;
+        final ThreadCachingBlockAllocatorProvider provider =
+            new ThreadCachingBlockAllocatorProvider(budget, false, NEVER);
+        final BlockAllocator allocator = provider.vendAllocator(BLOCK_SIZE);
+        final Map<Block, Boolean> inUse = Collections.synchronizedMap(new IdentityHashMap<Block, Boolean>());
+        final AtomicInteger failures = new AtomicInteger();
+
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run()
+                {
+                    Random random = new Random(seed);
+                    List<Block> held = new ArrayList<Block>();
+                    for (int i = 0; i < 20000; i++) {
+                        if (held.isEmpty() || (held.size() < 3 * BATCH_SIZE && random.nextBoolean())) {
+                            Block block = allocator.allocateBlock();
+                            if (inUse.put(block, Boolean.TRUE) != null || block.limit != 0) {
+                                failures.incrementAndGet();
+                            }
+                            block.limit = 1 + random.nextInt(BLOCK_SIZE);
+                            held.add(block);
+                        }
+                        else {
+                            Block block = held.remove(random.nextInt(held.size()));
+                            inUse.remove(block);
+                            block.close();
+                        }
+                    }
+                    for (Block block : held) {
+                        inUse.remove(block);
+                        block.close();
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.get());
+        assertTrue(provider.getHitCount() > provider.getMissCount());
+        assertTrue(provider.getReservedBytes() <= budget);
+        assertTrue(provider.getResidentBytes() <= provider.getReservedBytes());
+    }
+
+    private static void writeData(IonWriter writer) throws IOException
+    {
+        for (int i = 0; i < 100; i++) {
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName("name");
+            writer.writeString("name " + i);
+            writer.stepOut();
+        }
+        writer.close();
+    }
+
+    @Test
+    public void testBuilderProperty() throws IOException
+    {
+        IonBinaryWriterBuilder builder = IonBinaryWriterBuilder.standard();
+        assertEquals(0, builder.getBlockPoolLimit());
+        assertNull(builder.getBlockPoolStatistics());
+
+        IonBinaryWriterBuilder pooled = builder.withBlockPoolLimit(1 << 20).immutable();
+        assertEquals(1 << 20, pooled.getBlockPoolLimit());
+        BlockPoolStatistics statistics = pooled.getBlockPoolStatistics();
+        assertNotNull(statistics);
+        assertSame(statistics, pooled.copy().getBlockPoolStatistics());
+        assertEquals(0, pooled.withBlockPoolLimit(0).getBlockPoolLimit());
+        assertFalse(pooled.isOffHeapBuffersEnabled());
+        IonBinaryWriterBuilder offHeap = pooled.withOffHeapBuffersEnabled();
+        assertTrue(offHeap.isOffHeapBuffersEnabled());
+        assertEquals(1 << 20, offHeap.getBlockPoolLimit());
+        try {
+            builder.setBlockPoolLimit(-1);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        writeData(builder.build(expected));
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            writeData(pooled.build(actual));
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        }
+        assertTrue(statistics.getResidentBytes() > 0);
+    }
+}
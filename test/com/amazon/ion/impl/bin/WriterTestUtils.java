@@ -0,0 +1,73 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.impl.bin;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Fixtures shared by the binary writer tests.
+ */
+final class WriterTestUtils
+{
+    private WriterTestUtils() { }
+
+    /**
+     * Collects its output in memory, recording whether it has been closed.
+     */
+    static class TrackingOutputStream extends ByteArrayOutputStream
+    {
+        volatile boolean closed = false;
+
+        @Override
+        public void close() throws IOException
+        {
+            closed = true;
+            super.close();
+        }
+    }
+
+    /**
+     * Renders Ion data as minimal text, so that data encoded differently
+     * can be compared by value.
+     */
+    static String text(byte[] ion) throws IOException
+    {
+        IonReader reader = IonReaderBuilder.standard().build(ion);
+        StringBuilder out = new StringBuilder();
+        IonWriter writer = IonTextWriterBuilder.minimal().build(out);
+        writer.writeValues(reader);
+        writer.close();
+        return out.toString();
+    }
+
+    /**
+     * @return {@code length} characters cycling through the lowercase
+     * alphabet.
+     */
+    static String text(int length)
+    {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+        return text.toString();
+    }
+}
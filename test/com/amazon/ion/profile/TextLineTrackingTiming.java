@@ -0,0 +1,150 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.profile;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.system.IonReaderBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Compares the time taken to read Ion text with and without line tracking.
+ * <p>
+ * Usage: {@code TextLineTrackingTiming [file [iterations]]}. Without a file,
+ * a generated document of small pretty-printed structs is read.
+ */
+public class TextLineTrackingTiming
+{
+    public static void main(String[] args)
+        throws IOException
+    {
+        byte[] data = (args.length > 0) ? load(args[0]) : generate(100000);
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 20;
+
+        IonReaderBuilder tracked = IonReaderBuilder.standard();
+        IonReaderBuilder untracked =
+            IonReaderBuilder.standard().withLineTrackingEnabled(false);
+
+        System.out.println("Input bytes: " + data.length);
+
+        // warm up both paths before measuring either
+        for (int i = 0; i < 5; i++) {
+            time(tracked, data);
+            time(untracked, data);
+        }
+
+        long trackedNanos = Long.MAX_VALUE;
+        long untrackedNanos = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            trackedNanos = Math.min(trackedNanos, time(tracked, data));
+            untrackedNanos = Math.min(untrackedNanos, time(untracked, data));
+        }
+
+        System.out.println("Best millis, tracking lines:    "
+                           + trackedNanos / 1000000.0);
+        System.out.println("Best millis, no line tracking:  "
+                           + untrackedNanos / 1000000.0);
+        System.out.println("Speedup: "
+                           + ((float) trackedNanos) / untrackedNanos);
+    }
+
+    private static long time(IonReaderBuilder builder, byte[] data)
+        throws IOException
+    {
+        long start = System.nanoTime();
+        IonReader reader = builder.build(data);
+        int count = traverse(reader);
+        reader.close();
+        long elapsed = System.nanoTime() - start;
+        if (count == 0) throw new IllegalStateException("no values read");
+        return elapsed;
+    }
+
+    /**
+     * Visits every value, materializing scalars so that they are scanned
+     * in full rather than skipped.
+     */
+    private static int traverse(IonReader reader)
+    {
+        int count = 0;
+        IonType type;
+        while ((type = reader.next()) != null) {
+            count++;
+            if (reader.isNullValue()) continue;
+            switch (type) {
+                case STRUCT:
+                case LIST:
+                case SEXP:
+                    reader.stepIn();
+                    count += traverse(reader);
+                    reader.stepOut();
+                    break;
+                case INT:
+                    reader.longValue();
+                    break;
+                case DECIMAL:
+                    reader.decimalValue();
+                    break;
+                case FLOAT:
+                    reader.doubleValue();
+                    break;
+                case STRING:
+                case SYMBOL:
+                    reader.stringValue();
+                    break;
+                default:
+                    break;
+            }
+        }
+        return count;
+    }
+
+    private static byte[] generate(int count)
+        throws IOException
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("{\n")
+              .append("  id: ").append(i).append(",\n")
+              .append("  name: \"record number ").append(i).append("\",\n")
+              .append("  price: ").append(i).append(".25,\n")
+              .append("  tags: [\n    red,\n    green,\n    blue\n  ]\n")
+              .append("}\n");
+        }
+        return sb.toString().getBytes("UTF-8");
+    }
+
+    private static byte[] load(String path)
+        throws IOException
+    {
+        InputStream in = new FileInputStream(path);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+        finally {
+            in.close();
+        }
+    }
+}
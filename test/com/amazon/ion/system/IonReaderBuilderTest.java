@@ -17,6 +17,7 @@ package com.amazon.ion.system;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
 import com.amazon.ion.IonCatalog;
@@ -26,6 +27,8 @@ import com.amazon.ion.IonWriter;
 import com.amazon.ion.impl._Private_IonBinaryWriterBuilder;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPOutputStream;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -111,4 +114,67 @@ public class IonReaderBuilderTest
         assertEquals(42, reader.intValue());
     }
 
+    private static byte[] writeBinary() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = _Private_IonBinaryWriterBuilder.standard().build(out);
+        writer.writeInt(42);
+        writer.writeString("forty-two");
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    private static void assertValues(IonReader reader)
+    {
+        assertEquals(IonType.INT, reader.next());
+        assertEquals(42, reader.intValue());
+        assertEquals(IonType.STRING, reader.next());
+        assertEquals("forty-two", reader.stringValue());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testBuildFromHeapByteBufferSlice() throws IOException
+    {
+        byte[] data = writeBinary();
+        byte[] padded = new byte[data.length + 6];
+        System.arraycopy(data, 0, padded, 3, data.length);
+        ByteBuffer buffer = ByteBuffer.wrap(padded, 3, data.length);
+        assertValues(IonReaderBuilder.standard().build(buffer));
+        assertEquals(3, buffer.position());
+        assertEquals(3 + data.length, buffer.limit());
+    }
+
+    @Test
+    public void testBuildFromDirectByteBuffer() throws IOException
+    {
+        byte[] data = writeBinary();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data);
+        buffer.flip();
+        assertValues(IonReaderBuilder.standard().build(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testBuildFromReadOnlyTextByteBuffer() throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.wrap("42 \"forty-two\"".getBytes("UTF-8")).asReadOnlyBuffer();
+        assertValues(IonReaderBuilder.standard().build(buffer));
+    }
+
+    @Test
+    public void testBuildFromGzippedDirectByteBuffer() throws IOException
+    {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(gzipped);
+        gzip.write(writeBinary());
+        gzip.close();
+        byte[] data = gzipped.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data);
+        buffer.flip();
+        assertValues(IonReaderBuilder.standard().build(buffer));
+    }
+
 }
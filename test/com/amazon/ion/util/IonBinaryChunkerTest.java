@@ -0,0 +1,173 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+import com.amazon.ion.system.SimpleCatalog;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class IonBinaryChunkerTest
+{
+    private static void writeRecords(IonWriter writer, String prefix, int count)
+        throws IOException
+    {
+        for (int i = 0; i < count; i++) {
+            writer.setTypeAnnotations(prefix + "record");
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName(prefix + "id");
+            writer.writeInt(i);
+            writer.setFieldName(prefix + "tag" + (i % 5));
+            writer.writeSymbol(prefix + "value" + i);
+            writer.stepOut();
+            if (i % 10 == 9) {
+                writer.writeString(prefix + " string " + i);
+            }
+        }
+    }
+
+    /**
+     * Two streams with their own symbol tables, the second of which appends
+     * to its table as it goes.
+     */
+    private static byte[] data() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        writeRecords(writer, "a", 50);
+        writer.close();
+
+        writer = IonBinaryWriterBuilder.standard()
+                                       .withLocalSymbolTableAppendEnabled()
+                                       .build(out);
+        for (int i = 0; i < 4; i++) {
+            writeRecords(writer, "b" + i, 20);
+            writer.flush();
+        }
+        writer.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * @return the Ion text of each value, without the symbol tables.
+     */
+    private static List<String> text(IonReader reader) throws IOException
+    {
+        List<String> values = new ArrayList<String>();
+        while (reader.next() != null) {
+            StringBuilder out = new StringBuilder();
+            IonWriter writer = IonTextWriterBuilder.standard().build(out);
+            writer.writeValue(reader);
+            writer.close();
+            values.add(out.toString());
+        }
+        return values;
+    }
+
+    @Test
+    public void testChunksDecodeLikeWholeStream() throws Exception
+    {
+        byte[] data = data();
+        final byte[] padded = new byte[data.length + 20];
+        System.arraycopy(data, 0, padded, 7, data.length);
+        List<String> expected = text(IonReaderBuilder.standard().build(data));
+
+        for (int target : new int[] { 0, 100, 1000, Integer.MAX_VALUE }) {
+            List<IonBinaryChunker.Chunk> chunks =
+                IonBinaryChunker.scan(new SimpleCatalog(), padded, 7, data.length, target);
+            // each stream and append gets its own chunks
+            assertTrue(chunks.size() >= 5);
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+                int values = 0;
+                for (final IonBinaryChunker.Chunk chunk : chunks) {
+                    assertTrue(chunk.getSymbolTable().isReadOnly());
+                    if (target == 0) {
+                        assertEquals(1, chunk.getValueCount());
+                    }
+                    values += chunk.getValueCount();
+                    results.add(executor.submit(new Callable<List<String>>() {
+                        public List<String> call() throws IOException
+                        {
+                            return text(chunk.newReader());
+                        }
+                    }));
+                }
+                assertEquals(55 + 4 * 22, values);
+
+                List<String> actual = new ArrayList<String>();
+                for (Future<List<String>> result : results) {
+                    actual.addAll(result.get());
+                }
+                assertEquals(expected, actual);
+            }
+            finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testChunkBoundaries() throws IOException
+    {
+        byte[] data = data();
+        List<IonBinaryChunker.Chunk> chunks =
+            IonBinaryChunker.scan(new SimpleCatalog(), data, 0, data.length, 0);
+        IonBinaryChunker.Chunk previous = null;
+        for (IonBinaryChunker.Chunk chunk : chunks) {
+            if (previous != null) {
+                assertTrue(chunk.getOffset() >= previous.getOffset() + previous.getLength());
+            }
+            IonReader reader = chunk.newReader();
+            assertTrue(reader.next() != null);
+            assertNull(reader.next());
+            previous = chunk;
+        }
+        assertEquals(data.length, previous.getOffset() + previous.getLength());
+    }
+
+    @Test
+    public void testTextIsRejected() throws IOException
+    {
+        byte[] text = "{a:1}".getBytes("UTF-8");
+        try {
+            IonBinaryChunker.scan(new SimpleCatalog(), text, 0, text.length, 0);
+            fail("expected an IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
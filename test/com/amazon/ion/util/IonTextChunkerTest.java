@@ -0,0 +1,258 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+
+public class IonTextChunkerTest
+{
+    /**
+     * Values spread over lines in every way that must not be split.
+     */
+    private static final String[] TRICKY = {
+        "{a:1,\n b:\"x\\\"\\\n\"}",
+        "\"string with // no comment\"",
+        "'''long\n''' // comment\n'''continued\n'''",
+        "ann::\n  other::[1,\n2]",
+        "ann\n::value",
+        "/* a block {\ncomment [ */ (sexp\n + 1)",
+        "{{\"clob }}\\\"\"}}",
+        "{{'''long clob }}\n'''\n'''\"'''}}",
+        "{{ aGVsbG8= }}",
+        "'quoted\\'\\\n symbol'",
+        "{ s: '''a\n'''\n'''b''' }",
+        "$ion_symbol_table",
+        "\n::{symbols:[\"t0\", \"t1\"]}",
+        "$10",
+        "[$11,\n$10]",
+        "$ion_symbol_table::{imports:$ion_symbol_table,\n symbols:[\"t2\"]}",
+        "$12",
+        "$ion_1_0",
+        "$ion_1_0\n::not_a_marker",
+        "'$ion_symbol_table'::\n{symbols:[\"u0\"]}",
+        "$10 // after the table\n",
+        "{\"json\":[1,2,{\"a\":null}],\"b\":\"}\"}",
+    };
+
+    private static String data(int repeat)
+    {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < repeat; i++)
+        {
+            for (String value : TRICKY)
+            {
+                text.append(value).append('\n');
+            }
+            for (int j = 0; j < 20; j++)
+            {
+                text.append("{\"id\":").append(i * 20 + j).append(",\"name\":\"n")
+                    .append(j).append("\"}\n");
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return the Ion text of each value.
+     */
+    private static List<String> text(IonReader reader) throws IOException
+    {
+        List<String> values = new ArrayList<String>();
+        while (reader.next() != null)
+        {
+            StringBuilder out = new StringBuilder();
+            IonWriter writer = IonTextWriterBuilder.standard().build(out);
+            writer.writeValue(reader);
+            writer.close();
+            values.add(out.toString());
+        }
+        return values;
+    }
+
+    private static final IonTextChunker.Decoder<List<String>> TEXT =
+        new IonTextChunker.Decoder<List<String>>()
+        {
+            public List<String> decode(IonReader reader) throws IOException
+            {
+                return text(reader);
+            }
+        };
+
+    private static List<String> read(List<IonTextChunker.Chunk> chunks,
+                                     ExecutorService executor,
+                                     boolean ordered)
+        throws Exception
+    {
+        final List<String> values = new ArrayList<String>();
+        IonTextChunker.read(chunks, IonReaderBuilder.standard(), executor, TEXT, ordered,
+                            new IonTextChunker.Handler<List<String>>()
+                            {
+                                public void handle(List<String> result)
+                                {
+                                    values.addAll(result);
+                                }
+                            });
+        return values;
+    }
+
+    private static void checkChunks(List<IonTextChunker.Chunk> chunks, long size)
+    {
+        long position = 0;
+        for (IonTextChunker.Chunk chunk : chunks)
+        {
+            assertEquals(position, chunk.getOffset());
+            assertTrue(chunk.getLength() > 0);
+            position += chunk.getLength();
+        }
+        assertEquals(size, position);
+    }
+
+    @Test
+    public void testChunksDecodeLikeWholeText() throws Exception
+    {
+        String text = data(30);
+        byte[] data = text.getBytes("UTF-8");
+        List<String> expected = text(IonReaderBuilder.standard().build(text));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            for (int target : new int[] { 1, 7, 64, 1000, Integer.MAX_VALUE })
+            {
+                for (ExecutorService scanner : new ExecutorService[] { null, executor })
+                {
+                    List<IonTextChunker.Chunk> chunks =
+                        IonTextChunker.scan(ByteBuffer.wrap(data), target, scanner);
+                    checkChunks(chunks, data.length);
+                    if (target < 1000)
+                    {
+                        assertTrue(chunks.size() > 100);
+                    }
+
+                    assertEquals(expected, read(chunks, executor, true));
+
+                    List<String> unordered = read(chunks, executor, false);
+                    List<String> sorted = new ArrayList<String>(expected);
+                    Collections.sort(sorted);
+                    Collections.sort(unordered);
+                    assertEquals(sorted, unordered);
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEveryLineOfJsonLinesIsASplit() throws Exception
+    {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+        {
+            text.append("{\"id\":").append(i).append(",\"s\":\"\\n}\"}\n");
+        }
+        byte[] data = text.toString().getBytes("UTF-8");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<IonTextChunker.Chunk> chunks =
+                IonTextChunker.scan(ByteBuffer.wrap(data), 1, executor);
+            assertEquals(1000, chunks.size());
+            for (IonTextChunker.Chunk chunk : chunks)
+            {
+                assertEquals(1, text(chunk.newReader(IonReaderBuilder.standard())).size());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBufferPosition() throws Exception
+    {
+        byte[] data = data(3).getBytes("UTF-8");
+        byte[] padded = new byte[data.length + 10];
+        System.arraycopy(data, 0, padded, 4, data.length);
+        ByteBuffer buffer = ByteBuffer.wrap(padded, 4, data.length);
+
+        List<IonTextChunker.Chunk> chunks = IonTextChunker.scan(buffer, 50, null);
+        checkChunks(chunks, data.length);
+        assertEquals(4, buffer.position());
+        List<String> values = new ArrayList<String>();
+        for (IonTextChunker.Chunk chunk : chunks)
+        {
+            values.addAll(text(chunk.newReader(IonReaderBuilder.standard())));
+        }
+        assertEquals(text(IonReaderBuilder.standard().build(data)), values);
+    }
+
+    @Test
+    public void testFileChannel() throws Exception
+    {
+        byte[] data = data(20).getBytes("UTF-8");
+        File file = File.createTempFile("ion-text-chunker", ".ion");
+        try
+        {
+            FileOutputStream out = new FileOutputStream(file);
+            out.write("// skipped\n".getBytes("UTF-8"));
+            out.write(data);
+            out.close();
+
+            RandomAccessFile in = new RandomAccessFile(file, "r");
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try
+            {
+                FileChannel channel = in.getChannel();
+                channel.position(11);
+                List<IonTextChunker.Chunk> chunks = IonTextChunker.scan(channel, 100, executor);
+                checkChunks(chunks, data.length);
+                assertEquals(text(IonReaderBuilder.standard().build(data)),
+                             read(chunks, executor, true));
+            }
+            finally
+            {
+                executor.shutdown();
+                in.close();
+            }
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+}
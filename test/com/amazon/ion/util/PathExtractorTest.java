@@ -0,0 +1,199 @@
+/*
+ * Copyright 2007-2019 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.amazon.ion.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class PathExtractorTest
+{
+    private static final String DATA =
+        "{orders:[{id:1, items:[{sku:a, qty:2}, {sku:b}]}, {id:2, items:[{sku:c}]}]}" +
+        " order::{id:3, lines:[x, y], items:[gift::{sku:d}, {sku:e}]}" +
+        " [1, [2, 3], {sku:f}]" +
+        " null.struct" +
+        " {orders:null, '*':star}";
+
+    /** Collects the values it's called with, as Ion text. */
+    private static final class Collector implements PathExtractor.Callback
+    {
+        final List<String> values = new ArrayList<String>();
+
+        public void onMatch(IonReader reader)
+        {
+            StringBuilder out = new StringBuilder();
+            IonWriter writer = IonTextWriterBuilder.standard().build(out);
+            try {
+                writer.writeValue(reader);
+                writer.close();
+            }
+            catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            values.add(out.toString());
+        }
+    }
+
+    private static byte[] binary(String text) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IonWriter writer = IonBinaryWriterBuilder.standard().build(out);
+        writer.writeValues(IonReaderBuilder.standard().build(text));
+        writer.close();
+        return out.toByteArray();
+    }
+
+    private static List<String> extract(String path) throws IOException
+    {
+        Collector text = new Collector();
+        PathExtractor.builder().withSearchPath(path, text).build()
+            .match(IonReaderBuilder.standard().build(DATA));
+        Collector binary = new Collector();
+        PathExtractor.builder().withSearchPath(path, binary).build()
+            .match(IonReaderBuilder.standard().build(binary(DATA)));
+        assertEquals(text.values, binary.values);
+        return text.values;
+    }
+
+    @Test
+    public void testFieldsAndWildcards() throws IOException
+    {
+        assertEquals(Arrays.asList("a", "b", "c"), extract("(orders * items * sku)"));
+        assertEquals(Arrays.asList("d", "e"), extract("(* * sku)"));
+        assertEquals(Arrays.asList("star"), extract("(\"*\")"));
+        assertEquals("null", extract("(orders)").get(1));
+    }
+
+    @Test
+    public void testIndexes() throws IOException
+    {
+        assertEquals(Arrays.asList("{sku:b}"), extract("(orders * items 1)"));
+        assertEquals(Arrays.asList("{sku:c}"), extract("(orders 1 items 0)"));
+        assertEquals(Arrays.asList("y", "3"), extract("(1 1)"));
+        // structs are indexed by field position
+        assertEquals(Arrays.asList("2"), extract("(0 0 1 0 1)"));
+    }
+
+    @Test
+    public void testAnnotations() throws IOException
+    {
+        assertEquals(Arrays.asList("d", "e"), extract("order::(items * sku)"));
+        assertEquals(Arrays.asList("d"), extract("(items gift::* sku)"));
+        assertEquals(Arrays.asList(), extract("nothing::()"));
+    }
+
+    @Test
+    public void testTopLevelValues() throws IOException
+    {
+        List<String> values = extract("()");
+        assertEquals(5, values.size());
+        assertEquals("null.struct", values.get(3));
+    }
+
+    @Test
+    public void testSharedPass() throws IOException
+    {
+        final List<String> events = new ArrayList<String>();
+        PathExtractor extractor = PathExtractor.builder()
+            .withSearchPath("(orders * id)", new PathExtractor.Callback() {
+                public void onMatch(IonReader reader)
+                {
+                    events.add("id " + reader.intValue());
+                }
+            })
+            .withSearchPath("(orders * items * sku)", new PathExtractor.Callback() {
+                public void onMatch(IonReader reader)
+                {
+                    events.add("sku " + reader.stringValue());
+                }
+            })
+            .withSearchPath("(orders *)", new PathExtractor.Callback() {
+                public void onMatch(IonReader reader)
+                {
+                    assertEquals(IonType.STRUCT, reader.getType());
+                    events.add("order");
+                }
+            })
+            .build();
+        extractor.match(IonReaderBuilder.standard().build(binary(DATA)));
+        assertEquals(Arrays.asList("order", "id 1", "sku a", "sku b",
+                                   "order", "id 2", "sku c"),
+                     events);
+    }
+
+    @Test
+    public void testMatchCurrentValue() throws IOException
+    {
+        Collector collector = new Collector();
+        PathExtractor extractor = PathExtractor.builder()
+            .withSearchPath("(id)", collector)
+            .build();
+        IonReader reader = IonReaderBuilder.standard().build(DATA);
+        reader.next();
+        reader.next();
+        extractor.matchCurrentValue(reader);
+        assertEquals(Arrays.asList("3"), collector.values);
+        assertEquals(IonType.LIST, reader.next());
+    }
+
+    @Test
+    public void testCallbackMustNotChangeDepth() throws IOException
+    {
+        PathExtractor extractor = PathExtractor.builder()
+            .withSearchPath("(orders)", new PathExtractor.Callback() {
+                public void onMatch(IonReader reader)
+                {
+                    reader.stepIn();
+                }
+            })
+            .build();
+        try {
+            extractor.match(IonReaderBuilder.standard().build(DATA));
+            fail("expected an IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testInvalidPaths()
+    {
+        String[] paths = { "orders", "(a (b))", "(-1)", "(a) (b)", "null.sexp", "(a null)" };
+        for (String path : paths) {
+            try {
+                PathExtractor.builder().withSearchPath(path, new Collector());
+                fail("expected an IllegalArgumentException for " + path);
+            }
+            catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}